@@ -0,0 +1,34 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Triangle;
+import com.planets.engine.math.Vector4f;
+import com.planets.planets.universe.planets.Planet;
+
+import java.util.ArrayList;
+
+public class BenchmarkMeshes {
+
+    /**
+     * builds an unindexed mesh from an icosphere, the same way the planets are built
+     * @param depth - the amount of times to subdivide
+     * @return - the mesh
+     */
+    public static Mesh sphereMesh(int depth) {
+        ArrayList<Triangle> triangles = Planet.generateTriangles(2.0f, depth);
+        Vector4f color = new Vector4f(1);
+        Vertex[] vertices = new Vertex[triangles.size() * 3];
+        for (int i = 0; i < triangles.size(); i++) {
+            Triangle t = triangles.get(i);
+            vertices[3 * i]     = new Vertex(t.getV1(), color, t.getV1());
+            vertices[3 * i + 1] = new Vertex(t.getV2(), color, t.getV2());
+            vertices[3 * i + 2] = new Vertex(t.getV3(), color, t.getV3());
+        }
+        int[] indices = new int[vertices.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        return new Mesh(vertices, indices);
+    }
+}
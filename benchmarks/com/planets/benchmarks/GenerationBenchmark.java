@@ -0,0 +1,65 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.math.Triangle;
+import com.planets.planets.universe.planets.Planet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenerationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Subdivision {
+
+        // the amount of times the icosphere is subdivided
+        @Param({"3", "4", "5", "6", "7"})
+        public int depth;
+    }
+
+    @State(Scope.Thread)
+    public static class Packing {
+
+        // the amount of times the icosphere of the mesh is subdivided
+        @Param({"4", "6"})
+        public int depth;
+
+        // the mesh packed
+        Mesh mesh;
+
+        @Setup
+        public void setup() {
+            mesh = BenchmarkMeshes.sphereMesh(depth);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Triangle> generateTriangles(Subdivision state) {
+        return Planet.generateTriangles(2.0f, state.depth);
+    }
+
+    @Benchmark
+    public float[] packPositions(Packing state) {
+        return state.mesh.packPositions();
+    }
+
+    @Benchmark
+    public float[] packColors(Packing state) {
+        return state.mesh.packColors();
+    }
+
+    @Benchmark
+    public float[] packNormals(Packing state) {
+        return state.mesh.packNormals();
+    }
+}
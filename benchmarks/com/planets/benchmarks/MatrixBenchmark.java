@@ -0,0 +1,40 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MatrixBenchmark {
+
+    private final Vector3f position = new Vector3f(1, 2, 3);
+    private final Vector3f rotation = new Vector3f(10, 20, 30);
+    private final Vector3f scale = new Vector3f(1);
+    private Matrix4f a, b;
+
+    @Setup
+    public void setup() {
+        a = Matrix4f.transform(position, rotation, scale);
+        b = Matrix4f.view(position, rotation);
+    }
+
+    @Benchmark
+    public Matrix4f transform() {
+        return Matrix4f.transform(position, rotation, scale);
+    }
+
+    @Benchmark
+    public Matrix4f multiply() {
+        return Matrix4f.multiply(a, b);
+    }
+}
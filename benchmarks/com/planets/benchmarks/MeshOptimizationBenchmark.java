@@ -0,0 +1,63 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.mesh_optimization.MeshOptimizer;
+import com.planets.engine.graphics.mesh_optimization.OptimizedMesh;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+import com.planets.engine.graphics.mesh_optimization.TriangleStrips;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeshOptimizationBenchmark {
+
+    // the amount of times the planet's icosphere is subdivided
+    @Param({"4", "6"})
+    public int depth;
+
+    // the indexed planet
+    private Mesh mesh;
+
+    @Setup
+    public void setup() {
+        mesh = Planet.generateSurface(new PlanetSpec(1).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+    }
+
+    @Benchmark
+    public OptimizedMesh optimize() {
+        return MeshOptimizer.optimize(mesh);
+    }
+
+    // the index counts of the strips, reported beside the time stripify takes. they're set rather than added up, so
+    // each iteration reports the counts of one call, e.g. 245760 -> 84727 indices for a depth 6 planet
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class IndexCounts {
+        public long sourceIndices;
+        public long stripIndices;
+        public double reductionPercent;
+    }
+
+    @Benchmark
+    public TriangleStrips stripify(IndexCounts counts) {
+        TriangleStrips strips = Stripifier.stripify(mesh.getIndices(), mesh.getVertexCount());
+        counts.sourceIndices = strips.getSourceIndexCount();
+        counts.stripIndices = strips.getIndices().length;
+        counts.reductionPercent = 100 * strips.getReduction();
+        return strips;
+    }
+}
@@ -0,0 +1,94 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.math.noise.ImprovedNoise;
+import com.planets.engine.math.noise.Noise;
+import com.planets.engine.math.noise.SimplexNoise;
+import com.planets.engine.math.noise.TerrainNode;
+import com.planets.engine.math.noise.TerrainProgram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NoiseBenchmark {
+
+    // the amount of points each benchmark samples per operation
+    private static final int POINTS = 1024;
+
+    // the points, as floats and as doubles
+    private final float[] xs = new float[POINTS], ys = new float[POINTS], zs = new float[POINTS];
+    private final double[] dxs = new double[POINTS], dys = new double[POINTS], dzs = new double[POINTS];
+    private final double[] out = new double[POINTS];
+
+    // the noise functions
+    private SimplexNoise simplex;
+    private Noise perlin;
+    private TerrainProgram fbm;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = (float) random.nextGaussian() * 4;
+            ys[i] = (float) random.nextGaussian() * 4;
+            zs[i] = (float) random.nextGaussian() * 4;
+            dxs[i] = xs[i];
+            dys[i] = ys[i];
+            dzs[i] = zs[i];
+        }
+        simplex = new SimplexNoise(11f, 0.6f, 10);
+        perlin = new Noise(10);
+        fbm = TerrainNode.fbm(6, 1.3, 2, 0.5, 0).compile();
+    }
+
+    @Benchmark
+    public double improvedNoise() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += ImprovedNoise.noise(xs[i], ys[i], zs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double simplexNoise3D() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += simplex.getNoise3D(xs[i], ys[i], zs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double perlin() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += perlin.perlin(xs[i], ys[i], zs[i], 1.3);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double octavePerlin() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += perlin.octavePerlin(xs[i], ys[i], zs[i], 6, 0.5, 1.3, 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] terrainProgram() {
+        fbm.evaluate(dxs, dys, dzs, out, POINTS);
+        return out;
+    }
+}
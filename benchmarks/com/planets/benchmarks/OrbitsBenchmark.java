@@ -0,0 +1,56 @@
+package com.planets.benchmarks;
+
+import com.planets.planets.universe.orbits.BarnesHutGravity;
+import com.planets.planets.universe.orbits.DirectGravity;
+import com.planets.planets.universe.orbits.GravitySolver;
+import com.planets.planets.universe.orbits.OrbitalBodies;
+import com.planets.planets.universe.orbits.OrbitalSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * a step of a star system, with the exact and the approximate gravity
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrbitsBenchmark {
+
+    // the amount of bodies orbiting the star
+    @Param({"1024", "4096"})
+    public int bodies;
+
+    // sums the gravity
+    @Param({"direct", "barnesHut"})
+    public String solver;
+
+    private OrbitalSystem system;
+
+    @Setup
+    public void setup() {
+        GravitySolver gravity = solver.equals("direct") ? new DirectGravity(ForkJoinPool.commonPool())
+                : new BarnesHutGravity(BarnesHutGravity.DEFAULT_THETA, ForkJoinPool.commonPool());
+        system = new OrbitalSystem(1, 0.01, gravity);
+        int star = system.add(1000, 0, 0, 0, 0, 0, 0, 0);
+        Random random = new Random(0);
+        for (int i = 0; i < bodies; i++) {
+            system.addOrbit(star, 0.001, 5 + random.nextDouble() * 50, random.nextDouble() * 10, random.nextDouble() * 360, 0);
+        }
+    }
+
+    @Benchmark
+    public OrbitalBodies step() {
+        system.step(0.01);
+        return system.getBodies();
+    }
+}
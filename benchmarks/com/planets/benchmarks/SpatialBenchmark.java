@@ -0,0 +1,167 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.collision.AABB;
+import com.planets.engine.math.collision.DynamicAABBTree;
+import com.planets.engine.math.collision.Frustum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the queries of the bounding volume tree against scanning every box, and moving every box a little
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialBenchmark {
+
+    // the amount of rays and box queries per invocation
+    private static final int QUERIES = 256;
+
+    // the amount of boxes in the volume
+    @Param({"16384"})
+    public int boxes;
+
+    private AABB[] bounds;
+    private int[] proxies;
+    private DynamicAABBTree<AABB> tree;
+    private final Frustum frustum = new Frustum();
+    private final AABB query = new AABB();
+    private Random random;
+
+    // the x and y of each ray's origin, and the corner of each box query
+    private final float[] origins = new float[QUERIES * 2];
+
+    // what the visitors found, summed in fields so the visitors don't capture anything
+    private float nearest;
+    private int found;
+
+    @Setup
+    public void setup() {
+        random = new Random(0);
+        bounds = new AABB[boxes];
+        proxies = new int[boxes];
+        tree = new DynamicAABBTree<>(0.5f);
+        for (int i = 0; i < boxes; i++) {
+            float x = random.nextFloat() * 1000, y = random.nextFloat() * 1000, z = random.nextFloat() * 1000;
+            float size = 0.5f + random.nextFloat() * 3;
+            bounds[i] = new AABB(x - size, y - size, z - size, x + size, y + size, z + size);
+            proxies[i] = tree.insert(bounds[i], bounds[i]);
+        }
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = random.nextFloat() * 1000;
+        }
+        frustum.set(Matrix4f.view(new Vector3f(500, 500, 1500), new Vector3f(10, 20, 0)), Matrix4f.projection(70, 1.5f, 0.1f, 500));
+    }
+
+    /**
+     * rays into the volume that stop at the first box they enter
+     */
+    @Benchmark
+    public int raycast() {
+        int hits = 0;
+        for (int i = 0; i < origins.length; i += 2) {
+            float ox = origins[i], oy = origins[i + 1];
+            nearest = Float.POSITIVE_INFINITY;
+            tree.raycast(ox, oy, -10, 0.1f, 0.1f, 1, 2000, (proxy, box, max) -> {
+                float distance = box.intersectRay(ox, oy, -10, 0.1f, 0.1f, 1);
+                if (distance < max) {
+                    nearest = distance;
+                    return distance;
+                }
+                return max;
+            });
+            hits += nearest < Float.POSITIVE_INFINITY ? 1 : 0;
+        }
+        return hits;
+    }
+
+    /**
+     * the same rays against every box
+     */
+    @Benchmark
+    public int scanRaycast() {
+        int hits = 0;
+        for (int i = 0; i < origins.length; i += 2) {
+            float nearest = Float.POSITIVE_INFINITY;
+            for (AABB box : bounds) {
+                nearest = Math.min(nearest, box.intersectRay(origins[i], origins[i + 1], -10, 0.1f, 0.1f, 1));
+            }
+            hits += nearest <= 2000 ? 1 : 0;
+        }
+        return hits;
+    }
+
+    /**
+     * columns through the volume against every box
+     */
+    @Benchmark
+    public int scanOverlaps() {
+        int found = 0;
+        for (int i = 0; i < origins.length; i += 2) {
+            query.set(origins[i], origins[i + 1], 0, origins[i] + 20, origins[i + 1] + 20, 1000);
+            for (AABB box : bounds) {
+                found += box.overlaps(query) ? 1 : 0;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * the same columns through the tree
+     */
+    @Benchmark
+    public int query() {
+        found = 0;
+        for (int i = 0; i < origins.length; i += 2) {
+            query.set(origins[i], origins[i + 1], 0, origins[i] + 20, origins[i + 1] + 20, 1000);
+            tree.query(query, (proxy, box) -> {
+                found++;
+                return true;
+            });
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int frustum() {
+        found = 0;
+        tree.query(frustum, (proxy, box) -> {
+            found++;
+            return true;
+        });
+        return found;
+    }
+
+    @Benchmark
+    public int pairs() {
+        found = 0;
+        tree.pairs((a, b) -> found++);
+        return found;
+    }
+
+    /**
+     * every box moved a little along x, most of which stay in their fat bounds
+     */
+    @Benchmark
+    public int move() {
+        int moved = 0;
+        for (int i = 0; i < boxes; i++) {
+            AABB box = bounds[i];
+            float dx = random.nextFloat() - 0.5f;
+            box.set(box.minX + dx, box.minY, box.minZ, box.maxX + dx, box.maxY, box.maxZ);
+            moved += tree.move(proxies[i], box) ? 1 : 0;
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,74 @@
+package com.planets.benchmarks;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.buffer_arena.ArenaMesh;
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.gl.FrameStats;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the CPU side of uploading and drawing meshes, with the GL calls going to a recording backend instead of a driver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubmissionBenchmark {
+
+    // the amount of meshes drawn from the arena
+    private static final int MESHES = 256;
+
+    private RecordingBackend backend;
+    private Mesh sphere;
+    private MeshArena arena;
+    private ArenaMesh[] meshes;
+
+    @Setup
+    public void setup() {
+        backend = new RecordingBackend();
+        Graphics.setBackend(backend);
+        sphere = BenchmarkMeshes.sphereMesh(4);
+
+        arena = new MeshArena(1 << 20, 1 << 20);
+        meshes = new ArenaMesh[MESHES];
+        for (int i = 0; i < MESHES; i++) {
+            meshes[i] = arena.add(Planet.generateSurface(new PlanetSpec(i).withDepth(2), new GenerationTimings()).toIndexedMesh());
+        }
+        backend.endFrame();
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.destroy();
+    }
+
+    @Benchmark
+    public int createMesh() {
+        sphere.create();
+        sphere.destroy();
+        return sphere.getVAO();
+    }
+
+    @Benchmark
+    public FrameStats drawArena() {
+        arena.bind();
+        for (ArenaMesh mesh : meshes) {
+            arena.draw(mesh);
+        }
+        arena.unbind();
+        return backend.endFrame();
+    }
+}
@@ -0,0 +1,82 @@
+package com.planets.engine.graphics;
+
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+public class IndexBuffers {
+
+    // the most vertices 16 bit indices can address. 0xffff itself is left free for primitive restart
+    public static final int MAX_SHORT_VERTICES = 0xffff;
+
+    /**
+     * picks the narrowest index type that can address every vertex
+     * @param vertexCount - the amount of vertices the indices refer to
+     * @return - GL_UNSIGNED_SHORT if the vertices fit, GL_UNSIGNED_INT otherwise
+     */
+    public static int type(int vertexCount) {
+        return vertexCount <= MAX_SHORT_VERTICES ? GL11.GL_UNSIGNED_SHORT : GL11.GL_UNSIGNED_INT;
+    }
+
+    /**
+     * getter method
+     * @param type - GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     * @return - the amount of bytes per index
+     */
+    public static int bytes(int type) {
+        return type == GL11.GL_UNSIGNED_SHORT ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * creates an index buffer object
+     * @param indices - the indices, from their position to their limit, which isn't moved
+     * @param type - GL_UNSIGNED_SHORT to narrow the indices to 16 bits while uploading, or GL_UNSIGNED_INT
+     * @return - the buffer ID
+     */
+    public static int create(IntBuffer indices, int type) {
+        GLBackend gl = Graphics.gl();
+        int ibo = gl.genBuffer();
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+
+        if (type == GL11.GL_UNSIGNED_SHORT) {
+            ShortBuffer shorts = allocate(indices.remaining() * Short.BYTES).asShortBuffer();
+            for (int i = indices.position(); i < indices.limit(); i++) {
+                shorts.put((short) indices.get(i));
+            }
+            shorts.flip();
+            gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, shorts, GL15.GL_STATIC_DRAW);
+        } else if (indices.isDirect()) {
+            gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices.duplicate(), GL15.GL_STATIC_DRAW);
+        } else {
+            IntBuffer ints = allocate(indices.remaining() * Integer.BYTES).asIntBuffer();
+            ints.put(indices.duplicate()).flip();
+            gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, ints, GL15.GL_STATIC_DRAW);
+        }
+
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        return ibo;
+    }
+
+    /**
+     * creates an index buffer object
+     * @param indices - the indices
+     * @param type - GL_UNSIGNED_SHORT to narrow the indices to 16 bits while uploading, or GL_UNSIGNED_INT
+     * @return - the buffer ID
+     */
+    public static int create(int[] indices, int type) {
+        return create(IntBuffer.wrap(indices), type);
+    }
+
+    /**
+     * helper method to allocate memory OpenGL can read, which is released by the garbage collector
+     */
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -1,13 +1,21 @@
 package com.planets.engine.graphics;
 
-import org.lwjgl.opengl.*;
-import org.lwjgl.system.MemoryUtil;
-
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.mesh_optimization.MeshSplitter;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL43;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 
-public class Mesh {
+public class Mesh implements MeshSource {
 
     // the vertices and indices of this mesh
     private Vertex[] vertices;
@@ -28,6 +36,22 @@ public class Mesh {
     // normal vector buffer object
     private int nbo;
 
+    // the vertex data already packed for OpenGL, if this mesh was loaded that way (e.g. memory mapped from the mesh cache)
+    private FloatBuffer positionData;
+    private FloatBuffer colorData;
+    private FloatBuffer normalData;
+    private IntBuffer indexData;
+
+    // how the indices are assembled into triangles, GL_TRIANGLES or GL_TRIANGLE_STRIP
+    private int mode = GL11.GL_TRIANGLES;
+
+    // the ranges of the indices that count from their own base vertex, null if they all count from the first vertex
+    private Submesh[] submeshes;
+
+    // the ranges drawn from the index buffer and the type of its indices, known once the mesh is created
+    private Submesh[] drawRanges;
+    private int indexType;
+
     /**
      * default constructor for specified vertices and indices, and specified material
      * @param vertices - the vertices of this mesh
@@ -38,6 +62,33 @@ public class Mesh {
         this.indices = indices;
     }
 
+    /**
+     * constructor for a mesh drawn as something other than a triangle list
+     * @param vertices - the vertices of this mesh
+     * @param indices - the indices of this mesh
+     * @param mode - GL_TRIANGLES, or GL_TRIANGLE_STRIP for strips separated by an index with all bits set
+     */
+    public Mesh(Vertex[] vertices, int[] indices, int mode) {
+        if (mode != GL11.GL_TRIANGLES && mode != GL11.GL_TRIANGLE_STRIP) {
+            throw new IllegalArgumentException("Unsupported primitive mode " + mode + ".");
+        }
+        this.vertices = vertices;
+        this.indices = indices;
+        this.mode = mode;
+    }
+
+    /**
+     * constructor for a mesh split into submeshes
+     * @param vertices - the vertices of this mesh, the vertices of each submesh stored together
+     * @param indices - the indices of this mesh, each counting from the base vertex of its submesh
+     * @param submeshes - the submeshes, covering all the indices
+     */
+    public Mesh(Vertex[] vertices, int[] indices, Submesh[] submeshes) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.submeshes = submeshes;
+    }
+
     /**
      * constructor for specified list of vertices
      * @param vertices - the list of vertices
@@ -54,13 +105,78 @@ public class Mesh {
         }
     }
 
+    /**
+     * constructor for vertex data that is already packed. the buffers are uploaded as they are, and the
+     * vertices are only unpacked if something asks for them
+     * @param positions - 3 floats per vertex
+     * @param colors - 4 floats per vertex
+     * @param normals - 3 floats per vertex
+     * @param indices - the indices of this mesh
+     */
+    public Mesh(FloatBuffer positions, FloatBuffer colors, FloatBuffer normals, IntBuffer indices) {
+        this(positions, colors, normals, indices, GL11.GL_TRIANGLES);
+    }
+
+    /**
+     * constructor for vertex data that is already packed, drawn as something other than a triangle list
+     * @param positions - 3 floats per vertex
+     * @param colors - 4 floats per vertex
+     * @param normals - 3 floats per vertex
+     * @param indices - the indices of this mesh
+     * @param mode - GL_TRIANGLES, or GL_TRIANGLE_STRIP for strips separated by an index with all bits set
+     */
+    public Mesh(FloatBuffer positions, FloatBuffer colors, FloatBuffer normals, IntBuffer indices, int mode) {
+        if (mode != GL11.GL_TRIANGLES && mode != GL11.GL_TRIANGLE_STRIP) {
+            throw new IllegalArgumentException("Unsupported primitive mode " + mode + ".");
+        }
+        if (positions.remaining() % 3 != 0
+                || colors.remaining() / 4 != positions.remaining() / 3
+                || normals.remaining() != positions.remaining()) {
+            throw new IllegalArgumentException("Packed vertex attributes don't describe the same amount of vertices.");
+        }
+        this.positionData = positions;
+        this.colorData = colors;
+        this.normalData = normals;
+        this.indexData = indices;
+        this.mode = mode;
+    }
+
+    /**
+     * constructor for vertex data that is already packed, split into submeshes
+     * @param positions - 3 floats per vertex
+     * @param colors - 4 floats per vertex
+     * @param normals - 3 floats per vertex
+     * @param indices - the indices of this mesh, each counting from the base vertex of its submesh
+     * @param submeshes - the submeshes, covering all the indices
+     */
+    public Mesh(FloatBuffer positions, FloatBuffer colors, FloatBuffer normals, int[] indices, Submesh[] submeshes) {
+        this(positions, colors, normals, (IntBuffer) null, GL11.GL_TRIANGLES);
+        this.indices = indices;
+        this.submeshes = submeshes;
+    }
+
     /**
      * creates the mesh
      */
     public void create() {
+        // meshes too large for 16 bit indices are uploaded split into submeshes that aren't. strips aren't split,
+        // they just keep 32 bit indices
+        if (submeshes == null && mode == GL11.GL_TRIANGLES && getVertexCount() > IndexBuffers.MAX_SHORT_VERTICES) {
+            Mesh split = MeshSplitter.split(this);
+            split.create();
+            vao = split.vao;
+            pbo = split.pbo;
+            cbo = split.cbo;
+            nbo = split.nbo;
+            ibo = split.ibo;
+            drawRanges = split.drawRanges;
+            indexType = split.indexType;
+            return;
+        }
+
         // generate and bind the vertex array
-        vao = GL46.glGenVertexArrays();
-        GL46.glBindVertexArray(vao);
+        vao = Graphics.gl().genVertexArray();
+        Graphics.gl().bindVertexArray(vao);
 
         // create the buffers
         makePositionBuffer();
@@ -73,31 +189,64 @@ public class Mesh {
      * helper method to create the position buffer object
      */
     private void makePositionBuffer() {
-        // preallocate memory
-        FloatBuffer positionBuffer = MemoryUtil.memAllocFloat(vertices.length * 3);
+        if (positionData != null) {
+            pbo = storeData(positionData.duplicate(), 0, 3);
+            return;
+        }
 
-        // create a new temp array to store position data
-        float[] positionData = new float[vertices.length * 3];
+        // store the position data in the position buffer object
+        pbo = storeData(direct(packPositions()), 0, 3);
+    }
+
+    /**
+     * helper method to create the color buffer object
+     */
+    public void makeColorBuffer() {
+        if (colorData != null) {
+            cbo = storeData(colorData.duplicate(), 1, 4);
+            return;
+        }
 
-        // add all the position data to the temp array
+        cbo = storeData(direct(packColors()), 1, 4);
+    }
+
+    /**
+     * helper method to create a buffer object for the vector normal to the surface at every vertex
+     */
+    public void makeNormalBuffer() {
+        if (normalData != null) {
+            nbo = storeData(normalData.duplicate(), 2, 3);
+            return;
+        }
+
+        nbo = storeData(direct(packNormals()), 2, 3);
+    }
+
+    /**
+     * packs the positions of the vertices into a flat array
+     * @return - 3 floats per vertex
+     */
+    public float[] packPositions() {
+        if (positionData != null) {
+            return copy(positionData);
+        }
+        float[] positionData = new float[vertices.length * 3];
         for (int i = 0; i < vertices.length; i++) {
             positionData[i * 3    ] = vertices[i].getPosition().getX();
             positionData[i * 3 + 1] = vertices[i].getPosition().getY();
             positionData[i * 3 + 2] = vertices[i].getPosition().getZ();
         }
-
-        // flip the data to make it handleable by OpenGL
-        positionBuffer.put(positionData).flip();
-
-        // store the position data in the position buffer object
-        pbo = storeData(positionBuffer, 0, 3);
+        return positionData;
     }
 
     /**
-     * helper method to create the color buffer object
+     * packs the colors of the vertices into a flat array
+     * @return - 4 floats per vertex
      */
-    public void makeColorBuffer() {
-        FloatBuffer colorBuffer = MemoryUtil.memAllocFloat(vertices.length * 4);
+    public float[] packColors() {
+        if (colorData != null) {
+            return copy(colorData);
+        }
         float[] colorData = new float[vertices.length * 4];
         for (int i = 0; i < vertices.length; i++) {
             colorData[i * 4] = vertices[i].getColor().getX();
@@ -105,48 +254,80 @@ public class Mesh {
             colorData[i * 4 + 2] = vertices[i].getColor().getZ();
             colorData[i * 4 + 3] = vertices[i].getColor().getW();
         }
-        colorBuffer.put(colorData).flip();
-
-        cbo = storeData(colorBuffer, 1, 4);
+        return colorData;
     }
 
     /**
-     * helper method to create a buffer object for the vector normal to the surface at every vertex
+     * packs the normal vectors of the vertices into a flat array
+     * @return - 3 floats per vertex
      */
-    public void makeNormalBuffer() {
-        FloatBuffer normalBuffer = MemoryUtil.memAllocFloat(vertices.length * 3);
+    public float[] packNormals() {
+        if (normalData != null) {
+            return copy(normalData);
+        }
         float[] normalData = new float[vertices.length * 3];
         for (int i = 0; i < vertices.length; i++) {
             normalData[i * 3] = vertices[i].getNormal().getX();
             normalData[i * 3 + 1] = vertices[i].getNormal().getY();
             normalData[i * 3 + 2] = vertices[i].getNormal().getZ();
         }
-        normalBuffer.put(normalData).flip();
+        return normalData;
+    }
 
-        nbo = storeData(normalBuffer, 2, 3);
+    /**
+     * helper method to copy data into a buffer OpenGL can read. it belongs to the heap, so it's released with
+     * the mesh instead of needing to be freed
+     */
+    private static FloatBuffer direct(float[] data) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(data.length * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(data).flip();
+        return buffer;
+    }
+
+    /**
+     * helper method to copy packed data into an array without moving the buffer's position
+     */
+    private static float[] copy(FloatBuffer buffer) {
+        float[] data = new float[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return data;
     }
 
     /**
      * helper method to create the index buffer object
      */
     private void makeIndexBuffer() {
-        // preallocate memory
-        IntBuffer indicesBuffer = MemoryUtil.memAllocInt(indices.length);
-
-        // put the indices into the index buffer flipped
-        indicesBuffer.put(indices).flip();
-
-        // generate a buffer object
-        ibo = GL15.glGenBuffers();
-
-        // bind the buffer object
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+        if (submeshes != null) {
+            // submesh indices count from their own base vertex, so the highest index decides the width
+            int highest = 0;
+            for (int i : indices) {
+                highest = Math.max(highest, i);
+            }
+            indexType = IndexBuffers.type(highest + 1);
+            drawRanges = submeshes;
+        } else {
+            indexType = IndexBuffers.type(getVertexCount());
+            drawRanges = getSubmeshes();
+        }
 
-        // add the index data
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indicesBuffer, GL15.GL_STATIC_DRAW);
+        ibo = IndexBuffers.create(indexData != null ? indexData : IntBuffer.wrap(indices), indexType);
+    }
 
-        // unbind the buffer object
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+    /**
+     * draws the mesh, with its vertex array and index buffer already bound
+     */
+    public void draw() {
+        GLBackend gl = Graphics.gl();
+        if (mode == GL11.GL_TRIANGLE_STRIP) {
+            gl.enable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+        }
+        for (Submesh range : drawRanges) {
+            gl.drawElementsBaseVertex(mode, range.getIndexCount(), indexType,
+                    (long) range.getFirstIndex() * IndexBuffers.bytes(indexType), range.getBaseVertex());
+        }
+        if (mode == GL11.GL_TRIANGLE_STRIP) {
+            gl.disable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+        }
     }
 
     /**
@@ -157,20 +338,22 @@ public class Mesh {
      * @return - the buffer ID
      */
     private int storeData(FloatBuffer buffer, int index, int size) {
+        GLBackend gl = Graphics.gl();
+
         // generate a buffer ID
-        int bufferID = GL15.glGenBuffers();
+        int bufferID = gl.genBuffer();
 
         // bind the buffer
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
 
         // add the data from the buffer to the gl buffer object
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        gl.bufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
 
         // set the GL attribute
-        GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, 0, 0);
+        gl.vertexAttribPointer(index, size, GL11.GL_FLOAT, false, 0, 0);
 
         // unbind the buffer
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
 
         return bufferID;
     }
@@ -180,6 +363,17 @@ public class Mesh {
      * @return - the vertices of this mesh
      */
     public Vertex[] getVertices() {
+        if (vertices == null) {
+            // unpack the vertices of a mesh that was loaded packed
+            float[] p = packPositions(), c = packColors(), n = packNormals();
+            vertices = new Vertex[p.length / 3];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = new Vertex(
+                        new Vector3f(p[i * 3], p[i * 3 + 1], p[i * 3 + 2]),
+                        new Vector4f(c[i * 4], c[i * 4 + 1], c[i * 4 + 2], c[i * 4 + 3]),
+                        new Vector3f(n[i * 3], n[i * 3 + 1], n[i * 3 + 2]));
+            }
+        }
         return this.vertices;
     }
 
@@ -188,9 +382,122 @@ public class Mesh {
      * @return - the indices of this mesh
      */
     public int[] getIndices() {
+        if (indices == null) {
+            indices = new int[indexData.remaining()];
+            indexData.duplicate().get(indices);
+        }
         return this.indices;
     }
 
+    /**
+     * copies a range of vertices without unpacking the whole mesh
+     * @param first - the first vertex to copy
+     * @param count - the amount of vertices to copy
+     * @param positions - receives 3 floats per vertex, from index 0
+     * @param colors - receives 4 floats per vertex, from index 0
+     * @param normals - receives 3 floats per vertex, from index 0
+     */
+    @Override
+    public void readVertices(int first, int count, float[] positions, float[] colors, float[] normals) {
+        if (vertices == null) {
+            read(positionData, first * 3, count * 3, positions);
+            read(colorData, first * 4, count * 4, colors);
+            read(normalData, first * 3, count * 3, normals);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            Vertex v = vertices[first + i];
+            positions[i * 3] = v.getPosition().getX();
+            positions[i * 3 + 1] = v.getPosition().getY();
+            positions[i * 3 + 2] = v.getPosition().getZ();
+            colors[i * 4] = v.getColor().getX();
+            colors[i * 4 + 1] = v.getColor().getY();
+            colors[i * 4 + 2] = v.getColor().getZ();
+            colors[i * 4 + 3] = v.getColor().getW();
+            normals[i * 3] = v.getNormal().getX();
+            normals[i * 3 + 1] = v.getNormal().getY();
+            normals[i * 3 + 2] = v.getNormal().getZ();
+        }
+    }
+
+    /**
+     * copies a range of indices without unpacking the whole mesh
+     * @param first - the first index to copy
+     * @param count - the amount of indices to copy
+     * @param indices - receives the indices, from index 0
+     */
+    @Override
+    public void readIndices(int first, int count, int[] indices) {
+        if (this.indices != null) {
+            System.arraycopy(this.indices, first, indices, 0, count);
+            return;
+        }
+        IntBuffer view = indexData.duplicate();
+        view.position(view.position() + first);
+        view.get(indices, 0, count);
+    }
+
+    /**
+     * helper method to copy part of packed data into an array
+     */
+    private static void read(FloatBuffer buffer, int offset, int length, float[] out) {
+        FloatBuffer view = buffer.duplicate();
+        view.position(view.position() + offset);
+        view.get(out, 0, length);
+    }
+
+    /**
+     * getter method
+     * @return - the amount of vertices in this mesh, without unpacking them
+     */
+    @Override
+    public int getVertexCount() {
+        return vertices != null ? vertices.length : positionData.remaining() / 3;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of indices in this mesh, without unpacking them
+     */
+    @Override
+    public int getIndexCount() {
+        return indices != null ? indices.length : indexData.remaining();
+    }
+
+    /**
+     * getter method
+     * @return - how the indices are assembled into triangles, GL_TRIANGLES or GL_TRIANGLE_STRIP
+     */
+    @Override
+    public int getMode() {
+        return this.mode;
+    }
+
+    /**
+     * getter method
+     * @return - the type of the indices in the index buffer, GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     */
+    public int getIndexType() {
+        return this.indexType;
+    }
+
+    /**
+     * getter method
+     * @return - the ranges of the indices and the vertices they count from, one range over everything unless the
+     *           mesh was built split
+     */
+    public Submesh[] getSubmeshes() {
+        return submeshes != null ? this.submeshes : new Submesh[] {new Submesh(0, getIndexCount(), 0)};
+    }
+
+    /**
+     * getter method
+     * @return - the ranges drawn from the index buffer, more than one if the mesh was split for 16 bit indices
+     */
+    public Submesh[] getDrawRanges() {
+        return this.drawRanges;
+    }
+
     /**
      * getter method
      * @return - the normal vector buffer object
@@ -235,13 +542,16 @@ public class Mesh {
      * release the mesh
      */
     public void destroy() {
+        GLBackend gl = Graphics.gl();
+
         // delete the buffers
-        GL15.glDeleteBuffers(pbo);
-        GL15.glDeleteBuffers(cbo);
-        GL15.glDeleteBuffers(ibo);
+        gl.deleteBuffer(pbo);
+        gl.deleteBuffer(cbo);
+        gl.deleteBuffer(nbo);
+        gl.deleteBuffer(ibo);
 
         // delete the vertex array
-        GL30.glDeleteVertexArrays(vao);
+        gl.deleteVertexArray(vao);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.planets.engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+
+public interface MeshSource {
+
+    /**
+     * getter method
+     * @return - the amount of vertices
+     */
+    int getVertexCount();
+
+    /**
+     * getter method
+     * @return - the amount of indices, 3 per triangle for a list, or the strips and the restart indices between them
+     */
+    int getIndexCount();
+
+    /**
+     * getter method
+     * @return - how the indices are assembled into triangles, GL_TRIANGLES or GL_TRIANGLE_STRIP for strips
+     *           separated by an index with all bits set
+     */
+    default int getMode() {
+        return GL11.GL_TRIANGLES;
+    }
+
+    /**
+     * copies a range of vertices, so a mesh can be streamed somewhere a chunk at a time
+     * @param first - the first vertex to copy
+     * @param count - the amount of vertices to copy
+     * @param positions - receives 3 floats per vertex, from index 0
+     * @param colors - receives 4 floats per vertex, from index 0
+     * @param normals - receives 3 floats per vertex, from index 0
+     */
+    void readVertices(int first, int count, float[] positions, float[] colors, float[] normals);
+
+    /**
+     * copies a range of indices
+     * @param first - the first index to copy
+     * @param count - the amount of indices to copy
+     * @param indices - receives the indices, from index 0
+     */
+    void readIndices(int first, int count, int[] indices);
+}
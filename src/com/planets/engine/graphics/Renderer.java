@@ -1,12 +1,16 @@
 package com.planets.engine.graphics;
 
+import com.planets.engine.graphics.buffer_arena.ArenaMesh;
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
 import com.planets.engine.io.window.Window;
 import com.planets.engine.math.Matrix4f;
 import com.planets.engine.math.Vector3f;
 import com.planets.engine.objects.RenderObject;
-import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL30;
+
+import java.util.List;
 
 public class Renderer {
     // the shader program
@@ -15,6 +19,9 @@ public class Renderer {
     // the window to render to
     private Window window;
 
+    // the backend the draws go through
+    private final GLBackend gl;
+
     // the light color
     private Vector3f lightColor = new Vector3f(1.0f, 1.0f, 1.0f);
 
@@ -26,6 +33,7 @@ public class Renderer {
     public Renderer(Window window, Shader shader) {
         this.shader = shader;
         this.window = window;
+        this.gl = Graphics.gl();
     }
 
     /**
@@ -34,11 +42,11 @@ public class Renderer {
      * @param camera - the camera perspective
      */
     public void renderMesh(RenderObject object, Camera camera, Vector3f lightPosition) {
-        GL30.glBindVertexArray(object.getMesh().getVAO());
-        GL30.glEnableVertexAttribArray(0);
-        GL30.glEnableVertexAttribArray(1);
-        GL30.glEnableVertexAttribArray(2);
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, object.getMesh().getIBO());
+        gl.bindVertexArray(object.getMesh().getVAO());
+        gl.enableVertexAttribArray(0);
+        gl.enableVertexAttribArray(1);
+        gl.enableVertexAttribArray(2);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, object.getMesh().getIBO());
         shader.bind();
         shader.setUniform("model", Matrix4f.transform(object.getPosition(), object.getRotation(), object.getScale()));
         shader.setUniform("view", Matrix4f.view(camera.getPosition(), camera.getRotation()));
@@ -47,13 +55,42 @@ public class Renderer {
         shader.setUniform("lightLevel", 0.1f);
         shader.setUniform("viewPos", camera.getPosition());
         shader.setUniform("lightColor", lightColor);
-        GL11.glDrawElements(GL11.GL_TRIANGLES, object.getMesh().getIndices().length, GL11.GL_UNSIGNED_INT, 0);
+        object.getMesh().draw();
+        shader.unbind();
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl.disableVertexAttribArray(0);
+        gl.disableVertexAttribArray(1);
+        gl.disableVertexAttribArray(2);
+        gl.bindVertexArray(0);
+    }
+
+    /**
+     * renders objects whose meshes are stored in an arena. the arena and the uniforms shared by every object are
+     * bound once, so each object only costs its model matrix and its draw call
+     * @param arena - the arena holding the meshes of the objects
+     * @param objects - the objects to be rendered
+     * @param camera - the camera perspective
+     * @param lightPosition - the position of the light source
+     */
+    public void renderMeshes(MeshArena arena, List<? extends RenderObject> objects, Camera camera, Vector3f lightPosition) {
+        arena.bind();
+        shader.bind();
+        shader.setUniform("view", Matrix4f.view(camera.getPosition(), camera.getRotation()));
+        shader.setUniform("projection", window.getProjectionMatrix());
+        shader.setUniform("lightPos", lightPosition);
+        shader.setUniform("lightLevel", 0.1f);
+        shader.setUniform("viewPos", camera.getPosition());
+        shader.setUniform("lightColor", lightColor);
+        for (RenderObject object : objects) {
+            ArenaMesh mesh = arena.get(object.getMesh());
+            if (mesh == null) {
+                throw new IllegalStateException("The mesh of object " + object.getID() + " isn't in the arena.");
+            }
+            shader.setUniform("model", Matrix4f.transform(object.getPosition(), object.getRotation(), object.getScale()));
+            arena.draw(mesh);
+        }
         shader.unbind();
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
-        GL30.glDisableVertexAttribArray(0);
-        GL30.glDisableVertexAttribArray(1);
-        GL30.glDisableVertexAttribArray(2);
-        GL30.glBindVertexArray(0);
+        arena.unbind();
     }
 
     /**
@@ -5,11 +5,12 @@ import com.planets.engine.math.Matrix4f;
 import com.planets.engine.math.Vector2f;
 import com.planets.engine.math.Vector3f;
 import com.planets.engine.math.Vector4f;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
-import org.lwjgl.system.MemoryUtil;
 
-import java.nio.FloatBuffer;
+import java.util.HashMap;
 
 public class Shader {
 
@@ -22,6 +23,12 @@ public class Shader {
     // pointers to shader program
     private int vertexID, fragmentID, programID;
 
+    // the backend the program was created with
+    private GLBackend gl;
+
+    // the locations of the uniforms looked up so far, so each name is only asked for once
+    private final HashMap<String, Integer> uniformLocations = new HashMap<>();
+
     /**
      * default constructor for the shader from specified path to vertex and fragment shaders
      * @param pathToVertexShader - the path to the vertex shader
@@ -36,15 +43,16 @@ public class Shader {
      * initializes the shader
      */
     public void create() {
-        programID = GL20.glCreateProgram();
+        gl = Graphics.gl();
+        programID = gl.createProgram();
 
         // create the shaders
         createVertexShader();
         createFragmentShader();
 
         // attach shaders to program
-        GL20.glAttachShader(programID, vertexID);
-        GL20.glAttachShader(programID, fragmentID);
+        gl.attachShader(programID, vertexID);
+        gl.attachShader(programID, fragmentID);
 
         // link the program
         linkProgram(programID);
@@ -53,18 +61,18 @@ public class Shader {
 
     private void createFragmentShader() {
         // create an id
-        fragmentID = GL20.glCreateShader(GL20.GL_FRAGMENT_SHADER);
+        fragmentID = gl.createShader(GL20.GL_FRAGMENT_SHADER);
 
         // point to the source
-        GL20.glShaderSource(fragmentID, fragmentFile);
+        gl.shaderSource(fragmentID, fragmentFile);
 
         // compile shader
-        GL20.glCompileShader(fragmentID);
+        gl.compileShader(fragmentID);
 
         // check to see if the compilation was successful
-        if (GL20.glGetShaderi(fragmentID, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+        if (gl.getShaderi(fragmentID, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
             System.err.println("Error: could not compile fragment shader.");
-            System.err.println("Fragment Shader: " + GL20.glGetShaderInfoLog(fragmentID));
+            System.err.println("Fragment Shader: " + gl.getShaderInfoLog(fragmentID));
             throw new RuntimeException();
         }
     }
@@ -74,18 +82,18 @@ public class Shader {
      */
     private void createVertexShader() {
         // create an id
-        vertexID = GL20.glCreateShader(GL20.GL_VERTEX_SHADER);
+        vertexID = gl.createShader(GL20.GL_VERTEX_SHADER);
 
         // point to the source
-        GL20.glShaderSource(vertexID, vertexFile);
+        gl.shaderSource(vertexID, vertexFile);
 
         // compile shader
-        GL20.glCompileShader(vertexID);
+        gl.compileShader(vertexID);
 
         // check to see if compilation was successful
-        if (GL20.glGetShaderi(vertexID, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+        if (gl.getShaderi(vertexID, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
             System.err.println("Error: could not compile vertex shader.");
-            System.err.println("Vertex Shader: " + GL20.glGetShaderInfoLog(vertexID));
+            System.err.println("Vertex Shader: " + gl.getShaderInfoLog(vertexID));
             throw new RuntimeException();
         }
     }
@@ -96,12 +104,12 @@ public class Shader {
      */
     private void linkProgram(int programID) {
         // attempt to link the program
-        GL20.glLinkProgram(programID);
+        gl.linkProgram(programID);
 
         // error catching
-        if (GL20.glGetProgrami(programID, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+        if (gl.getProgrami(programID, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
             System.err.println("Error: program could not be linked.");
-            System.err.println("Program: " + GL20.glGetProgramInfoLog(programID));
+            System.err.println("Program: " + gl.getProgramInfoLog(programID));
             throw new RuntimeException();
         }
     }
@@ -112,12 +120,12 @@ public class Shader {
      */
     private void validateProgram(int programID) {
         // attempt to validate the program
-        GL20.glValidateProgram(programID);
+        gl.validateProgram(programID);
 
         // error catching
-        if (GL20.glGetProgrami(programID, GL20.GL_VALIDATE_STATUS) == GL11.GL_FALSE) {
+        if (gl.getProgrami(programID, GL20.GL_VALIDATE_STATUS) == GL11.GL_FALSE) {
             System.err.println("Error: program could not be validated.");
-            System.err.println("Program: " + GL20.glGetProgramInfoLog(programID));
+            System.err.println("Program: " + gl.getProgramInfoLog(programID));
             throw new RuntimeException();
         }
     }
@@ -128,7 +136,12 @@ public class Shader {
      * @return - the location of the uniform
      */
     public int getUniformLocation(String uniformName) {
-        return GL20.glGetUniformLocation(programID, uniformName);
+        Integer location = uniformLocations.get(uniformName);
+        if (location == null) {
+            location = gl.getUniformLocation(programID, uniformName);
+            uniformLocations.put(uniformName, location);
+        }
+        return location;
     }
 
     /**
@@ -137,7 +150,7 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, float value) {
-        GL20.glUniform1f(getUniformLocation(name), value);
+        gl.uniform1f(getUniformLocation(name), value);
     }
 
     /**
@@ -146,7 +159,7 @@ public class Shader {
      * @param value - the value
      */
     public void setUniform(String name, int value) {
-        GL20.glUniform1i(getUniformLocation(name), value);
+        gl.uniform1i(getUniformLocation(name), value);
     }
 
     /**
@@ -155,7 +168,7 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, boolean value) {
-        GL20.glUniform1f(getUniformLocation(name), value ? 1.0f : 0.0f);
+        gl.uniform1f(getUniformLocation(name), value ? 1.0f : 0.0f);
     }
 
     /**
@@ -164,7 +177,7 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, Vector2f value) {
-        GL20.glUniform2f(getUniformLocation(name), value.getX(), value.getY());
+        gl.uniform2f(getUniformLocation(name), value.getX(), value.getY());
     }
 
     /**
@@ -173,7 +186,7 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, Vector3f value) {
-        GL20.glUniform3f(getUniformLocation(name), value.getX(), value.getY(), value.getZ());
+        gl.uniform3f(getUniformLocation(name), value.getX(), value.getY(), value.getZ());
     }
 
     /**
@@ -182,7 +195,7 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, Vector4f value) {
-        GL20.glUniform4f(getUniformLocation(name), value.getX(), value.getY(), value.getZ(), value.getW());
+        gl.uniform4f(getUniformLocation(name), value.getX(), value.getY(), value.getZ(), value.getW());
     }
 
     /**
@@ -191,28 +204,22 @@ public class Shader {
      * @param value - the value of the uniform
      */
     public void setUniform(String name, Matrix4f value) {
-        // preallocate memory for the float values
-        FloatBuffer matrix = MemoryUtil.memAllocFloat(Matrix4f.SIZE * Matrix4f.SIZE);
-
-        // put the values flipped of the matrix into the float buffer
-        matrix.put(value.getAll()).flip();
-
         // transpose is true because we create it in row major order instead of column major order
-        GL20.glUniformMatrix4fv(getUniformLocation(name), true, matrix);
+        gl.uniformMatrix4fv(getUniformLocation(name), true, value.getAll());
     }
 
     /**
      * binds the gl program to the application
      */
     public void bind() {
-        GL20.glUseProgram(programID);
+        gl.useProgram(programID);
     }
 
     /**
      * unbinds the gl program
      */
     public void unbind() {
-        GL20.glUseProgram(0);
+        gl.useProgram(0);
     }
 
     /**
@@ -220,11 +227,12 @@ public class Shader {
      */
     public void destroy() {
         // delete the shaders because we now have a program that does the shader stuff
-        GL20.glDeleteShader(vertexID);
-        GL20.glDeleteShader(fragmentID);
+        gl.deleteShader(vertexID);
+        gl.deleteShader(fragmentID);
 
         // delete the shader program
-        GL20.glDeleteShader(programID);
+        gl.deleteProgram(programID);
+        uniformLocations.clear();
     }
 
     /**
@@ -0,0 +1,47 @@
+package com.planets.engine.graphics;
+
+public class Submesh {
+
+    // the range of indices drawn
+    private final int firstIndex;
+    private final int indexCount;
+
+    // the vertex the indices of this range count from
+    private final int baseVertex;
+
+    /**
+     * default constructor
+     * @param firstIndex - the first index drawn
+     * @param indexCount - the amount of indices drawn
+     * @param baseVertex - the vertex the indices of this range count from
+     */
+    public Submesh(int firstIndex, int indexCount, int baseVertex) {
+        this.firstIndex = firstIndex;
+        this.indexCount = indexCount;
+        this.baseVertex = baseVertex;
+    }
+
+    /**
+     * getter method
+     * @return - the first index drawn
+     */
+    public int getFirstIndex() {
+        return this.firstIndex;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of indices drawn
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the vertex the indices of this range count from
+     */
+    public int getBaseVertex() {
+        return this.baseVertex;
+    }
+}
@@ -0,0 +1,62 @@
+package com.planets.engine.graphics.buffer_arena;
+
+import com.planets.engine.graphics.Submesh;
+
+public class ArenaMesh {
+
+    // how the indices are assembled into triangles
+    private final int mode;
+
+    // the ranges of the arena the vertices and indices are stored in
+    private final ArenaRange vertices;
+    private final ArenaRange indices;
+
+    // the ranges drawn, relative to the start of the vertex and index ranges
+    private final Submesh[] submeshes;
+
+    /**
+     * default constructor
+     * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @param vertices - the range the vertices are stored in
+     * @param indices - the range the indices are stored in
+     * @param submeshes - the ranges drawn, relative to the start of the vertex and index ranges
+     */
+    public ArenaMesh(int mode, ArenaRange vertices, ArenaRange indices, Submesh[] submeshes) {
+        this.mode = mode;
+        this.vertices = vertices;
+        this.indices = indices;
+        this.submeshes = submeshes;
+    }
+
+    /**
+     * getter method
+     * @return - how the indices are assembled into triangles, GL_TRIANGLES or GL_TRIANGLE_STRIP
+     */
+    public int getMode() {
+        return this.mode;
+    }
+
+    /**
+     * getter method
+     * @return - the range of the arena the vertices are stored in
+     */
+    public ArenaRange getVertices() {
+        return this.vertices;
+    }
+
+    /**
+     * getter method
+     * @return - the range of the arena the indices are stored in
+     */
+    public ArenaRange getIndices() {
+        return this.indices;
+    }
+
+    /**
+     * getter method
+     * @return - the ranges drawn, relative to the start of the vertex and index ranges
+     */
+    public Submesh[] getSubmeshes() {
+        return this.submeshes;
+    }
+}
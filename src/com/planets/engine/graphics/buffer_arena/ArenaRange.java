@@ -0,0 +1,55 @@
+package com.planets.engine.graphics.buffer_arena;
+
+public class ArenaRange {
+
+    // where the range starts and how long it is, in elements
+    private int offset;
+    private final int size;
+
+    // the offset is always a multiple of this, also after defragmenting
+    private final int alignment;
+
+    /**
+     * default constructor
+     * @param offset - where the range starts
+     * @param size - how long the range is
+     * @param alignment - the offset is always a multiple of this
+     */
+    ArenaRange(int offset, int size, int alignment) {
+        this.offset = offset;
+        this.size = size;
+        this.alignment = alignment;
+    }
+
+    /**
+     * getter method
+     * @return - where the range starts, which changes when the allocator is defragmented
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * moves the range, only done by the allocator
+     * @param offset - where the range starts now
+     */
+    void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * getter method
+     * @return - how long the range is
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * getter method
+     * @return - the offset is always a multiple of this
+     */
+    public int getAlignment() {
+        return this.alignment;
+    }
+}
@@ -0,0 +1,276 @@
+package com.planets.engine.graphics.buffer_arena;
+
+import com.planets.engine.graphics.IndexBuffers;
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Submesh;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.mesh_optimization.MeshSplitter;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL43;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.IdentityHashMap;
+
+public class MeshArena {
+
+    // the floats per vertex of each attribute, in the same layout as Mesh: positions, colors and normals
+    private static final int[] COMPONENTS = {3, 4, 3};
+
+    // the amount of indices read from a mesh at once while they're narrowed
+    private static final int INDEX_CHUNK = 4096;
+
+    // the backend the buffers were created with
+    private final GLBackend gl;
+
+    // the vertex array shared by every mesh in the arena
+    private final int vao;
+
+    // one buffer per attribute, and the index buffer
+    private final int[] vbos = new int[COMPONENTS.length];
+    private final int ibo;
+
+    // the ranges of vertices and 16 bit indices in use
+    private final RangeAllocator vertexAllocator;
+    private final RangeAllocator indexAllocator;
+
+    // the meshes in the arena
+    private final IdentityHashMap<Mesh, ArenaMesh> meshes = new IdentityHashMap<>();
+
+    /**
+     * default constructor, creates the buffers
+     * @param vertexCapacity - the amount of vertices the arena holds
+     * @param indexCapacity - the amount of indices the arena holds
+     */
+    public MeshArena(int vertexCapacity, int indexCapacity) {
+        vertexAllocator = new RangeAllocator(vertexCapacity);
+        indexAllocator = new RangeAllocator(indexCapacity);
+        gl = Graphics.gl();
+
+        vao = gl.genVertexArray();
+        gl.bindVertexArray(vao);
+        for (int i = 0; i < COMPONENTS.length; i++) {
+            vbos[i] = gl.genBuffer();
+            gl.bindBuffer(GL15.GL_ARRAY_BUFFER, vbos[i]);
+            gl.bufferData(GL15.GL_ARRAY_BUFFER, (long) vertexCapacity * COMPONENTS[i] * Float.BYTES, GL15.GL_STATIC_DRAW);
+            gl.vertexAttribPointer(i, COMPONENTS[i], GL11.GL_FLOAT, false, 0, 0);
+        }
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        // the index buffer binding is part of the vertex array, so it stays bound with it
+        ibo = gl.genBuffer();
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+        gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, (long) indexCapacity * Short.BYTES, GL15.GL_STATIC_DRAW);
+        gl.bindVertexArray(0);
+    }
+
+    /**
+     * copies a mesh into the arena. meshes too large for 16 bit indices are split first
+     * @param mesh - the mesh, which doesn't need to be created
+     * @return - where the mesh is stored, the same each time the same mesh is added
+     */
+    public ArenaMesh add(Mesh mesh) {
+        ArenaMesh existing = meshes.get(mesh);
+        if (existing != null) {
+            return existing;
+        }
+
+        Mesh stored = mesh;
+        if (mesh.getMode() == GL11.GL_TRIANGLES) {
+            stored = MeshSplitter.split(mesh);
+        } else if (mesh.getVertexCount() > IndexBuffers.MAX_SHORT_VERTICES) {
+            throw new IllegalArgumentException("Strips of more than " + IndexBuffers.MAX_SHORT_VERTICES + " vertices don't fit the arena.");
+        }
+        Submesh[] submeshes = stored.getSubmeshes();
+
+        // make room by defragmenting if the free space is there but scattered
+        ArenaRange vertices = allocate(vertexAllocator, stored.getVertexCount());
+        ArenaRange indices = allocate(indexAllocator, stored.getIndexCount());
+        if (vertices == null || indices == null) {
+            if (vertices != null) {
+                vertexAllocator.free(vertices);
+            }
+            if (indices != null) {
+                indexAllocator.free(indices);
+            }
+            defragment();
+            vertices = allocate(vertexAllocator, stored.getVertexCount());
+            indices = allocate(indexAllocator, stored.getIndexCount());
+            if (vertices == null || indices == null) {
+                throw new IllegalStateException("The mesh arena is full: " + stored.getVertexCount() + " vertices and "
+                        + stored.getIndexCount() + " indices requested, " + (vertexAllocator.getCapacity() - vertexAllocator.getUsed())
+                        + " vertices and " + (indexAllocator.getCapacity() - indexAllocator.getUsed()) + " indices free.");
+            }
+        }
+
+        upload(0, vertices, stored.packPositions());
+        upload(1, vertices, stored.packColors());
+        upload(2, vertices, stored.packNormals());
+
+        // indices count from the start of their submesh, so they never change when the mesh moves. they're read a
+        // chunk at a time, so a packed mesh isn't unpacked
+        int indexCount = stored.getIndexCount();
+        ShortBuffer narrowed = allocate(indexCount * Short.BYTES).asShortBuffer();
+        int[] chunk = new int[Math.min(indexCount, INDEX_CHUNK)];
+        for (int first = 0; first < indexCount; first += chunk.length) {
+            int n = Math.min(chunk.length, indexCount - first);
+            stored.readIndices(first, n, chunk);
+            for (int i = 0; i < n; i++) {
+                narrowed.put((short) chunk[i]);
+            }
+        }
+        narrowed.flip();
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, ibo);
+        gl.bufferSubData(GL31.GL_COPY_WRITE_BUFFER, (long) indices.getOffset() * Short.BYTES, narrowed);
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+
+        ArenaMesh added = new ArenaMesh(stored.getMode(), vertices, indices, submeshes);
+        meshes.put(mesh, added);
+        return added;
+    }
+
+    /**
+     * frees the ranges of a mesh
+     * @param mesh - a mesh that was added
+     */
+    public void remove(Mesh mesh) {
+        ArenaMesh removed = meshes.remove(mesh);
+        if (removed == null) {
+            throw new IllegalStateException("The mesh isn't in the arena.");
+        }
+        vertexAllocator.free(removed.getVertices());
+        indexAllocator.free(removed.getIndices());
+    }
+
+    /**
+     * getter method
+     * @param mesh - the mesh
+     * @return - where the mesh is stored, or null if it wasn't added
+     */
+    public ArenaMesh get(Mesh mesh) {
+        return meshes.get(mesh);
+    }
+
+    /**
+     * moves every mesh to the front of the buffers, so the free space is in one piece. the contents are copied
+     * on the GPU, nothing is uploaded again
+     */
+    public void defragment() {
+        vertexAllocator.defragment((from, to, size) -> {
+            for (int i = 0; i < COMPONENTS.length; i++) {
+                int stride = COMPONENTS[i] * Float.BYTES;
+                copy(vbos[i], (long) from * stride, (long) to * stride, (long) size * stride);
+            }
+        });
+        indexAllocator.defragment((from, to, size) ->
+                copy(ibo, (long) from * Short.BYTES, (long) to * Short.BYTES, (long) size * Short.BYTES));
+    }
+
+    /**
+     * binds the shared vertex array, once for every mesh drawn after it
+     */
+    public void bind() {
+        gl.bindVertexArray(vao);
+        for (int i = 0; i < COMPONENTS.length; i++) {
+            gl.enableVertexAttribArray(i);
+        }
+    }
+
+    /**
+     * unbinds the shared vertex array
+     */
+    public void unbind() {
+        gl.bindVertexArray(0);
+    }
+
+    /**
+     * draws a mesh, with the arena bound
+     * @param mesh - where the mesh is stored
+     */
+    public void draw(ArenaMesh mesh) {
+        if (mesh.getMode() == GL11.GL_TRIANGLE_STRIP) {
+            gl.enable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+        }
+        for (Submesh range : mesh.getSubmeshes()) {
+            gl.drawElementsBaseVertex(mesh.getMode(), range.getIndexCount(), GL11.GL_UNSIGNED_SHORT,
+                    (long) (mesh.getIndices().getOffset() + range.getFirstIndex()) * Short.BYTES,
+                    mesh.getVertices().getOffset() + range.getBaseVertex());
+        }
+        if (mesh.getMode() == GL11.GL_TRIANGLE_STRIP) {
+            gl.disable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+        }
+    }
+
+    /**
+     * deletes the buffers and the vertex array
+     */
+    public void destroy() {
+        for (int vbo : vbos) {
+            gl.deleteBuffer(vbo);
+        }
+        gl.deleteBuffer(ibo);
+        gl.deleteVertexArray(vao);
+        meshes.clear();
+    }
+
+    /**
+     * getter method
+     * @return - the ranges of vertices in use
+     */
+    public RangeAllocator getVertexAllocator() {
+        return this.vertexAllocator;
+    }
+
+    /**
+     * getter method
+     * @return - the ranges of indices in use
+     */
+    public RangeAllocator getIndexAllocator() {
+        return this.indexAllocator;
+    }
+
+    /**
+     * helper method to allocate a range, or nothing for an empty one
+     */
+    private static ArenaRange allocate(RangeAllocator allocator, int size) {
+        return allocator.allocate(Math.max(1, size), 1);
+    }
+
+    /**
+     * helper method to allocate memory OpenGL can read, which is released by the garbage collector
+     */
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * helper method to upload one attribute of a mesh
+     */
+    private void upload(int attribute, ArenaRange vertices, float[] data) {
+        FloatBuffer buffer = allocate(data.length * Float.BYTES).asFloatBuffer();
+        buffer.put(data).flip();
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, vbos[attribute]);
+        gl.bufferSubData(GL31.GL_COPY_WRITE_BUFFER, (long) vertices.getOffset() * COMPONENTS[attribute] * Float.BYTES, buffer);
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+    }
+
+    /**
+     * helper method to move bytes to a lower offset of the same buffer. a buffer can't be copied onto itself where
+     * the ranges overlap, so it's copied in steps of the distance moved, which never overlap
+     */
+    private void copy(int buffer, long from, long to, long bytes) {
+        gl.bindBuffer(GL31.GL_COPY_READ_BUFFER, buffer);
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, buffer);
+        long step = from - to;
+        for (long done = 0; done < bytes; done += step) {
+            gl.copyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER, from + done, to + done, Math.min(step, bytes - done));
+        }
+        gl.bindBuffer(GL31.GL_COPY_READ_BUFFER, 0);
+        gl.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+    }
+}
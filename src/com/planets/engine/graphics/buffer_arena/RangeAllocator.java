@@ -0,0 +1,197 @@
+package com.planets.engine.graphics.buffer_arena;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class RangeAllocator {
+
+    // moves the contents of a range while defragmenting
+    public interface Mover {
+
+        /**
+         * copies a range to a lower offset. the two may overlap
+         * @param from - where the range starts now
+         * @param to - where the range starts after the move, lower than from
+         * @param size - how long the range is
+         */
+        void move(int from, int to, int size);
+    }
+
+    // the amount of elements that can be allocated
+    private final int capacity;
+
+    // the free blocks by offset, never two next to each other
+    private final TreeMap<Integer, Integer> free = new TreeMap<>();
+
+    // the allocated ranges by offset
+    private final TreeMap<Integer, ArenaRange> used = new TreeMap<>();
+
+    // the amount of elements allocated
+    private int usedElements;
+
+    /**
+     * default constructor
+     * @param capacity - the amount of elements that can be allocated
+     */
+    public RangeAllocator(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.capacity = capacity;
+        free.put(0, capacity);
+    }
+
+    /**
+     * allocates a range from the lowest free block it fits in
+     * @param size - the amount of elements, at least 1
+     * @param alignment - the offset will be a multiple of this, at least 1
+     * @return - the range, or null if no free block is large enough
+     */
+    public ArenaRange allocate(int size, int alignment) {
+        if (size <= 0 || alignment <= 0) {
+            throw new IllegalArgumentException("Invalid allocation of " + size + " elements aligned to " + alignment + ".");
+        }
+
+        for (Map.Entry<Integer, Integer> block : free.entrySet()) {
+            int start = block.getKey();
+            int end = start + block.getValue();
+            int offset = align(start, alignment);
+            if ((long) offset + size > end) {
+                continue;
+            }
+
+            // keep whatever is left on either side
+            free.remove(start);
+            if (offset > start) {
+                free.put(start, offset - start);
+            }
+            if (offset + size < end) {
+                free.put(offset + size, end - offset - size);
+            }
+
+            ArenaRange range = new ArenaRange(offset, size, alignment);
+            used.put(offset, range);
+            usedElements += size;
+            return range;
+        }
+        return null;
+    }
+
+    /**
+     * frees a range, merging it with the free blocks next to it
+     * @param range - a range allocated from this allocator
+     */
+    public void free(ArenaRange range) {
+        if (used.get(range.getOffset()) != range) {
+            throw new IllegalStateException("The range wasn't allocated from this allocator or was already freed.");
+        }
+        used.remove(range.getOffset());
+        usedElements -= range.getSize();
+
+        int start = range.getOffset();
+        int end = start + range.getSize();
+        Map.Entry<Integer, Integer> before = free.floorEntry(start);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            start = before.getKey();
+            free.remove(start);
+        }
+        Integer after = free.get(end);
+        if (after != null) {
+            free.remove(end);
+            end += after;
+        }
+        free.put(start, end - start);
+    }
+
+    /**
+     * moves every range as low as its alignment allows, in order of offset, leaving a single free block at the end
+     * @param mover - copies the contents of each range that moves, called from the lowest range up
+     * @return - the amount of ranges moved
+     */
+    public int defragment(Mover mover) {
+        ArrayList<ArenaRange> ranges = new ArrayList<>(used.values());
+        used.clear();
+        free.clear();
+
+        int moved = 0;
+        int cursor = 0;
+        for (ArenaRange range : ranges) {
+            int offset = align(cursor, range.getAlignment());
+            if (offset > cursor) {
+                free.put(cursor, offset - cursor);
+            }
+            if (offset < range.getOffset()) {
+                mover.move(range.getOffset(), offset, range.getSize());
+                range.setOffset(offset);
+                moved++;
+            }
+            used.put(offset, range);
+            cursor = offset + range.getSize();
+        }
+        if (cursor < capacity) {
+            free.put(cursor, capacity - cursor);
+        }
+        return moved;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of elements that can be allocated
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of elements allocated
+     */
+    public int getUsed() {
+        return this.usedElements;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of ranges allocated
+     */
+    public int getRangeCount() {
+        return used.size();
+    }
+
+    /**
+     * getter method
+     * @return - the amount of free blocks, 1 when nothing is fragmented
+     */
+    public int getFreeBlockCount() {
+        return free.size();
+    }
+
+    /**
+     * getter method
+     * @return - the size of the largest free block, the largest range that can be allocated unaligned
+     */
+    public int getLargestFreeBlock() {
+        int largest = 0;
+        for (int size : free.values()) {
+            largest = Math.max(largest, size);
+        }
+        return largest;
+    }
+
+    /**
+     * getter method
+     * @return - the share of free elements outside the largest free block, 0 when nothing is fragmented
+     */
+    public double getFragmentation() {
+        int freeElements = capacity - usedElements;
+        return freeElements == 0 ? 0 : 1.0 - (double) getLargestFreeBlock() / freeElements;
+    }
+
+    /**
+     * helper method to round an offset up to a multiple of the alignment
+     */
+    private static int align(int offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+}
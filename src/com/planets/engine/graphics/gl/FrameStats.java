@@ -0,0 +1,92 @@
+package com.planets.engine.graphics.gl;
+
+import java.util.Locale;
+
+public class FrameStats {
+
+    // the draw calls issued, and the draws they made, which is more than one for a multi-draw
+    private final int drawCalls;
+    private final int draws;
+
+    // the bindings and capabilities changed, and the ones set to what they already were
+    private final int stateChanges;
+    private final int redundantStateChanges;
+
+    // the bytes copied into buffers by the CPU, not counting writes to mapped memory
+    private final long bytesUploaded;
+
+    // the uniforms set
+    private final int uniformSets;
+
+    /**
+     * default constructor
+     * @param drawCalls - the draw calls issued
+     * @param draws - the draws made by the draw calls
+     * @param stateChanges - the bindings and capabilities changed
+     * @param redundantStateChanges - the bindings and capabilities set to what they already were
+     * @param bytesUploaded - the bytes copied into buffers by the CPU
+     * @param uniformSets - the uniforms set
+     */
+    public FrameStats(int drawCalls, int draws, int stateChanges, int redundantStateChanges, long bytesUploaded, int uniformSets) {
+        this.drawCalls = drawCalls;
+        this.draws = draws;
+        this.stateChanges = stateChanges;
+        this.redundantStateChanges = redundantStateChanges;
+        this.bytesUploaded = bytesUploaded;
+        this.uniformSets = uniformSets;
+    }
+
+    /**
+     * getter method
+     * @return - the draw calls issued
+     */
+    public int getDrawCalls() {
+        return this.drawCalls;
+    }
+
+    /**
+     * getter method
+     * @return - the draws made by the draw calls, more than the draw calls if some were multi-draws
+     */
+    public int getDraws() {
+        return this.draws;
+    }
+
+    /**
+     * getter method
+     * @return - the bindings and capabilities changed
+     */
+    public int getStateChanges() {
+        return this.stateChanges;
+    }
+
+    /**
+     * getter method
+     * @return - the bindings and capabilities set to what they already were, which aren't counted as changes
+     */
+    public int getRedundantStateChanges() {
+        return this.redundantStateChanges;
+    }
+
+    /**
+     * getter method
+     * @return - the bytes copied into buffers by the CPU, not counting writes to mapped memory
+     */
+    public long getBytesUploaded() {
+        return this.bytesUploaded;
+    }
+
+    /**
+     * getter method
+     * @return - the uniforms set
+     */
+    public int getUniformSets() {
+        return this.uniformSets;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d draw calls (%d draws), %d state changes (%d redundant), %d bytes uploaded, %d uniforms set",
+                drawCalls, draws, stateChanges, redundantStateChanges, bytesUploaded, uniformSets);
+    }
+}
@@ -0,0 +1,482 @@
+package com.planets.engine.graphics.gl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+public interface GLBackend {
+
+    /**
+     * creates a buffer object
+     * @return - the buffer ID
+     */
+    int genBuffer();
+
+    /**
+     * binds a buffer object
+     * @param target - the binding target, e.g. GL_ARRAY_BUFFER
+     * @param buffer - the buffer ID, 0 to unbind
+     */
+    void bindBuffer(int target, int buffer);
+
+    /**
+     * binds a range of a buffer object to an indexed binding point
+     * @param target - the indexed binding target, e.g. GL_SHADER_STORAGE_BUFFER
+     * @param index - the binding point
+     * @param buffer - the buffer ID
+     * @param offset - the first byte of the range
+     * @param size - the amount of bytes in the range
+     */
+    void bindBufferRange(int target, int index, int buffer, long offset, long size);
+
+    /**
+     * allocates the storage of the bound buffer without filling it
+     * @param target - the binding target
+     * @param size - the amount of bytes
+     * @param usage - the usage hint, e.g. GL_STATIC_DRAW
+     */
+    void bufferData(int target, long size, int usage);
+
+    /**
+     * allocates the storage of the bound buffer and fills it, from the data's position to its limit
+     * @param target - the binding target
+     * @param data - the data
+     * @param usage - the usage hint, e.g. GL_STATIC_DRAW
+     */
+    void bufferData(int target, ByteBuffer data, int usage);
+    void bufferData(int target, FloatBuffer data, int usage);
+    void bufferData(int target, IntBuffer data, int usage);
+    void bufferData(int target, ShortBuffer data, int usage);
+
+    /**
+     * overwrites part of the storage of the bound buffer, from the data's position to its limit
+     * @param target - the binding target
+     * @param offset - the first byte written
+     * @param data - the data
+     */
+    void bufferSubData(int target, long offset, ByteBuffer data);
+    void bufferSubData(int target, long offset, FloatBuffer data);
+    void bufferSubData(int target, long offset, ShortBuffer data);
+
+    /**
+     * allocates immutable storage for the bound buffer
+     * @param target - the binding target
+     * @param size - the amount of bytes
+     * @param flags - the storage flags, e.g. GL_MAP_PERSISTENT_BIT
+     */
+    void bufferStorage(int target, long size, int flags);
+
+    /**
+     * maps a range of the bound buffer
+     * @param target - the binding target
+     * @param offset - the first byte mapped
+     * @param length - the amount of bytes mapped
+     * @param access - the access flags
+     * @return - the mapped memory, or null if it couldn't be mapped
+     */
+    ByteBuffer mapBufferRange(int target, long offset, long length, int access);
+
+    /**
+     * unmaps the bound buffer
+     * @param target - the binding target
+     * @return - false if the contents were lost while mapped
+     */
+    boolean unmapBuffer(int target);
+
+    /**
+     * copies bytes between the buffers bound to two targets
+     * @param readTarget - the target of the buffer read from
+     * @param writeTarget - the target of the buffer written to
+     * @param readOffset - the first byte read
+     * @param writeOffset - the first byte written
+     * @param size - the amount of bytes
+     */
+    void copyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size);
+
+    /**
+     * deletes a buffer object
+     * @param buffer - the buffer ID
+     */
+    void deleteBuffer(int buffer);
+
+    /**
+     * creates a vertex array object
+     * @return - the vertex array ID
+     */
+    int genVertexArray();
+
+    /**
+     * binds a vertex array object
+     * @param vao - the vertex array ID, 0 to unbind
+     */
+    void bindVertexArray(int vao);
+
+    /**
+     * deletes a vertex array object
+     * @param vao - the vertex array ID
+     */
+    void deleteVertexArray(int vao);
+
+    /**
+     * points an attribute of the bound vertex array at the buffer bound to GL_ARRAY_BUFFER
+     * @param index - the attribute
+     * @param size - the components per vertex
+     * @param type - the type of the components, e.g. GL_FLOAT
+     * @param normalized - whether integer components are normalized
+     * @param stride - the bytes between vertices, 0 for tightly packed
+     * @param pointer - the offset of the first component in the buffer
+     */
+    void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer);
+
+    /**
+     * enables an attribute of the bound vertex array
+     * @param index - the attribute
+     */
+    void enableVertexAttribArray(int index);
+
+    /**
+     * disables an attribute of the bound vertex array
+     * @param index - the attribute
+     */
+    void disableVertexAttribArray(int index);
+
+    /**
+     * draws from the bound index buffer
+     * @param mode - the primitive mode
+     * @param count - the amount of indices
+     * @param type - the type of the indices
+     * @param indices - the offset of the first index in bytes
+     */
+    void drawElements(int mode, int count, int type, long indices);
+
+    /**
+     * draws from the bound index buffer, with every index counting from a base vertex
+     * @param mode - the primitive mode
+     * @param count - the amount of indices
+     * @param type - the type of the indices
+     * @param indices - the offset of the first index in bytes
+     * @param baseVertex - the vertex the indices count from
+     */
+    void drawElementsBaseVertex(int mode, int count, int type, long indices, int baseVertex);
+
+    /**
+     * draws from the bound index buffer once per command in the bound GL_DRAW_INDIRECT_BUFFER
+     * @param mode - the primitive mode
+     * @param type - the type of the indices
+     * @param indirect - the offset of the first command in bytes
+     * @param drawCount - the amount of commands
+     * @param stride - the bytes between commands, 0 for tightly packed
+     */
+    void multiDrawElementsIndirect(int mode, int type, long indirect, int drawCount, int stride);
+
+    /**
+     * enables a capability
+     * @param cap - the capability, e.g. GL_DEPTH_TEST
+     */
+    void enable(int cap);
+
+    /**
+     * disables a capability
+     * @param cap - the capability
+     */
+    void disable(int cap);
+
+    /**
+     * selects the texture unit textures are bound to
+     * @param texture - the unit, e.g. GL_TEXTURE0
+     */
+    void activeTexture(int texture);
+
+    /**
+     * binds a texture to the active texture unit
+     * @param target - the texture target, e.g. GL_TEXTURE_2D
+     * @param texture - the texture ID, 0 to unbind
+     */
+    void bindTexture(int target, int texture);
+
+    /**
+     * creates a framebuffer object
+     * @return - the framebuffer ID
+     */
+    int genFramebuffer();
+
+    /**
+     * binds a framebuffer object
+     * @param target - GL_FRAMEBUFFER, GL_DRAW_FRAMEBUFFER or GL_READ_FRAMEBUFFER
+     * @param framebuffer - the framebuffer ID, 0 for the window
+     */
+    void bindFramebuffer(int target, int framebuffer);
+
+    /**
+     * attaches a renderbuffer to the bound framebuffer
+     * @param target - the framebuffer target
+     * @param attachment - e.g. GL_COLOR_ATTACHMENT0 or GL_DEPTH_ATTACHMENT
+     * @param renderbuffer - the renderbuffer ID
+     */
+    void framebufferRenderbuffer(int target, int attachment, int renderbuffer);
+
+    /**
+     * getter method
+     * @param target - the framebuffer target
+     * @return - GL_FRAMEBUFFER_COMPLETE if the bound framebuffer can be drawn to
+     */
+    int checkFramebufferStatus(int target);
+
+    /**
+     * deletes a framebuffer object
+     * @param framebuffer - the framebuffer ID
+     */
+    void deleteFramebuffer(int framebuffer);
+
+    /**
+     * creates a renderbuffer object
+     * @return - the renderbuffer ID
+     */
+    int genRenderbuffer();
+
+    /**
+     * binds a renderbuffer object
+     * @param renderbuffer - the renderbuffer ID, 0 to unbind
+     */
+    void bindRenderbuffer(int renderbuffer);
+
+    /**
+     * allocates the storage of the bound renderbuffer
+     * @param internalFormat - e.g. GL_RGBA8 or GL_DEPTH_COMPONENT24
+     * @param width - the width in pixels
+     * @param height - the height in pixels
+     */
+    void renderbufferStorage(int internalFormat, int width, int height);
+
+    /**
+     * deletes a renderbuffer object
+     * @param renderbuffer - the renderbuffer ID
+     */
+    void deleteRenderbuffer(int renderbuffer);
+
+    /**
+     * sets the area of the framebuffer drawn to
+     * @param x - the left of the area in pixels
+     * @param y - the bottom of the area in pixels
+     * @param width - the width in pixels
+     * @param height - the height in pixels
+     */
+    void viewport(int x, int y, int width, int height);
+
+    /**
+     * sets the color the color buffer is cleared to
+     * @param r - the red component
+     * @param g - the green component
+     * @param b - the blue component
+     * @param a - the alpha component
+     */
+    void clearColor(float r, float g, float b, float a);
+
+    /**
+     * clears buffers of the bound framebuffer
+     * @param mask - e.g. GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT
+     */
+    void clear(int mask);
+
+    /**
+     * reads pixels of the framebuffer bound for reading into the buffer bound to GL_PIXEL_PACK_BUFFER, which
+     * doesn't wait for the GPU
+     * @param x - the left of the pixels
+     * @param y - the bottom of the pixels
+     * @param width - the width in pixels
+     * @param height - the height in pixels
+     * @param format - e.g. GL_RGBA
+     * @param type - e.g. GL_UNSIGNED_BYTE
+     * @param offset - the first byte written in the buffer
+     */
+    void readPixels(int x, int y, int width, int height, int format, int type, long offset);
+
+    /**
+     * getter method
+     * @param pname - the parameter
+     * @return - the value of an integer parameter
+     */
+    int getInteger(int pname);
+
+    /**
+     * inserts a fence after every command issued so far
+     * @return - the fence
+     */
+    long fenceSync();
+
+    /**
+     * waits for the commands before a fence to finish
+     * @param sync - the fence
+     * @param flags - e.g. GL_SYNC_FLUSH_COMMANDS_BIT
+     * @param timeout - the longest time to wait in nanoseconds
+     * @return - GL_ALREADY_SIGNALED, GL_CONDITION_SATISFIED, GL_TIMEOUT_EXPIRED or GL_WAIT_FAILED
+     */
+    int clientWaitSync(long sync, int flags, long timeout);
+
+    /**
+     * deletes a fence
+     * @param sync - the fence
+     */
+    void deleteSync(long sync);
+
+    /**
+     * creates a query object
+     * @return - the query ID
+     */
+    int genQuery();
+
+    /**
+     * starts a query
+     * @param target - e.g. GL_TIME_ELAPSED, of which only one can be active at a time
+     * @param query - the query ID
+     */
+    void beginQuery(int target, int query);
+
+    /**
+     * ends the active query of a target
+     * @param target - the target
+     */
+    void endQuery(int target);
+
+    /**
+     * getter method
+     * @param query - the query ID
+     * @param pname - e.g. GL_QUERY_RESULT_AVAILABLE, which never waits
+     * @return - the value of the parameter
+     */
+    int getQueryObjecti(int query, int pname);
+
+    /**
+     * getter method
+     * @param query - the query ID
+     * @param pname - e.g. GL_QUERY_RESULT, which waits for the result if it isn't available yet
+     * @return - the 64 bit value of the parameter
+     */
+    long getQueryObjectui64(int query, int pname);
+
+    /**
+     * deletes a query object
+     * @param query - the query ID
+     */
+    void deleteQuery(int query);
+
+    /**
+     * creates a shader program
+     * @return - the program ID
+     */
+    int createProgram();
+
+    /**
+     * creates a shader
+     * @param type - e.g. GL_VERTEX_SHADER
+     * @return - the shader ID
+     */
+    int createShader(int type);
+
+    /**
+     * sets the source of a shader
+     * @param shader - the shader ID
+     * @param source - the source code
+     */
+    void shaderSource(int shader, CharSequence source);
+
+    /**
+     * compiles a shader
+     * @param shader - the shader ID
+     */
+    void compileShader(int shader);
+
+    /**
+     * getter method
+     * @param shader - the shader ID
+     * @param pname - the parameter, e.g. GL_COMPILE_STATUS
+     * @return - the value of the parameter
+     */
+    int getShaderi(int shader, int pname);
+
+    /**
+     * getter method
+     * @param shader - the shader ID
+     * @return - the compiler's messages
+     */
+    String getShaderInfoLog(int shader);
+
+    /**
+     * attaches a shader to a program
+     * @param program - the program ID
+     * @param shader - the shader ID
+     */
+    void attachShader(int program, int shader);
+
+    /**
+     * links a program
+     * @param program - the program ID
+     */
+    void linkProgram(int program);
+
+    /**
+     * validates a program
+     * @param program - the program ID
+     */
+    void validateProgram(int program);
+
+    /**
+     * getter method
+     * @param program - the program ID
+     * @param pname - the parameter, e.g. GL_LINK_STATUS
+     * @return - the value of the parameter
+     */
+    int getProgrami(int program, int pname);
+
+    /**
+     * getter method
+     * @param program - the program ID
+     * @return - the linker's messages
+     */
+    String getProgramInfoLog(int program);
+
+    /**
+     * getter method
+     * @param program - the program ID
+     * @param name - the name of the uniform
+     * @return - the location of the uniform, -1 if the program doesn't use it
+     */
+    int getUniformLocation(int program, CharSequence name);
+
+    /**
+     * makes a program current
+     * @param program - the program ID, 0 for none
+     */
+    void useProgram(int program);
+
+    /**
+     * deletes a shader
+     * @param shader - the shader ID
+     */
+    void deleteShader(int shader);
+
+    /**
+     * deletes a program
+     * @param program - the program ID
+     */
+    void deleteProgram(int program);
+
+    /**
+     * sets uniforms of the current program
+     * @param location - the location of the uniform
+     */
+    void uniform1f(int location, float x);
+    void uniform1i(int location, int x);
+    void uniform2f(int location, float x, float y);
+    void uniform3f(int location, float x, float y, float z);
+    void uniform4f(int location, float x, float y, float z, float w);
+
+    /**
+     * sets a mat4 uniform of the current program
+     * @param location - the location of the uniform
+     * @param transpose - true if the values are in row major order
+     * @param value - the 16 values, which aren't kept
+     */
+    void uniformMatrix4fv(int location, boolean transpose, float[] value);
+}
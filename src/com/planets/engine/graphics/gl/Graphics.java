@@ -0,0 +1,30 @@
+package com.planets.engine.graphics.gl;
+
+public class Graphics {
+
+    // the backend every GL call of the engine goes through. like the GL context itself, it's only used from the
+    // thread that renders
+    private static GLBackend backend;
+
+    /**
+     * getter method
+     * @return - the backend GL calls go through, LWJGL unless another one was set
+     */
+    public static GLBackend gl() {
+        if (backend == null) {
+            backend = new LwjglBackend();
+        }
+        return backend;
+    }
+
+    /**
+     * replaces the backend, before anything is created with the old one
+     * @param backend - the new backend, e.g. a RecordingBackend to run without a window
+     */
+    public static void setBackend(GLBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("The GL backend can't be null.");
+        }
+        Graphics.backend = backend;
+    }
+}
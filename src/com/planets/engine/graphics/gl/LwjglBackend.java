@@ -0,0 +1,386 @@
+package com.planets.engine.graphics.gl;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GL44;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+public class LwjglBackend implements GLBackend {
+
+    @Override
+    public int genBuffer() {
+        return GL15.glGenBuffers();
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        GL15.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void bindBufferRange(int target, int index, int buffer, long offset, long size) {
+        GL30.glBindBufferRange(target, index, buffer, offset, size);
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        GL15.glBufferData(target, size, usage);
+    }
+
+    @Override
+    public void bufferData(int target, ByteBuffer data, int usage) {
+        GL15.glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage) {
+        GL15.glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage) {
+        GL15.glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferData(int target, ShortBuffer data, int usage) {
+        GL15.glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ByteBuffer data) {
+        GL15.glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data) {
+        GL15.glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ShortBuffer data) {
+        GL15.glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public void bufferStorage(int target, long size, int flags) {
+        GL44.glBufferStorage(target, size, flags);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        return GL30.glMapBufferRange(target, offset, length, access);
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        return GL15.glUnmapBuffer(target);
+    }
+
+    @Override
+    public void copyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size) {
+        GL31.glCopyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        GL15.glDeleteBuffers(buffer);
+    }
+
+    @Override
+    public int genVertexArray() {
+        return GL30.glGenVertexArrays();
+    }
+
+    @Override
+    public void bindVertexArray(int vao) {
+        GL30.glBindVertexArray(vao);
+    }
+
+    @Override
+    public void deleteVertexArray(int vao) {
+        GL30.glDeleteVertexArrays(vao);
+    }
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer) {
+        GL20.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        GL20.glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        GL20.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, long indices) {
+        GL11.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void drawElementsBaseVertex(int mode, int count, int type, long indices, int baseVertex) {
+        GL32.glDrawElementsBaseVertex(mode, count, type, indices, baseVertex);
+    }
+
+    @Override
+    public void multiDrawElementsIndirect(int mode, int type, long indirect, int drawCount, int stride) {
+        GL43.glMultiDrawElementsIndirect(mode, type, indirect, drawCount, stride);
+    }
+
+    @Override
+    public void enable(int cap) {
+        GL11.glEnable(cap);
+    }
+
+    @Override
+    public void disable(int cap) {
+        GL11.glDisable(cap);
+    }
+
+    @Override
+    public void activeTexture(int texture) {
+        GL13.glActiveTexture(texture);
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        GL11.glBindTexture(target, texture);
+    }
+
+    @Override
+    public int genFramebuffer() {
+        return GL30.glGenFramebuffers();
+    }
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        GL30.glBindFramebuffer(target, framebuffer);
+    }
+
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffer) {
+        GL30.glFramebufferRenderbuffer(target, attachment, GL30.GL_RENDERBUFFER, renderbuffer);
+    }
+
+    @Override
+    public int checkFramebufferStatus(int target) {
+        return GL30.glCheckFramebufferStatus(target);
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        GL30.glDeleteFramebuffers(framebuffer);
+    }
+
+    @Override
+    public int genRenderbuffer() {
+        return GL30.glGenRenderbuffers();
+    }
+
+    @Override
+    public void bindRenderbuffer(int renderbuffer) {
+        GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, renderbuffer);
+    }
+
+    @Override
+    public void renderbufferStorage(int internalFormat, int width, int height) {
+        GL30.glRenderbufferStorage(GL30.GL_RENDERBUFFER, internalFormat, width, height);
+    }
+
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        GL30.glDeleteRenderbuffers(renderbuffer);
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        GL11.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void clearColor(float r, float g, float b, float a) {
+        GL11.glClearColor(r, g, b, a);
+    }
+
+    @Override
+    public void clear(int mask) {
+        GL11.glClear(mask);
+    }
+
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, long offset) {
+        GL11.glReadPixels(x, y, width, height, format, type, offset);
+    }
+
+    @Override
+    public int getInteger(int pname) {
+        return GL11.glGetInteger(pname);
+    }
+
+    @Override
+    public long fenceSync() {
+        return GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    @Override
+    public int clientWaitSync(long sync, int flags, long timeout) {
+        return GL32.glClientWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void deleteSync(long sync) {
+        GL32.glDeleteSync(sync);
+    }
+
+    @Override
+    public int genQuery() {
+        return GL15.glGenQueries();
+    }
+
+    @Override
+    public void beginQuery(int target, int query) {
+        GL15.glBeginQuery(target, query);
+    }
+
+    @Override
+    public void endQuery(int target) {
+        GL15.glEndQuery(target);
+    }
+
+    @Override
+    public int getQueryObjecti(int query, int pname) {
+        return GL15.glGetQueryObjecti(query, pname);
+    }
+
+    @Override
+    public long getQueryObjectui64(int query, int pname) {
+        return GL33.glGetQueryObjectui64(query, pname);
+    }
+
+    @Override
+    public void deleteQuery(int query) {
+        GL15.glDeleteQueries(query);
+    }
+
+    @Override
+    public int createProgram() {
+        return GL20.glCreateProgram();
+    }
+
+    @Override
+    public int createShader(int type) {
+        return GL20.glCreateShader(type);
+    }
+
+    @Override
+    public void shaderSource(int shader, CharSequence source) {
+        GL20.glShaderSource(shader, source);
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        GL20.glCompileShader(shader);
+    }
+
+    @Override
+    public int getShaderi(int shader, int pname) {
+        return GL20.glGetShaderi(shader, pname);
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return GL20.glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        GL20.glAttachShader(program, shader);
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        GL20.glLinkProgram(program);
+    }
+
+    @Override
+    public void validateProgram(int program) {
+        GL20.glValidateProgram(program);
+    }
+
+    @Override
+    public int getProgrami(int program, int pname) {
+        return GL20.glGetProgrami(program, pname);
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return GL20.glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name) {
+        return GL20.glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        GL20.glUseProgram(program);
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        GL20.glDeleteShader(shader);
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        GL20.glDeleteProgram(program);
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        GL20.glUniform1f(location, x);
+    }
+
+    @Override
+    public void uniform1i(int location, int x) {
+        GL20.glUniform1i(location, x);
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        GL20.glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        GL20.glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        GL20.glUniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, float[] value) {
+        // the array overload passes the values on the stack, nothing is allocated
+        GL20.glUniformMatrix4fv(location, transpose, value);
+    }
+}
@@ -0,0 +1,643 @@
+package com.planets.engine.graphics.gl;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public class RecordingBackend implements GLBackend {
+
+    // the IDs handed out, which are never reused
+    private int nextBuffer = 1;
+    private int nextVertexArray = 1;
+    private int nextProgram = 1;
+    private int nextShader = 1;
+    private long nextSync = 1;
+    private int nextQuery = 1;
+    private int nextFramebuffer = 1;
+    private int nextRenderbuffer = 1;
+    private int nextLocation = 0;
+
+    // what is bound, enabled and current, to tell changes from redundant calls
+    private final HashMap<Integer, Integer> boundBuffers = new HashMap<>();
+    private final HashMap<Integer, Integer> elementBuffers = new HashMap<>(); // by vertex array
+    private final HashSet<Integer> enabled = new HashSet<>();
+    private final HashSet<Long> enabledAttributes = new HashSet<>();
+    private final HashMap<Long, Integer> boundTextures = new HashMap<>();
+    private final HashMap<Integer, Integer> boundFramebuffers = new HashMap<>();
+    private int boundRenderbuffer;
+    private int boundVertexArray;
+    private int currentProgram;
+    private int activeTexture = GL13.GL_TEXTURE0;
+
+    // the location of each uniform name in each program, the same every time it's asked for
+    private final HashMap<Integer, HashMap<String, Integer>> locations = new HashMap<>();
+
+    // the values of integer parameters that were set
+    private final HashMap<Integer, Integer> integers = new HashMap<>();
+
+    // the frame each query ended in, the frames until a result is available, and the result every query has
+    private final HashMap<Integer, Integer> queryFrames = new HashMap<>();
+    private final HashMap<Integer, Integer> activeQueries = new HashMap<>();
+    private int queryLatency;
+    private long queryResult;
+
+    // the amount of query results read before they were available, which would have stalled a real GPU
+    private int queryStalls;
+
+    // the frame each fence was made in, and the frames until the commands before a fence finish
+    private final HashMap<Long, Integer> syncFrames = new HashMap<>();
+    private int syncLatency;
+
+    // the size of each buffer's store, to catch mappings past its end
+    private final HashMap<Integer, Long> bufferSizes = new HashMap<>();
+
+    // the amount of pixel reads, which each copy into a buffer
+    private int pixelReads;
+
+    // the counters of the current frame
+    private int drawCalls;
+    private int draws;
+    private int stateChanges;
+    private int redundantStateChanges;
+    private long bytesUploaded;
+    private int uniformSets;
+
+    // the amount of frames ended
+    private int frames;
+
+    /**
+     * ends the frame, resetting the counters
+     * @return - what the frame did
+     */
+    public FrameStats endFrame() {
+        FrameStats stats = getFrame();
+        drawCalls = 0;
+        draws = 0;
+        stateChanges = 0;
+        redundantStateChanges = 0;
+        bytesUploaded = 0;
+        uniformSets = 0;
+        frames++;
+        return stats;
+    }
+
+    /**
+     * getter method
+     * @return - what the current frame did so far
+     */
+    public FrameStats getFrame() {
+        return new FrameStats(drawCalls, draws, stateChanges, redundantStateChanges, bytesUploaded, uniformSets);
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames ended
+     */
+    public int getFrameCount() {
+        return this.frames;
+    }
+
+    /**
+     * sets how many frames have to end after a query before its result is available, 0 by default
+     * @param frames - the amount of frames
+     */
+    public void setQueryLatency(int frames) {
+        this.queryLatency = frames;
+    }
+
+    /**
+     * sets the result every query has, 0 by default
+     * @param result - the result, e.g. the nanoseconds a GL_TIME_ELAPSED query measured
+     */
+    public void setQueryResult(long result) {
+        this.queryResult = result;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of query results read before they were available, which would have stalled a real GPU
+     */
+    public int getQueryStalls() {
+        return this.queryStalls;
+    }
+
+    /**
+     * sets how many frames have to end after a fence before it's signaled, 0 by default
+     * @param frames - the amount of frames
+     */
+    public void setSyncLatency(int frames) {
+        this.syncLatency = frames;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of times pixels were read into a buffer
+     */
+    public int getPixelReads() {
+        return this.pixelReads;
+    }
+
+    /**
+     * sets what getInteger returns for a parameter, 0 for parameters that weren't set
+     * @param pname - the parameter
+     * @param value - the value
+     */
+    public void setInteger(int pname, int value) {
+        integers.put(pname, value);
+    }
+
+    @Override
+    public int genBuffer() {
+        return nextBuffer++;
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        // the index buffer binding is part of the bound vertex array, like its attribute arrays
+        Integer previous = target == GL15.GL_ELEMENT_ARRAY_BUFFER
+                ? elementBuffers.put(boundVertexArray, buffer) : boundBuffers.put(target, buffer);
+        change(previous != null ? previous == buffer : buffer == 0);
+    }
+
+    @Override
+    public void bindBufferRange(int target, int index, int buffer, long offset, long size) {
+        // the generic binding changes too, but the range is what gets compared, so it always counts
+        boundBuffers.put(target, buffer);
+        change(false);
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        store(target, size);
+    }
+
+    @Override
+    public void bufferData(int target, ByteBuffer data, int usage) {
+        store(target, (long) data.remaining() * Byte.BYTES);
+        upload(data, Byte.BYTES);
+    }
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage) {
+        store(target, (long) data.remaining() * Float.BYTES);
+        upload(data, Float.BYTES);
+    }
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage) {
+        store(target, (long) data.remaining() * Integer.BYTES);
+        upload(data, Integer.BYTES);
+    }
+
+    @Override
+    public void bufferData(int target, ShortBuffer data, int usage) {
+        store(target, (long) data.remaining() * Short.BYTES);
+        upload(data, Short.BYTES);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ByteBuffer data) {
+        upload(data, Byte.BYTES);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data) {
+        upload(data, Float.BYTES);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ShortBuffer data) {
+        upload(data, Short.BYTES);
+    }
+
+    @Override
+    public void bufferStorage(int target, long size, int flags) {
+        store(target, size);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mapping of " + length + " bytes is too large.");
+        }
+        int buffer = bound(target);
+        Long size = bufferSizes.get(buffer);
+        if (size != null && offset + length > size) {
+            throw new IllegalStateException("Mapping bytes " + offset + " to " + (offset + length) + " of buffer "
+                    + buffer + ", which has " + size + ".");
+        }
+        return ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        return true;
+    }
+
+    @Override
+    public void copyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size) {
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        boundBuffers.values().removeIf(bound -> bound == buffer);
+        elementBuffers.values().removeIf(bound -> bound == buffer);
+        bufferSizes.remove(buffer);
+    }
+
+    @Override
+    public int genVertexArray() {
+        return nextVertexArray++;
+    }
+
+    @Override
+    public void bindVertexArray(int vao) {
+        change(boundVertexArray == vao);
+        boundVertexArray = vao;
+    }
+
+    @Override
+    public void deleteVertexArray(int vao) {
+        if (boundVertexArray == vao) {
+            boundVertexArray = 0;
+        }
+        elementBuffers.remove(vao);
+    }
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long pointer) {
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        // attribute arrays are enabled per vertex array
+        change(!enabledAttributes.add(attribute(index)));
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        change(!enabledAttributes.remove(attribute(index)));
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, long indices) {
+        drawCalls++;
+        draws++;
+    }
+
+    @Override
+    public void drawElementsBaseVertex(int mode, int count, int type, long indices, int baseVertex) {
+        drawCalls++;
+        draws++;
+    }
+
+    @Override
+    public void multiDrawElementsIndirect(int mode, int type, long indirect, int drawCount, int stride) {
+        drawCalls++;
+        draws += drawCount;
+    }
+
+    @Override
+    public void enable(int cap) {
+        change(!enabled.add(cap));
+    }
+
+    @Override
+    public void disable(int cap) {
+        change(!enabled.remove(cap));
+    }
+
+    @Override
+    public void activeTexture(int texture) {
+        change(activeTexture == texture);
+        activeTexture = texture;
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        Integer previous = boundTextures.put(((long) activeTexture << 32) | target, texture);
+        change(previous != null ? previous == texture : texture == 0);
+    }
+
+    @Override
+    public int getInteger(int pname) {
+        return integers.getOrDefault(pname, 0);
+    }
+
+    @Override
+    public int genFramebuffer() {
+        return nextFramebuffer++;
+    }
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        if (target == GL30.GL_FRAMEBUFFER) {
+            Integer draw = boundFramebuffers.put(GL30.GL_DRAW_FRAMEBUFFER, framebuffer);
+            Integer read = boundFramebuffers.put(GL30.GL_READ_FRAMEBUFFER, framebuffer);
+            change(draw != null && read != null ? draw == framebuffer && read == framebuffer : framebuffer == 0);
+            return;
+        }
+        Integer previous = boundFramebuffers.put(target, framebuffer);
+        change(previous != null ? previous == framebuffer : framebuffer == 0);
+    }
+
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffer) {
+    }
+
+    @Override
+    public int checkFramebufferStatus(int target) {
+        return GL30.GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        boundFramebuffers.values().removeIf(bound -> bound == framebuffer);
+    }
+
+    @Override
+    public int genRenderbuffer() {
+        return nextRenderbuffer++;
+    }
+
+    @Override
+    public void bindRenderbuffer(int renderbuffer) {
+        change(boundRenderbuffer == renderbuffer);
+        boundRenderbuffer = renderbuffer;
+    }
+
+    @Override
+    public void renderbufferStorage(int internalFormat, int width, int height) {
+    }
+
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        if (boundRenderbuffer == renderbuffer) {
+            boundRenderbuffer = 0;
+        }
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        change(false);
+    }
+
+    @Override
+    public void clearColor(float r, float g, float b, float a) {
+        change(false);
+    }
+
+    @Override
+    public void clear(int mask) {
+    }
+
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, long offset) {
+        if (boundBuffers.getOrDefault(GL21.GL_PIXEL_PACK_BUFFER, 0) == 0) {
+            throw new IllegalStateException("Reading pixels without a pixel pack buffer would wait for the GPU.");
+        }
+        pixelReads++;
+    }
+
+    @Override
+    public long fenceSync() {
+        syncFrames.put(nextSync, frames);
+        return nextSync++;
+    }
+
+    @Override
+    public int clientWaitSync(long sync, int flags, long timeout) {
+        // nothing runs behind, so a fence is signaled once the latency's frames have ended
+        Integer made = syncFrames.get(sync);
+        if (made == null) {
+            return GL32.GL_WAIT_FAILED;
+        }
+        return frames - made >= syncLatency ? GL32.GL_ALREADY_SIGNALED : GL32.GL_TIMEOUT_EXPIRED;
+    }
+
+    @Override
+    public void deleteSync(long sync) {
+        syncFrames.remove(sync);
+    }
+
+    @Override
+    public int genQuery() {
+        return nextQuery++;
+    }
+
+    @Override
+    public void beginQuery(int target, int query) {
+        if (activeQueries.containsKey(target)) {
+            throw new IllegalStateException("A query of target " + target + " is already active.");
+        }
+        activeQueries.put(target, query);
+        queryFrames.remove(query);
+    }
+
+    @Override
+    public void endQuery(int target) {
+        Integer query = activeQueries.remove(target);
+        if (query == null) {
+            throw new IllegalStateException("No query of target " + target + " is active.");
+        }
+        queryFrames.put(query, frames);
+    }
+
+    @Override
+    public int getQueryObjecti(int query, int pname) {
+        if (pname == GL15.GL_QUERY_RESULT_AVAILABLE) {
+            return available(query) ? GL11.GL_TRUE : GL11.GL_FALSE;
+        }
+        return (int) getQueryObjectui64(query, pname);
+    }
+
+    @Override
+    public long getQueryObjectui64(int query, int pname) {
+        if (pname == GL15.GL_QUERY_RESULT_AVAILABLE) {
+            return getQueryObjecti(query, pname);
+        }
+        if (!available(query)) {
+            queryStalls++;
+        }
+        return queryResult;
+    }
+
+    @Override
+    public void deleteQuery(int query) {
+        queryFrames.remove(query);
+    }
+
+    @Override
+    public int createProgram() {
+        return nextProgram++;
+    }
+
+    @Override
+    public int createShader(int type) {
+        return nextShader++;
+    }
+
+    @Override
+    public void shaderSource(int shader, CharSequence source) {
+    }
+
+    @Override
+    public void compileShader(int shader) {
+    }
+
+    @Override
+    public int getShaderi(int shader, int pname) {
+        // every shader compiles
+        return GL11.GL_TRUE;
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return "";
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+    }
+
+    @Override
+    public void linkProgram(int program) {
+    }
+
+    @Override
+    public void validateProgram(int program) {
+    }
+
+    @Override
+    public int getProgrami(int program, int pname) {
+        // every program links and validates
+        return GL11.GL_TRUE;
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return "";
+    }
+
+    @Override
+    public int getUniformLocation(int program, CharSequence name) {
+        return locations.computeIfAbsent(program, p -> new HashMap<>())
+                .computeIfAbsent(name.toString(), n -> nextLocation++);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        change(currentProgram == program);
+        currentProgram = program;
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        locations.remove(program);
+        if (currentProgram == program) {
+            currentProgram = 0;
+        }
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        uniformSets++;
+    }
+
+    @Override
+    public void uniform1i(int location, int x) {
+        uniformSets++;
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        uniformSets++;
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        uniformSets++;
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        uniformSets++;
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, boolean transpose, float[] value) {
+        uniformSets++;
+    }
+
+    /**
+     * helper method to count a binding or capability being set
+     */
+    private void change(boolean redundant) {
+        if (redundant) {
+            redundantStateChanges++;
+        } else {
+            stateChanges++;
+        }
+    }
+
+    /**
+     * helper method to remember the size of the store of the buffer bound to a target
+     */
+    private void store(int target, long size) {
+        int buffer = bound(target);
+        if (buffer != 0) {
+            bufferSizes.put(buffer, size);
+        }
+    }
+
+    /**
+     * helper method to get the buffer bound to a target, the index buffer being the bound vertex array's
+     */
+    private int bound(int target) {
+        if (target == GL15.GL_ELEMENT_ARRAY_BUFFER) {
+            return elementBuffers.getOrDefault(boundVertexArray, 0);
+        }
+        return boundBuffers.getOrDefault(target, 0);
+    }
+
+    /**
+     * helper method to count the bytes of an upload
+     */
+    private void upload(Buffer data, int bytes) {
+        bytesUploaded += (long) data.remaining() * bytes;
+    }
+
+    /**
+     * helper method to tell if the result of a query that ended is available
+     */
+    private boolean available(int query) {
+        Integer ended = queryFrames.get(query);
+        if (ended == null) {
+            throw new IllegalStateException("Query " + query + " hasn't ended.");
+        }
+        return frames - ended >= queryLatency;
+    }
+
+    /**
+     * helper method to identify an attribute of the bound vertex array
+     */
+    private long attribute(int index) {
+        return ((long) boundVertexArray << 32) | index;
+    }
+}
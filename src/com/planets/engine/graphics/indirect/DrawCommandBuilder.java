@@ -0,0 +1,138 @@
+package com.planets.engine.graphics.indirect;
+
+import com.planets.engine.graphics.Submesh;
+import com.planets.engine.graphics.buffer_arena.ArenaMesh;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector4f;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class DrawCommandBuilder {
+
+    // the size of one DrawElementsIndirectCommand: count, instanceCount, firstIndex, baseVertex, baseInstance
+    public static final int COMMAND_BYTES = 5 * Integer.BYTES;
+
+    // the size of one draw's data in the std430 storage block: a row major mat4 model, a vec4 color and a uint ID
+    // padded to the 16 byte alignment of the struct
+    public static final int DRAW_DATA_BYTES = 16 * Float.BYTES + 4 * Float.BYTES + 4 * Integer.BYTES;
+
+    // the primitive modes, each drawn with its own multi-draw call
+    private static final int[] MODES = {GL11.GL_TRIANGLES, GL11.GL_TRIANGLE_STRIP};
+
+    // the commands and the draw data of each mode, kept between frames so building doesn't allocate
+    private final int[][] commands = new int[MODES.length][];
+    private final float[][] transforms = new float[MODES.length][];
+    private final int[][] ids = new int[MODES.length][];
+    private final int[] counts = new int[MODES.length];
+
+    /**
+     * default constructor
+     * @param expectedDraws - the amount of draws to make room for up front, more are made room for when needed
+     */
+    public DrawCommandBuilder(int expectedDraws) {
+        int capacity = Math.max(1, expectedDraws);
+        for (int m = 0; m < MODES.length; m++) {
+            commands[m] = new int[capacity * 5];
+            transforms[m] = new float[capacity * 20];
+            ids[m] = new int[capacity];
+        }
+    }
+
+    /**
+     * forgets the draws of the previous frame
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * adds the draws of a mesh, one per submesh
+     * @param mesh - where the mesh is stored in the arena
+     * @param model - the model matrix
+     * @param color - multiplies the vertex colors
+     * @param objectId - the ID of the object, passed to the shader
+     */
+    public void add(ArenaMesh mesh, Matrix4f model, Vector4f color, int objectId) {
+        int m = modeIndex(mesh.getMode());
+        for (Submesh range : mesh.getSubmeshes()) {
+            int draw = counts[m]++;
+            if (draw == ids[m].length) {
+                commands[m] = Arrays.copyOf(commands[m], commands[m].length * 2);
+                transforms[m] = Arrays.copyOf(transforms[m], transforms[m].length * 2);
+                ids[m] = Arrays.copyOf(ids[m], ids[m].length * 2);
+            }
+
+            // the base instance isn't used for instancing, it just repeats the draw index for debugging
+            int[] c = commands[m];
+            c[draw * 5] = range.getIndexCount();
+            c[draw * 5 + 1] = 1;
+            c[draw * 5 + 2] = mesh.getIndices().getOffset() + range.getFirstIndex();
+            c[draw * 5 + 3] = mesh.getVertices().getOffset() + range.getBaseVertex();
+            c[draw * 5 + 4] = draw;
+
+            float[] t = transforms[m];
+            System.arraycopy(model.getAll(), 0, t, draw * 20, 16);
+            t[draw * 20 + 16] = color.getX();
+            t[draw * 20 + 17] = color.getY();
+            t[draw * 20 + 18] = color.getZ();
+            t[draw * 20 + 19] = color.getW();
+            ids[m][draw] = objectId;
+        }
+    }
+
+    /**
+     * getter method
+     * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @return - the amount of draws of that mode
+     */
+    public int getDrawCount(int mode) {
+        return counts[modeIndex(mode)];
+    }
+
+    /**
+     * writes the indirect commands of a mode
+     * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @param out - the buffer to write to, in native byte order, with absolute puts
+     * @param offset - where to start writing, getDrawCount(mode) * COMMAND_BYTES bytes are written
+     */
+    public void writeCommands(int mode, ByteBuffer out, int offset) {
+        int m = modeIndex(mode);
+        for (int i = 0; i < counts[m] * 5; i++) {
+            out.putInt(offset + i * Integer.BYTES, commands[m][i]);
+        }
+    }
+
+    /**
+     * writes the draw data of a mode, in the order of the commands, so gl_DrawID indexes it
+     * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @param out - the buffer to write to, in native byte order, with absolute puts
+     * @param offset - where to start writing, getDrawCount(mode) * DRAW_DATA_BYTES bytes are written
+     */
+    public void writeDrawData(int mode, ByteBuffer out, int offset) {
+        int m = modeIndex(mode);
+        for (int draw = 0; draw < counts[m]; draw++) {
+            int base = offset + draw * DRAW_DATA_BYTES;
+            for (int i = 0; i < 20; i++) {
+                out.putFloat(base + i * Float.BYTES, transforms[m][draw * 20 + i]);
+            }
+            out.putInt(base + 20 * Float.BYTES, ids[m][draw]);
+            out.putInt(base + 20 * Float.BYTES + 4, 0);
+            out.putInt(base + 20 * Float.BYTES + 8, 0);
+            out.putInt(base + 20 * Float.BYTES + 12, 0);
+        }
+    }
+
+    /**
+     * helper method to find where a mode's draws are kept
+     */
+    private static int modeIndex(int mode) {
+        for (int m = 0; m < MODES.length; m++) {
+            if (MODES[m] == mode) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported primitive mode " + mode + ".");
+    }
+}
@@ -0,0 +1,198 @@
+package com.planets.engine.graphics.indirect;
+
+import com.planets.engine.graphics.Camera;
+import com.planets.engine.graphics.Shader;
+import com.planets.engine.graphics.buffer_arena.ArenaMesh;
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.streaming.StreamingBackend;
+import com.planets.engine.graphics.streaming.StreamingBuffer;
+import com.planets.engine.io.window.Window;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.objects.RenderObject;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL40;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.util.List;
+
+public class IndirectRenderer {
+
+    // the binding point of the draw data storage block in indirectVertex.glsl
+    private static final int DRAW_DATA_BINDING = 0;
+
+    // the color every object is drawn with, the vertex colors unchanged
+    private static final Vector4f WHITE = new Vector4f(1);
+
+    // the shader program, which reads the draw data by gl_DrawID
+    private final Shader shader;
+
+    // the window to render to
+    private final Window window;
+
+    // the backend the draws go through
+    private final GLBackend gl;
+
+    // the light color
+    private Vector3f lightColor = new Vector3f(1.0f, 1.0f, 1.0f);
+
+    // builds the commands and draw data on the CPU
+    private final DrawCommandBuilder builder;
+
+    // creates the streaming buffers, again whenever they have to grow
+    private final StreamingBackend backend;
+
+    // the commands and draw data of the frames in flight, and the most draws a frame has room for in them
+    private StreamingBuffer commands;
+    private StreamingBuffer drawData;
+    private int capacity;
+
+    // the alignment the draw data has to be bound at
+    private final int drawDataAlignment;
+
+    /**
+     * default constructor
+     * @param window - the specified window to render to
+     * @param shader - the shader program to use to render, built from indirectVertex.glsl
+     * @param backend - creates the streaming buffers the commands and draw data are written to
+     * @param expectedDraws - the draws per frame to make room for up front, counting one per submesh. frames with
+     *                      more grow the buffers
+     */
+    public IndirectRenderer(Window window, Shader shader, StreamingBackend backend, int expectedDraws) {
+        this.window = window;
+        this.shader = shader;
+        this.backend = backend;
+        this.builder = new DrawCommandBuilder(expectedDraws);
+        this.gl = Graphics.gl();
+        this.drawDataAlignment = Math.max(1, gl.getInteger(GL43.GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT));
+        createBuffers(Math.max(1, expectedDraws));
+    }
+
+    /**
+     * checks if the current context can run this renderer, which needs multi-draw indirect and storage buffers from
+     * OpenGL 4.3, and persistently mapped buffers from OpenGL 4.4 or ARB_buffer_storage
+     * @return - true if it can
+     */
+    public static boolean isSupported() {
+        GLCapabilities capabilities = GL.getCapabilities();
+        return capabilities.OpenGL44 || (capabilities.OpenGL43 && capabilities.GL_ARB_buffer_storage);
+    }
+
+    /**
+     * renders objects whose meshes are stored in an arena with one multi-draw call per primitive mode, no matter
+     * how many objects there are
+     * @param arena - the arena holding the meshes of the objects
+     * @param objects - the objects to be rendered
+     * @param camera - the camera perspective
+     * @param lightPosition - the position of the light source
+     */
+    public void render(MeshArena arena, List<? extends RenderObject> objects, Camera camera, Vector3f lightPosition) {
+        builder.reset();
+        for (RenderObject object : objects) {
+            ArenaMesh mesh = arena.get(object.getMesh());
+            if (mesh == null) {
+                throw new IllegalStateException("The mesh of object " + object.getID() + " isn't in the arena.");
+            }
+            builder.add(mesh, Matrix4f.transform(object.getPosition(), object.getRotation(), object.getScale()), WHITE, object.getID());
+        }
+
+        // every draw of a mode has to be in one region for its single multi-draw, so a frame with more draws than
+        // there is room for grows the buffers, at least doubling them so it rarely happens again
+        int draws = builder.getDrawCount(GL11.GL_TRIANGLES) + builder.getDrawCount(GL11.GL_TRIANGLE_STRIP);
+        if (draws > capacity) {
+            destroy();
+            createBuffers(Math.max(draws, capacity * 2));
+        }
+
+        commands.beginFrame();
+        drawData.beginFrame();
+        arena.bind();
+        shader.bind();
+        shader.setUniform("view", Matrix4f.view(camera.getPosition(), camera.getRotation()));
+        shader.setUniform("projection", window.getProjectionMatrix());
+        shader.setUniform("lightPos", lightPosition);
+        shader.setUniform("lightLevel", 0.1f);
+        shader.setUniform("viewPos", camera.getPosition());
+        shader.setUniform("lightColor", lightColor);
+        gl.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, commands.getBuffer());
+
+        draw(GL11.GL_TRIANGLES);
+        gl.enable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+        draw(GL11.GL_TRIANGLE_STRIP);
+        gl.disable(GL43.GL_PRIMITIVE_RESTART_FIXED_INDEX);
+
+        gl.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+        shader.unbind();
+        arena.unbind();
+        commands.endFrame();
+        drawData.endFrame();
+    }
+
+    /**
+     * helper method to write and issue the draws of one primitive mode
+     */
+    private void draw(int mode) {
+        int count = builder.getDrawCount(mode);
+        if (count == 0) {
+            return;
+        }
+
+        int commandOffset = commands.allocate(count * DrawCommandBuilder.COMMAND_BYTES, Integer.BYTES);
+        int dataOffset = drawData.allocate(count * DrawCommandBuilder.DRAW_DATA_BYTES, drawDataAlignment);
+        builder.writeCommands(mode, commands.getMapped(), commandOffset);
+        builder.writeDrawData(mode, drawData.getMapped(), dataOffset);
+
+        gl.bindBufferRange(GL43.GL_SHADER_STORAGE_BUFFER, DRAW_DATA_BINDING, drawData.getBuffer(), dataOffset,
+                (long) count * DrawCommandBuilder.DRAW_DATA_BYTES);
+        gl.multiDrawElementsIndirect(mode, GL11.GL_UNSIGNED_SHORT, commandOffset, count, 0);
+    }
+
+    /**
+     * helper method to create the streaming buffers with room for an amount of draws per frame
+     */
+    private void createBuffers(int draws) {
+        // each mode's draws start aligned, so there is room for the padding of both
+        commands = new StreamingBuffer(backend, GL40.GL_DRAW_INDIRECT_BUFFER,
+                draws * DrawCommandBuilder.COMMAND_BYTES + 2 * Integer.BYTES, StreamingBuffer.DEFAULT_REGIONS);
+        drawData = new StreamingBuffer(backend, GL43.GL_SHADER_STORAGE_BUFFER,
+                draws * DrawCommandBuilder.DRAW_DATA_BYTES + 2 * drawDataAlignment, StreamingBuffer.DEFAULT_REGIONS);
+        capacity = draws;
+    }
+
+    /**
+     * getter method
+     * @return - the most draws a frame has room for before the streaming buffers grow
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * waits for the GPU to finish with the streaming buffers and deletes them
+     */
+    public void destroy() {
+        commands.destroy();
+        drawData.destroy();
+    }
+
+    /**
+     * sets the light color
+     * @param lightColor - the new color
+     */
+    public void setLightColor(Vector3f lightColor) {
+        this.lightColor = lightColor;
+    }
+
+    /**
+     * getter method
+     * @return - the light color
+     */
+    public Vector3f getLightColor() {
+        return this.lightColor;
+    }
+}
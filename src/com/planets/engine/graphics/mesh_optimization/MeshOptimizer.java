@@ -0,0 +1,264 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+
+import java.util.Arrays;
+
+public class MeshOptimizer {
+
+    // the size of the least recently used cache the triangle order is tuned for
+    public static final int DEFAULT_CACHE_SIZE = 32;
+
+    // the size of the first in first out cache the miss ratio is measured with, close to what GPUs actually have
+    public static final int SIMULATED_CACHE_SIZE = 16;
+
+    // the weights of the vertex score, from Tom Forsyth's "Linear-Speed Vertex Cache Optimisation"
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    // valences up to this are looked up instead of computed, planets never go past 6
+    private static final int MAX_TABLED_VALENCE = 32;
+
+    /**
+     * reorders the triangles of a mesh for the post transform cache, then reorders its vertices into the order
+     * the triangles first use them. everything runs on the CPU and the same mesh always gives the same result
+     * @param mesh - the mesh, which is left as it is
+     * @return - the optimized mesh, not created yet, and the cache miss ratio before and after
+     */
+    public static OptimizedMesh optimize(Mesh mesh) {
+        Vertex[] vertices = mesh.getVertices();
+        int[] indices = mesh.getIndices();
+        double before = acmr(indices, vertices.length, SIMULATED_CACHE_SIZE);
+
+        int[] reordered = optimizeVertexCache(indices, vertices.length, DEFAULT_CACHE_SIZE);
+        int[] remap = optimizeVertexFetch(reordered, vertices.length);
+
+        // vertices no triangle uses are dropped
+        int used = 0;
+        for (int i : remap) {
+            used = Math.max(used, i + 1);
+        }
+        Vertex[] fetched = new Vertex[used];
+        for (int i = 0; i < vertices.length; i++) {
+            if (remap[i] >= 0) {
+                fetched[remap[i]] = vertices[i];
+            }
+        }
+
+        Mesh optimized = new Mesh(fetched, reordered);
+        return new OptimizedMesh(optimized, before, acmr(reordered, used, SIMULATED_CACHE_SIZE), vertices.length);
+    }
+
+    /**
+     * measures the average cache miss ratio - the amount of vertices transformed per triangle with a first in first
+     * out cache. 3 means no vertex is ever reused, around 0.5 is the best a closed mesh can do
+     * @param indices - 3 indices per triangle
+     * @param vertexCount - the amount of vertices
+     * @param cacheSize - the amount of vertices the cache holds
+     * @return - the miss ratio, or 0 if there are no triangles
+     */
+    public static double acmr(int[] indices, int vertexCount, int cacheSize) {
+        if (indices.length < 3) {
+            return 0;
+        }
+
+        // a vertex is in the cache if fewer than cacheSize misses happened since it was last loaded
+        int[] loaded = new int[vertexCount];
+        int misses = 0;
+        int clock = cacheSize + 1;
+        for (int i : indices) {
+            if (clock - loaded[i] > cacheSize) {
+                loaded[i] = clock++;
+                misses++;
+            }
+        }
+        return (double) misses / (indices.length / 3);
+    }
+
+    /**
+     * reorders triangles so vertices are reused while they're still in the post transform cache.
+     * greedily picks the triangle whose vertices score the highest, where a vertex scores higher the more recently
+     * it was used and the fewer triangles are left that use it
+     * @param indices - 3 indices per triangle, which are left as they are
+     * @param vertexCount - the amount of vertices
+     * @param cacheSize - the size of the cache to tune for, at least 4
+     * @return - the same triangles in the new order, each with its corners in the same order
+     */
+    public static int[] optimizeVertexCache(int[] indices, int vertexCount, int cacheSize) {
+        if (indices.length % 3 != 0) {
+            throw new IllegalArgumentException("The amount of indices must be a multiple of 3.");
+        }
+        if (cacheSize < 4) {
+            throw new IllegalArgumentException("The cache must hold at least 4 vertices.");
+        }
+        int triangleCount = indices.length / 3;
+
+        // the triangles that use each vertex, the ones not emitted yet are kept at the front of each range
+        int[] offsets = new int[vertexCount + 1];
+        for (int i : indices) {
+            offsets[i + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] remaining = new int[vertexCount];
+        int[] adjacency = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            adjacency[offsets[v] + remaining[v]++] = i / 3;
+        }
+
+        // the scores, with every vertex starting outside the cache
+        int[] cachePosition = new int[vertexCount];
+        Arrays.fill(cachePosition, -1);
+        float[] positionScores = new float[cacheSize];
+        for (int i = 0; i < cacheSize; i++) {
+            positionScores[i] = positionScore(i, cacheSize);
+        }
+        float[] valenceScores = new float[MAX_TABLED_VALENCE + 1];
+        for (int i = 1; i <= MAX_TABLED_VALENCE; i++) {
+            valenceScores[i] = valenceScore(i);
+        }
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = vertexScore(-1, remaining[v], positionScores, valenceScores);
+        }
+        float[] triangleScores = new float[triangleCount];
+        int best = -1;
+        for (int t = 0; t < triangleCount; t++) {
+            triangleScores[t] = vertexScores[indices[3 * t]] + vertexScores[indices[3 * t + 1]] + vertexScores[indices[3 * t + 2]];
+            if (best < 0 || triangleScores[t] > triangleScores[best]) {
+                best = t;
+            }
+        }
+
+        boolean[] emitted = new boolean[triangleCount];
+        int[] cache = new int[cacheSize + 3];
+        int[] next = new int[cacheSize + 3];
+        int cached = 0;
+        int[] result = new int[indices.length];
+        int written = 0;
+        int scan = 0;
+
+        while (best >= 0) {
+            // emit the triangle and take it off the lists of its vertices
+            emitted[best] = true;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[3 * best + k];
+                result[written++] = v;
+                int end = offsets[v] + remaining[v] - 1;
+                for (int j = offsets[v]; j <= end; j++) {
+                    if (adjacency[j] == best) {
+                        adjacency[j] = adjacency[end];
+                        adjacency[end] = best;
+                        remaining[v]--;
+                        break;
+                    }
+                }
+            }
+
+            // the vertices of the triangle move to the front of the cache, pushing the rest back
+            int count = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[3 * best + k];
+                if (count == 0 || next[0] != v && (count == 1 || next[1] != v)) {
+                    next[count++] = v;
+                }
+            }
+            int front = count;
+            for (int i = 0; i < cached; i++) {
+                int v = cache[i];
+                if (v != next[0] && (front < 2 || v != next[1]) && (front < 3 || v != next[2])) {
+                    next[count++] = v;
+                }
+            }
+
+            // rescore everything that moved, including the vertices that fell out of the cache
+            for (int i = 0; i < count; i++) {
+                int v = next[i];
+                cachePosition[v] = i < cacheSize ? i : -1;
+                vertexScores[v] = vertexScore(cachePosition[v], remaining[v], positionScores, valenceScores);
+            }
+
+            // the next triangle is the best one touching the cache
+            best = -1;
+            for (int i = 0; i < count; i++) {
+                int v = next[i];
+                for (int j = offsets[v]; j < offsets[v] + remaining[v]; j++) {
+                    int t = adjacency[j];
+                    triangleScores[t] = vertexScores[indices[3 * t]] + vertexScores[indices[3 * t + 1]] + vertexScores[indices[3 * t + 2]];
+                    if (best < 0 || triangleScores[t] > triangleScores[best]) {
+                        best = t;
+                    }
+                }
+            }
+
+            int[] swap = cache;
+            cache = next;
+            next = swap;
+            cached = Math.min(count, cacheSize);
+
+            // nothing left near the cache, so continue with the first triangle not emitted yet
+            if (best < 0) {
+                while (scan < triangleCount && emitted[scan]) {
+                    scan++;
+                }
+                best = scan < triangleCount ? scan : -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * numbers vertices in the order the indices first use them, so vertex data is read front to back.
+     * the indices are rewritten to the new numbers
+     * @param indices - the indices, which are changed
+     * @param vertexCount - the amount of vertices
+     * @return - the new number of every vertex, -1 for vertices no index uses
+     */
+    public static int[] optimizeVertexFetch(int[] indices, int vertexCount) {
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int used = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            if (remap[v] < 0) {
+                remap[v] = used++;
+            }
+            indices[i] = remap[v];
+        }
+        return remap;
+    }
+
+    /**
+     * helper method to score a vertex by its cache position and the amount of triangles still using it
+     */
+    private static float vertexScore(int cachePosition, int remaining, float[] positionScores, float[] valenceScores) {
+        if (remaining == 0) {
+            return -1.0f;
+        }
+        float score = cachePosition >= 0 ? positionScores[cachePosition] : 0.0f;
+        return score + (remaining < valenceScores.length ? valenceScores[remaining] : valenceScore(remaining));
+    }
+
+    /**
+     * helper method to score a position in the cache
+     */
+    private static float positionScore(int cachePosition, int cacheSize) {
+        if (cachePosition < 3) {
+            // the triangle just emitted, which is penalized so strips don't just go back and forth
+            return LAST_TRIANGLE_SCORE;
+        }
+        return (float) Math.pow(1.0f - (cachePosition - 3) / (float) (cacheSize - 3), CACHE_DECAY_POWER);
+    }
+
+    /**
+     * helper method to boost vertices with few triangles left, so they are finished first instead of lingering
+     */
+    private static float valenceScore(int remaining) {
+        return VALENCE_BOOST_SCALE * (float) Math.pow(remaining, -VALENCE_BOOST_POWER);
+    }
+}
@@ -0,0 +1,102 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.IndexBuffers;
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Submesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class MeshSplitter {
+
+    /**
+     * splits a mesh into submeshes small enough for 16 bit indices
+     * @param mesh - the mesh, which is left as it is
+     * @return - the mesh itself if it is small enough already, otherwise a mesh whose submeshes each use fewer than
+     *           65536 vertices, with indices counting from the base vertex of their submesh
+     */
+    public static Mesh split(Mesh mesh) {
+        return split(mesh, IndexBuffers.MAX_SHORT_VERTICES);
+    }
+
+    /**
+     * splits a mesh into submeshes of limited size. triangles are kept in order, and the vertices of each submesh
+     * are stored together, so vertices shared across a boundary are stored once per submesh
+     * @param mesh - the mesh, which is left as it is
+     * @param maxVertices - the most vertices one submesh may use, at least 3
+     * @return - the mesh itself if it is small enough already, otherwise the split mesh
+     */
+    public static Mesh split(Mesh mesh, int maxVertices) {
+        if (maxVertices < 3) {
+            throw new IllegalArgumentException("A submesh must hold at least one triangle.");
+        }
+        if (mesh.getVertexCount() <= maxVertices) {
+            return mesh;
+        }
+
+        // the source is read as packed data, so a packed or memory mapped mesh is never unpacked into vertices
+        int vertexCount = mesh.getVertexCount();
+        int[] indices = new int[mesh.getIndexCount()];
+        mesh.readIndices(0, indices.length, indices);
+        ArrayList<Submesh> submeshes = new ArrayList<>();
+        int[] local = new int[indices.length];
+
+        // the source vertex of each vertex of the split mesh
+        int[] order = new int[vertexCount + vertexCount / 8];
+        int count = 0;
+
+        // the local number of each vertex in the current submesh, valid only if its stamp is the current submesh
+        int[] remap = new int[vertexCount];
+        int[] stamp = new int[vertexCount];
+        Arrays.fill(stamp, -1);
+
+        int firstIndex = 0;
+        int baseVertex = 0;
+        for (int t = 0; t < indices.length; t += 3) {
+            // start a new submesh if this triangle's new vertices wouldn't fit
+            int added = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[t + k];
+                if (stamp[v] != submeshes.size() && (k < 1 || v != indices[t]) && (k < 2 || v != indices[t + 1])) {
+                    added++;
+                }
+            }
+            if (count - baseVertex + added > maxVertices) {
+                submeshes.add(new Submesh(firstIndex, t - firstIndex, baseVertex));
+                firstIndex = t;
+                baseVertex = count;
+            }
+
+            for (int k = 0; k < 3; k++) {
+                int v = indices[t + k];
+                if (stamp[v] != submeshes.size()) {
+                    stamp[v] = submeshes.size();
+                    remap[v] = count - baseVertex;
+                    if (count == order.length) {
+                        order = Arrays.copyOf(order, count + count / 2 + 3);
+                    }
+                    order[count++] = v;
+                }
+                local[t + k] = remap[v];
+            }
+        }
+        submeshes.add(new Submesh(firstIndex, indices.length - firstIndex, baseVertex));
+
+        return new Mesh(gather(mesh.packPositions(), 3, order, count), gather(mesh.packColors(), 4, order, count),
+                gather(mesh.packNormals(), 3, order, count), local, submeshes.toArray(new Submesh[0]));
+    }
+
+    /**
+     * helper method to copy the data of the vertices of the split mesh, in their order, into a buffer OpenGL can read
+     */
+    private static FloatBuffer gather(float[] data, int components, int[] order, int count) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(count * components * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        for (int i = 0; i < count; i++) {
+            buffer.put(data, order[i] * components, components);
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,70 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.Mesh;
+
+import java.util.Locale;
+
+public class OptimizedMesh {
+
+    // the reordered mesh
+    private final Mesh mesh;
+
+    // the average cache miss ratio before and after reordering
+    private final double acmrBefore;
+    private final double acmrAfter;
+
+    // the amount of vertices before unused ones were dropped
+    private final int originalVertexCount;
+
+    /**
+     * default constructor
+     * @param mesh - the reordered mesh
+     * @param acmrBefore - the average cache miss ratio before reordering
+     * @param acmrAfter - the average cache miss ratio after reordering
+     * @param originalVertexCount - the amount of vertices before unused ones were dropped
+     */
+    OptimizedMesh(Mesh mesh, double acmrBefore, double acmrAfter, int originalVertexCount) {
+        this.mesh = mesh;
+        this.acmrBefore = acmrBefore;
+        this.acmrAfter = acmrAfter;
+        this.originalVertexCount = originalVertexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the reordered mesh, not created yet
+     */
+    public Mesh getMesh() {
+        return this.mesh;
+    }
+
+    /**
+     * getter method
+     * @return - the average cache miss ratio before reordering
+     */
+    public double getAcmrBefore() {
+        return this.acmrBefore;
+    }
+
+    /**
+     * getter method
+     * @return - the average cache miss ratio after reordering
+     */
+    public double getAcmrAfter() {
+        return this.acmrAfter;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of vertices before unused ones were dropped
+     */
+    public int getOriginalVertexCount() {
+        return this.originalVertexCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "ACMR %.3f -> %.3f (%d-entry FIFO), %d triangles, %d vertices",
+                acmrBefore, acmrAfter, MeshOptimizer.SIMULATED_CACHE_SIZE, mesh.getIndexCount() / 3, mesh.getVertexCount());
+    }
+}
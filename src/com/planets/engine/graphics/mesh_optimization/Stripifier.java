@@ -0,0 +1,166 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.Mesh;
+import org.lwjgl.opengl.GL11;
+
+import java.util.Arrays;
+
+public class Stripifier {
+
+    // the index that ends a strip - all bits set, which is what GL_PRIMITIVE_RESTART_FIXED_INDEX expects for
+    // both 16 and 32 bit indices once it's narrowed
+    public static final int RESTART = -1;
+
+    /**
+     * converts a triangle list mesh into triangle strips
+     * @param mesh - the mesh, drawn as a triangle list, which is left as it is
+     * @return - a mesh with the same vertices drawn as strips, not created yet
+     */
+    public static Mesh stripify(Mesh mesh) {
+        TriangleStrips strips = stripify(mesh.getIndices(), mesh.getVertexCount());
+        return new Mesh(mesh.getVertices(), strips.getIndices(), GL11.GL_TRIANGLE_STRIP);
+    }
+
+    /**
+     * joins triangles that share edges into strips. each strip starts from the first triangle not in a strip yet,
+     * in the rotation that lets it grow the longest, and grows while a triangle with the right winding shares its
+     * last edge. the same triangles always give the same strips
+     * @param indices - 3 indices per triangle
+     * @param vertexCount - the amount of vertices
+     * @return - the strips, each triangle with the same winding as in the list
+     */
+    public static TriangleStrips stripify(int[] indices, int vertexCount) {
+        if (indices.length % 3 != 0) {
+            throw new IllegalArgumentException("The amount of indices must be a multiple of 3.");
+        }
+        int triangleCount = indices.length / 3;
+
+        // the triangles around each vertex
+        int[] offsets = new int[vertexCount + 1];
+        for (int i : indices) {
+            offsets[i + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = new int[vertexCount];
+        int[] adjacency = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            adjacency[offsets[v] + fill[v]++] = i / 3;
+        }
+
+        // triangles in a strip are marked -1, triangles only tried by a trial run are marked with its number
+        int[] marks = new int[triangleCount];
+        Arrays.fill(marks, Integer.MAX_VALUE);
+        int trial = 0;
+
+        int[] out = new int[indices.length + triangleCount];
+        int length = 0;
+        int strips = 0;
+        for (int start = 0; start < triangleCount; start++) {
+            if (marks[start] == -1) {
+                continue;
+            }
+
+            // try each rotation of the first triangle and keep the longest
+            int bestRotation = 0;
+            int bestLength = -1;
+            for (int rotation = 0; rotation < 3; rotation++) {
+                int grown = grow(indices, offsets, adjacency, marks, start, rotation, trial++, null, 0);
+                if (grown > bestLength) {
+                    bestLength = grown;
+                    bestRotation = rotation;
+                }
+            }
+
+            if (strips > 0) {
+                out[length++] = RESTART;
+            }
+            marks[start] = -1;
+            for (int k = 0; k < 3; k++) {
+                out[length++] = indices[3 * start + (bestRotation + k) % 3];
+            }
+            length += grow(indices, offsets, adjacency, marks, start, bestRotation, -1, out, length);
+            strips++;
+        }
+
+        return new TriangleStrips(Arrays.copyOf(out, length), strips, triangleCount, indices.length);
+    }
+
+    /**
+     * turns strips back into a triangle list, for checking them against the list they were built from
+     * @param strips - the strips, separated by RESTART
+     * @return - 3 indices per triangle, leaving out degenerate triangles
+     */
+    public static int[] unstrip(int[] strips) {
+        int[] triangles = new int[strips.length * 3];
+        int length = 0;
+        int first = 0;
+        for (int i = 0; i <= strips.length; i++) {
+            if (i < strips.length && strips[i] != RESTART) {
+                continue;
+            }
+
+            // every 3 consecutive indices of a strip make a triangle, with every other one flipped
+            for (int j = first; j + 2 < i; j++) {
+                int a = strips[j], b = strips[j + 1], c = strips[j + 2];
+                if (a == b || b == c || a == c) {
+                    continue;
+                }
+                boolean odd = (j - first) % 2 == 1;
+                triangles[length++] = odd ? b : a;
+                triangles[length++] = odd ? a : b;
+                triangles[length++] = c;
+            }
+            first = i + 1;
+        }
+        return Arrays.copyOf(triangles, length);
+    }
+
+    /**
+     * helper method to grow a strip from a starting triangle
+     * @param mark - the mark for triangles taken by this run, or -1 to take them for good
+     * @param out - receives the vertices added to the strip, null for a trial run
+     * @return - the amount of triangles added after the starting one
+     */
+    private static int grow(int[] indices, int[] offsets, int[] adjacency, int[] marks, int start, int rotation,
+                            int mark, int[] out, int length) {
+        int p = indices[3 * start + (rotation + 1) % 3];
+        int q = indices[3 * start + (rotation + 2) % 3];
+        int added = 0;
+
+        while (true) {
+            // odd triangles of a strip are wound the other way, so the shared edge is needed reversed
+            int from = added % 2 == 0 ? q : p;
+            int to = added % 2 == 0 ? p : q;
+
+            int next = -1;
+            int third = -1;
+            for (int j = offsets[from]; j < offsets[from + 1] && next < 0; j++) {
+                int t = adjacency[j];
+                if (t == start || marks[t] == -1 || marks[t] == mark) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    if (indices[3 * t + k] == from && indices[3 * t + (k + 1) % 3] == to) {
+                        next = t;
+                        third = indices[3 * t + (k + 2) % 3];
+                        break;
+                    }
+                }
+            }
+            if (next < 0) {
+                return added;
+            }
+
+            marks[next] = mark;
+            if (out != null) {
+                out[length + added] = third;
+            }
+            p = q;
+            q = third;
+            added++;
+        }
+    }
+}
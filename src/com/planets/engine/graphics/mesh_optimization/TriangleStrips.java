@@ -0,0 +1,76 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import java.util.Locale;
+
+public class TriangleStrips {
+
+    // the strips, separated by Stripifier.RESTART
+    private final int[] indices;
+
+    // the amount of strips and the triangles in them
+    private final int stripCount;
+    private final int triangleCount;
+
+    // the amount of indices of the triangle list the strips were built from
+    private final int sourceIndexCount;
+
+    /**
+     * default constructor
+     * @param indices - the strips, separated by Stripifier.RESTART
+     * @param stripCount - the amount of strips
+     * @param triangleCount - the amount of triangles in the strips
+     * @param sourceIndexCount - the amount of indices of the triangle list the strips were built from
+     */
+    TriangleStrips(int[] indices, int stripCount, int triangleCount, int sourceIndexCount) {
+        this.indices = indices;
+        this.stripCount = stripCount;
+        this.triangleCount = triangleCount;
+        this.sourceIndexCount = sourceIndexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the strips, separated by Stripifier.RESTART
+     */
+    public int[] getIndices() {
+        return this.indices;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of strips
+     */
+    public int getStripCount() {
+        return this.stripCount;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of triangles in the strips
+     */
+    public int getTriangleCount() {
+        return this.triangleCount;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of indices of the triangle list the strips were built from
+     */
+    public int getSourceIndexCount() {
+        return this.sourceIndexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the share of indices saved compared to the triangle list, negative if the strips need more
+     */
+    public double getReduction() {
+        return sourceIndexCount == 0 ? 0 : 1.0 - (double) indices.length / sourceIndexCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "indices %d -> %d (%+.1f%%), %d strips, %.2f triangles per strip",
+                sourceIndexCount, indices.length, -100 * getReduction(), stripCount, (double) triangleCount / Math.max(1, stripCount));
+    }
+}
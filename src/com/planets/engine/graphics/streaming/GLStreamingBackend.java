@@ -0,0 +1,65 @@
+package com.planets.engine.graphics.streaming;
+
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+
+import java.nio.ByteBuffer;
+
+public class GLStreamingBackend implements StreamingBackend {
+
+    // the storage is only written by the CPU, and stays mapped and coherent while the GPU reads it
+    private static final int FLAGS = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+
+    // the backend the buffers and fences are made with
+    private final GLBackend gl = Graphics.gl();
+
+    @Override
+    public int createBuffer(int target, long bytes) {
+        int buffer = gl.genBuffer();
+        gl.bindBuffer(target, buffer);
+        gl.bufferStorage(target, bytes, FLAGS);
+        gl.bindBuffer(target, 0);
+        return buffer;
+    }
+
+    @Override
+    public ByteBuffer map(int buffer, int target, long bytes) {
+        gl.bindBuffer(target, buffer);
+        ByteBuffer mapped = gl.mapBufferRange(target, 0, bytes, FLAGS);
+        gl.bindBuffer(target, 0);
+        if (mapped == null) {
+            throw new IllegalStateException("Could not map the streaming buffer.");
+        }
+        return mapped;
+    }
+
+    @Override
+    public long fence() {
+        return gl.fenceSync();
+    }
+
+    @Override
+    public boolean waitFence(long fence, long timeoutNanos) {
+        int result = gl.clientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, timeoutNanos);
+        if (result == GL32.GL_WAIT_FAILED) {
+            throw new IllegalStateException("Waiting for a streaming buffer fence failed.");
+        }
+        return result != GL32.GL_TIMEOUT_EXPIRED;
+    }
+
+    @Override
+    public void deleteFence(long fence) {
+        gl.deleteSync(fence);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer, int target) {
+        gl.bindBuffer(target, buffer);
+        gl.unmapBuffer(target);
+        gl.bindBuffer(target, 0);
+        gl.deleteBuffer(buffer);
+    }
+}
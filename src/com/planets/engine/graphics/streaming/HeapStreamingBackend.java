@@ -0,0 +1,109 @@
+package com.planets.engine.graphics.streaming;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+public class HeapStreamingBackend implements StreamingBackend {
+
+    // the amount of newer fences after which a fence counts as signaled, like a GPU running that many frames behind
+    private final int latency;
+
+    // the memory of each buffer
+    private final HashMap<Integer, ByteBuffer> buffers = new HashMap<>();
+    private int nextBuffer = 1;
+
+    // the fences that haven't been signaled yet
+    private final TreeSet<Long> pending = new TreeSet<>();
+    private long nextFence = 1;
+
+    // the amount of waits that would have blocked
+    private int blockedWaits;
+
+    /**
+     * default constructor
+     * @param latency - the amount of newer fences after which a fence counts as signaled, 0 to signal at once
+     */
+    public HeapStreamingBackend(int latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public int createBuffer(int target, long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Buffer of " + bytes + " bytes is too large.");
+        }
+        int buffer = nextBuffer++;
+        buffers.put(buffer, ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()));
+        return buffer;
+    }
+
+    @Override
+    public ByteBuffer map(int buffer, int target, long bytes) {
+        ByteBuffer memory = buffers.get(buffer);
+        if (memory == null) {
+            throw new IllegalStateException("Buffer " + buffer + " doesn't exist.");
+        }
+        return memory;
+    }
+
+    @Override
+    public long fence() {
+        long fence = nextFence++;
+        pending.add(fence);
+        while (!pending.isEmpty() && pending.first() <= fence - latency) {
+            pending.pollFirst();
+        }
+        return fence;
+    }
+
+    /**
+     * the fake GPU finishes the work before a fence as soon as something waits for it, so a wait that would block
+     * returns false once and is counted, instead of hanging
+     */
+    @Override
+    public boolean waitFence(long fence, long timeoutNanos) {
+        if (pending.remove(fence)) {
+            blockedWaits++;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void deleteFence(long fence) {
+        pending.remove(fence);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer, int target) {
+        if (buffers.remove(buffer) == null) {
+            throw new IllegalStateException("Buffer " + buffer + " doesn't exist.");
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the amount of waits that would have blocked
+     */
+    public int getBlockedWaits() {
+        return this.blockedWaits;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of fences not signaled yet
+     */
+    public int getPendingFences() {
+        return pending.size();
+    }
+
+    /**
+     * getter method
+     * @return - the amount of buffers not deleted yet
+     */
+    public int getLiveBuffers() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.planets.engine.graphics.streaming;
+
+import java.nio.ByteBuffer;
+
+public interface StreamingBackend {
+
+    /**
+     * creates a buffer object with immutable storage that can stay mapped while it is drawn from
+     * @param target - the binding target, e.g. GL_ARRAY_BUFFER
+     * @param bytes - the size of the storage
+     * @return - the buffer ID
+     */
+    int createBuffer(int target, long bytes);
+
+    /**
+     * maps the whole storage of a buffer for writing, for as long as the buffer exists. writes become visible to
+     * the GPU without flushing
+     * @param buffer - the buffer ID
+     * @param target - the binding target the buffer was created with
+     * @param bytes - the size of the storage
+     * @return - the mapped memory
+     */
+    ByteBuffer map(int buffer, int target, long bytes);
+
+    /**
+     * inserts a fence after every command issued so far
+     * @return - the fence, never 0
+     */
+    long fence();
+
+    /**
+     * waits for the commands before a fence to finish
+     * @param fence - the fence
+     * @param timeoutNanos - the longest time to wait
+     * @return - true if the commands finished, false if the timeout ran out first
+     */
+    boolean waitFence(long fence, long timeoutNanos);
+
+    /**
+     * releases a fence
+     * @param fence - the fence
+     */
+    void deleteFence(long fence);
+
+    /**
+     * unmaps and deletes a buffer
+     * @param buffer - the buffer ID
+     * @param target - the binding target the buffer was created with
+     */
+    void deleteBuffer(int buffer, int target);
+}
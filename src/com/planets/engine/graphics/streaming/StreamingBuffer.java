@@ -0,0 +1,188 @@
+package com.planets.engine.graphics.streaming;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class StreamingBuffer {
+
+    // enough regions that the CPU can fill one while the GPU reads the one before and the driver queues another
+    public static final int DEFAULT_REGIONS = 3;
+
+    // how long to wait for a fence at once, before counting the frame as stalled and waiting again
+    private static final long WAIT_NANOS = 1_000_000L;
+
+    // creates, maps and fences the buffer
+    private final StreamingBackend backend;
+
+    // the buffer, its binding target and its memory
+    private final int buffer;
+    private final int target;
+    private final ByteBuffer mapped;
+
+    // the buffer is split into regions of equal size, one per frame in flight
+    private final int regionBytes;
+    private final long[] fences;
+
+    // the region written this frame, and how much of it is used
+    private int region;
+    private int head;
+    private boolean inFrame;
+
+    // the amount of frames that had to wait for the GPU, and how long they waited in total
+    private int stalls;
+    private long stallNanos;
+
+    /**
+     * default constructor
+     * @param backend - creates, maps and fences the buffer
+     * @param target - the binding target, e.g. GL_ARRAY_BUFFER
+     * @param regionBytes - the most bytes that can be written in one frame
+     * @param regions - the amount of frames that can be in flight, usually DEFAULT_REGIONS
+     */
+    public StreamingBuffer(StreamingBackend backend, int target, int regionBytes, int regions) {
+        if (regionBytes <= 0 || regions <= 0) {
+            throw new IllegalArgumentException("A streaming buffer needs at least one region of at least one byte.");
+        }
+        if ((long) regionBytes * regions > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A streaming buffer of " + regions + " regions of " + regionBytes
+                    + " bytes is too large to map.");
+        }
+        this.backend = backend;
+        this.target = target;
+        this.regionBytes = regionBytes;
+        this.fences = new long[regions];
+
+        long bytes = (long) regionBytes * regions;
+        this.buffer = backend.createBuffer(target, bytes);
+        this.mapped = backend.map(buffer, target, bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * starts a frame, waiting for the GPU to finish reading the region this frame is about to overwrite
+     */
+    public void beginFrame() {
+        if (inFrame) {
+            throw new IllegalStateException("The streaming buffer frame has already begun.");
+        }
+
+        long fence = fences[region];
+        if (fence != 0) {
+            if (!backend.waitFence(fence, 0)) {
+                long start = System.nanoTime();
+                while (!backend.waitFence(fence, WAIT_NANOS)) {
+                    // keep waiting, the region can't be written before the GPU is done with it
+                }
+                stalls++;
+                stallNanos += System.nanoTime() - start;
+            }
+            backend.deleteFence(fence);
+            fences[region] = 0;
+        }
+
+        head = 0;
+        inFrame = true;
+    }
+
+    /**
+     * reserves space in this frame's region
+     * @param bytes - the amount of bytes to reserve
+     * @param alignment - the alignment of the space, e.g. 4 for floats or 256 for uniform blocks
+     * @return - the offset of the space from the start of the buffer, to write at with absolute puts on getMapped()
+     *           and to pass to the draw or bind call
+     */
+    public int allocate(int bytes, int alignment) {
+        if (!inFrame) {
+            throw new IllegalStateException("Streaming buffer space can only be allocated between beginFrame() and endFrame().");
+        }
+        if (bytes < 0 || alignment <= 0) {
+            throw new IllegalArgumentException("Invalid allocation of " + bytes + " bytes aligned to " + alignment + ".");
+        }
+
+        // the offset from the start of the buffer is what has to be aligned, which the region's start may not be
+        long start = (long) region * regionBytes;
+        long offset = (start + head + alignment - 1) / alignment * alignment - start;
+        if (offset + bytes > regionBytes) {
+            throw new IllegalStateException("Streaming buffer region of " + regionBytes + " bytes is full, "
+                    + bytes + " more bytes requested with " + head + " used.");
+        }
+        head = (int) offset + bytes;
+        return (int) (start + offset);
+    }
+
+    /**
+     * ends a frame, fencing the draw calls that read this frame's region so it isn't overwritten too early
+     */
+    public void endFrame() {
+        if (!inFrame) {
+            throw new IllegalStateException("The streaming buffer frame hasn't begun.");
+        }
+        fences[region] = backend.fence();
+        region = (region + 1) % fences.length;
+        inFrame = false;
+    }
+
+    /**
+     * waits for the GPU to finish with every region and deletes the buffer
+     */
+    public void destroy() {
+        for (int i = 0; i < fences.length; i++) {
+            if (fences[i] != 0) {
+                while (!backend.waitFence(fences[i], WAIT_NANOS)) {
+                    // the buffer can't be deleted while the GPU reads it
+                }
+                backend.deleteFence(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        backend.deleteBuffer(buffer, target);
+    }
+
+    /**
+     * getter method
+     * @return - the mapped memory of the whole buffer, in native byte order. written directly with absolute puts,
+     *           nothing is copied by the driver
+     */
+    public ByteBuffer getMapped() {
+        return this.mapped;
+    }
+
+    /**
+     * getter method
+     * @return - the buffer ID, to bind for drawing
+     */
+    public int getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * getter method
+     * @return - the most bytes that can be written in one frame
+     */
+    public int getRegionBytes() {
+        return this.regionBytes;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of bytes used in this frame's region, including alignment padding
+     */
+    public int getUsedBytes() {
+        return this.head;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames that had to wait for the GPU
+     */
+    public int getStalls() {
+        return this.stalls;
+    }
+
+    /**
+     * getter method
+     * @return - the total time frames waited for the GPU in nanoseconds
+     */
+    public long getStallNanos() {
+        return this.stallNanos;
+    }
+}
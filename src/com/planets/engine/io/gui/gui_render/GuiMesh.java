@@ -1,12 +1,16 @@
 package com.planets.engine.io.gui.gui_render;
 
+import com.planets.engine.graphics.IndexBuffers;
 import com.planets.engine.graphics.Material;
 import com.planets.engine.graphics.Vertex;
-import org.lwjgl.opengl.*;
-import org.lwjgl.system.MemoryUtil;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 
 public class GuiMesh {
 
@@ -26,6 +30,9 @@ public class GuiMesh {
     // index buffer object
     private int ibo;
 
+    // the type of the indices in the index buffer
+    private int indexType;
+
     // the material this mesh is made of
     private Material material;
 
@@ -46,8 +53,8 @@ public class GuiMesh {
      */
     public void create() {
         // generate and bind the vertex array
-        vao = GL46.glGenVertexArrays();
-        GL46.glBindVertexArray(vao);
+        vao = Graphics.gl().genVertexArray();
+        Graphics.gl().bindVertexArray(vao);
 
         // create the buffers
         makePositionBuffer();
@@ -62,7 +69,7 @@ public class GuiMesh {
      */
     private void makePositionBuffer() {
         // preallocate memory
-        FloatBuffer positionBuffer = MemoryUtil.memAllocFloat(vertices.length * 3);
+        FloatBuffer positionBuffer = allocate(vertices.length * 3);
 
         // create a new temp array to store position data
         float[] positionData = new float[vertices.length * 3];
@@ -86,7 +93,7 @@ public class GuiMesh {
      */
     private void makeTextureBuffer() {
         // preallocate memory
-        FloatBuffer textureBuffer = MemoryUtil.memAllocFloat(vertices.length * 2);
+        FloatBuffer textureBuffer = allocate(vertices.length * 2);
 
         // create a new temp array to store texture coord data
         float[] textureData = new float[vertices.length * 2];
@@ -108,23 +115,16 @@ public class GuiMesh {
      * helper method to create the index buffer object
      */
     private void makeIndexBuffer() {
-        // preallocate memory
-        IntBuffer indicesBuffer = MemoryUtil.memAllocInt(indices.length);
-
-        // put the indices into the index buffer flipped
-        indicesBuffer.put(indices).flip();
-
-        // generate a buffer object
-        ibo = GL15.glGenBuffers();
-
-        // bind the buffer object
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
-
-        // add the index data
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indicesBuffer, GL15.GL_STATIC_DRAW);
+        // gui quads always fit in 16 bit indices
+        indexType = IndexBuffers.type(vertices.length);
+        ibo = IndexBuffers.create(indices, indexType);
+    }
 
-        // unbind the buffer object
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+    /**
+     * helper method to allocate floats OpenGL can read, which are released by the garbage collector
+     */
+    private static FloatBuffer allocate(int floats) {
+        return ByteBuffer.allocateDirect(floats * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
     }
 
     /**
@@ -135,20 +135,22 @@ public class GuiMesh {
      * @return - the buffer ID
      */
     private int storeData(FloatBuffer buffer, int index, int size) {
+        GLBackend gl = Graphics.gl();
+
         // generate a buffer ID
-        int bufferID = GL15.glGenBuffers();
+        int bufferID = gl.genBuffer();
 
         // bind the buffer
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
 
         // add the data from the buffer to the gl buffer object
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        gl.bufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
 
         // set the GL attribute
-        GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, 0, 0);
+        gl.vertexAttribPointer(index, size, GL11.GL_FLOAT, false, 0, 0);
 
         // unbind the buffer
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
 
         return bufferID;
     }
@@ -193,6 +195,14 @@ public class GuiMesh {
         return this.ibo;
     }
 
+    /**
+     * getter method
+     * @return - the type of the indices in the index buffer, GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     */
+    public int getIndexType() {
+        return this.indexType;
+    }
+
     /**
      * getter method
      * @return - the texture buffer object
@@ -213,13 +223,15 @@ public class GuiMesh {
      * release the mesh
      */
     public void destroy() {
+        GLBackend gl = Graphics.gl();
+
         // delete the buffers
-        GL15.glDeleteBuffers(pbo);
-        GL15.glDeleteBuffers(tbo);
-        GL15.glDeleteBuffers(ibo);
+        gl.deleteBuffer(pbo);
+        gl.deleteBuffer(tbo);
+        gl.deleteBuffer(ibo);
 
         // delete the vertex array
-        GL30.glDeleteVertexArrays(vao);
+        gl.deleteVertexArray(vao);
 
         // release the material
         material.destroy();
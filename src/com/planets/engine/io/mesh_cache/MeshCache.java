@@ -0,0 +1,248 @@
+package com.planets.engine.io.mesh_cache;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.io.mesh_io.MeshFormat;
+import com.planets.engine.io.mesh_io.MeshReader;
+import com.planets.engine.io.mesh_io.MeshWriter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MeshCache {
+
+    // the extension of cached mesh files
+    private static final String EXTENSION = ".mesh";
+
+    // the directory the cache files are stored in
+    private final Path directory;
+
+    // the most bytes the cache may take up on disk
+    private final long maxBytes;
+
+    // every cached file and its size, from the least to the most recently used
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // the total size of the cached files
+    private long totalBytes;
+
+    // hit and miss counters
+    private int hits;
+    private int misses;
+
+    /**
+     * default constructor - indexes the files already in the directory, oldest first
+     * @param directory - the directory to store the cache files in, created if it doesn't exist
+     * @param maxBytes - the most bytes the cache may take up on disk before the least recently used files are deleted
+     */
+    public MeshCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        try {
+            Files.createDirectories(directory);
+
+            // files are touched when they're used, so the modification time orders them by last use
+            ArrayList<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : stream) {
+                    files.add(file);
+                }
+            }
+            files.sort(Comparator.comparing(MeshCache::lastModified));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                totalBytes += size;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open the mesh cache at " + directory, e);
+        }
+
+        evict();
+    }
+
+    /**
+     * creates a cache key from the parameters a mesh was generated with
+     * @param algorithmVersion - the version of the generation code - bump it whenever the same parameters would generate a different mesh
+     * @param parameters - every parameter the mesh depends on
+     * @return - a hex string identifying the mesh
+     */
+    public static String key(int algorithmVersion, Object... parameters) {
+        StringBuilder description = new StringBuilder("v").append(algorithmVersion);
+        for (Object parameter : parameters) {
+            description.append('|').append(parameter);
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * loads a mesh from the cache. the file is memory mapped and the mesh uses the mapped data directly,
+     * so nothing is copied until the mesh is uploaded
+     * @param key - the key of the mesh
+     * @return - the cached mesh, or null if it isn't cached or the file is unreadable
+     */
+    public synchronized Mesh load(String key) {
+        // get rather than containsKey, which wouldn't make the entry the most recently used
+        if (entries.get(key) == null) {
+            misses++;
+            return null;
+        }
+
+        Path file = fileOf(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Mesh mesh = MeshReader.wrap(mapped);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return mesh;
+        } catch (IOException | RuntimeException e) {
+            // unreadable, written by another version, or corrupt enough that reading it runs off the end of the file
+            remove(key);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * stores a mesh in the cache, replacing anything stored with the same key, and then deletes the least
+     * recently used files until the cache fits in its size limit again
+     * @param key - the key of the mesh
+     * @param mesh - the mesh to store
+     */
+    public synchronized void store(String key, Mesh mesh) {
+        // write next to the destination and then move it over, so a crash never leaves half a file behind
+        Path file = fileOf(key);
+        Path temporary = directory.resolve(key + ".tmp");
+        long size;
+        try {
+            try (MeshWriter writer = new MeshWriter(FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), MeshFormat.Compression.NONE)) {
+                // uncompressed with 4 byte indices, so the file can be used in place once it's mapped
+                writer.setWideIndices(true);
+                writer.write(mesh);
+            }
+            size = Files.size(temporary);
+            if (size > maxBytes) {
+                // it would only be evicted again straight away
+                Files.delete(temporary);
+                return;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write " + file, e);
+        }
+
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    /**
+     * deletes the least recently used files until the cache fits in its size limit
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(fileOf(eldest.getKey()));
+            } catch (IOException e) {
+                // still mapped on some platforms - it is picked up again and evicted on the next run
+            }
+        }
+    }
+
+    /**
+     * removes a file from the cache
+     * @param key - the key of the file
+     */
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(fileOf(key));
+        } catch (IOException e) {
+            // same as in evict()
+        }
+    }
+
+    /**
+     * helper method to get the file a key is stored in
+     */
+    private Path fileOf(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * helper method to read the modification time of a file, used to sort files by last use
+     */
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the total size of the cached files in bytes
+     */
+    public synchronized long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of meshes in the cache
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * getter method
+     * @return - the amount of loads that found their mesh
+     */
+    public synchronized int getHits() {
+        return this.hits;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of loads that didn't find their mesh
+     */
+    public synchronized int getMisses() {
+        return this.misses;
+    }
+}
@@ -0,0 +1,132 @@
+package com.planets.engine.io.mesh_export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+class ChannelOutput {
+
+    // the size of the buffer
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    // the most bytes one put can add
+    private static final int MAX_PUT = 64;
+
+    // 6 digits after the point
+    private static final long SCALE = 1_000_000L;
+
+    // where the bytes go
+    private final WritableByteChannel channel;
+
+    // bytes waiting to be written
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    // used to print numbers
+    private final byte[] digits = new byte[20];
+
+    /**
+     * default constructor
+     * @param channel - where the bytes go
+     */
+    ChannelOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * helper method to make room for a put
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    void putByte(int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    void putShort(int s) throws IOException {
+        ensure(2);
+        buffer.putShort((short) s);
+    }
+
+    void putInt(int i) throws IOException {
+        ensure(4);
+        buffer.putInt(i);
+    }
+
+    void putFloat(float f) throws IOException {
+        ensure(4);
+        buffer.putFloat(f);
+    }
+
+    /**
+     * writes text as ASCII
+     * @param text - the text
+     */
+    void putText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i += MAX_PUT) {
+            int n = Math.min(MAX_PUT, bytes.length - i);
+            ensure(n);
+            buffer.put(bytes, i, n);
+        }
+    }
+
+    /**
+     * writes an integer as decimal text
+     * @param value - the integer
+     */
+    void putDecimal(long value) throws IOException {
+        ensure(MAX_PUT);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+    }
+
+    /**
+     * writes a float as decimal text with 6 digits after the point, without going through a String
+     * @param value - the float
+     */
+    void putDecimal(float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value) || Math.abs(value) >= 1e12f) {
+            putText(Float.toString(value));
+            return;
+        }
+        long scaled = Math.round(Math.abs((double) value) * SCALE);
+        if (value < 0 && scaled != 0) {
+            putByte('-');
+        }
+        putDecimal(scaled / SCALE);
+        ensure(MAX_PUT);
+        buffer.put((byte) '.');
+        long fraction = scaled % SCALE;
+        for (long div = SCALE / 10; div > 0; div /= 10) {
+            buffer.put((byte) ('0' + fraction / div % 10));
+        }
+    }
+
+    /**
+     * writes everything waiting in the buffer
+     * @throws IOException - if the channel can't be written to
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
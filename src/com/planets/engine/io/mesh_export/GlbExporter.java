@@ -0,0 +1,155 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.MeshSource;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public class GlbExporter implements MeshExporter {
+
+    // binary glTF constants
+    private static final int MAGIC = 0x46546c67; // "glTF"
+    private static final int VERSION = 2;
+    private static final int CHUNK_JSON = 0x4e4f534a; // "JSON"
+    private static final int CHUNK_BIN = 0x004e4942; // "BIN\0"
+    private static final int FLOAT = 5126;
+    private static final int UNSIGNED_SHORT = 5123;
+    private static final int UNSIGNED_INT = 5125;
+    private static final int ARRAY_BUFFER = 34962;
+    private static final int ELEMENT_ARRAY_BUFFER = 34963;
+
+    // position, normal and color of one vertex, interleaved
+    private static final int STRIDE = (3 + 3 + 4) * Float.BYTES;
+
+    /**
+     * writes a binary glTF 2.0 file with one mesh. the vertices are interleaved in one buffer view, so they
+     * can be written in a single pass after a first pass that finds the bounds glTF requires. strips are written
+     * as the triangles they make, since glTF doesn't allow restart indices
+     * @param source - the mesh
+     * @param channel - where the file goes - not closed
+     * @throws IOException - if the channel can't be written to
+     */
+    @Override
+    public void export(MeshSource source, WritableByteChannel channel) throws IOException {
+        int vertexCount = source.getVertexCount();
+        int indexCount = TriangleReader.count(source) * 3;
+        float[] positions = new float[CHUNK * 3], colors = new float[CHUNK * 4], normals = new float[CHUNK * 3];
+
+        // the bounds of the positions
+        float[] min = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] max = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int first = 0; first < vertexCount; first += CHUNK) {
+            int n = Math.min(CHUNK, vertexCount - first);
+            source.readVertices(first, n, positions, colors, normals);
+            for (int i = 0; i < n * 3; i++) {
+                min[i % 3] = Math.min(min[i % 3], positions[i]);
+                max[i % 3] = Math.max(max[i % 3], positions[i]);
+            }
+        }
+        if (vertexCount == 0) {
+            min = new float[3];
+            max = new float[3];
+        }
+
+        // 2 byte indices when every index fits, leaving 65535 free since it means primitive restart
+        boolean shortIndices = vertexCount <= 65535;
+        int indexWidth = shortIndices ? 2 : 4;
+        long vertexBytes = (long) vertexCount * STRIDE;
+        long indexBytes = (long) indexCount * indexWidth;
+        long binBytes = pad4(vertexBytes + indexBytes);
+
+        String json = "{"
+                + "\"asset\":{\"version\":\"2.0\",\"generator\":\"planets\"},"
+                + "\"scene\":0,\"scenes\":[{\"nodes\":[0]}],\"nodes\":[{\"mesh\":0}],"
+                + "\"meshes\":[{\"primitives\":[{\"attributes\":{\"POSITION\":0,\"NORMAL\":1,\"COLOR_0\":2},\"indices\":3,\"mode\":4}]}],"
+                + "\"buffers\":[{\"byteLength\":" + binBytes + "}],"
+                + "\"bufferViews\":["
+                + "{\"buffer\":0,\"byteOffset\":0,\"byteLength\":" + vertexBytes + ",\"byteStride\":" + STRIDE + ",\"target\":" + ARRAY_BUFFER + "},"
+                + "{\"buffer\":0,\"byteOffset\":" + vertexBytes + ",\"byteLength\":" + indexBytes + ",\"target\":" + ELEMENT_ARRAY_BUFFER + "}],"
+                + "\"accessors\":["
+                + "{\"bufferView\":0,\"byteOffset\":0,\"componentType\":" + FLOAT + ",\"count\":" + vertexCount + ",\"type\":\"VEC3\","
+                + "\"min\":" + array(min) + ",\"max\":" + array(max) + "},"
+                + "{\"bufferView\":0,\"byteOffset\":12,\"componentType\":" + FLOAT + ",\"count\":" + vertexCount + ",\"type\":\"VEC3\"},"
+                + "{\"bufferView\":0,\"byteOffset\":24,\"componentType\":" + FLOAT + ",\"count\":" + vertexCount + ",\"type\":\"VEC4\"},"
+                + "{\"bufferView\":1,\"byteOffset\":0,\"componentType\":" + (shortIndices ? UNSIGNED_SHORT : UNSIGNED_INT)
+                + ",\"count\":" + indexCount + ",\"type\":\"SCALAR\"}]"
+                + "}";
+        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        long jsonChunkBytes = pad4(jsonBytes.length);
+
+        long total = 12 + 8 + jsonChunkBytes + 8 + binBytes;
+        if (total > 0xffffffffL) {
+            throw new IOException("Mesh is too large for a binary glTF file.");
+        }
+
+        ChannelOutput out = new ChannelOutput(channel);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt((int) total);
+
+        // the JSON chunk is padded with spaces
+        out.putInt((int) jsonChunkBytes);
+        out.putInt(CHUNK_JSON);
+        out.putText(new String(jsonBytes, StandardCharsets.US_ASCII));
+        for (long i = jsonBytes.length; i < jsonChunkBytes; i++) {
+            out.putByte(' ');
+        }
+
+        // the binary chunk is padded with zeros
+        out.putInt((int) binBytes);
+        out.putInt(CHUNK_BIN);
+        for (int first = 0; first < vertexCount; first += CHUNK) {
+            int n = Math.min(CHUNK, vertexCount - first);
+            source.readVertices(first, n, positions, colors, normals);
+            for (int i = 0; i < n; i++) {
+                out.putFloat(positions[i * 3]);
+                out.putFloat(positions[i * 3 + 1]);
+                out.putFloat(positions[i * 3 + 2]);
+                out.putFloat(normals[i * 3]);
+                out.putFloat(normals[i * 3 + 1]);
+                out.putFloat(normals[i * 3 + 2]);
+                out.putFloat(colors[i * 4]);
+                out.putFloat(colors[i * 4 + 1]);
+                out.putFloat(colors[i * 4 + 2]);
+                out.putFloat(colors[i * 4 + 3]);
+            }
+        }
+        int[] indices = new int[CHUNK * 3];
+        TriangleReader triangles = new TriangleReader(source);
+        for (int n = triangles.read(indices) * 3; n > 0; n = triangles.read(indices) * 3) {
+            for (int i = 0; i < n; i++) {
+                if (shortIndices) {
+                    out.putShort(indices[i]);
+                } else {
+                    out.putInt(indices[i]);
+                }
+            }
+        }
+        for (long i = vertexBytes + indexBytes; i < binBytes; i++) {
+            out.putByte(0);
+        }
+
+        out.flush();
+    }
+
+    /**
+     * helper method to round a size up to a multiple of 4
+     */
+    private static long pad4(long bytes) {
+        return (bytes + 3) & ~3L;
+    }
+
+    /**
+     * helper method to write a JSON array of 3 floats
+     */
+    private static String array(float[] v) {
+        return String.format(Locale.ROOT, "[%s,%s,%s]", v[0], v[1], v[2]);
+    }
+
+    @Override
+    public String getExtension() {
+        return "glb";
+    }
+}
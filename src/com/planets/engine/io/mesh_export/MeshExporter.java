@@ -0,0 +1,60 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.MeshSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public interface MeshExporter {
+
+    // the amount of vertices or indices read from the source at once - the only memory an export needs
+    int CHUNK = 4096;
+
+    /**
+     * writes a mesh, reading it from the source a chunk at a time
+     * @param source - the mesh
+     * @param channel - where the file goes - not closed
+     * @throws IOException - if the channel can't be written to
+     */
+    void export(MeshSource source, WritableByteChannel channel) throws IOException;
+
+    /**
+     * getter method
+     * @return - the file extension of this format, without the dot
+     */
+    String getExtension();
+
+    /**
+     * writes a mesh to a file
+     * @param source - the mesh
+     * @param path - the file, replaced if it exists
+     * @throws IOException - if the file can't be written
+     */
+    default void export(MeshSource source, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            export(source, channel);
+        }
+    }
+
+    /**
+     * gets the exporter for a format
+     * @param format - obj, ply or glb
+     * @return - the exporter, or null if there is none for that format
+     */
+    static MeshExporter of(String format) {
+        switch (format) {
+            case "obj":
+                return new ObjExporter();
+            case "ply":
+                return new PlyExporter();
+            case "glb":
+                return new GlbExporter();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.MeshSource;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+public class ObjExporter implements MeshExporter {
+
+    /**
+     * writes a Wavefront OBJ file. vertex colors are written after the position ("v x y z r g b"),
+     * which most tools read and the rest ignore. strips are written as the triangles they make
+     * @param source - the mesh
+     * @param channel - where the file goes - not closed
+     * @throws IOException - if the channel can't be written to
+     */
+    @Override
+    public void export(MeshSource source, WritableByteChannel channel) throws IOException {
+        ChannelOutput out = new ChannelOutput(channel);
+        int vertexCount = source.getVertexCount();
+        int faceCount = TriangleReader.count(source);
+
+        out.putText("# planets mesh export\n# vertices ");
+        out.putDecimal(vertexCount);
+        out.putText(", faces ");
+        out.putDecimal(faceCount);
+        out.putText("\n");
+
+        float[] positions = new float[CHUNK * 3], colors = new float[CHUNK * 4], normals = new float[CHUNK * 3];
+
+        // positions and colors
+        for (int first = 0; first < vertexCount; first += CHUNK) {
+            int n = Math.min(CHUNK, vertexCount - first);
+            source.readVertices(first, n, positions, colors, normals);
+            for (int i = 0; i < n; i++) {
+                out.putText("v ");
+                out.putDecimal(positions[i * 3]);
+                out.putByte(' ');
+                out.putDecimal(positions[i * 3 + 1]);
+                out.putByte(' ');
+                out.putDecimal(positions[i * 3 + 2]);
+                out.putByte(' ');
+                out.putDecimal(colors[i * 4]);
+                out.putByte(' ');
+                out.putDecimal(colors[i * 4 + 1]);
+                out.putByte(' ');
+                out.putDecimal(colors[i * 4 + 2]);
+                out.putByte('\n');
+            }
+        }
+
+        // normals - a second pass, so only one chunk is ever held
+        for (int first = 0; first < vertexCount; first += CHUNK) {
+            int n = Math.min(CHUNK, vertexCount - first);
+            source.readVertices(first, n, positions, colors, normals);
+            for (int i = 0; i < n; i++) {
+                out.putText("vn ");
+                out.putDecimal(normals[i * 3]);
+                out.putByte(' ');
+                out.putDecimal(normals[i * 3 + 1]);
+                out.putByte(' ');
+                out.putDecimal(normals[i * 3 + 2]);
+                out.putByte('\n');
+            }
+        }
+
+        // faces, 1 based, with the normal of the same vertex
+        int[] indices = new int[CHUNK * 3];
+        TriangleReader triangles = new TriangleReader(source);
+        for (int n = triangles.read(indices) * 3; n > 0; n = triangles.read(indices) * 3) {
+            for (int i = 0; i < n; i += 3) {
+                out.putByte('f');
+                for (int k = 0; k < 3; k++) {
+                    out.putByte(' ');
+                    out.putDecimal(indices[i + k] + 1L);
+                    out.putText("//");
+                    out.putDecimal(indices[i + k] + 1L);
+                }
+                out.putByte('\n');
+            }
+        }
+
+        out.flush();
+    }
+
+    @Override
+    public String getExtension() {
+        return "obj";
+    }
+}
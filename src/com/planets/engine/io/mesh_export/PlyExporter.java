@@ -0,0 +1,76 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.MeshSource;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+public class PlyExporter implements MeshExporter {
+
+    /**
+     * writes a binary little endian PLY file with positions, normals and 8 bit colors per vertex. strips are
+     * written as the triangles they make
+     * @param source - the mesh
+     * @param channel - where the file goes - not closed
+     * @throws IOException - if the channel can't be written to
+     */
+    @Override
+    public void export(MeshSource source, WritableByteChannel channel) throws IOException {
+        ChannelOutput out = new ChannelOutput(channel);
+        int vertexCount = source.getVertexCount();
+        int faceCount = TriangleReader.count(source);
+
+        out.putText("ply\n"
+                + "format binary_little_endian 1.0\n"
+                + "comment planets mesh export\n"
+                + "element vertex " + vertexCount + "\n"
+                + "property float x\n"
+                + "property float y\n"
+                + "property float z\n"
+                + "property float nx\n"
+                + "property float ny\n"
+                + "property float nz\n"
+                + "property uchar red\n"
+                + "property uchar green\n"
+                + "property uchar blue\n"
+                + "property uchar alpha\n"
+                + "element face " + faceCount + "\n"
+                + "property list uchar uint vertex_indices\n"
+                + "end_header\n");
+
+        float[] positions = new float[CHUNK * 3], colors = new float[CHUNK * 4], normals = new float[CHUNK * 3];
+        for (int first = 0; first < vertexCount; first += CHUNK) {
+            int n = Math.min(CHUNK, vertexCount - first);
+            source.readVertices(first, n, positions, colors, normals);
+            for (int i = 0; i < n; i++) {
+                out.putFloat(positions[i * 3]);
+                out.putFloat(positions[i * 3 + 1]);
+                out.putFloat(positions[i * 3 + 2]);
+                out.putFloat(normals[i * 3]);
+                out.putFloat(normals[i * 3 + 1]);
+                out.putFloat(normals[i * 3 + 2]);
+                for (int k = 0; k < 4; k++) {
+                    out.putByte(Math.round(Math.max(0, Math.min(1, colors[i * 4 + k])) * 255));
+                }
+            }
+        }
+
+        int[] indices = new int[CHUNK * 3];
+        TriangleReader triangles = new TriangleReader(source);
+        for (int n = triangles.read(indices) * 3; n > 0; n = triangles.read(indices) * 3) {
+            for (int i = 0; i < n; i += 3) {
+                out.putByte(3);
+                out.putInt(indices[i]);
+                out.putInt(indices[i + 1]);
+                out.putInt(indices[i + 2]);
+            }
+        }
+
+        out.flush();
+    }
+
+    @Override
+    public String getExtension() {
+        return "ply";
+    }
+}
@@ -0,0 +1,100 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.MeshSource;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+import org.lwjgl.opengl.GL11;
+
+class TriangleReader {
+
+    // the mesh, and whether its indices are strips
+    private final MeshSource source;
+    private final boolean strips;
+
+    // the indices read from the source at once, and how far through them and the source the reader is
+    private final int[] chunk = new int[MeshExporter.CHUNK * 3];
+    private int chunkLength;
+    private int chunkPosition;
+    private int next;
+
+    // the last 2 indices of the strip being read, and how many indices of it were read
+    private int a, b;
+    private int stripLength;
+
+    /**
+     * default constructor
+     * @param source - the mesh, a triangle list or strips separated by Stripifier.RESTART
+     */
+    TriangleReader(MeshSource source) {
+        int mode = source.getMode();
+        if (mode != GL11.GL_TRIANGLES && mode != GL11.GL_TRIANGLE_STRIP) {
+            throw new IllegalArgumentException("Can't export primitive mode " + mode + ".");
+        }
+        this.source = source;
+        this.strips = mode == GL11.GL_TRIANGLE_STRIP;
+    }
+
+    /**
+     * counts the triangles of a mesh, which for strips takes a pass over the indices
+     * @param source - the mesh
+     * @return - the amount of triangles read() gives, leaving out the degenerate ones of strips
+     */
+    static int count(MeshSource source) {
+        TriangleReader reader = new TriangleReader(source);
+        if (!reader.strips) {
+            return source.getIndexCount() / 3;
+        }
+        int[] triangles = new int[MeshExporter.CHUNK * 3];
+        int count = 0;
+        for (int n = reader.read(triangles); n > 0; n = reader.read(triangles)) {
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * reads the next triangles as a list, with strips unrolled so every triangle keeps its winding
+     * @param triangles - receives 3 indices per triangle, from index 0
+     * @return - the amount of triangles read, 0 once every triangle was
+     */
+    int read(int[] triangles) {
+        int max = triangles.length / 3;
+        if (!strips) {
+            int n = Math.min(max, (source.getIndexCount() - next) / 3);
+            source.readIndices(next, n * 3, triangles);
+            next += n * 3;
+            return n;
+        }
+
+        int n = 0;
+        while (n < max) {
+            if (chunkPosition == chunkLength) {
+                chunkLength = Math.min(chunk.length, source.getIndexCount() - next);
+                chunkPosition = 0;
+                if (chunkLength == 0) {
+                    break;
+                }
+                source.readIndices(next, chunkLength, chunk);
+                next += chunkLength;
+            }
+
+            int c = chunk[chunkPosition++];
+            if (c == Stripifier.RESTART) {
+                stripLength = 0;
+                continue;
+            }
+
+            // every 3 consecutive indices make a triangle, with every other one flipped, the same as Stripifier.unstrip
+            if (stripLength >= 2 && a != b && b != c && a != c) {
+                boolean odd = stripLength % 2 == 1;
+                triangles[n * 3] = odd ? b : a;
+                triangles[n * 3 + 1] = odd ? a : b;
+                triangles[n * 3 + 2] = c;
+                n++;
+            }
+            a = b;
+            b = c;
+            stripLength++;
+        }
+        return n;
+    }
+}
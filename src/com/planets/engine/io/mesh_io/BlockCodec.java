@@ -0,0 +1,47 @@
+package com.planets.engine.io.mesh_io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface BlockCodec {
+
+    /**
+     * compresses one block. the positions of the buffers are not moved
+     * @param src - the bytes from its position to its limit are compressed
+     * @param dst - the compressed bytes are written from its position, up to its limit
+     * @return - the amount of compressed bytes, or -1 if they don't fit in dst
+     */
+    int compress(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * decompresses one block. the positions of the buffers are not moved
+     * @param src - the compressed bytes from its position to its limit
+     * @param dst - filled from its position to its limit with exactly the uncompressed bytes
+     * @throws IOException - if the block is corrupt or doesn't decompress to exactly dst's size
+     */
+    void decompress(ByteBuffer src, ByteBuffer dst) throws IOException;
+
+    /**
+     * gets the most bytes a block can take up after compression
+     * @param length - the amount of uncompressed bytes
+     * @return - the size the output buffer needs to always succeed
+     */
+    int maxCompressedLength(int length);
+
+    /**
+     * gets a codec for a compression method. LZ4 uses the native library when it can be loaded, and
+     * an equivalent pure Java implementation otherwise, e.g. in headless tests
+     * @param compression - the compression method
+     * @return - a new codec, which may only be used by one thread at a time
+     */
+    static BlockCodec of(MeshFormat.Compression compression) {
+        switch (compression) {
+            case LZ4:
+                return NativeLz4Codec.isAvailable() ? new NativeLz4Codec() : new JavaLz4Codec();
+            case DEFLATE:
+                return new DeflateCodec();
+            default:
+                throw new IllegalArgumentException("No codec for " + compression);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.planets.engine.io.mesh_io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+class BlockReader {
+
+    // where the bytes come from
+    private final ReadableByteChannel channel;
+
+    // the codec, or null if the bytes are stored as they are
+    private final BlockCodec codec;
+
+    // the bytes of the current block that haven't been read yet, and the block before decompression
+    private final ByteBuffer raw;
+    private final ByteBuffer compressed;
+
+    /**
+     * default constructor
+     * @param channel - where the bytes come from
+     * @param compression - how the bytes are stored
+     * @param blockSize - the amount of uncompressed bytes in one block
+     */
+    BlockReader(ReadableByteChannel channel, MeshFormat.Compression compression, int blockSize) {
+        this.channel = channel;
+        this.codec = compression == MeshFormat.Compression.NONE ? null : BlockCodec.of(compression);
+        if (codec == null) {
+            this.raw = null;
+            this.compressed = null;
+        } else {
+            this.raw = ByteBuffer.allocateDirect(blockSize);
+            this.raw.limit(0);
+            this.compressed = ByteBuffer.allocateDirect(BlockWriter.BLOCK_HEADER_BYTES + codec.maxCompressedLength(blockSize))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * reads bytes, decompressing them a block at a time
+     * @param dst - filled from its position to its limit, and its position is moved to its limit
+     * @throws IOException - if the channel ends early or a block is corrupt
+     */
+    void readFully(ByteBuffer dst) throws IOException {
+        if (codec == null) {
+            readFully(channel, dst);
+            return;
+        }
+
+        while (dst.hasRemaining()) {
+            if (!raw.hasRemaining()) {
+                nextBlock();
+            }
+            int n = Math.min(raw.remaining(), dst.remaining());
+            ByteBuffer part = raw.duplicate();
+            part.limit(part.position() + n);
+            dst.put(part);
+            raw.position(raw.position() + n);
+        }
+    }
+
+    /**
+     * checks that every byte of the last block was used, so the next mesh starts on a block boundary
+     * @throws IOException - if there are bytes left over
+     */
+    void finish() throws IOException {
+        if (raw != null && raw.hasRemaining()) {
+            throw new IOException("Mesh data is longer than its header says.");
+        }
+    }
+
+    /**
+     * helper method to read and decompress the next block
+     */
+    private void nextBlock() throws IOException {
+        compressed.clear().limit(BlockWriter.BLOCK_HEADER_BYTES);
+        readFully(channel, compressed);
+        int length = compressed.getInt(0);
+        int stored = compressed.getInt(4);
+        if (length <= 0 || length > raw.capacity() || stored <= 0 || stored > compressed.capacity() - BlockWriter.BLOCK_HEADER_BYTES) {
+            throw new IOException("Corrupt block header.");
+        }
+
+        raw.clear().limit(length);
+        if (stored == length) {
+            readFully(channel, raw);
+        } else {
+            compressed.clear().position(BlockWriter.BLOCK_HEADER_BYTES).limit(BlockWriter.BLOCK_HEADER_BYTES + stored);
+            readFully(channel, compressed);
+            compressed.position(BlockWriter.BLOCK_HEADER_BYTES);
+            codec.decompress(compressed, raw);
+        }
+        raw.position(0);
+    }
+
+    /**
+     * helper method to fill a buffer from a channel
+     */
+    static void readFully(ReadableByteChannel channel, ByteBuffer dst) throws IOException {
+        while (dst.hasRemaining()) {
+            if (channel.read(dst) < 0) {
+                throw new EOFException("Mesh file ends early.");
+            }
+        }
+    }
+}
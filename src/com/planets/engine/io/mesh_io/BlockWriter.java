@@ -0,0 +1,97 @@
+package com.planets.engine.io.mesh_io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+class BlockWriter {
+
+    // the size of the length fields in front of each compressed block
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    // where the bytes go
+    private final WritableByteChannel channel;
+
+    // the codec, or null to write the bytes as they are
+    private final BlockCodec codec;
+
+    // the bytes of the current block, and the block after compression
+    private final ByteBuffer raw;
+    private final ByteBuffer compressed;
+
+    /**
+     * default constructor
+     * @param channel - where the bytes go
+     * @param compression - how the bytes are stored
+     * @param blockSize - the amount of uncompressed bytes in one block
+     */
+    BlockWriter(WritableByteChannel channel, MeshFormat.Compression compression, int blockSize) {
+        this.channel = channel;
+        this.codec = compression == MeshFormat.Compression.NONE ? null : BlockCodec.of(compression);
+        this.raw = ByteBuffer.allocateDirect(blockSize);
+        this.compressed = codec == null ? null
+                : ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + codec.maxCompressedLength(blockSize)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * writes bytes, compressing them a block at a time
+     * @param src - the bytes from its position to its limit are written, and its position is moved to its limit
+     * @throws IOException - if the channel can't be written to
+     */
+    void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            int n = Math.min(raw.remaining(), src.remaining());
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + n);
+            raw.put(part);
+            src.position(src.position() + n);
+            if (!raw.hasRemaining()) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * writes the current block, even if it isn't full
+     * @throws IOException - if the channel can't be written to
+     */
+    void flush() throws IOException {
+        raw.flip();
+        if (!raw.hasRemaining()) {
+            raw.clear();
+            return;
+        }
+
+        if (codec == null) {
+            writeFully(raw);
+        } else {
+            int length = raw.remaining();
+            compressed.clear();
+            compressed.position(BLOCK_HEADER_BYTES);
+            int stored = codec.compress(raw, compressed);
+            compressed.putInt(0, length);
+            if (stored < 0 || stored >= length) {
+                // incompressible - store the block as it is
+                compressed.putInt(4, length);
+                compressed.position(0).limit(BLOCK_HEADER_BYTES);
+                writeFully(compressed);
+                writeFully(raw);
+            } else {
+                compressed.putInt(4, stored);
+                compressed.position(0).limit(BLOCK_HEADER_BYTES + stored);
+                writeFully(compressed);
+            }
+        }
+        raw.clear();
+    }
+
+    /**
+     * helper method to write all of a buffer to the channel
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
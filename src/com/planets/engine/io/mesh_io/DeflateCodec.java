@@ -0,0 +1,49 @@
+package com.planets.engine.io.mesh_io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+class DeflateCodec implements BlockCodec {
+
+    // reused between blocks
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    @Override
+    public int compress(ByteBuffer src, ByteBuffer dst) {
+        deflater.reset();
+        deflater.setInput(src.duplicate());
+        deflater.finish();
+        ByteBuffer out = dst.duplicate();
+        int written = deflater.deflate(out);
+        return deflater.finished() ? written : -1;
+    }
+
+    @Override
+    public void decompress(ByteBuffer src, ByteBuffer dst) throws IOException {
+        inflater.reset();
+        inflater.setInput(src.duplicate());
+        ByteBuffer out = dst.duplicate();
+        try {
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflate block.", e);
+        }
+        if (out.hasRemaining()) {
+            throw new IOException("Corrupt deflate block.");
+        }
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        // stored blocks add 5 bytes per 16 KB
+        return length + (length >> 12) + 64;
+    }
+}
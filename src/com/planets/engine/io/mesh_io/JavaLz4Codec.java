@@ -0,0 +1,215 @@
+package com.planets.engine.io.mesh_io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+class JavaLz4Codec implements BlockCodec {
+
+    // limits from the LZ4 block format
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5; // the last 5 bytes are always literals
+    private static final int MF_LIMIT = 12; // the last match has to start at least 12 bytes before the end
+    private static final int MAX_DISTANCE = 65535;
+
+    // the size of the table of recently seen 4 byte sequences
+    private static final int HASH_LOG = 12;
+
+    // position + 1 of the last occurrence of each hashed sequence in the current block, 0 if none
+    private final int[] table = new int[1 << HASH_LOG];
+
+    // the blocks are copied into arrays in bulk, which is a lot faster than reading buffers a byte at a time
+    private byte[] input = new byte[0];
+    private byte[] output = new byte[0];
+
+    @Override
+    public int compress(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        input = ensure(input, length);
+        output = ensure(output, dst.remaining());
+        src.duplicate().get(input, 0, length);
+
+        int written = compress(input, length, output, dst.remaining());
+        if (written >= 0) {
+            dst.duplicate().put(output, 0, written);
+        }
+        return written;
+    }
+
+    /**
+     * compresses an array
+     * @return - the amount of bytes written, or -1 if they don't fit
+     */
+    private int compress(byte[] src, int end, byte[] dst, int outEnd) {
+        int base = 0, out = 0;
+        Arrays.fill(table, 0);
+
+        int anchor = base;
+        if (end - base > MF_LIMIT) {
+            int matchLimit = end - LAST_LITERALS;
+            int ipLimit = end - MF_LIMIT;
+            int ip = base;
+            while (ip < ipLimit) {
+                int sequence = readInt(src, ip);
+                int h = (sequence * -1640531535) >>> (32 - HASH_LOG);
+                int ref = table[h] - 1;
+                table[h] = ip + 1;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+
+                // extend the match backwards over literals, then forwards
+                while (ip > anchor && ref > base && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                out = writeSequence(src, anchor, ip - anchor, dst, out, outEnd, ip - ref, matchLength);
+                if (out < 0) {
+                    return -1;
+                }
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+
+        // the rest are literals
+        out = writeSequence(src, anchor, end - anchor, dst, out, outEnd, 0, 0);
+        return out;
+    }
+
+    /**
+     * helper method to read 4 bytes as an int
+     */
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | b[i + 3] << 24;
+    }
+
+    /**
+     * helper method to grow an array
+     */
+    private static byte[] ensure(byte[] array, int length) {
+        return array.length >= length ? array : new byte[length];
+    }
+
+    /**
+     * writes literals followed by a match, or only literals for the last sequence
+     * @return - the new output position, or -1 if it doesn't fit
+     */
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, byte[] dst, int out, int outEnd,
+                                     int offset, int matchLength) {
+        if (out + 1 + literalLength + literalLength / 255 + 1 + 2 + matchLength / 255 + 1 > outEnd) {
+            return -1;
+        }
+
+        int extraMatch = matchLength - MIN_MATCH;
+        int token = Math.min(literalLength, 15) << 4 | (matchLength == 0 ? 0 : Math.min(extraMatch, 15));
+        dst[out++] = (byte) token;
+        out = writeLength(dst, out, literalLength);
+        System.arraycopy(src, literalStart, dst, out, literalLength);
+        out += literalLength;
+        if (matchLength == 0) {
+            return out;
+        }
+
+        dst[out++] = (byte) offset;
+        dst[out++] = (byte) (offset >>> 8);
+        return writeLength(dst, out, extraMatch);
+    }
+
+    /**
+     * writes the bytes that follow a token when a length doesn't fit in its 4 bits
+     */
+    private static int writeLength(byte[] dst, int out, int length) {
+        if (length < 15) {
+            return out;
+        }
+        length -= 15;
+        while (length >= 255) {
+            dst[out++] = (byte) 255;
+            length -= 255;
+        }
+        dst[out++] = (byte) length;
+        return out;
+    }
+
+    @Override
+    public void decompress(ByteBuffer src, ByteBuffer dst) throws IOException {
+        int inEnd = src.remaining(), outEnd = dst.remaining();
+        input = ensure(input, inEnd);
+        output = ensure(output, outEnd);
+        src.duplicate().get(input, 0, inEnd);
+        decompress(input, inEnd, output, outEnd);
+        dst.duplicate().put(output, 0, outEnd);
+    }
+
+    /**
+     * decompresses an array into exactly outEnd bytes
+     */
+    private static void decompress(byte[] src, int inEnd, byte[] dst, int outEnd) throws IOException {
+        int ip = 0, start = 0, op = 0;
+
+        try {
+            while (ip < inEnd) {
+                int token = src[ip++] & 0xff;
+
+                // literals
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (op + literalLength > outEnd || ip + literalLength > inEnd) {
+                    throw new IOException("Corrupt LZ4 block.");
+                }
+                System.arraycopy(src, ip, dst, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == inEnd) {
+                    break; // the last sequence has no match
+                }
+
+                // match
+                int offset = (src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8;
+                ip += 2;
+                int matchLength = token & 15;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                if (offset == 0 || op - offset < start || op + matchLength > outEnd) {
+                    throw new IOException("Corrupt LZ4 block.");
+                }
+
+                // byte by byte, since the match may overlap the bytes it produces
+                for (int i = 0; i < matchLength; i++) {
+                    dst[op] = dst[op - offset];
+                    op++;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt LZ4 block.", e);
+        }
+
+        if (op != outEnd) {
+            throw new IOException("Corrupt LZ4 block.");
+        }
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+}
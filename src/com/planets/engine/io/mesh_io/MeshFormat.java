@@ -0,0 +1,141 @@
+package com.planets.engine.io.mesh_io;
+
+import org.lwjgl.opengl.GL11;
+
+public final class MeshFormat {
+
+    // "PLMF" - the first bytes of every mesh
+    public static final int MAGIC = 0x464d4c50;
+
+    // the version of the layout, bumped whenever it changes - older readers refuse newer files. version 2 stores
+    // the primitive in a byte version 1 always left 0, so version 1 files are still read as triangle lists
+    public static final int VERSION = 2;
+
+    // the size of the fixed part of the header, before the attribute descriptors
+    static final int FIXED_HEADER_BYTES = 40;
+
+    // the size of one attribute descriptor
+    static final int ATTRIBUTE_BYTES = 4;
+
+    // the header is padded to a multiple of this, so the data after it can be mapped and used in place
+    static final int ALIGNMENT = 16;
+
+    // the amount of uncompressed bytes in one compressed block
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    // the type of the components of an attribute
+    static final int TYPE_FLOAT32 = 0;
+
+    // how the data after the header is stored
+    public enum Compression {
+        NONE(0),
+        LZ4(1),
+        DEFLATE(2);
+
+        // the id written to the file
+        final int id;
+
+        Compression(int id) {
+            this.id = id;
+        }
+
+        static Compression of(int id) {
+            for (Compression c : values()) {
+                if (c.id == id) {
+                    return c;
+                }
+            }
+            return null;
+        }
+    }
+
+    // how the indices are assembled into triangles
+    public enum Primitive {
+        TRIANGLES(0, GL11.GL_TRIANGLES),
+        TRIANGLE_STRIP(1, GL11.GL_TRIANGLE_STRIP);
+
+        // the id written to the file
+        final int id;
+
+        // the OpenGL mode the indices are drawn with
+        final int mode;
+
+        Primitive(int id, int mode) {
+            this.id = id;
+            this.mode = mode;
+        }
+
+        static Primitive of(int id) {
+            for (Primitive p : values()) {
+                if (p.id == id) {
+                    return p;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * gets the primitive of an OpenGL mode
+         * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+         * @return - the primitive
+         */
+        public static Primitive ofMode(int mode) {
+            for (Primitive p : values()) {
+                if (p.mode == mode) {
+                    return p;
+                }
+            }
+            throw new IllegalArgumentException("Mesh files can't store primitive mode " + mode + ".");
+        }
+
+        /**
+         * getter method
+         * @return - the OpenGL mode the indices are drawn with
+         */
+        public int getMode() {
+            return this.mode;
+        }
+    }
+
+    // the vertex attributes a mesh file can hold, in the order a Mesh binds them
+    public enum Attribute {
+        POSITION(0, 3),
+        COLOR(1, 4),
+        NORMAL(2, 3);
+
+        // the id written to the file
+        final int id;
+
+        // the amount of floats per vertex
+        final int components;
+
+        Attribute(int id, int components) {
+            this.id = id;
+            this.components = components;
+        }
+
+        static Attribute of(int id) {
+            for (Attribute a : values()) {
+                if (a.id == id) {
+                    return a;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * getter method
+         * @return - the amount of floats per vertex
+         */
+        public int getComponents() {
+            return this.components;
+        }
+    }
+
+    /**
+     * constants only
+     */
+    private MeshFormat() {
+
+    }
+}
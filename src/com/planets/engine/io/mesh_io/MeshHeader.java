@@ -0,0 +1,297 @@
+package com.planets.engine.io.mesh_io;
+
+import com.planets.engine.math.Vector3f;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class MeshHeader {
+
+    // the amount of vertices and indices
+    private final int vertexCount;
+    private final int indexCount;
+
+    // the amount of bytes per index, 2 or 4
+    private final int indexWidth;
+
+    // how the indices are assembled into triangles
+    private final MeshFormat.Primitive primitive;
+
+    // how the data after the header is stored
+    private final MeshFormat.Compression compression;
+    private final int blockSize;
+
+    // a sphere containing every vertex
+    private final Vector3f center;
+    private final float radius;
+
+    // the attributes in the order they are stored - null for attributes this version doesn't know
+    private final MeshFormat.Attribute[] attributes;
+
+    // the amount of floats per vertex of each attribute, so unknown attributes can be skipped
+    private final int[] components;
+
+    /**
+     * default constructor
+     * @param vertexCount - the amount of vertices
+     * @param indexCount - the amount of indices
+     * @param indexWidth - the amount of bytes per index, 2 or 4
+     * @param primitive - how the indices are assembled into triangles
+     * @param compression - how the data after the header is stored
+     * @param blockSize - the amount of uncompressed bytes in one compressed block
+     * @param center - the center of the bounding sphere
+     * @param radius - the radius of the bounding sphere
+     * @param attributes - the attributes in the order they are stored
+     * @param components - the amount of floats per vertex of each attribute
+     */
+    MeshHeader(int vertexCount, int indexCount, int indexWidth, MeshFormat.Primitive primitive,
+               MeshFormat.Compression compression, int blockSize, Vector3f center, float radius,
+               MeshFormat.Attribute[] attributes, int[] components) {
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+        this.indexWidth = indexWidth;
+        this.primitive = primitive;
+        this.compression = compression;
+        this.blockSize = blockSize;
+        this.center = center;
+        this.radius = radius;
+        this.attributes = attributes;
+        this.components = components;
+    }
+
+    /**
+     * writes the header
+     * @param buffer - the buffer to write to, at least getHeaderBytes() long from its position
+     */
+    void write(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MeshFormat.MAGIC);
+        buffer.putShort((short) MeshFormat.VERSION);
+        buffer.putShort((short) getHeaderBytes());
+        buffer.putInt(vertexCount);
+        buffer.putInt(indexCount);
+        buffer.put((byte) indexWidth);
+        buffer.put((byte) compression.id);
+        buffer.put((byte) attributes.length);
+        buffer.put((byte) primitive.id);
+        buffer.putInt(blockSize);
+        buffer.putFloat(center.getX());
+        buffer.putFloat(center.getY());
+        buffer.putFloat(center.getZ());
+        buffer.putFloat(radius);
+        for (int i = 0; i < attributes.length; i++) {
+            buffer.put((byte) attributes[i].id);
+            buffer.put((byte) components[i]);
+            buffer.put((byte) MeshFormat.TYPE_FLOAT32);
+            buffer.put((byte) 0);
+        }
+        while (buffer.position() - start < getHeaderBytes()) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * reads the size of a header from its first 8 bytes
+     * @param buffer - the buffer to read from, positioned at the start of the header
+     * @return - the size of the whole header
+     * @throws IOException - if the buffer doesn't start with a header this version can read
+     */
+    static int readHeaderBytes(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        if (buffer.getInt(start) != MeshFormat.MAGIC) {
+            throw new IOException("Not a mesh file.");
+        }
+        int version = buffer.getShort(start + 4) & 0xffff;
+        if (version > MeshFormat.VERSION) {
+            throw new IOException("Mesh file version " + version + " is newer than the supported version " + MeshFormat.VERSION + ".");
+        }
+        int headerBytes = buffer.getShort(start + 6) & 0xffff;
+        if (headerBytes < MeshFormat.FIXED_HEADER_BYTES) {
+            throw new IOException("Corrupt mesh header.");
+        }
+        return headerBytes;
+    }
+
+    /**
+     * reads a header
+     * @param buffer - the buffer to read from, positioned at the start of the header and holding all of it.
+     *                 the position is moved past the header
+     * @return - the header
+     * @throws IOException - if the header is corrupt or from a newer version
+     */
+    static MeshHeader read(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int headerBytes = readHeaderBytes(buffer);
+        if (buffer.remaining() < headerBytes) {
+            throw new IOException("Truncated mesh header.");
+        }
+
+        buffer.position(start + 8);
+        int vertexCount = buffer.getInt();
+        int indexCount = buffer.getInt();
+        int indexWidth = buffer.get();
+        MeshFormat.Compression compression = MeshFormat.Compression.of(buffer.get());
+        int attributeCount = buffer.get() & 0xff;
+        MeshFormat.Primitive primitive = MeshFormat.Primitive.of(buffer.get());
+        int blockSize = buffer.getInt();
+        Vector3f center = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        float radius = buffer.getFloat();
+
+        if (vertexCount < 0 || indexCount < 0 || (indexWidth != 2 && indexWidth != 4) || primitive == null || compression == null
+                || blockSize <= 0 || MeshFormat.FIXED_HEADER_BYTES + attributeCount * MeshFormat.ATTRIBUTE_BYTES > headerBytes) {
+            throw new IOException("Corrupt mesh header.");
+        }
+
+        MeshFormat.Attribute[] attributes = new MeshFormat.Attribute[attributeCount];
+        int[] components = new int[attributeCount];
+        for (int i = 0; i < attributeCount; i++) {
+            attributes[i] = MeshFormat.Attribute.of(buffer.get());
+            components[i] = buffer.get() & 0xff;
+            int type = buffer.get();
+            buffer.get();
+            if (type != MeshFormat.TYPE_FLOAT32 || (attributes[i] != null && attributes[i].components != components[i])) {
+                throw new IOException("Unsupported attribute layout.");
+            }
+        }
+
+        buffer.position(start + headerBytes);
+        return new MeshHeader(vertexCount, indexCount, indexWidth, primitive, compression, blockSize, center, radius,
+                attributes, components);
+    }
+
+    /**
+     * getter method
+     * @return - the size of the header, including the padding after it
+     */
+    public int getHeaderBytes() {
+        int size = MeshFormat.FIXED_HEADER_BYTES + attributes.length * MeshFormat.ATTRIBUTE_BYTES;
+        return (size + MeshFormat.ALIGNMENT - 1) / MeshFormat.ALIGNMENT * MeshFormat.ALIGNMENT;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of bytes of data after the header, before compression
+     */
+    public long getPayloadBytes() {
+        return getIndexOffset() + (long) indexCount * indexWidth;
+    }
+
+    /**
+     * gets where an attribute's data starts, before compression
+     * @param attribute - the index of the attribute in getAttributes()
+     * @return - the offset from the end of the header in bytes
+     */
+    public long getAttributeOffset(int attribute) {
+        long offset = 0;
+        for (int i = 0; i < attribute; i++) {
+            offset += (long) vertexCount * components[i] * Float.BYTES;
+        }
+        return offset;
+    }
+
+    /**
+     * gets where the index data starts, before compression
+     * @return - the offset from the end of the header in bytes
+     */
+    public long getIndexOffset() {
+        return getAttributeOffset(attributes.length);
+    }
+
+    /**
+     * finds where an attribute is stored
+     * @param attribute - the attribute
+     * @return - the index of the attribute in getAttributes(), or -1 if the file doesn't have it
+     */
+    public int indexOf(MeshFormat.Attribute attribute) {
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i] == attribute) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of vertices
+     */
+    public int getVertexCount() {
+        return this.vertexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of indices
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of bytes per index, 2 or 4
+     */
+    public int getIndexWidth() {
+        return this.indexWidth;
+    }
+
+    /**
+     * getter method
+     * @return - how the indices are assembled into triangles
+     */
+    public MeshFormat.Primitive getPrimitive() {
+        return this.primitive;
+    }
+
+    /**
+     * getter method
+     * @return - how the data after the header is stored
+     */
+    public MeshFormat.Compression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of uncompressed bytes in one compressed block
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * getter method
+     * @return - the center of the bounding sphere
+     */
+    public Vector3f getCenter() {
+        return this.center;
+    }
+
+    /**
+     * getter method
+     * @return - the radius of the bounding sphere
+     */
+    public float getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * getter method
+     * @return - the attributes in the order they are stored, null for attributes this version doesn't know
+     */
+    public MeshFormat.Attribute[] getAttributes() {
+        return this.attributes.clone();
+    }
+
+    /**
+     * getter method
+     * @param attribute - the index of the attribute in getAttributes()
+     * @return - the amount of floats per vertex of that attribute
+     */
+    public int getComponents(int attribute) {
+        return this.components[attribute];
+    }
+}
@@ -0,0 +1,226 @@
+package com.planets.engine.io.mesh_io;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MeshReader implements Closeable {
+
+    // the size of the buffer 2 byte indices and skipped attributes are read through
+    private static final int SCRATCH_BYTES = 16 * 1024;
+
+    // where the meshes come from
+    private final ReadableByteChannel channel;
+
+    // used to read the start of each header
+    private final ByteBuffer prefix = ByteBuffer.allocate(8);
+
+    // used to read 2 byte indices and skip unknown attributes
+    private final ByteBuffer scratch = ByteBuffer.allocateDirect(SCRATCH_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    // the header of the last mesh read
+    private MeshHeader header;
+
+    /**
+     * default constructor
+     * @param channel - where the meshes come from
+     */
+    public MeshReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * reads the first mesh in a file
+     * @param path - the file
+     * @return - the mesh
+     * @throws IOException - if the file can't be read or isn't a mesh file
+     */
+    public static Mesh read(Path path) throws IOException {
+        try (MeshReader reader = new MeshReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            Mesh mesh = reader.read();
+            if (mesh == null) {
+                throw new IOException(path + " is empty.");
+            }
+            return mesh;
+        }
+    }
+
+    /**
+     * reads the next mesh. the data is read straight into the buffers the mesh uploads, a block at a time
+     * @return - the mesh, or null if the channel ended
+     * @throws IOException - if the channel can't be read or the data is corrupt
+     */
+    public Mesh read() throws IOException {
+        // a clean end between meshes
+        prefix.clear();
+        while (prefix.hasRemaining()) {
+            if (channel.read(prefix) < 0) {
+                if (prefix.position() == 0) {
+                    return null;
+                }
+                throw new IOException("Mesh file ends early.");
+            }
+        }
+        prefix.flip();
+        int headerBytes = MeshHeader.readHeaderBytes(prefix);
+
+        ByteBuffer headerBuffer = ByteBuffer.allocate(headerBytes);
+        headerBuffer.put(prefix);
+        BlockReader.readFully(channel, headerBuffer);
+        headerBuffer.flip();
+        header = MeshHeader.read(headerBuffer);
+
+        BlockReader in = new BlockReader(channel, header.getCompression(), header.getBlockSize());
+        MeshFormat.Attribute[] attributes = header.getAttributes();
+        FloatBuffer[] data = new FloatBuffer[MeshFormat.Attribute.values().length];
+        for (int i = 0; i < attributes.length; i++) {
+            long bytes = (long) header.getVertexCount() * header.getComponents(i) * Float.BYTES;
+            if (attributes[i] == null) {
+                // added by a newer version
+                skip(in, bytes);
+            } else {
+                ByteBuffer buffer = allocate(bytes);
+                in.readFully(buffer);
+                buffer.flip();
+                data[attributes[i].ordinal()] = toNativeOrder(buffer).asFloatBuffer();
+            }
+        }
+        for (MeshFormat.Attribute attribute : MeshFormat.Attribute.values()) {
+            if (data[attribute.ordinal()] == null) {
+                throw new IOException("Mesh file has no " + attribute + " attribute.");
+            }
+        }
+
+        IntBuffer indices;
+        if (header.getIndexWidth() == 4) {
+            ByteBuffer buffer = allocate((long) header.getIndexCount() * Integer.BYTES);
+            in.readFully(buffer);
+            buffer.flip();
+            indices = toNativeOrder(buffer).asIntBuffer();
+        } else {
+            // 0xffff is never a vertex, so in strips it widens back to the restart index
+            boolean strips = header.getPrimitive() == MeshFormat.Primitive.TRIANGLE_STRIP;
+            indices = allocate((long) header.getIndexCount() * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            while (indices.hasRemaining()) {
+                scratch.clear().limit(Math.min(SCRATCH_BYTES, indices.remaining() * 2));
+                in.readFully(scratch);
+                for (int j = 0; j < scratch.limit(); j += 2) {
+                    int index = scratch.getShort(j) & 0xffff;
+                    indices.put(strips && index == 0xffff ? Stripifier.RESTART : index);
+                }
+            }
+            indices.flip();
+        }
+        in.finish();
+
+        return new Mesh(data[MeshFormat.Attribute.POSITION.ordinal()], data[MeshFormat.Attribute.COLOR.ordinal()],
+                data[MeshFormat.Attribute.NORMAL.ordinal()], indices, header.getPrimitive().getMode());
+    }
+
+    /**
+     * creates a mesh directly on top of an uncompressed mesh file that is already in memory, e.g. memory mapped.
+     * nothing is copied, so the mesh is only valid as long as the buffer is
+     * @param buffer - the file contents, from its position
+     * @return - the mesh
+     * @throws IOException - if the file is compressed, uses 2 byte indices, or can't be used in place on this machine
+     */
+    public static Mesh wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer file = buffer.slice();
+        MeshHeader header = MeshHeader.read(file);
+        if (header.getCompression() != MeshFormat.Compression.NONE || header.getIndexWidth() != 4
+                || ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IOException("Mesh file can't be used in place.");
+        }
+        if (file.capacity() < header.getHeaderBytes() + header.getPayloadBytes()) {
+            throw new IOException("Mesh file ends early.");
+        }
+
+        FloatBuffer[] data = new FloatBuffer[MeshFormat.Attribute.values().length];
+        MeshFormat.Attribute[] attributes = header.getAttributes();
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i] != null) {
+                int offset = (int) (header.getHeaderBytes() + header.getAttributeOffset(i));
+                data[attributes[i].ordinal()] = section(file, offset, header.getVertexCount() * header.getComponents(i) * Float.BYTES).asFloatBuffer();
+            }
+        }
+        for (MeshFormat.Attribute attribute : MeshFormat.Attribute.values()) {
+            if (data[attribute.ordinal()] == null) {
+                throw new IOException("Mesh file has no " + attribute + " attribute.");
+            }
+        }
+        int indexOffset = (int) (header.getHeaderBytes() + header.getIndexOffset());
+        IntBuffer indices = section(file, indexOffset, header.getIndexCount() * Integer.BYTES).asIntBuffer();
+
+        return new Mesh(data[MeshFormat.Attribute.POSITION.ordinal()], data[MeshFormat.Attribute.COLOR.ordinal()],
+                data[MeshFormat.Attribute.NORMAL.ordinal()], indices, header.getPrimitive().getMode());
+    }
+
+    /**
+     * helper method to take a little endian view of part of a buffer
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * helper method to allocate a buffer OpenGL can read
+     */
+    private static ByteBuffer allocate(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Mesh is too large to load.");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * helper method to convert little endian data to the order OpenGL reads on this machine
+     */
+    private static ByteBuffer toNativeOrder(ByteBuffer buffer) {
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            return buffer;
+        }
+        ByteBuffer converted = ByteBuffer.allocateDirect(buffer.remaining()).order(ByteOrder.nativeOrder());
+        converted.asIntBuffer().put(buffer.asIntBuffer());
+        return converted;
+    }
+
+    /**
+     * helper method to read past data this version doesn't use
+     */
+    private void skip(BlockReader in, long bytes) throws IOException {
+        while (bytes > 0) {
+            scratch.clear().limit((int) Math.min(SCRATCH_BYTES, bytes));
+            in.readFully(scratch);
+            bytes -= scratch.limit();
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the header of the last mesh read, or null if none was read yet
+     */
+    public MeshHeader getHeader() {
+        return this.header;
+    }
+
+    /**
+     * closes the channel
+     * @throws IOException - if the channel can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
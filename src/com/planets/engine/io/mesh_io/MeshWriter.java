@@ -0,0 +1,200 @@
+package com.planets.engine.io.mesh_io;
+
+import com.planets.engine.graphics.IndexBuffers;
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.math.Vector3f;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MeshWriter implements Closeable {
+
+    // the size of the buffer data is converted in before it's written
+    private static final int SCRATCH_BYTES = 16 * 1024;
+
+    // the attributes every mesh is written with, in the order a Mesh binds them
+    private static final MeshFormat.Attribute[] ATTRIBUTES = {
+            MeshFormat.Attribute.POSITION,
+            MeshFormat.Attribute.COLOR,
+            MeshFormat.Attribute.NORMAL
+    };
+
+    // where the meshes go
+    private final WritableByteChannel channel;
+
+    // how the data after each header is stored
+    private final MeshFormat.Compression compression;
+    private final int blockSize;
+
+    // whether to always use 4 byte indices, even when 2 bytes are enough
+    private boolean wideIndices;
+
+    // used to convert data to little endian bytes
+    private final ByteBuffer scratch = ByteBuffer.allocateDirect(SCRATCH_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * default constructor
+     * @param channel - where the meshes go
+     * @param compression - how the data after each header is stored
+     */
+    public MeshWriter(WritableByteChannel channel, MeshFormat.Compression compression) {
+        this(channel, compression, MeshFormat.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * constructor for a specified block size
+     * @param channel - where the meshes go
+     * @param compression - how the data after each header is stored
+     * @param blockSize - the amount of uncompressed bytes in one compressed block
+     */
+    public MeshWriter(WritableByteChannel channel, MeshFormat.Compression compression, int blockSize) {
+        if (blockSize < 1024) {
+            throw new IllegalArgumentException("Block size must be at least 1 KB.");
+        }
+        this.channel = channel;
+        this.compression = compression;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * writes one mesh to a file
+     * @param path - the file, replaced if it exists
+     * @param mesh - the mesh
+     * @param compression - how the data after the header is stored
+     * @throws IOException - if the file can't be written
+     */
+    public static void write(Path path, Mesh mesh, MeshFormat.Compression compression) throws IOException {
+        try (MeshWriter writer = new MeshWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), compression)) {
+            writer.write(mesh);
+        }
+    }
+
+    /**
+     * writes a mesh after the ones already written, so several meshes can be stored in one file
+     * @param mesh - the mesh
+     * @return - the header the mesh was written with
+     * @throws IOException - if the channel can't be written to
+     */
+    public MeshHeader write(Mesh mesh) throws IOException {
+        return write(mesh.packPositions(), mesh.packColors(), mesh.packNormals(), mesh.getIndices(), mesh.getMode());
+    }
+
+    /**
+     * writes packed vertex data after the meshes already written, straight from the arrays without copying them
+     * @param positions - 3 floats per vertex
+     * @param colors - 4 floats per vertex
+     * @param normals - 3 floats per vertex
+     * @param indices - the indices
+     * @param mode - GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @return - the header the mesh was written with
+     * @throws IOException - if the channel can't be written to
+     */
+    public MeshHeader write(float[] positions, float[] colors, float[] normals, int[] indices, int mode) throws IOException {
+        int vertexCount = positions.length / 3;
+        if (positions.length != vertexCount * 3 || colors.length != vertexCount * 4 || normals.length != vertexCount * 3) {
+            throw new IllegalArgumentException("Packed data of " + positions.length + " positions, " + colors.length
+                    + " colors and " + normals.length + " normals isn't the same amount of vertices.");
+        }
+
+        // bounding sphere around the centroid
+        float cx = 0, cy = 0, cz = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            cx += positions[i * 3];
+            cy += positions[i * 3 + 1];
+            cz += positions[i * 3 + 2];
+        }
+        if (vertexCount > 0) {
+            cx /= vertexCount;
+            cy /= vertexCount;
+            cz /= vertexCount;
+        }
+        float radiusSquared = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            float dx = positions[i * 3] - cx, dy = positions[i * 3 + 1] - cy, dz = positions[i * 3 + 2] - cz;
+            radiusSquared = Math.max(radiusSquared, dx * dx + dy * dy + dz * dz);
+        }
+
+        int[] components = new int[ATTRIBUTES.length];
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            components[i] = ATTRIBUTES[i].components;
+        }
+        // 0xffff is left free in 2 byte indices, so the restart index of strips narrows to it and nothing else does
+        int indexWidth = wideIndices || vertexCount > IndexBuffers.MAX_SHORT_VERTICES ? 4 : 2;
+        MeshHeader header = new MeshHeader(vertexCount, indices.length, indexWidth, MeshFormat.Primitive.ofMode(mode),
+                compression, blockSize, new Vector3f(cx, cy, cz), (float) Math.sqrt(radiusSquared), ATTRIBUTES.clone(), components);
+
+        // the header is never compressed, so it can be read without knowing how the rest is stored
+        ByteBuffer headerBuffer = ByteBuffer.allocate(header.getHeaderBytes());
+        header.write(headerBuffer);
+        headerBuffer.flip();
+        while (headerBuffer.hasRemaining()) {
+            channel.write(headerBuffer);
+        }
+
+        BlockWriter out = new BlockWriter(channel, compression, blockSize);
+        writeFloats(out, positions);
+        writeFloats(out, colors);
+        writeFloats(out, normals);
+        writeIndices(out, indices, indexWidth);
+        out.flush();
+        return header;
+    }
+
+    /**
+     * helper method to write floats as little endian bytes
+     */
+    private void writeFloats(BlockWriter out, float[] data) throws IOException {
+        int perChunk = SCRATCH_BYTES / Float.BYTES;
+        for (int i = 0; i < data.length; i += perChunk) {
+            int n = Math.min(perChunk, data.length - i);
+            scratch.clear();
+            scratch.asFloatBuffer().put(data, i, n);
+            scratch.limit(n * Float.BYTES);
+            out.write(scratch);
+        }
+    }
+
+    /**
+     * helper method to write indices as 2 or 4 little endian bytes each
+     */
+    private void writeIndices(BlockWriter out, int[] indices, int width) throws IOException {
+        int perChunk = SCRATCH_BYTES / width;
+        for (int i = 0; i < indices.length; i += perChunk) {
+            int n = Math.min(perChunk, indices.length - i);
+            scratch.clear();
+            if (width == 4) {
+                scratch.asIntBuffer().put(indices, i, n);
+            } else {
+                for (int j = 0; j < n; j++) {
+                    scratch.putShort(j * 2, (short) indices[i + j]);
+                }
+            }
+            scratch.limit(n * width);
+            out.write(scratch);
+        }
+    }
+
+    /**
+     * sets whether to always use 4 byte indices. by default 2 bytes are used whenever every index fits
+     * @param wideIndices - true to always use 4 bytes
+     */
+    public void setWideIndices(boolean wideIndices) {
+        this.wideIndices = wideIndices;
+    }
+
+    /**
+     * closes the channel
+     * @throws IOException - if the channel can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
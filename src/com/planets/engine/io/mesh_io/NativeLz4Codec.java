@@ -0,0 +1,48 @@
+package com.planets.engine.io.mesh_io;
+
+import org.lwjgl.util.lz4.LZ4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+class NativeLz4Codec implements BlockCodec {
+
+    // whether the native library could be loaded, checked once
+    private static Boolean available;
+
+    /**
+     * checks if the native LZ4 library can be used on this machine
+     * @return - true if it loaded
+     */
+    static synchronized boolean isAvailable() {
+        if (available == null) {
+            try {
+                LZ4.LZ4_compressBound(1);
+                available = true;
+            } catch (LinkageError | IllegalStateException e) {
+                available = false;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public int compress(ByteBuffer src, ByteBuffer dst) {
+        // the native library only reads direct buffers
+        int written = LZ4.LZ4_compress_default(src, dst);
+        return written > 0 ? written : -1;
+    }
+
+    @Override
+    public void decompress(ByteBuffer src, ByteBuffer dst) throws IOException {
+        int read = LZ4.LZ4_decompress_safe(src, dst);
+        if (read != dst.remaining()) {
+            throw new IOException("Corrupt LZ4 block.");
+        }
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return LZ4.LZ4_compressBound(length);
+    }
+}
@@ -2,30 +2,96 @@ package com.planets.engine.io.picking;
 
 import com.planets.engine.graphics.Camera;
 import com.planets.engine.graphics.Shader;
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
 import com.planets.engine.io.window.Window;
 import com.planets.engine.math.Matrix4f;
 import com.planets.engine.math.Vector3f;
 import com.planets.engine.objects.RenderObject;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL14;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL30;
 
 public class CPRenderer {
 
+    // the width and height of the region around the cursor rendered by default, in pixels
+    public static final int DEFAULT_REGION = 5;
+
     // the shader program
     private Shader shader;
 
     // the window to render to
     private Window window;
 
+    // the backend the draws go through
+    private final GLBackend gl;
+
+    // the width and height of the region around the cursor rendered, in pixels
+    private final int region;
+
+    // the small target the region is rendered into, created with the first pass
+    private int framebuffer, colorbuffer, depthbuffer;
+
+    // reads the region back a few frames later, so picking never waits for the GPU
+    private final PickingReadback readback;
+
+    // the projection that stretches the region around the cursor over the whole target
+    private final Matrix4f projection = new Matrix4f();
+
+    // the cursor the pass in progress is for
+    private int cursorX, cursorY;
+    private boolean active;
+
+    // the color of the object being rendered, reused between objects
+    private final Vector3f color = new Vector3f(0, 0, 0);
+
     /**
      * default constructor
      * @param window - the specified window to render to
      * @param shader - the shader program to use to render
      */
     public CPRenderer(Window window, Shader shader) {
+        this(window, shader, DEFAULT_REGION, PickingReadback.DEFAULT_SLOTS);
+    }
+
+    /**
+     * constructor for a specified region and readbacks in flight
+     * @param window - the specified window to render to
+     * @param shader - the shader program to use to render
+     * @param region - the width and height of the region around the cursor rendered, in pixels
+     * @param slots - the readbacks that can be in flight at once
+     */
+    public CPRenderer(Window window, Shader shader, int region, int slots) {
         this.window = window;
         this.shader = shader;
+        this.gl = Graphics.gl();
+        this.region = region;
+        this.readback = new PickingReadback(region, slots);
+    }
+
+    /**
+     * starts a picking pass around the cursor, into the small target instead of the window
+     * @param cursorX - the x of the cursor, from the left of the window
+     * @param cursorY - the y of the cursor, from the top of the window
+     */
+    public void begin(int cursorX, int cursorY) {
+        if (active) {
+            throw new IllegalStateException("A picking pass is already in progress.");
+        }
+        if (framebuffer == 0) {
+            createFramebuffer();
+        }
+        this.cursorX = cursorX;
+        this.cursorY = cursorY;
+        this.active = true;
+        pickProjection(window.getProjectionMatrix(), cursorX, cursorY);
+
+        gl.bindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+        gl.viewport(0, 0, region, region);
+        gl.clearColor(0, 0, 0, 0);
+        gl.clear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+        gl.enable(GL11.GL_DEPTH_TEST);
     }
 
     /**
@@ -34,27 +100,122 @@ public class CPRenderer {
      * @param camera - the camera perspective
      */
     public void renderMesh(RenderObject object, Camera camera) {
-        GL30.glBindVertexArray(object.getMesh().getVAO());
-        GL30.glEnableVertexAttribArray(0); // the vertex position array
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, object.getMesh().getIBO());
+        if (!active) {
+            throw new IllegalStateException("No picking pass is in progress.");
+        }
+        gl.bindVertexArray(object.getMesh().getVAO());
+        gl.enableVertexAttribArray(0); // the vertex position array
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, object.getMesh().getIBO());
 
         shader.bind();
         shader.setUniform("model", Matrix4f.transform(object.getPosition(), object.getRotation(), object.getScale()));
         shader.setUniform("view", Matrix4f.view(camera.getPosition(), camera.getRotation()));
-        shader.setUniform("projection", window.getProjectionMatrix());
+        shader.setUniform("projection", projection);
 
-        // create the color picking color
-        int r = object.getID();
-        int g = 0;
-        int b = 0;
-        Vector3f color = Vector3f.divide(new Vector3f(r, g, b), new Vector3f(255));
-
-        shader.setUniform("pickingColor", color); // set the picking color uniform
-        GL11.glDrawElements(GL11.GL_TRIANGLES, object.getMesh().getIndices().length, GL11.GL_UNSIGNED_INT, 0);
+        // the whole ID goes in the color, 8 bits per channel
+        shader.setUniform("pickingColor", PickingColor.encode(object.getID(), color)); // set the picking color uniform
+        object.getMesh().draw();
         shader.unbind();
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
-        GL30.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl.disableVertexAttribArray(0);
+        gl.bindVertexArray(0);
+    }
+
+    /**
+     * ends the picking pass, starting its readback and going back to rendering to the window
+     * @return - false if every readback was still in flight, so this pass is never read
+     */
+    public boolean end() {
+        if (!active) {
+            throw new IllegalStateException("No picking pass is in progress.");
+        }
+        active = false;
+        boolean requested = readback.request(cursorX, cursorY);
+        gl.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        gl.viewport(0, 0, window.getWidth(), window.getHeight());
+        return requested;
+    }
+
+    /**
+     * finishes the readbacks the GPU is done with, once per frame, which never waits
+     * @return - true if the picked ID changed to a newer pass's result
+     */
+    public boolean poll() {
+        return readback.poll();
+    }
+
+    /**
+     * getter method
+     * @return - the ID of the object nearest the cursor in the last pass read back, or PickingColor.NONE
+     */
+    public int getPickedID() {
+        return readback.getPickedID();
     }
 
+    /**
+     * getter method
+     * @return - the readbacks of the passes
+     */
+    public PickingReadback getReadback() {
+        return this.readback;
+    }
+
+    /**
+     * releases the target and the readbacks
+     */
+    public void destroy() {
+        readback.destroy();
+        if (framebuffer != 0) {
+            gl.deleteFramebuffer(framebuffer);
+            gl.deleteRenderbuffer(colorbuffer);
+            gl.deleteRenderbuffer(depthbuffer);
+            framebuffer = 0;
+        }
+    }
+
+    /**
+     * helper method to create the target the region is rendered into
+     */
+    private void createFramebuffer() {
+        colorbuffer = gl.genRenderbuffer();
+        gl.bindRenderbuffer(colorbuffer);
+        gl.renderbufferStorage(GL11.GL_RGBA8, region, region);
+        depthbuffer = gl.genRenderbuffer();
+        gl.bindRenderbuffer(depthbuffer);
+        gl.renderbufferStorage(GL14.GL_DEPTH_COMPONENT24, region, region);
+        gl.bindRenderbuffer(0);
+
+        framebuffer = gl.genFramebuffer();
+        gl.bindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+        gl.framebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, colorbuffer);
+        gl.framebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, depthbuffer);
+        int status = gl.checkFramebufferStatus(GL30.GL_FRAMEBUFFER);
+        gl.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            throw new IllegalStateException("The picking framebuffer is incomplete, status " + status + ".");
+        }
+    }
+
+    /**
+     * helper method to set the projection to the window's, scaled and moved so the region around the cursor fills
+     * the target, without allocating
+     */
+    private void pickProjection(Matrix4f window, int cursorX, int cursorY) {
+        int width = this.window.getWidth(), height = this.window.getHeight();
+        float sx = (float) width / region, sy = (float) height / region;
+
+        // the middle of the cursor's pixel in normalized device coordinates, whose y points up
+        float cx = 2 * (cursorX + 0.5f) / width - 1;
+        float cy = 1 - 2 * (cursorY + 0.5f) / height;
+
+        // rows 0 and 1 become sx * (x - cx * w) and sy * (y - cy * w), the rest stay the same
+        float[] p = window.getAll();
+        float[] e = projection.getAll();
+        for (int col = 0; col < 4; col++) {
+            e[col] = sx * (p[col] - cx * p[12 + col]);
+            e[4 + col] = sy * (p[4 + col] - cy * p[12 + col]);
+            e[8 + col] = p[8 + col];
+            e[12 + col] = p[12 + col];
+        }
+    }
 }
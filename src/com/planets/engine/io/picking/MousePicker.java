@@ -3,13 +3,8 @@ package com.planets.engine.io.picking;
 import com.planets.engine.graphics.Camera;
 import com.planets.engine.io.window.Input;
 import com.planets.engine.io.window.Window;
-import com.planets.engine.math.Matrix4f;
-import com.planets.engine.math.Vector2f;
 import com.planets.engine.math.Vector3f;
-import com.planets.engine.math.Vector4f;
-import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
-import org.lwjglx.BufferUtils;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -20,8 +15,12 @@ import static org.lwjglx.util.glu.Project.gluUnProject;
 
 public class MousePicker {
 
-    // the current ray being cast
-    private Vector3f currentRay;
+    // the current ray being cast, and where it starts
+    private final Vector3f currentRay = new Vector3f(0, 0, -1);
+    private final Vector3f rayOrigin = new Vector3f(0, 0, 0);
+
+    // makes the rays, keeping the inverse view-projection until the camera or the window changes
+    private final PickingCamera pickingCamera;
 
     // the camera of the scene
     private Camera camera;
@@ -32,9 +31,6 @@ public class MousePicker {
     // the input device
     private Input input;
 
-    // the projection and view matrices
-    private Matrix4f projection, view;
-
     /**
      * default constructor
      * @param camera - the camera in the window
@@ -44,8 +40,8 @@ public class MousePicker {
     public MousePicker(Camera camera, Window window, Input input) {
         this.camera = camera;
         this.window = window;
-        this.projection = window.getProjectionMatrix();
         this.input = input;
+        this.pickingCamera = new PickingCamera(camera, window, input);
     }
 
     /**
@@ -88,73 +84,39 @@ public class MousePicker {
      * updates the mousePicker object
      */
     public void update() {
-        view = Matrix4f.view(camera.getPosition(), camera.getRotation());
-        currentRay = calculateRay();
+        calculateRay();
     }
 
     /**
-     * calculates the ray
+     * calculates the ray under the mouse, without allocating
+     * @return - the direction of the ray, which is reused by the next calculation
      */
     public Vector3f calculateRay() {
-        float mouseX = (float) input.getMouseX();
-        float mouseY = (float) input.getMouseY();
-        Vector2f normalizedCoords = getNormalizedDeviceCoords(mouseX, mouseY);
-        Vector4f clipCoords = new Vector4f(normalizedCoords, -1, 1);
-        Vector4f eyeCoords = toEyeCoords(clipCoords);
-        return toWorldCoords(eyeCoords);
-    }
-
-    /**
-     * converts from eye coords to world coords
-     * @param eyeCoords - the eye coords
-     * @return - the 3-vector world coords
-     */
-    private Vector3f toWorldCoords(Vector4f eyeCoords) {
-        Matrix4f invView = Matrix4f.invert(view);
-        return Vector3f.normalize((Matrix4f.multiply(invView, eyeCoords).getXYZ()));
+        pickingCamera.ray((float) input.getMouseX(), (float) input.getMouseY(), rayOrigin, currentRay);
+        return currentRay;
     }
 
     /**
-     * converts to eye coords
-     * @param clipCoords - the clipCoords
-     * @return - the eye coords
+     * getter method
+     * @return - the current ray being cast
      */
-    private Vector4f toEyeCoords(Vector4f clipCoords) {
-        // create the inverse projection matrix
-        Matrix4f invProjection = Matrix4f.invert(projection);
-
-        return Matrix4f.multiply(invProjection, clipCoords);
+    public Vector3f getCurrentRay() {
+        return this.currentRay;
     }
 
     /**
-     * calculates the normalized device coordinates
-     * @param mouseX - the x position of the mouse
-     * @param mouseY - the y position of the mouse
-     * @return - the mouse coordinates in normalized coordinates
+     * getter method
+     * @return - the origin of the current ray, on the near plane
      */
-    private Vector2f getNormalizedDeviceCoords(float mouseX, float mouseY) {
-        // get the width and height of the display
-        IntBuffer w = BufferUtils.createIntBuffer(1);
-        IntBuffer h = BufferUtils.createIntBuffer(1);
-        GLFW.glfwGetWindowSize(window.getWindowHandle(), w, h);
-        int width = w.get(0);
-        int height = h.get(0);
-
-        // adjust the y position
-        float y = height - mouseY;
-
-        // return the new vector
-        return new Vector2f(
-                2 * mouseX / width - 1,
-                2 * y / height - 1
-        );
+    public Vector3f getRayOrigin() {
+        return this.rayOrigin;
     }
 
     /**
      * getter method
-     * @return - the current ray being cast
+     * @return - the camera model the rays are made with, which can also make many rays at once
      */
-    public Vector3f getCurrentRay() {
-        return this.currentRay;
+    public PickingCamera getPickingCamera() {
+        return this.pickingCamera;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.objects.RenderObject;
+
+public class PickResult {
+
+    // the object hit, or null if nothing was
+    private RenderObject object;
+
+    // how far along the ray it was hit, in lengths of the ray's direction
+    private float distance = Float.POSITIVE_INFINITY;
+
+    // where it was hit, in world space
+    private final Vector3f point = new Vector3f(0, 0, 0);
+
+    // the triangle hit, as its position in the mesh's triangles, and its vertices
+    private int triangle = -1;
+    private final int[] vertices = new int[3];
+
+    // the weights of the triangle's vertices at the point hit, which add up to 1
+    private final float[] barycentrics = new float[3];
+
+    /**
+     * forgets the last hit
+     */
+    public void clear() {
+        this.object = null;
+        this.triangle = -1;
+        this.distance = Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * records a hit
+     * @param object - the object hit
+     * @param distance - how far along the ray it was hit
+     * @param x - the x of the point hit, in world space
+     * @param y - the y of the point hit, in world space
+     * @param z - the z of the point hit, in world space
+     * @param triangle - the triangle hit
+     * @param a - the triangle's first vertex
+     * @param b - the triangle's second vertex
+     * @param c - the triangle's third vertex
+     * @param u - the weight of the second vertex
+     * @param v - the weight of the third vertex
+     */
+    public void set(RenderObject object, float distance, float x, float y, float z, int triangle, int a, int b, int c, float u, float v) {
+        this.object = object;
+        this.distance = distance;
+        this.point.set(x, y, z);
+        this.triangle = triangle;
+        this.vertices[0] = a;
+        this.vertices[1] = b;
+        this.vertices[2] = c;
+        this.barycentrics[0] = 1 - u - v;
+        this.barycentrics[1] = u;
+        this.barycentrics[2] = v;
+    }
+
+    /**
+     * getter method
+     * @return - true if something was hit
+     */
+    public boolean isHit() {
+        return this.object != null;
+    }
+
+    /**
+     * getter method
+     * @return - the object hit, or null if nothing was
+     */
+    public RenderObject getObject() {
+        return this.object;
+    }
+
+    /**
+     * getter method
+     * @return - the ID of the object hit, or -1 if nothing was
+     */
+    public int getID() {
+        return this.object == null ? -1 : this.object.getID();
+    }
+
+    /**
+     * getter method
+     * @return - how far along the ray the object was hit, in lengths of the ray's direction
+     */
+    public float getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * getter method
+     * @return - the point hit, in world space
+     */
+    public Vector3f getPoint() {
+        return this.point;
+    }
+
+    /**
+     * getter method
+     * @return - the triangle hit, as its position in the mesh's triangles
+     */
+    public int getTriangle() {
+        return this.triangle;
+    }
+
+    /**
+     * getter method
+     * @param corner - 0 to 2
+     * @return - the mesh vertex at a corner of the triangle hit
+     */
+    public int getVertex(int corner) {
+        return this.vertices[corner];
+    }
+
+    /**
+     * getter method
+     * @param corner - 0 to 2
+     * @return - the weight of the vertex at a corner of the triangle hit, at the point hit
+     */
+    public float getBarycentric(int corner) {
+        return this.barycentrics[corner];
+    }
+
+    @Override
+    public String toString() {
+        return isHit() ? "PickResult[object " + getID() + ", triangle " + triangle + ", distance " + distance + ", point " + point + "]"
+                : "PickResult[miss]";
+    }
+}
@@ -0,0 +1,164 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.graphics.Camera;
+import com.planets.engine.io.window.Input;
+import com.planets.engine.io.window.Window;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+
+public class PickingCamera {
+
+    // the camera of the scene
+    private final Camera camera;
+
+    // the window, whose projection is replaced when it's resized
+    private final Window window;
+
+    // the input device, which tracks the size of the window
+    private final Input input;
+
+    // what the inverse was made for, so it's only made again when one of them changes
+    private final float[] pose = new float[6];
+    private Matrix4f projection;
+    private int width, height;
+
+    // the inverse of projection x view, row major
+    private final float[] inverse = new float[16];
+
+    // the amount of times the inverse was made
+    private long rebuilds;
+
+    // receives a single ray, so making one doesn't allocate
+    private final float[] rayOrigin = new float[3];
+    private final float[] rayDirection = new float[3];
+
+    /**
+     * default constructor
+     * @param camera - the camera in the window
+     * @param window - the display window
+     * @param input - the object for handling input
+     */
+    public PickingCamera(Camera camera, Window window, Input input) {
+        this.camera = camera;
+        this.window = window;
+        this.input = input;
+    }
+
+    /**
+     * makes the inverse view-projection again if the camera moved, or the window was resized
+     * @return - true if it was made again
+     */
+    public boolean refresh() {
+        Vector3f position = camera.getPosition();
+        Vector3f rotation = camera.getRotation();
+        int width = getWidth(), height = getHeight();
+        Matrix4f projection = window.getProjectionMatrix();
+        if (rebuilds > 0 && projection == this.projection && width == this.width && height == this.height
+                && pose[0] == position.getX() && pose[1] == position.getY() && pose[2] == position.getZ()
+                && pose[3] == rotation.getX() && pose[4] == rotation.getY() && pose[5] == rotation.getZ()) {
+            return false;
+        }
+        pose[0] = position.getX();
+        pose[1] = position.getY();
+        pose[2] = position.getZ();
+        pose[3] = rotation.getX();
+        pose[4] = rotation.getY();
+        pose[5] = rotation.getZ();
+        this.projection = projection;
+        this.width = width;
+        this.height = height;
+
+        Matrix4f viewProjection = Matrix4f.multiply(Matrix4f.view(position, rotation), projection);
+        System.arraycopy(Matrix4f.invert(viewProjection).getAll(), 0, inverse, 0, inverse.length);
+        rebuilds++;
+        return true;
+    }
+
+    /**
+     * makes the ray through a point of the window, from the near plane to the far plane, without allocating
+     * @param screenX - the x of the point, from the left of the window
+     * @param screenY - the y of the point, from the top of the window
+     * @param origin - receives the point on the near plane, in world space
+     * @param direction - receives the normalized direction of the ray, in world space
+     */
+    public void ray(float screenX, float screenY, Vector3f origin, Vector3f direction) {
+        refresh();
+        unproject(screenX, screenY, rayOrigin, rayDirection, 0);
+        origin.set(rayOrigin[0], rayOrigin[1], rayOrigin[2]);
+        direction.set(rayDirection[0], rayDirection[1], rayDirection[2]);
+    }
+
+    /**
+     * makes the rays through many points of the window at once, e.g. the corners of a selection rectangle, without
+     * allocating
+     * @param points - the x and y of each point, from the top left of the window
+     * @param count - the amount of points
+     * @param origins - receives the x, y and z of each ray's point on the near plane, in world space
+     * @param directions - receives the x, y and z of each ray's normalized direction, in world space
+     */
+    public void rays(float[] points, int count, float[] origins, float[] directions) {
+        if (points.length < count * 2 || origins.length < count * 3 || directions.length < count * 3) {
+            throw new IllegalArgumentException("The arrays don't hold " + count + " points and rays.");
+        }
+        refresh();
+        for (int i = 0; i < count; i++) {
+            unproject(points[i * 2], points[i * 2 + 1], origins, directions, i * 3);
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the inverse of projection x view, row major, as of the last refresh
+     */
+    public float[] getInverseViewProjection() {
+        return this.inverse;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of times the inverse was made
+     */
+    public long getRebuilds() {
+        return this.rebuilds;
+    }
+
+    /**
+     * helper method to get the width of the window, which the input only knows once it was resized
+     */
+    private int getWidth() {
+        return input.getWindowWidth() > 0 ? input.getWindowWidth() : window.getWidth();
+    }
+
+    /**
+     * helper method to get the height of the window, which the input only knows once it was resized
+     */
+    private int getHeight() {
+        return input.getWindowHeight() > 0 ? input.getWindowHeight() : window.getHeight();
+    }
+
+    /**
+     * helper method to unproject a point of the window on the near and far planes, into a ray
+     */
+    private void unproject(float screenX, float screenY, float[] origins, float[] directions, int offset) {
+        float x = 2 * screenX / width - 1;
+        float y = 1 - 2 * screenY / height;
+        float[] e = inverse;
+
+        // the near point is at a depth of -1 and the far one at 1, so the two only differ by the third column
+        float nx = e[0] * x + e[1] * y - e[2] + e[3], fx = nx + 2 * e[2];
+        float ny = e[4] * x + e[5] * y - e[6] + e[7], fy = ny + 2 * e[6];
+        float nz = e[8] * x + e[9] * y - e[10] + e[11], fz = nz + 2 * e[10];
+        float nw = e[12] * x + e[13] * y - e[14] + e[15], fw = nw + 2 * e[14];
+        nx /= nw;
+        ny /= nw;
+        nz /= nw;
+        float dx = fx / fw - nx, dy = fy / fw - ny, dz = fz / fw - nz;
+        float inv = 1 / (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        origins[offset] = nx;
+        origins[offset + 1] = ny;
+        origins[offset + 2] = nz;
+        directions[offset] = dx * inv;
+        directions[offset + 1] = dy * inv;
+        directions[offset + 2] = dz * inv;
+    }
+}
@@ -0,0 +1,49 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.objects.RenderObject;
+
+import java.nio.ByteBuffer;
+
+public class PickingColor {
+
+    // the ID of the background, which the picking target is cleared to black for
+    public static final int NONE = -1;
+
+    /**
+     * encodes an ID into the 24 bits of a color, the low byte in red. IDs are stored one higher, so black is
+     * the background
+     * @param id - the ID, 0 to RenderObject.MAX_ID
+     * @param color - receives the color, each component a multiple of 1/255 that an 8 bit target stores exactly
+     * @return - the color
+     */
+    public static Vector3f encode(int id, Vector3f color) {
+        if (id < 0 || id > RenderObject.MAX_ID) {
+            throw new IllegalArgumentException("ID " + id + " doesn't fit in a picking color.");
+        }
+        int value = id + 1;
+        color.set((value & 0xFF) / 255f, ((value >>> 8) & 0xFF) / 255f, ((value >>> 16) & 0xFF) / 255f);
+        return color;
+    }
+
+    /**
+     * decodes the ID of a pixel
+     * @param r - the red byte, 0 to 255
+     * @param g - the green byte, 0 to 255
+     * @param b - the blue byte, 0 to 255
+     * @return - the ID, or NONE for the background
+     */
+    public static int decode(int r, int g, int b) {
+        return ((b & 0xFF) << 16 | (g & 0xFF) << 8 | (r & 0xFF)) - 1;
+    }
+
+    /**
+     * decodes the ID of an RGBA pixel read back as unsigned bytes
+     * @param pixels - the pixels
+     * @param offset - the first byte of the pixel
+     * @return - the ID, or NONE for the background
+     */
+    public static int decode(ByteBuffer pixels, int offset) {
+        return decode(pixels.get(offset), pixels.get(offset + 1), pixels.get(offset + 2));
+    }
+}
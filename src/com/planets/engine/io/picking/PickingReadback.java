@@ -0,0 +1,229 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+
+public class PickingReadback {
+
+    // the readbacks that can be in flight at once, enough for the GPU to finish one before its buffer is needed again
+    public static final int DEFAULT_SLOTS = 3;
+
+    // the bytes of an RGBA pixel
+    private static final int PIXEL_BYTES = 4;
+
+    // the width and height of the region read, in pixels
+    private final int size;
+
+    // the backend the buffers were created with
+    private GLBackend gl;
+
+    // the pixel buffer of each slot, the fence after its read, and the cursor it was read for
+    private final int[] buffers;
+    private final long[] fences;
+    private final int[] cursorX;
+    private final int[] cursorY;
+
+    // the oldest readback in flight, and the amount in flight
+    private int head;
+    private int pending;
+
+    // the last readback finished
+    private int pickedID = PickingColor.NONE;
+    private int pickedX = -1;
+    private int pickedY = -1;
+
+    // the readbacks finished, and the ones dropped because every slot was in flight
+    private long resolved;
+    private long dropped;
+
+    /**
+     * default constructor
+     * @param size - the width and height of the region read, in pixels
+     * @param slots - the readbacks that can be in flight at once, at least 1
+     */
+    public PickingReadback(int size, int slots) {
+        if (size < 1 || slots < 1) {
+            throw new IllegalArgumentException("The picking region and the readbacks in flight must be at least 1.");
+        }
+        this.size = size;
+        this.buffers = new int[slots];
+        this.fences = new long[slots];
+        this.cursorX = new int[slots];
+        this.cursorY = new int[slots];
+    }
+
+    /**
+     * starts reading the region back from the framebuffer bound for reading, without waiting for the GPU
+     * @param x - the x of the cursor it was rendered around
+     * @param y - the y of the cursor it was rendered around
+     * @return - false if every slot was still in flight, so the readback was dropped
+     */
+    public boolean request(int x, int y) {
+        if (gl == null) {
+            start();
+        }
+        if (pending == buffers.length) {
+            dropped++;
+            return false;
+        }
+        int slot = (head + pending) % buffers.length;
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[slot]);
+        gl.readPixels(0, 0, size, size, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0);
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        fences[slot] = gl.fenceSync();
+        cursorX[slot] = x;
+        cursorY[slot] = y;
+        pending++;
+        return true;
+    }
+
+    /**
+     * finishes the readbacks the GPU is done with, oldest first, which never waits
+     * @return - true if one finished, and the picked ID changed to its result
+     */
+    public boolean poll() {
+        boolean finished = false;
+        while (pending > 0) {
+            int status = gl.clientWaitSync(fences[head], 0, 0);
+            if (status == GL32.GL_WAIT_FAILED) {
+                throw new IllegalStateException("Waiting for a picking readback failed.");
+            }
+            if (status == GL32.GL_TIMEOUT_EXPIRED) {
+                break;
+            }
+            gl.deleteSync(fences[head]);
+            fences[head] = 0;
+
+            gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[head]);
+            ByteBuffer pixels = gl.mapBufferRange(GL21.GL_PIXEL_PACK_BUFFER, 0, (long) size * size * PIXEL_BYTES, GL30.GL_MAP_READ_BIT);
+            if (pixels == null) {
+                throw new IllegalStateException("The picking buffer couldn't be mapped.");
+            }
+            pickedID = closest(pixels);
+            gl.unmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+            gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+            pickedX = cursorX[head];
+            pickedY = cursorY[head];
+            head = (head + 1) % buffers.length;
+            pending--;
+            resolved++;
+            finished = true;
+        }
+        return finished;
+    }
+
+    /**
+     * deletes the buffers and the fences in flight
+     */
+    public void destroy() {
+        if (gl == null) {
+            return;
+        }
+        for (int i = 0; i < pending; i++) {
+            gl.deleteSync(fences[(head + i) % buffers.length]);
+        }
+        for (int buffer : buffers) {
+            gl.deleteBuffer(buffer);
+        }
+        pending = 0;
+        gl = null;
+    }
+
+    /**
+     * getter method
+     * @return - the ID read back last, or PickingColor.NONE if it was the background
+     */
+    public int getPickedID() {
+        return this.pickedID;
+    }
+
+    /**
+     * getter method
+     * @return - the x of the cursor the last readback was for
+     */
+    public int getPickedX() {
+        return this.pickedX;
+    }
+
+    /**
+     * getter method
+     * @return - the y of the cursor the last readback was for
+     */
+    public int getPickedY() {
+        return this.pickedY;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of readbacks in flight
+     */
+    public int getPending() {
+        return this.pending;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of readbacks finished
+     */
+    public long getResolved() {
+        return this.resolved;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of readbacks dropped because every slot was in flight
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    /**
+     * getter method
+     * @return - the width and height of the region read, in pixels
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * helper method to create the buffer of every slot
+     */
+    private void start() {
+        gl = Graphics.gl();
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = gl.genBuffer();
+            gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[i]);
+            gl.bufferData(GL21.GL_PIXEL_PACK_BUFFER, (long) size * size * PIXEL_BYTES, GL15.GL_STREAM_READ);
+        }
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+    }
+
+    /**
+     * helper method to find the ID of the object closest to the middle of the region, so thin objects can be
+     * picked without hitting their exact pixel
+     */
+    private int closest(ByteBuffer pixels) {
+        int middle = size / 2;
+        int closest = PickingColor.NONE;
+        int best = Integer.MAX_VALUE;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int id = PickingColor.decode(pixels, (y * size + x) * PIXEL_BYTES);
+                int distance = (x - middle) * (x - middle) + (y - middle) * (y - middle);
+                if (id != PickingColor.NONE && distance < best) {
+                    best = distance;
+                    closest = id;
+                }
+            }
+        }
+        return closest;
+    }
+}
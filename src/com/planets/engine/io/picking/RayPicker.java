@@ -0,0 +1,146 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.collision.DynamicAABBTree;
+import com.planets.engine.math.collision.TriangleBVH;
+import com.planets.engine.objects.ObjectIndex;
+import com.planets.engine.objects.RenderObject;
+
+import java.util.IdentityHashMap;
+
+public class RayPicker {
+
+    // the objects that can be picked
+    private final ObjectIndex index;
+
+    // the triangles of each mesh, built the first time the mesh is picked against
+    private final IdentityHashMap<Mesh, TriangleBVH> meshes = new IdentityHashMap<>();
+
+    // the ray being picked with, in world space
+    private float ox, oy, oz, dx, dy, dz;
+
+    // receives the distance and the barycentric weights of the closest triangle
+    private final float[] hit = new float[3];
+
+    // the model matrix of the object being tested and its inverse, reused so picking doesn't allocate per object
+    private final Matrix4f model = new Matrix4f();
+    private final Matrix4f inverse = new Matrix4f();
+
+    // the result of the pick in progress
+    private PickResult result;
+
+    // tests each object whose box the ray passes through, so the tree is searched closest first
+    private final DynamicAABBTree.RayVisitor<RenderObject> visitor = this::test;
+
+    /**
+     * default constructor
+     * @param index - the objects that can be picked
+     */
+    public RayPicker(ObjectIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * finds the closest triangle of any object a ray hits, without touching the GPU
+     * @param origin - the origin of the ray, in world space
+     * @param direction - the direction of the ray, in world space
+     * @param result - receives the hit, or is cleared if nothing was hit
+     * @return - true if something was hit
+     */
+    public boolean pick(Vector3f origin, Vector3f direction, PickResult result) {
+        return pick(origin, direction, Float.POSITIVE_INFINITY, result);
+    }
+
+    /**
+     * finds the closest triangle of any object a ray hits, without touching the GPU
+     * @param origin - the origin of the ray, in world space
+     * @param direction - the direction of the ray, in world space
+     * @param maxDistance - the furthest along the ray to search, in lengths of the direction
+     * @param result - receives the hit, or is cleared if nothing was hit
+     * @return - true if something was hit
+     */
+    public boolean pick(Vector3f origin, Vector3f direction, float maxDistance, PickResult result) {
+        ox = origin.getX();
+        oy = origin.getY();
+        oz = origin.getZ();
+        dx = direction.getX();
+        dy = direction.getY();
+        dz = direction.getZ();
+        this.result = result;
+        result.clear();
+        index.raycast(origin, direction, maxDistance, visitor);
+        this.result = null;
+        return result.isHit();
+    }
+
+    /**
+     * forgets the triangles of a mesh, after its vertices changed
+     * @param mesh - the mesh
+     */
+    public void invalidate(Mesh mesh) {
+        meshes.remove(mesh);
+    }
+
+    /**
+     * getter method
+     * @param mesh - a mesh
+     * @return - the tree of the mesh's triangles, built if it wasn't yet
+     */
+    public TriangleBVH getTriangles(Mesh mesh) {
+        return meshes.computeIfAbsent(mesh, TriangleBVH::of);
+    }
+
+    /**
+     * helper method to test an object's bounding sphere, then its triangles
+     * @return - the distance it was hit at, or maxDistance if it wasn't
+     */
+    private float test(int proxy, RenderObject object, float maxDistance) {
+        Vector3f position = object.getPosition();
+        float radius = index.getRadius(object);
+        if (sphere(position.getX(), position.getY(), position.getZ(), radius) > maxDistance) {
+            return maxDistance;
+        }
+
+        // the ray is moved into the object's space instead of moving every triangle out of it. the direction keeps
+        // its scale, so distances along it are the same in both spaces
+        Matrix4f.transform(position, object.getRotation(), object.getScale(), model);
+        float[] e = Matrix4f.invert(model, inverse).getAll();
+        float lx = e[0] * ox + e[1] * oy + e[2] * oz + e[3];
+        float ly = e[4] * ox + e[5] * oy + e[6] * oz + e[7];
+        float lz = e[8] * ox + e[9] * oy + e[10] * oz + e[11];
+        float ldx = e[0] * dx + e[1] * dy + e[2] * dz;
+        float ldy = e[4] * dx + e[5] * dy + e[6] * dz;
+        float ldz = e[8] * dx + e[9] * dy + e[10] * dz;
+
+        TriangleBVH triangles = getTriangles(object.getMesh());
+        int triangle = triangles.raycast(lx, ly, lz, ldx, ldy, ldz, maxDistance, hit);
+        if (triangle == -1) {
+            return maxDistance;
+        }
+        float t = hit[0];
+        result.set(object, t, ox + dx * t, oy + dy * t, oz + dz * t, triangle,
+                triangles.getVertex(triangle, 0), triangles.getVertex(triangle, 1), triangles.getVertex(triangle, 2), hit[1], hit[2]);
+        return t;
+    }
+
+    /**
+     * helper method to intersect the ray with a sphere
+     * @return - the distance it enters the sphere at, 0 if it starts inside, or infinity if it misses
+     */
+    private float sphere(float cx, float cy, float cz, float radius) {
+        float sx = ox - cx, sy = oy - cy, sz = oz - cz;
+        float a = dx * dx + dy * dy + dz * dz;
+        float b = sx * dx + sy * dy + sz * dz;
+        float c = sx * sx + sy * sy + sz * sz - radius * radius;
+        if (c <= 0) {
+            return 0;
+        }
+        float discriminant = b * b - a * c;
+        if (b >= 0 || discriminant < 0) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return (-b - (float) Math.sqrt(discriminant)) / a;
+    }
+}
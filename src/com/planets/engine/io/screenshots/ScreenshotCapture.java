@@ -0,0 +1,280 @@
+package com.planets.engine.io.screenshots;
+
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ScreenshotCapture {
+
+    // the captures that can be in flight at once
+    public static final int DEFAULT_SLOTS = 2;
+
+    // the bytes of a pixel
+    private static final int PIXEL_BYTES = 4;
+
+    // the longest the render thread waits for a capture when every slot is in flight, in nanoseconds
+    private static final long WAIT_NANOS = 1000000000L;
+
+    // the folder the screenshots go in
+    private final Path directory;
+
+    // encodes and writes the images, off the render thread
+    private final ExecutorService encoder;
+    private final boolean ownsEncoder;
+
+    // the backend the buffers were created with
+    private GLBackend gl;
+
+    // the pixel buffer of each slot, its size in bytes, the fence after its read, and what it was read for
+    private final int[] buffers;
+    private final long[] capacities;
+    private final long[] fences;
+    private final int[] widths;
+    private final int[] heights;
+    private final CompletableFuture<?>[] futures;
+
+    // the pixel arrays the encoder is done with, handed back so the render thread doesn't allocate one per capture
+    private final ConcurrentLinkedQueue<int[]> pixelPool = new ConcurrentLinkedQueue<>();
+
+    // the oldest capture in flight, and the amount in flight
+    private int head;
+    private int pending;
+
+    // the captures written, and the times the render thread had to wait for a slot
+    private long captures;
+    private long stalls;
+
+    /**
+     * default constructor, which writes to the screenshots folder in the user's documents with its own thread
+     */
+    public ScreenshotCapture() {
+        this(ScreenshotFiles.defaultDirectory(), Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "screenshot-encoder");
+            thread.setDaemon(true);
+            return thread;
+        }), true, DEFAULT_SLOTS);
+    }
+
+    /**
+     * constructor for a specified folder and encoder
+     * @param directory - the folder the screenshots go in, made if it doesn't exist
+     * @param encoder - encodes and writes the images, which isn't shut down on destroy
+     * @param slots - the captures that can be in flight at once, at least 1
+     */
+    public ScreenshotCapture(Path directory, ExecutorService encoder, int slots) {
+        this(directory, encoder, false, slots);
+    }
+
+    /**
+     * helper constructor
+     */
+    private ScreenshotCapture(Path directory, ExecutorService encoder, boolean ownsEncoder, int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("At least 1 capture must be able to be in flight.");
+        }
+        this.directory = directory;
+        this.encoder = encoder;
+        this.ownsEncoder = ownsEncoder;
+        this.buffers = new int[slots];
+        this.capacities = new long[slots];
+        this.fences = new long[slots];
+        this.widths = new int[slots];
+        this.heights = new int[slots];
+        this.futures = new CompletableFuture<?>[slots];
+    }
+
+    /**
+     * starts capturing the framebuffer bound for reading, after the frame is drawn and before the buffers are
+     * swapped, without waiting for the GPU unless every slot is still in flight
+     * @param width - the width of the framebuffer
+     * @param height - the height of the framebuffer
+     * @return - completes with the file once it's written, on the encoder's thread
+     */
+    public CompletableFuture<Path> capture(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Can't capture a " + width + "x" + height + " framebuffer.");
+        }
+        if (gl == null) {
+            start();
+        }
+        if (pending == buffers.length) {
+            // rather than dropping a screenshot, the oldest one is waited for
+            stalls++;
+            finish(WAIT_NANOS);
+        }
+
+        int slot = (head + pending) % buffers.length;
+        long size = (long) width * height * PIXEL_BYTES;
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[slot]);
+        if (capacities[slot] < size) {
+            gl.bufferData(GL21.GL_PIXEL_PACK_BUFFER, size, GL15.GL_STREAM_READ);
+            capacities[slot] = size;
+        }
+
+        // as BGRA in a reversed int each pixel is already 0xAARRGGBB, so nothing has to be swizzled
+        gl.readPixels(0, 0, width, height, GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, 0);
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        fences[slot] = gl.fenceSync();
+        widths[slot] = width;
+        heights[slot] = height;
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        futures[slot] = future;
+        pending++;
+        return future;
+    }
+
+    /**
+     * hands the captures the GPU is done with to the encoder, once per frame, which never waits
+     * @return - the amount handed over
+     */
+    public int poll() {
+        int handed = 0;
+        while (pending > 0 && finish(0)) {
+            handed++;
+        }
+        return handed;
+    }
+
+    /**
+     * hands every capture in flight to the encoder, then deletes the buffers and stops the encoder if it was made
+     * here, letting the images being written finish
+     */
+    public void destroy() {
+        if (gl != null) {
+            while (pending > 0) {
+                finish(WAIT_NANOS);
+            }
+            for (int buffer : buffers) {
+                gl.deleteBuffer(buffer);
+            }
+            gl = null;
+        }
+        if (ownsEncoder) {
+            encoder.shutdown();
+            try {
+                encoder.awaitTermination(WAIT_NANOS, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the folder the screenshots go in
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of captures in flight
+     */
+    public int getPending() {
+        return this.pending;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of captures handed to the encoder
+     */
+    public long getCaptures() {
+        return this.captures;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of times a capture had to wait for a slot
+     */
+    public long getStalls() {
+        return this.stalls;
+    }
+
+    /**
+     * helper method to create the buffer of every slot, sized when first used
+     */
+    private void start() {
+        gl = Graphics.gl();
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = gl.genBuffer();
+        }
+    }
+
+    /**
+     * helper method to hand the oldest capture to the encoder, if the GPU finished it within a timeout
+     * @return - true if it was handed over
+     */
+    @SuppressWarnings("unchecked")
+    private boolean finish(long timeout) {
+        int status = gl.clientWaitSync(fences[head], timeout > 0 ? GL32.GL_SYNC_FLUSH_COMMANDS_BIT : 0, timeout);
+        if (status == GL32.GL_WAIT_FAILED) {
+            throw new IllegalStateException("Waiting for a screenshot failed.");
+        }
+        if (status == GL32.GL_TIMEOUT_EXPIRED) {
+            if (timeout > 0) {
+                throw new IllegalStateException("A screenshot wasn't finished within " + timeout / 1000000 + " ms.");
+            }
+            return false;
+        }
+        gl.deleteSync(fences[head]);
+        fences[head] = 0;
+
+        // one bulk copy out of the mapped buffer is all the render thread does with the pixels
+        int width = widths[head], height = heights[head];
+        int[] pixels = takePixels(width * height);
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, buffers[head]);
+
+        // only what was read is mapped, a reused array can be bigger than the capture
+        ByteBuffer mapped = gl.mapBufferRange(GL21.GL_PIXEL_PACK_BUFFER, 0, (long) width * height * PIXEL_BYTES, GL30.GL_MAP_READ_BIT);
+        if (mapped == null) {
+            gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+            throw new IllegalStateException("The screenshot buffer couldn't be mapped.");
+        }
+        mapped.order(ByteOrder.nativeOrder()).asIntBuffer().get(pixels, 0, width * height);
+        gl.unmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+        gl.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+        CompletableFuture<Path> future = (CompletableFuture<Path>) futures[head];
+        futures[head] = null;
+        head = (head + 1) % buffers.length;
+        pending--;
+        captures++;
+        encoder.execute(() -> {
+            try {
+                future.complete(ScreenshotFiles.write(pixels, width, height, directory));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                pixelPool.offer(pixels);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * helper method to get an array for a capture's pixels, reusing one the encoder is done with if it's big enough
+     */
+    private int[] takePixels(int count) {
+        for (int[] pixels = pixelPool.poll(); pixels != null; pixels = pixelPool.poll()) {
+            if (pixels.length >= count) {
+                return pixels;
+            }
+        }
+        return new int[count];
+    }
+}
@@ -0,0 +1,93 @@
+package com.planets.engine.io.screenshots;
+
+import javax.imageio.ImageIO;
+import javax.swing.filechooser.FileSystemView;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Hashtable;
+
+class ScreenshotFiles {
+
+    // the folder in the documents folder the screenshots go in, and their format
+    private static final String SCREENSHOTS_FOLDER = "Screenshots";
+    private static final String FORMAT = "PNG";
+
+    // the masks of the pixels read back, 0xAARRGGBB in an int with the alpha ignored
+    private static final ColorModel RGB = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+
+    /**
+     * getter method
+     * @return - the screenshots folder in the user's documents folder
+     */
+    static Path defaultDirectory() {
+        return FileSystemView.getFileSystemView().getDefaultDirectory().toPath().resolve(SCREENSHOTS_FOLDER);
+    }
+
+    /**
+     * writes pixels read back from OpenGL to a new PNG in a folder, wrapping them in an image instead of copying them
+     * @param pixels - the pixels as 0xAARRGGBB, bottom row first, which are flipped in place
+     * @param width - the width in pixels
+     * @param height - the height in pixels
+     * @param directory - the folder, made if it doesn't exist
+     * @return - the file written, named after the time and never one that already existed
+     * @throws IOException - if it couldn't be written
+     */
+    static Path write(int[] pixels, int width, int height, Path directory) throws IOException {
+        // OpenGL's rows go up and an image's go down
+        int[] row = new int[width];
+        for (int top = 0, bottom = height - 1; top < bottom; top++, bottom--) {
+            System.arraycopy(pixels, top * width, row, 0, width);
+            System.arraycopy(pixels, bottom * width, pixels, top * width, width);
+            System.arraycopy(row, 0, pixels, bottom * width, width);
+        }
+
+        DataBufferInt data = new DataBufferInt(pixels, width * height);
+        SinglePixelPackedSampleModel model = new SinglePixelPackedSampleModel(data.getDataType(), width, height, new int[] {0xFF0000, 0xFF00, 0xFF});
+        WritableRaster raster = Raster.createWritableRaster(model, data, new Point());
+        BufferedImage image = new BufferedImage(RGB, raster, false, new Hashtable<>());
+
+        Files.createDirectories(directory);
+        long time = System.currentTimeMillis();
+        for (int i = 0; ; i++) {
+            Path file = directory.resolve("Screenshot " + time + (i == 0 ? "" : " (" + i + ")") + ".png");
+            OutputStream out = create(file);
+            if (out == null) {
+                continue;
+            }
+            try (out) {
+                if (!ImageIO.write(image, FORMAT, out)) {
+                    throw new IOException("No writer for " + FORMAT + " images.");
+                }
+            } catch (IOException | RuntimeException e) {
+                // a half written file isn't left behind
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return file;
+        }
+    }
+
+    /**
+     * helper method to create a file that doesn't exist yet in one step, so captures finishing at the same time or
+     * another program can't take the same name between checking it and opening it
+     */
+    private static OutputStream create(Path file) throws IOException {
+        try {
+            return Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (FileAlreadyExistsException e) {
+            return null;
+        }
+    }
+}
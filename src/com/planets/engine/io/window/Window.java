@@ -23,6 +23,7 @@ public class Window {
 
     // get the fullscreen size
     private DisplayMode displayMode;
+    private static final int HEADLESS_WIDTH = 960, HEADLESS_HEIGHT = 540; // the size without a screen to measure
 
     // window dimensions and position
     private int width, height;
@@ -63,12 +64,16 @@ public class Window {
      * @param input - the input for handling callbacks in this window
      */
     public Window(Input input) {
-        // get the display mode
-        this.displayMode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
-
-        // set default width, height variables
-        this.defaultWidth = displayMode.getWidth() / 2;
-        this.defaultHeight = displayMode.getHeight() / 2;
+        // set default width, height variables to half the screen, or a fixed size without one, e.g. in tests that
+        // render to a recording backend
+        if (GraphicsEnvironment.isHeadless()) {
+            this.defaultWidth = HEADLESS_WIDTH;
+            this.defaultHeight = HEADLESS_HEIGHT;
+        } else {
+            this.displayMode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            this.defaultWidth = displayMode.getWidth() / 2;
+            this.defaultHeight = displayMode.getHeight() / 2;
+        }
 
 //        this.defaultWidth = displayMode.getWidth();
 //        this.defaultHeight = displayMode.getHeight();
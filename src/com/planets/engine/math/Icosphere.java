@@ -0,0 +1,139 @@
+package com.planets.engine.math;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class Icosphere {
+
+    // the golden ratio used for approximating an icosahedron
+    private static final float phi = 1.618f;
+
+    // the faces of the sphere
+    private final ArrayList<Triangle> triangles = new ArrayList<>();
+
+    // every distinct vertex, shared between the faces that touch it
+    private final ArrayList<Vector3f> vertices = new ArrayList<>();
+
+    // used to look up shared vertices in constant time while subdividing
+    private final HashMap<Vector3f, Vector3f> lookup = new HashMap<>();
+
+    /**
+     * default constructor - use generate() instead
+     */
+    private Icosphere() {
+
+    }
+
+    /**
+     * generates an icosphere. nothing is shared between calls, so spheres can be generated on several threads at once
+     * @param radius - the radius of the sphere
+     * @param depth - the amount of times to recursively subdivide faces
+     * @return - the generated sphere
+     */
+    public static Icosphere generate(float radius, int depth) {
+        Icosphere sphere = new Icosphere();
+
+        // define a regular icosahedron using 12 vertices
+        Vector3f[] vertices = new Vector3f[12];
+        vertices[0]  = new Vector3f( 0.5f * radius, 0,  phi/2 * radius);
+        vertices[1]  = new Vector3f( 0.5f * radius, 0, -phi/2 * radius);
+        vertices[2]  = new Vector3f(-0.5f * radius, 0,  phi/2 * radius);
+        vertices[3]  = new Vector3f(-0.5f * radius, 0, -phi/2 * radius);
+        vertices[4]  = new Vector3f( phi/2 * radius,  0.5f * radius, 0);
+        vertices[5]  = new Vector3f( phi/2 * radius, -0.5f * radius, 0);
+        vertices[6]  = new Vector3f(-phi/2 * radius,  0.5f * radius, 0);
+        vertices[7]  = new Vector3f(-phi/2 * radius, -0.5f * radius, 0);
+        vertices[8]  = new Vector3f(0,  phi/2 * radius, 0.5f * radius);
+        vertices[9]  = new Vector3f(0,  phi/2 * radius,-0.5f * radius);
+        vertices[10] = new Vector3f(0, -phi/2 * radius, 0.5f * radius);
+        vertices[11] = new Vector3f(0, -phi/2 * radius,-0.5f * radius);
+
+        // subdivide each triangular face (20 total) recursively
+        sphere.subdivide(vertices[0],  vertices[2],  vertices[10], depth, radius);
+        sphere.subdivide(vertices[0],  vertices[10], vertices[5],  depth, radius);
+        sphere.subdivide(vertices[0],  vertices[5],  vertices[4],  depth, radius);
+        sphere.subdivide(vertices[0],  vertices[4],  vertices[8],  depth, radius);
+        sphere.subdivide(vertices[0],  vertices[8],  vertices[2],  depth, radius);
+        sphere.subdivide(vertices[3],  vertices[1],  vertices[11], depth, radius);
+        sphere.subdivide(vertices[3],  vertices[11], vertices[7],  depth, radius);
+        sphere.subdivide(vertices[3],  vertices[7],  vertices[6],  depth, radius);
+        sphere.subdivide(vertices[3],  vertices[6],  vertices[9],  depth, radius);
+        sphere.subdivide(vertices[3],  vertices[9],  vertices[1],  depth, radius);
+        sphere.subdivide(vertices[2],  vertices[6],  vertices[7],  depth, radius);
+        sphere.subdivide(vertices[2],  vertices[7],  vertices[10], depth, radius);
+        sphere.subdivide(vertices[10], vertices[7],  vertices[11], depth, radius);
+        sphere.subdivide(vertices[10], vertices[11], vertices[5],  depth, radius);
+        sphere.subdivide(vertices[5],  vertices[11], vertices[1],  depth, radius);
+        sphere.subdivide(vertices[5],  vertices[1],  vertices[4],  depth, radius);
+        sphere.subdivide(vertices[4],  vertices[1],  vertices[9],  depth, radius);
+        sphere.subdivide(vertices[4],  vertices[9],  vertices[8],  depth, radius);
+        sphere.subdivide(vertices[8],  vertices[9],  vertices[6],  depth, radius);
+        sphere.subdivide(vertices[8],  vertices[6],  vertices[2],  depth, radius);
+
+        // the lookup is only needed while subdividing
+        sphere.lookup.clear();
+        return sphere;
+    }
+
+    /**
+     * recursively subdivides a triangle into 4 triangles, and then normalizes each new vertex to the radius
+     * @param v1 - the first vertex of the triangle
+     * @param v2 - the second vertex of the triangle
+     * @param v3 - the third vertex of the triangle
+     * @param depth - the current depth of recursion
+     * @param radius - the radius of the sphere
+     */
+    private void subdivide(Vector3f v1, Vector3f v2, Vector3f v3, long depth, float radius) {
+
+        // default condition
+        if (depth == 0) {
+            Vector3f v1p = share(Vector3f.normalize(v1, radius));
+            Vector3f v2p = share(Vector3f.normalize(v2, radius));
+            Vector3f v3p = share(Vector3f.normalize(v3, radius));
+
+            triangles.add(new Triangle(v1p, v2p, v3p));
+            return;
+        }
+
+        // create new vertices for each face
+        Vector3f v12 = Vector3f.normalize(new Vector3f(v1.getX() + v2.getX(), v1.getY() + v2.getY(), v1.getZ() + v2.getZ()), radius);
+        Vector3f v23 = Vector3f.normalize(new Vector3f(v2.getX() + v3.getX(), v2.getY() + v3.getY(), v2.getZ() + v3.getZ()), radius);
+        Vector3f v31 = Vector3f.normalize(new Vector3f(v3.getX() + v1.getX(), v3.getY() + v1.getY(), v3.getZ() + v1.getZ()), radius);
+
+        // recursive part
+        subdivide(v1, v12, v31, depth - 1, radius);
+        subdivide(v2, v23, v12, depth - 1, radius);
+        subdivide(v3, v31, v23, depth - 1, radius);
+        subdivide(v12, v23, v31,depth - 1, radius);
+    }
+
+    /**
+     * finds the vertex at the same position that was already generated, or registers this one as new
+     * @param v - the vertex
+     * @return - the shared vertex
+     */
+    private Vector3f share(Vector3f v) {
+        Vector3f existing = lookup.putIfAbsent(v, v);
+        if (existing != null) {
+            return existing;
+        }
+        vertices.add(v);
+        return v;
+    }
+
+    /**
+     * getter method
+     * @return - the faces of the sphere
+     */
+    public ArrayList<Triangle> getTriangles() {
+        return this.triangles;
+    }
+
+    /**
+     * getter method
+     * @return - every distinct vertex of the sphere - moving one moves it in every face that uses it
+     */
+    public ArrayList<Vector3f> getVertices() {
+        return this.vertices;
+    }
+}
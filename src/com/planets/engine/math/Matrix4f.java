@@ -118,6 +118,41 @@ public class Matrix4f {
         return Matrix4f.multiply(Matrix4f.multiply(scaleMatrix, rotationMatrix), translationMatrix);
     }
 
+    /**
+     * creates the same matrix as transform(position, rotation, scale) into an existing matrix, without allocating
+     * @param position - the position to translate to
+     * @param rotation - the rotations to be performed along the x, y, z axes - held as [theta, phi, gamma]
+     * @param scale - the scale vector
+     * @param result - receives the matrix
+     * @return - result
+     */
+    public static Matrix4f transform(Vector3f position, Vector3f rotation, Vector3f scale, Matrix4f result) {
+        float cx = (float) Math.cos(Math.toRadians(rotation.getX())), sx = (float) Math.sin(Math.toRadians(rotation.getX()));
+        float cy = (float) Math.cos(Math.toRadians(rotation.getY())), sy = (float) Math.sin(Math.toRadians(rotation.getY()));
+        float cz = (float) Math.cos(Math.toRadians(rotation.getZ())), sz = (float) Math.sin(Math.toRadians(rotation.getZ()));
+        float scaleX = scale.getX(), scaleY = scale.getY(), scaleZ = scale.getZ();
+
+        // the rotations about z, y and x multiplied out, each column scaled, then the translation
+        float[] e = result.elements;
+        e[0] = cz * cy * scaleX;
+        e[1] = (cz * sy * sx + sz * cx) * scaleY;
+        e[2] = (sz * sx - cz * sy * cx) * scaleZ;
+        e[3] = position.getX();
+        e[4] = -sz * cy * scaleX;
+        e[5] = (cz * cx - sz * sy * sx) * scaleY;
+        e[6] = (sz * sy * cx + cz * sx) * scaleZ;
+        e[7] = position.getY();
+        e[8] = sy * scaleX;
+        e[9] = -cy * sx * scaleY;
+        e[10] = cy * cx * scaleZ;
+        e[11] = position.getZ();
+        e[12] = 0;
+        e[13] = 0;
+        e[14] = 0;
+        e[15] = 1;
+        return result;
+    }
+
     /**
      * creates a projection matrix based off of a certain perspective
      * @param fov - the field of view of the perspective
@@ -184,7 +219,19 @@ public class Matrix4f {
      * @return - the inverse matrix
      */
     public static Matrix4f invert(Matrix4f m) {
-        Matrix4f result = Matrix4f.identity();
+        return invert(m, new Matrix4f());
+    }
+
+    /**
+     * inverts a 4x4 matrix into an existing matrix, without allocating
+     * @param m - the matrix to be inverted
+     * @param result - receives the inverse, which can't be m
+     * @return - result
+     */
+    public static Matrix4f invert(Matrix4f m, Matrix4f result) {
+        if (result == m) {
+            throw new IllegalArgumentException("A matrix can't be inverted into itself.");
+        }
         float A2323 = m.get(2, 2) * m.get(3, 3) - m.get(2, 3) * m.get(3, 2);
         float A1323 = m.get(2, 1) * m.get(3, 3) - m.get(2, 3) * m.get(3, 1);
         float A1223 = m.get(2, 1) * m.get(3, 2) - m.get(2, 2) * m.get(3, 1);
@@ -1,9 +1,148 @@
 package com.planets.engine.math.collision;
 
+import com.planets.engine.math.Vector3f;
+
 public class AABB {
 
+    // the minimum and maximum corners
+    public float minX, minY, minZ, maxX, maxY, maxZ;
+
+    /**
+     * default constructor for an empty box, which contains nothing and grows to fit whatever is added
+     */
     public AABB() {
+        setEmpty();
+    }
+
+    /**
+     * default constructor for specified corners
+     * @param minX - the minimum x value
+     * @param minY - the minimum y value
+     * @param minZ - the minimum z value
+     * @param maxX - the maximum x value
+     * @param maxY - the maximum y value
+     * @param maxZ - the maximum z value
+     */
+    public AABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        set(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * sets the corners of this box
+     * @param minX - the minimum x value
+     * @param minY - the minimum y value
+     * @param minZ - the minimum z value
+     * @param maxX - the maximum x value
+     * @param maxY - the maximum y value
+     * @param maxZ - the maximum z value
+     */
+    public void set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * sets this box to the one around a sphere
+     * @param center - the center of the sphere
+     * @param radius - the radius of the sphere
+     */
+    public void setSphere(Vector3f center, float radius) {
+        set(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
+    /**
+     * makes this box empty
+     */
+    public void setEmpty() {
+        set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+    }
 
+    /**
+     * grows this box to contain a point
+     * @param x - the x value
+     * @param y - the y value
+     * @param z - the z value
+     */
+    public void add(float x, float y, float z) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
     }
 
+    /**
+     * checks whether this box contains another
+     * @param other - the other box
+     * @return - true if every point of the other box is in this one
+     */
+    public boolean contains(AABB other) {
+        return minX <= other.minX && minY <= other.minY && minZ <= other.minZ
+                && maxX >= other.maxX && maxY >= other.maxY && maxZ >= other.maxZ;
+    }
+
+    /**
+     * checks whether this box overlaps another
+     * @param other - the other box
+     * @return - true if the boxes share a point
+     */
+    public boolean overlaps(AABB other) {
+        return minX <= other.maxX && maxX >= other.minX
+                && minY <= other.maxY && maxY >= other.minY
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    /**
+     * finds where a ray enters this box
+     * @param ox - the x of the origin of the ray
+     * @param oy - the y of the origin of the ray
+     * @param oz - the z of the origin of the ray
+     * @param dx - the x of the direction of the ray
+     * @param dy - the y of the direction of the ray
+     * @param dz - the z of the direction of the ray
+     * @return - the distance along the ray in lengths of the direction, 0 if it starts inside, or infinity if it
+     *           misses
+     */
+    public float intersectRay(float ox, float oy, float oz, float dx, float dy, float dz) {
+        float t1 = (minX - ox) / dx, t2 = (maxX - ox) / dx;
+        float near = Math.min(t1, t2), far = Math.max(t1, t2);
+        t1 = (minY - oy) / dy;
+        t2 = (maxY - oy) / dy;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (minZ - oz) / dz;
+        t2 = (maxZ - oz) / dz;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        return far >= Math.max(near, 0) ? Math.max(near, 0) : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * getter method
+     * @return - whether this box contains no points
+     */
+    public boolean isEmpty() {
+        return minX > maxX || minY > maxY || minZ > maxZ;
+    }
+
+    /**
+     * getter method
+     * @return - the surface area of this box
+     */
+    public float getSurfaceArea() {
+        float dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    @Override
+    public String toString() {
+        return "AABB[(" + minX + ", " + minY + ", " + minZ + ") - (" + maxX + ", " + maxY + ", " + maxZ + ")]";
+    }
 }
@@ -0,0 +1,686 @@
+package com.planets.engine.math.collision;
+
+import java.util.Arrays;
+
+public class DynamicAABBTree<T> {
+
+    /**
+     * visits the items whose boxes a query touches
+     */
+    public interface Visitor<T> {
+
+        /**
+         * visits an item
+         * @param proxy - the proxy of the item
+         * @param item - the item
+         * @return - false to stop the query
+         */
+        boolean visit(int proxy, T item);
+    }
+
+    /**
+     * tests the items whose boxes a ray passes through
+     */
+    public interface RayVisitor<T> {
+
+        /**
+         * tests an item against the ray
+         * @param proxy - the proxy of the item
+         * @param item - the item
+         * @param maxDistance - the furthest along the ray still searched
+         * @return - the distance the item was hit at to only search closer, maxDistance if it wasn't hit, or a negative value to stop
+         */
+        float hit(int proxy, T item, float maxDistance);
+    }
+
+    /**
+     * visits the pairs of items whose boxes overlap
+     */
+    public interface PairVisitor<T> {
+
+        /**
+         * visits a pair, once per pair
+         * @param a - an item
+         * @param b - the other item
+         */
+        void pair(T a, T b);
+    }
+
+    // no node
+    public static final int NULL = -1;
+
+    // the nodes every tree starts with room for
+    private static final int INITIAL_CAPACITY = 16;
+
+    // how much every leaf's box is grown past its item's, so small moves don't change the tree
+    private final float margin;
+
+    // the nodes, one array per field. leaves hold items, and the other nodes always have two children
+    private float[] minX = new float[INITIAL_CAPACITY], minY = new float[INITIAL_CAPACITY], minZ = new float[INITIAL_CAPACITY];
+    private float[] maxX = new float[INITIAL_CAPACITY], maxY = new float[INITIAL_CAPACITY], maxZ = new float[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] child1 = new int[INITIAL_CAPACITY];
+    private int[] child2 = new int[INITIAL_CAPACITY];
+    private int[] height = new int[INITIAL_CAPACITY];
+    private Object[] items = new Object[INITIAL_CAPACITY];
+
+    // the root, the first free node, whose parent is the next free one, and the amount of nodes in use
+    private int root = NULL;
+    private int free = NULL;
+    private int nodeCount;
+    private int capacity;
+
+    // the nodes left to visit during a query and where rays enter them, reused so queries don't allocate
+    private int[] stack = new int[64];
+    private float[] entries = new float[64];
+
+    // whether a query or raycast is walking the stack, so one started from inside its visitor is caught
+    private boolean querying;
+
+    /**
+     * default constructor
+     * @param margin - how much every leaf's box is grown past its item's, so items moving less than that don't change
+     *                 the tree
+     */
+    public DynamicAABBTree(float margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException("The margin can't be negative.");
+        }
+        this.margin = margin;
+    }
+
+    /**
+     * adds an item
+     * @param bounds - the box around the item
+     * @param item - the item
+     * @return - the proxy the item is moved and removed with
+     */
+    public int insert(AABB bounds, T item) {
+        int proxy = allocate();
+        setFat(proxy, bounds);
+        items[proxy] = item;
+        height[proxy] = 0;
+        insertLeaf(proxy);
+        return proxy;
+    }
+
+    /**
+     * removes an item
+     * @param proxy - the proxy of the item
+     */
+    public void remove(int proxy) {
+        checkLeaf(proxy);
+        removeLeaf(proxy);
+        release(proxy);
+    }
+
+    /**
+     * moves an item. only an item that left its grown box changes the tree, which is what keeps refitting every
+     * moving item cheap
+     * @param proxy - the proxy of the item
+     * @param bounds - the new box around the item
+     * @return - true if the item left its grown box and was reinserted
+     */
+    public boolean move(int proxy, AABB bounds) {
+        checkLeaf(proxy);
+        if (minX[proxy] <= bounds.minX && minY[proxy] <= bounds.minY && minZ[proxy] <= bounds.minZ
+                && maxX[proxy] >= bounds.maxX && maxY[proxy] >= bounds.maxY && maxZ[proxy] >= bounds.maxZ) {
+            return false;
+        }
+        removeLeaf(proxy);
+        setFat(proxy, bounds);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    /**
+     * visits every item whose grown box overlaps a box
+     * @param box - the box
+     * @param visitor - visits the items, without querying or changing the tree
+     */
+    public void query(AABB box, Visitor<T> visitor) {
+        query(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ, visitor);
+    }
+
+    /**
+     * visits every item whose grown box is at least partly inside a view
+     * @param frustum - the view
+     * @param visitor - visits the items, without querying or changing the tree
+     */
+    @SuppressWarnings("unchecked")
+    public void query(Frustum frustum, Visitor<T> visitor) {
+        begin();
+        try {
+            int top = push(0, root);
+            while (top > 0) {
+                int node = stack[--top];
+                if (!frustum.intersects(minX[node], minY[node], minZ[node], maxX[node], maxY[node], maxZ[node])) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    if (!visitor.visit(node, (T) items[node])) {
+                        return;
+                    }
+                } else {
+                    top = push(top, child1[node]);
+                    top = push(top, child2[node]);
+                }
+            }
+        } finally {
+            querying = false;
+        }
+    }
+
+    /**
+     * casts a ray through the tree, visiting the items whose grown boxes it passes through, nearest boxes first
+     * @param ox - the x of the origin of the ray
+     * @param oy - the y of the origin of the ray
+     * @param oz - the z of the origin of the ray
+     * @param dx - the x of the direction of the ray
+     * @param dy - the y of the direction of the ray
+     * @param dz - the z of the direction of the ray
+     * @param maxDistance - the furthest along the ray to search, in lengths of the direction
+     * @param visitor - tests the items, and can shorten the ray to the closest hit so far, without querying or
+     *                  changing the tree
+     */
+    @SuppressWarnings("unchecked")
+    public void raycast(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, RayVisitor<T> visitor) {
+        if (root == NULL) {
+            return;
+        }
+        begin();
+        try {
+            float ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+            float rootEntry = slab(root, ox, oy, oz, ix, iy, iz);
+            if (rootEntry > maxDistance) {
+                return;
+            }
+            int top = push(0, root, rootEntry);
+            while (top > 0) {
+                int node = stack[--top];
+
+                // the ray may have been shortened since the node was pushed
+                if (entries[top] > maxDistance) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    float distance = visitor.hit(node, (T) items[node], maxDistance);
+                    if (distance < 0) {
+                        return;
+                    }
+                    maxDistance = Math.min(maxDistance, distance);
+                    continue;
+                }
+
+                // the nearer child is visited first, so hits in it can cut the further one off
+                int a = child1[node], b = child2[node];
+                float entryA = slab(a, ox, oy, oz, ix, iy, iz), entryB = slab(b, ox, oy, oz, ix, iy, iz);
+                if (entryA > entryB) {
+                    int swap = a;
+                    a = b;
+                    b = swap;
+                    float swapEntry = entryA;
+                    entryA = entryB;
+                    entryB = swapEntry;
+                }
+                if (entryB <= maxDistance) {
+                    top = push(top, b, entryB);
+                }
+                if (entryA <= maxDistance) {
+                    top = push(top, a, entryA);
+                }
+            }
+        } finally {
+            querying = false;
+        }
+    }
+
+    /**
+     * visits every pair of items whose grown boxes overlap, once per pair. the pairs are walked with a stack of
+     * their own, so the visitor can query the tree, but not change it
+     * @param visitor - visits the pairs
+     */
+    @SuppressWarnings("unchecked")
+    public void pairs(PairVisitor<T> visitor) {
+        if (root == NULL) {
+            return;
+        }
+        int[] pending = new int[64];
+        for (int leaf = 0; leaf < capacity; leaf++) {
+            if (height[leaf] != 0) {
+                continue;
+            }
+            int top = 0;
+            pending[top++] = root;
+            while (top > 0) {
+                int node = pending[--top];
+                if (minX[node] > maxX[leaf] || maxX[node] < minX[leaf]
+                        || minY[node] > maxY[leaf] || maxY[node] < minY[leaf]
+                        || minZ[node] > maxZ[leaf] || maxZ[node] < minZ[leaf]) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    // each pair is found from both of its leaves, and only reported from the lower one
+                    if (node > leaf) {
+                        visitor.pair((T) items[leaf], (T) items[node]);
+                    }
+                } else {
+                    if (top + 2 > pending.length) {
+                        pending = Arrays.copyOf(pending, pending.length * 2);
+                    }
+                    pending[top++] = child1[node];
+                    pending[top++] = child2[node];
+                }
+            }
+        }
+    }
+
+    /**
+     * getter method
+     * @param proxy - the proxy of an item
+     * @return - the item
+     */
+    @SuppressWarnings("unchecked")
+    public T getItem(int proxy) {
+        checkLeaf(proxy);
+        return (T) items[proxy];
+    }
+
+    /**
+     * getter method
+     * @param proxy - the proxy of an item
+     * @param bounds - receives the grown box of the item
+     */
+    public void getFatBounds(int proxy, AABB bounds) {
+        checkLeaf(proxy);
+        bounds.set(minX[proxy], minY[proxy], minZ[proxy], maxX[proxy], maxY[proxy], maxZ[proxy]);
+    }
+
+    /**
+     * getter method
+     * @return - the height of the tree, 0 for a single item and -1 for none
+     */
+    public int getHeight() {
+        return root == NULL ? -1 : height[root];
+    }
+
+    /**
+     * getter method
+     * @return - the amount of nodes in use, which is one less than twice the amount of items
+     */
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * checks the links, heights and boxes of every node, for debugging
+     * @throws IllegalStateException - if the tree is broken
+     */
+    public void validate() {
+        if (root != NULL && parent[root] != NULL) {
+            throw new IllegalStateException("The root has a parent.");
+        }
+        int reached = root == NULL ? 0 : validate(root);
+        if (reached != nodeCount) {
+            throw new IllegalStateException(nodeCount + " nodes are in use, but " + reached + " are in the tree.");
+        }
+    }
+
+    /**
+     * helper method to check a node and the ones below it
+     */
+    private int validate(int node) {
+        if (child1[node] == NULL) {
+            if (height[node] != 0) {
+                throw new IllegalStateException("Leaf " + node + " has height " + height[node] + ".");
+            }
+            return 1;
+        }
+        int a = child1[node], b = child2[node];
+        if (parent[a] != node || parent[b] != node) {
+            throw new IllegalStateException("The children of node " + node + " don't point back to it.");
+        }
+        if (height[node] != 1 + Math.max(height[a], height[b])) {
+            throw new IllegalStateException("Node " + node + " has the wrong height.");
+        }
+        if (minX[node] != Math.min(minX[a], minX[b]) || maxX[node] != Math.max(maxX[a], maxX[b])
+                || minY[node] != Math.min(minY[a], minY[b]) || maxY[node] != Math.max(maxY[a], maxY[b])
+                || minZ[node] != Math.min(minZ[a], minZ[b]) || maxZ[node] != Math.max(maxZ[a], maxZ[b])) {
+            throw new IllegalStateException("The box of node " + node + " doesn't fit its children.");
+        }
+        return 1 + validate(a) + validate(b);
+    }
+
+    /**
+     * helper method to place a leaf next to the node that grows the least in surface area by gaining it
+     */
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        // walk down, stopping where pairing the leaf with this node costs less than pushing it further down
+        int node = root;
+        while (child1[node] != NULL) {
+            float area = area(node);
+            float combined = unionArea(node, leaf);
+            float cost = 2 * combined;
+            float inherited = 2 * (combined - area);
+            float cost1 = descendCost(child1[node], leaf, inherited);
+            float cost2 = descendCost(child2[node], leaf, inherited);
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            node = cost1 < cost2 ? child1[node] : child2[node];
+        }
+
+        // a new parent holds the sibling and the leaf
+        int sibling = node;
+        int oldParent = parent[sibling];
+        int newParent = allocate();
+        parent[newParent] = oldParent;
+        items[newParent] = null;
+        height[newParent] = height[sibling] + 1;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        fit(newParent);
+        if (oldParent == NULL) {
+            root = newParent;
+        } else if (child1[oldParent] == sibling) {
+            child1[oldParent] = newParent;
+        } else {
+            child2[oldParent] = newParent;
+        }
+        refit(parent[leaf]);
+    }
+
+    /**
+     * helper method to take a leaf out of the tree, replacing its parent with its sibling
+     */
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int oldParent = parent[leaf];
+        int grandParent = parent[oldParent];
+        int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+        if (grandParent == NULL) {
+            root = sibling;
+            parent[sibling] = NULL;
+        } else {
+            if (child1[grandParent] == oldParent) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            refit(grandParent);
+        }
+        release(oldParent);
+    }
+
+    /**
+     * helper method to rebalance, resize and reheight a node and everything above it
+     */
+    private void refit(int node) {
+        while (node != NULL) {
+            node = balance(node);
+            int a = child1[node], b = child2[node];
+            height[node] = 1 + Math.max(height[a], height[b]);
+            fit(node);
+            node = parent[node];
+        }
+    }
+
+    /**
+     * helper method to rotate a node whose children differ in height by more than one
+     * @return - the node now in its place
+     */
+    private int balance(int a) {
+        if (child1[a] == NULL || height[a] < 2) {
+            return a;
+        }
+        int b = child1[a], c = child2[a];
+        int balance = height[c] - height[b];
+        if (balance > 1) {
+            return rotate(a, c, b, false);
+        }
+        if (balance < -1) {
+            return rotate(a, b, c, true);
+        }
+        return a;
+    }
+
+    /**
+     * helper method to lift the taller child of a node above it
+     * @param a - the node
+     * @param up - its taller child, which takes its place
+     * @param other - its other child
+     * @param upIsFirst - whether the taller child is the first child
+     * @return - the taller child
+     */
+    private int rotate(int a, int up, int other, boolean upIsFirst) {
+        int f = child1[up], g = child2[up];
+
+        // the taller child takes the place of the node
+        child1[up] = a;
+        parent[up] = parent[a];
+        parent[a] = up;
+        if (parent[up] == NULL) {
+            root = up;
+        } else if (child1[parent[up]] == a) {
+            child1[parent[up]] = up;
+        } else {
+            child2[parent[up]] = up;
+        }
+
+        // the taller grandchild stays with it, and the shorter one moves under the node
+        int keep = height[f] > height[g] ? f : g;
+        int move = keep == f ? g : f;
+        child2[up] = keep;
+        if (upIsFirst) {
+            child1[a] = move;
+        } else {
+            child2[a] = move;
+        }
+        parent[move] = a;
+        fit(a);
+        height[a] = 1 + Math.max(height[other], height[move]);
+        fit(up);
+        height[up] = 1 + Math.max(height[a], height[keep]);
+        return up;
+    }
+
+    /**
+     * helper method to get the cost of pairing a leaf with a node or something below it
+     */
+    private float descendCost(int node, int leaf, float inherited) {
+        float union = unionArea(node, leaf);
+        return child1[node] == NULL ? union + inherited : union - area(node) + inherited;
+    }
+
+    /**
+     * helper method to get the distance along a ray to a node's box
+     * @return - the entry distance, or infinity if the ray misses it
+     */
+    private float slab(int node, float ox, float oy, float oz, float ix, float iy, float iz) {
+        float t1 = (minX[node] - ox) * ix, t2 = (maxX[node] - ox) * ix;
+        float near = Math.min(t1, t2), far = Math.max(t1, t2);
+        t1 = (minY[node] - oy) * iy;
+        t2 = (maxY[node] - oy) * iy;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (minZ[node] - oz) * iz;
+        t2 = (maxZ[node] - oz) * iz;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        // NaN from a ray running along a face counts as a miss, since every comparison with it fails
+        return far >= Math.max(near, 0) && far >= 0 ? Math.max(near, 0) : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * helper method to visit the items overlapping a box
+     */
+    @SuppressWarnings("unchecked")
+    private void query(float bMinX, float bMinY, float bMinZ, float bMaxX, float bMaxY, float bMaxZ, Visitor<T> visitor) {
+        begin();
+        try {
+            int top = push(0, root);
+            while (top > 0) {
+                int node = stack[--top];
+                if (minX[node] > bMaxX || maxX[node] < bMinX || minY[node] > bMaxY || maxY[node] < bMinY
+                        || minZ[node] > bMaxZ || maxZ[node] < bMinZ) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    if (!visitor.visit(node, (T) items[node])) {
+                        return;
+                    }
+                } else {
+                    top = push(top, child1[node]);
+                    top = push(top, child2[node]);
+                }
+            }
+        } finally {
+            querying = false;
+        }
+    }
+
+    /**
+     * helper method to claim the query stack
+     */
+    private void begin() {
+        if (querying) {
+            throw new IllegalStateException("The tree can't be queried from inside a query or raycast visitor.");
+        }
+        querying = true;
+    }
+
+    /**
+     * helper method to push a node onto the query stack, growing it if needed
+     * @return - the new top of the stack
+     */
+    private int push(int top, int node) {
+        if (node == NULL) {
+            return top;
+        }
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = node;
+        return top + 1;
+    }
+
+    /**
+     * helper method to push a node and where a ray enters it onto the query stack
+     * @return - the new top of the stack
+     */
+    private int push(int top, int node, float entry) {
+        top = push(top, node);
+        if (entries.length < stack.length) {
+            entries = Arrays.copyOf(entries, stack.length);
+        }
+        entries[top - 1] = entry;
+        return top;
+    }
+
+    /**
+     * helper method to set a leaf's box to an item's box grown by the margin
+     */
+    private void setFat(int node, AABB bounds) {
+        minX[node] = bounds.minX - margin;
+        minY[node] = bounds.minY - margin;
+        minZ[node] = bounds.minZ - margin;
+        maxX[node] = bounds.maxX + margin;
+        maxY[node] = bounds.maxY + margin;
+        maxZ[node] = bounds.maxZ + margin;
+    }
+
+    /**
+     * helper method to set a node's box to the one around its children
+     */
+    private void fit(int node) {
+        int a = child1[node], b = child2[node];
+        minX[node] = Math.min(minX[a], minX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        minZ[node] = Math.min(minZ[a], minZ[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+        maxZ[node] = Math.max(maxZ[a], maxZ[b]);
+    }
+
+    /**
+     * helper method to get the surface area of a node's box
+     */
+    private float area(int node) {
+        float dx = maxX[node] - minX[node], dy = maxY[node] - minY[node], dz = maxZ[node] - minZ[node];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * helper method to get the surface area of the box around two nodes
+     */
+    private float unionArea(int a, int b) {
+        float dx = Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]);
+        float dy = Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+        float dz = Math.max(maxZ[a], maxZ[b]) - Math.min(minZ[a], minZ[b]);
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * helper method to check a proxy is an item in the tree
+     */
+    private void checkLeaf(int proxy) {
+        if (proxy < 0 || proxy >= capacity || height[proxy] != 0) {
+            throw new IllegalArgumentException("Proxy " + proxy + " isn't in the tree.");
+        }
+    }
+
+    /**
+     * helper method to take a free node, growing the arrays if there is none
+     */
+    private int allocate() {
+        if (free == NULL) {
+            if (capacity == parent.length) {
+                int size = parent.length * 2;
+                minX = Arrays.copyOf(minX, size);
+                minY = Arrays.copyOf(minY, size);
+                minZ = Arrays.copyOf(minZ, size);
+                maxX = Arrays.copyOf(maxX, size);
+                maxY = Arrays.copyOf(maxY, size);
+                maxZ = Arrays.copyOf(maxZ, size);
+                parent = Arrays.copyOf(parent, size);
+                child1 = Arrays.copyOf(child1, size);
+                child2 = Arrays.copyOf(child2, size);
+                height = Arrays.copyOf(height, size);
+                items = Arrays.copyOf(items, size);
+            }
+            free = capacity++;
+            parent[free] = NULL;
+        }
+        int node = free;
+        free = parent[node];
+        parent[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        height[node] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    /**
+     * helper method to return a node to the free list
+     */
+    private void release(int node) {
+        items[node] = null;
+        height[node] = -1;
+        parent[node] = free;
+        free = node;
+        nodeCount--;
+    }
+}
@@ -0,0 +1,63 @@
+package com.planets.engine.math.collision;
+
+import com.planets.engine.math.Matrix4f;
+
+public class Frustum {
+
+    // the 6 planes bounding the view, 4 floats each: a normal pointing inwards and a distance
+    private final float[] planes = new float[24];
+
+    /**
+     * sets the planes to the view of a camera, without allocating
+     * @param view - the view matrix
+     * @param projection - the projection matrix
+     */
+    public void set(Matrix4f view, Matrix4f projection) {
+        float[] v = view.getAll(), p = projection.getAll();
+
+        // each plane is the last row of projection x view plus or minus one of the others, in the order left, right,
+        // bottom, top, near and far
+        for (int plane = 0; plane < 6; plane++) {
+            int row = plane / 2;
+            float sign = plane % 2 == 0 ? 1 : -1;
+            for (int c = 0; c < 4; c++) {
+                planes[plane * 4 + c] = row(p, v, 3, c) + sign * row(p, v, row, c);
+            }
+        }
+    }
+
+    /**
+     * checks whether a box is at least partly inside the view. boxes near the corners of the view can be reported
+     * inside when they aren't, which is fine for culling and picking candidates
+     * @param box - the box
+     * @return - false if the box is entirely outside one of the planes
+     */
+    public boolean intersects(AABB box) {
+        return intersects(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    /**
+     * checks whether a box is at least partly inside the view
+     * @return - false if the box is entirely outside one of the planes
+     */
+    public boolean intersects(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 24; i += 4) {
+            // the corner furthest along the plane's normal
+            float x = planes[i] >= 0 ? maxX : minX;
+            float y = planes[i + 1] >= 0 ? maxY : minY;
+            float z = planes[i + 2] >= 0 ? maxZ : minZ;
+            if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * helper method to get an element of projection x view
+     */
+    private static float row(float[] p, float[] v, int row, int column) {
+        return p[row * 4] * v[column] + p[row * 4 + 1] * v[4 + column]
+                + p[row * 4 + 2] * v[8 + column] + p[row * 4 + 3] * v[12 + column];
+    }
+}
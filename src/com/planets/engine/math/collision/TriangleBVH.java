@@ -0,0 +1,311 @@
+package com.planets.engine.math.collision;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Submesh;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+import org.lwjgl.opengl.GL11;
+
+import java.util.Arrays;
+
+public class TriangleBVH {
+
+    // the most triangles in a leaf
+    private static final int LEAF_TRIANGLES = 4;
+
+    // the triangles are tested with a little slack, so rays along a shared edge don't slip between them
+    private static final float EPSILON = 1e-7f;
+
+    // 3 floats per vertex, and 3 vertex indices per triangle
+    private final float[] positions;
+    private final int[] triangles;
+
+    // the triangles in the order the leaves cover them
+    private final int[] order;
+
+    // the nodes, one array per field. a leaf covers count triangles of the order from first, and the other nodes
+    // have their first child right after them and their second child at first
+    private float[] minX, minY, minZ, maxX, maxY, maxZ;
+    private int[] first;
+    private int[] count;
+    private int nodeCount;
+
+    // the centers of the triangles, only used while building
+    private float[] centers;
+
+    // the nodes left to visit during a raycast, reused so raycasts don't allocate
+    private int[] stack = new int[64];
+
+    /**
+     * default constructor, which builds the tree
+     * @param positions - 3 floats per vertex
+     * @param triangles - 3 vertex indices per triangle
+     */
+    public TriangleBVH(float[] positions, int[] triangles) {
+        if (triangles.length % 3 != 0) {
+            throw new IllegalArgumentException("Triangles need 3 indices each, got " + triangles.length + ".");
+        }
+        this.positions = positions;
+        this.triangles = triangles;
+        int triangleCount = triangles.length / 3;
+        this.order = new int[triangleCount];
+        this.centers = new float[triangleCount * 3];
+        for (int t = 0; t < triangleCount; t++) {
+            order[t] = t;
+            for (int c = 0; c < 3; c++) {
+                centers[t * 3 + c] = (positions[triangles[t * 3] * 3 + c] + positions[triangles[t * 3 + 1] * 3 + c]
+                        + positions[triangles[t * 3 + 2] * 3 + c]) / 3;
+            }
+        }
+
+        // a binary tree with at least one triangle per leaf has fewer than twice as many nodes as triangles
+        int capacity = Math.max(1, 2 * triangleCount);
+        minX = new float[capacity];
+        minY = new float[capacity];
+        minZ = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+        maxZ = new float[capacity];
+        first = new int[capacity];
+        count = new int[capacity];
+        build(0, triangleCount);
+        centers = null;
+    }
+
+    /**
+     * builds the tree of a mesh's triangles, whatever order and primitive mode they are stored in
+     * @param mesh - the mesh
+     * @return - the tree, in the mesh's own space
+     */
+    public static TriangleBVH of(Mesh mesh) {
+        int vertexCount = mesh.getVertexCount();
+        float[] positions = new float[vertexCount * 3];
+        mesh.readVertices(0, vertexCount, positions, new float[vertexCount * 4], new float[vertexCount * 3]);
+
+        int[] indices = new int[mesh.getIndexCount()];
+        mesh.readIndices(0, indices.length, indices);
+        int[] triangles = new int[mesh.getMode() == GL11.GL_TRIANGLES ? indices.length : 3 * indices.length];
+        int length = 0;
+        for (Submesh submesh : mesh.getSubmeshes()) {
+            int base = submesh.getBaseVertex();
+            int end = submesh.getFirstIndex() + submesh.getIndexCount();
+            if (mesh.getMode() == GL11.GL_TRIANGLES) {
+                for (int i = submesh.getFirstIndex(); i < end; i++) {
+                    triangles[length++] = base + indices[i];
+                }
+                continue;
+            }
+
+            // every 3 indices in a row of a strip are a triangle, every other one wound the other way
+            int run = 0;
+            for (int i = submesh.getFirstIndex(); i < end; i++) {
+                if (indices[i] == Stripifier.RESTART) {
+                    run = 0;
+                    continue;
+                }
+                if (++run >= 3) {
+                    boolean odd = (run & 1) == 0;
+                    triangles[length++] = base + indices[odd ? i - 1 : i - 2];
+                    triangles[length++] = base + indices[odd ? i - 2 : i - 1];
+                    triangles[length++] = base + indices[i];
+                }
+            }
+        }
+        return new TriangleBVH(positions, Arrays.copyOf(triangles, length));
+    }
+
+    /**
+     * finds the closest triangle a ray hits
+     * @param ox - the x of the origin of the ray
+     * @param oy - the y of the origin of the ray
+     * @param oz - the z of the origin of the ray
+     * @param dx - the x of the direction of the ray
+     * @param dy - the y of the direction of the ray
+     * @param dz - the z of the direction of the ray
+     * @param maxDistance - the furthest along the ray to search, in lengths of the direction
+     * @param hit - receives the distance, then the barycentric weights of the triangle's second and third vertices,
+     *              if the ray hits
+     * @return - the triangle hit, which is its position in the mesh's triangles, or -1 if there is none
+     */
+    public int raycast(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, float[] hit) {
+        if (nodeCount == 0) {
+            return -1;
+        }
+        float ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+        int closest = -1;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (entry(node, ox, oy, oz, ix, iy, iz) > maxDistance) {
+                continue;
+            }
+            if (count[node] > 0) {
+                for (int i = first[node]; i < first[node] + count[node]; i++) {
+                    int t = order[i];
+                    float distance = intersect(t, ox, oy, oz, dx, dy, dz, maxDistance, hit);
+                    if (distance >= 0) {
+                        maxDistance = distance;
+                        closest = t;
+                    }
+                }
+                continue;
+            }
+
+            // the nearer child is visited first, so hits in it can cut the further one off
+            int a = node + 1, b = first[node];
+            if (entry(a, ox, oy, oz, ix, iy, iz) > entry(b, ox, oy, oz, ix, iy, iz)) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = b;
+            stack[top++] = a;
+        }
+        // only hits closer than the last one write to hit, so it already holds the closest
+        return closest;
+    }
+
+    /**
+     * getter method
+     * @param triangle - a triangle
+     * @param corner - 0 to 2
+     * @return - the vertex at a corner of the triangle
+     */
+    public int getVertex(int triangle, int corner) {
+        return triangles[triangle * 3 + corner];
+    }
+
+    /**
+     * getter method
+     * @return - the amount of triangles
+     */
+    public int getTriangleCount() {
+        return this.order.length;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of nodes
+     */
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * helper method to build the node over a range of the order, splitting it at the middle of its longest side
+     * @return - the node
+     */
+    private int build(int from, int to) {
+        int node = nodeCount++;
+        float bMinX = Float.POSITIVE_INFINITY, bMinY = bMinX, bMinZ = bMinX;
+        float bMaxX = Float.NEGATIVE_INFINITY, bMaxY = bMaxX, bMaxZ = bMaxX;
+        float cMinX = Float.POSITIVE_INFINITY, cMinY = cMinX, cMinZ = cMinX;
+        float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = cMaxX, cMaxZ = cMaxX;
+        for (int i = from; i < to; i++) {
+            int t = order[i];
+            for (int corner = 0; corner < 3; corner++) {
+                int v = triangles[t * 3 + corner] * 3;
+                bMinX = Math.min(bMinX, positions[v]);
+                bMinY = Math.min(bMinY, positions[v + 1]);
+                bMinZ = Math.min(bMinZ, positions[v + 2]);
+                bMaxX = Math.max(bMaxX, positions[v]);
+                bMaxY = Math.max(bMaxY, positions[v + 1]);
+                bMaxZ = Math.max(bMaxZ, positions[v + 2]);
+            }
+            cMinX = Math.min(cMinX, centers[t * 3]);
+            cMinY = Math.min(cMinY, centers[t * 3 + 1]);
+            cMinZ = Math.min(cMinZ, centers[t * 3 + 2]);
+            cMaxX = Math.max(cMaxX, centers[t * 3]);
+            cMaxY = Math.max(cMaxY, centers[t * 3 + 1]);
+            cMaxZ = Math.max(cMaxZ, centers[t * 3 + 2]);
+        }
+        minX[node] = bMinX;
+        minY[node] = bMinY;
+        minZ[node] = bMinZ;
+        maxX[node] = bMaxX;
+        maxY[node] = bMaxY;
+        maxZ[node] = bMaxZ;
+
+        // split the centers at the middle of their longest side, or in half by count if they're all in one spot
+        int axis = cMaxX - cMinX >= cMaxY - cMinY && cMaxX - cMinX >= cMaxZ - cMinZ ? 0 : cMaxY - cMinY >= cMaxZ - cMinZ ? 1 : 2;
+        float low = axis == 0 ? cMinX : axis == 1 ? cMinY : cMinZ;
+        float high = axis == 0 ? cMaxX : axis == 1 ? cMaxY : cMaxZ;
+        if (to - from <= LEAF_TRIANGLES || high <= low) {
+            first[node] = from;
+            count[node] = to - from;
+            return node;
+        }
+        float middle = (low + high) / 2;
+        int split = from;
+        for (int i = from; i < to; i++) {
+            if (centers[order[i] * 3 + axis] < middle) {
+                int swap = order[i];
+                order[i] = order[split];
+                order[split++] = swap;
+            }
+        }
+        if (split == from || split == to) {
+            split = (from + to) >>> 1;
+        }
+
+        build(from, split);
+        first[node] = build(split, to);
+        count[node] = 0;
+        return node;
+    }
+
+    /**
+     * helper method to get where a ray enters a node's box
+     * @return - the distance, or infinity if it misses
+     */
+    private float entry(int node, float ox, float oy, float oz, float ix, float iy, float iz) {
+        float t1 = (minX[node] - ox) * ix, t2 = (maxX[node] - ox) * ix;
+        float near = Math.min(t1, t2), far = Math.max(t1, t2);
+        t1 = (minY[node] - oy) * iy;
+        t2 = (maxY[node] - oy) * iy;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (minZ[node] - oz) * iz;
+        t2 = (maxZ[node] - oz) * iz;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        return far >= Math.max(near, 0) ? Math.max(near, 0) : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * helper method to intersect a ray with a triangle, moller-trumbore
+     * @return - the distance if it's hit closer than the max distance, or -1
+     */
+    private float intersect(int t, float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, float[] hit) {
+        int a = triangles[t * 3] * 3, b = triangles[t * 3 + 1] * 3, c = triangles[t * 3 + 2] * 3;
+        float e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        float e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+        float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        float det = e1x * px + e1y * py + e1z * pz;
+        if (det == 0) {
+            return -1;
+        }
+        float inv = 1 / det;
+        float sx = ox - positions[a], sy = oy - positions[a + 1], sz = oz - positions[a + 2];
+        float u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < -EPSILON || u > 1 + EPSILON) {
+            return -1;
+        }
+        float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        float v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v < -EPSILON || u + v > 1 + EPSILON) {
+            return -1;
+        }
+        float distance = (e2x * qx + e2y * qy + e2z * qz) * inv;
+        if (distance < 0 || distance >= maxDistance) {
+            return -1;
+        }
+        hit[0] = distance;
+        hit[1] = u;
+        hit[2] = v;
+        return distance;
+    }
+}
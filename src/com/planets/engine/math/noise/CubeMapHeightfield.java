@@ -0,0 +1,253 @@
+package com.planets.engine.math.noise;
+
+import java.util.Locale;
+
+public final class CubeMapHeightfield implements TerrainSampler {
+
+    // how the grid is sampled between texels
+    public enum Filter {
+        BILINEAR,
+        BICUBIC
+    }
+
+    // the amount of faces on a cube
+    private static final int FACES = 6;
+
+    // the amount of cells along one edge of a face, and the amount of samples along one edge (cells + 1)
+    private final int resolution;
+    private final int stride;
+
+    // the radius of the sphere the terrain was baked on
+    private final float radius;
+
+    // the baked values, face after face, row after row
+    private final float[] grid;
+
+    // the current filter
+    private Filter filter = Filter.BILINEAR;
+
+    /**
+     * default constructor - use bake() instead
+     */
+    private CubeMapHeightfield(int resolution, float radius, float[] grid) {
+        this.resolution = resolution;
+        this.stride = resolution + 1;
+        this.radius = radius;
+        this.grid = grid;
+    }
+
+    /**
+     * evaluates a terrain function once over the surface of a sphere and stores the result in a cube map grid.
+     * the faces use an equal angle mapping so texels are close to the same size everywhere on the sphere, and
+     * samples along the edges are shared between faces so there are no seams.
+     * @param terrain - the terrain function to bake
+     * @param radius - the radius of the sphere the terrain is sampled on
+     * @param resolution - the amount of cells along one edge of a face
+     * @return - the baked heightfield
+     */
+    public static CubeMapHeightfield bake(TerrainSampler terrain, float radius, int resolution) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("Heightfield resolution must be at least 1.");
+        }
+        int stride = resolution + 1;
+        int perFace = stride * stride;
+        float[] grid = new float[FACES * perFace];
+
+        // bake one face at a time so the position arrays stay small
+        double[] xs = new double[perFace], ys = new double[perFace], zs = new double[perFace], out = new double[perFace];
+        double[] direction = new double[3];
+        for (int face = 0; face < FACES; face++) {
+            for (int j = 0; j < stride; j++) {
+                for (int i = 0; i < stride; i++) {
+                    toDirection(face, 2.0 * i / resolution - 1, 2.0 * j / resolution - 1, direction);
+                    int k = j * stride + i;
+                    xs[k] = direction[0] * radius;
+                    ys[k] = direction[1] * radius;
+                    zs[k] = direction[2] * radius;
+                }
+            }
+            terrain.evaluate(xs, ys, zs, out, perFace);
+            for (int k = 0; k < perFace; k++) {
+                grid[face * perFace + k] = (float) out[k];
+            }
+        }
+
+        return new CubeMapHeightfield(resolution, radius, grid);
+    }
+
+    /**
+     * converts face coordinates to a unit direction
+     * @param face - the face (axis * 2, +1 if negative)
+     * @param u - the first face coordinate in [-1, 1]
+     * @param v - the second face coordinate in [-1, 1]
+     * @param out - the array the direction is written to
+     */
+    private static void toDirection(int face, double u, double v, double[] out) {
+        int axis = face >> 1;
+        double sign = (face & 1) == 0 ? 1 : -1;
+
+        // equal angle mapping
+        double tu = Math.tan(u * Math.PI / 4);
+        double tv = Math.tan(v * Math.PI / 4);
+        double inv = 1 / Math.sqrt(1 + tu * tu + tv * tv);
+
+        out[axis] = sign * inv;
+        out[(axis + 1) % 3] = tu * inv;
+        out[(axis + 2) % 3] = tv * inv;
+    }
+
+    /**
+     * samples the heightfield in the direction of a position - the distance from the center is ignored
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     * @return - the baked terrain value in that direction
+     */
+    @Override
+    public double evaluate(double x, double y, double z) {
+        // find the face from the major axis
+        double ax = Math.abs(x), ay = Math.abs(y), az = Math.abs(z);
+        int axis;
+        double major, a, b;
+        if (ax >= ay && ax >= az) {
+            axis = 0; major = x; a = y; b = z;
+        } else if (ay >= az) {
+            axis = 1; major = y; a = z; b = x;
+        } else {
+            axis = 2; major = z; a = x; b = y;
+        }
+        int face = axis * 2 + (major < 0 ? 1 : 0);
+        double m = Math.abs(major);
+        if (m == 0) {
+            return grid[0];
+        }
+
+        // invert the equal angle mapping and convert to grid coordinates
+        double u = Math.atan(a / m) * 4 / Math.PI;
+        double v = Math.atan(b / m) * 4 / Math.PI;
+        double gx = (u + 1) * 0.5 * resolution;
+        double gy = (v + 1) * 0.5 * resolution;
+
+        return filter == Filter.BICUBIC ? bicubic(face, gx, gy) : bilinear(face, gx, gy);
+    }
+
+    /**
+     * samples the heightfield for many positions at once
+     * @param x - the x positions
+     * @param y - the y positions
+     * @param z - the z positions
+     * @param out - the array the results are written to
+     * @param count - the amount of positions to sample
+     */
+    @Override
+    public void evaluate(double[] x, double[] y, double[] z, double[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = evaluate(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * helper method to read one texel, clamped to the face
+     */
+    private float texel(int face, int i, int j) {
+        i = Math.max(0, Math.min(resolution, i));
+        j = Math.max(0, Math.min(resolution, j));
+        return grid[face * stride * stride + j * stride + i];
+    }
+
+    /**
+     * bilinear interpolation of the 4 surrounding texels
+     */
+    private double bilinear(int face, double gx, double gy) {
+        int i = Math.min((int) gx, resolution - 1);
+        int j = Math.min((int) gy, resolution - 1);
+        double fx = gx - i, fy = gy - j;
+        double top = texel(face, i, j) + fx * (texel(face, i + 1, j) - texel(face, i, j));
+        double bottom = texel(face, i, j + 1) + fx * (texel(face, i + 1, j + 1) - texel(face, i, j + 1));
+        return top + fy * (bottom - top);
+    }
+
+    /**
+     * catmull-rom interpolation of the 16 surrounding texels
+     */
+    private double bicubic(int face, double gx, double gy) {
+        int i = Math.min((int) gx, resolution - 1);
+        int j = Math.min((int) gy, resolution - 1);
+        double fx = gx - i, fy = gy - j;
+        double r0 = cubicRow(face, i, j - 1, fx);
+        double r1 = cubicRow(face, i, j, fx);
+        double r2 = cubicRow(face, i, j + 1, fx);
+        double r3 = cubicRow(face, i, j + 2, fx);
+        return cubic(fy, r0, r1, r2, r3);
+    }
+
+    /**
+     * catmull-rom interpolation along one row of texels
+     */
+    private double cubicRow(int face, int i, int j, double fx) {
+        return cubic(fx, texel(face, i - 1, j), texel(face, i, j), texel(face, i + 1, j), texel(face, i + 2, j));
+    }
+
+    /**
+     * catmull-rom spline between p1 and p2
+     */
+    private static double cubic(double t, double p0, double p1, double p2, double p3) {
+        return p1 + 0.5 * t * (p2 - p0 + t * (2 * p0 - 5 * p1 + 4 * p2 - p3 + t * (3 * (p1 - p2) + p3 - p0)));
+    }
+
+    /**
+     * compares the heightfield against the function it was baked from at evenly spread points on the sphere
+     * @param reference - the original terrain function
+     * @param samples - the amount of points to compare
+     * @return - a one line report of the memory use and the error
+     */
+    public String report(TerrainSampler reference, int samples) {
+        double maxError = 0, totalError = 0;
+        double goldenAngle = Math.PI * (3 - Math.sqrt(5));
+        for (int s = 0; s < samples; s++) {
+            // fibonacci sphere
+            double y = 1 - 2 * (s + 0.5) / samples;
+            double r = Math.sqrt(1 - y * y);
+            double theta = goldenAngle * s;
+            double px = Math.cos(theta) * r * radius, py = y * radius, pz = Math.sin(theta) * r * radius;
+
+            double error = Math.abs(evaluate(px, py, pz) - reference.evaluate(px, py, pz));
+            maxError = Math.max(maxError, error);
+            totalError += error;
+        }
+        return String.format(Locale.ROOT, "heightfield %dx%dx6 (%s): %.1f KB, max error %.6f, mean error %.6f over %d samples",
+                stride, stride, filter, getMemoryBytes() / 1024.0, maxError, totalError / Math.max(1, samples), samples);
+    }
+
+    /**
+     * sets how the grid is sampled between texels
+     * @param filter - the new filter
+     */
+    public void setFilter(Filter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * getter method
+     * @return - the filter used when sampling
+     */
+    public Filter getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of cells along one edge of a face
+     */
+    public int getResolution() {
+        return this.resolution;
+    }
+
+    /**
+     * getter method
+     * @return - the memory used by the grid in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) grid.length * Float.BYTES;
+    }
+}
@@ -3,7 +3,6 @@ package com.planets.engine.math.noise;
 import java.util.Random;
 
 public class SimplexNoiseOctave {
-    public static int RANDOMSEED = 0;
 
     private static Grad[] grad3 = {
             new Grad(1,1,0),new Grad(-1,1,0),new Grad(1,-1,0),new Grad(-1,-1,0),
@@ -45,11 +44,6 @@ public class SimplexNoiseOctave {
     public SimplexNoiseOctave(int seed) {
         short[] p = p_supply.clone();
 
-        if (seed==RANDOMSEED){
-            Random rand=new Random();
-            seed=rand.nextInt();
-        }
-
         //the random for the swaps
         Random rand=new Random(seed);
 
@@ -0,0 +1,192 @@
+package com.planets.engine.math.noise;
+
+public final class TerrainNode {
+
+    // the kinds of nodes that can appear in a terrain graph
+    enum Type {
+        CONSTANT,
+        FBM,
+        RIDGED,
+        BILLOW,
+        ADD,
+        MULTIPLY,
+        CLAMP,
+        REMAP,
+        WARP
+    }
+
+    // the kind of this node
+    final Type type;
+
+    // the inputs of this node (may be empty)
+    final TerrainNode[] inputs;
+
+    // the parameters of this node, meaning depends on the type
+    final double[] params;
+
+    // the amount of octaves for the fractal node types
+    final int octaves;
+
+    /**
+     * default constructor - use the static factory methods instead
+     * @param type - the kind of node
+     * @param octaves - the amount of octaves (only used by fractal nodes)
+     * @param params - the parameters of the node
+     * @param inputs - the input nodes
+     */
+    private TerrainNode(Type type, int octaves, double[] params, TerrainNode... inputs) {
+        this.type = type;
+        this.octaves = octaves;
+        this.params = params;
+        this.inputs = inputs;
+    }
+
+    /**
+     * a node that always evaluates to the same value
+     * @param value - the value
+     * @return - the constant node
+     */
+    public static TerrainNode constant(double value) {
+        return new TerrainNode(Type.CONSTANT, 0, new double[]{value});
+    }
+
+    /**
+     * a single octave of improved perlin noise sampled at (position * frequency + offset)
+     * @param frequency - how often the noise repeats
+     * @param offset - shifts the sampling position, changing the generated terrain
+     * @return - the noise node
+     */
+    public static TerrainNode perlin(double frequency, double offset) {
+        return fbm(1, frequency, 2.0, 0.5, offset);
+    }
+
+    /**
+     * fractal brownian motion - sums octaves of perlin noise, normalized to roughly [-1, 1]
+     * @param octaves - the amount of octaves to sum
+     * @param frequency - the frequency of the first octave
+     * @param lacunarity - the frequency multiplier between octaves
+     * @param gain - the amplitude multiplier between octaves
+     * @param offset - shifts the sampling position
+     * @return - the fbm node
+     */
+    public static TerrainNode fbm(int octaves, double frequency, double lacunarity, double gain, double offset) {
+        return fractal(Type.FBM, octaves, frequency, lacunarity, gain, offset);
+    }
+
+    /**
+     * ridged multifractal noise - sharp crests where the noise crosses zero, normalized to [0, 1]
+     * @param octaves - the amount of octaves to sum
+     * @param frequency - the frequency of the first octave
+     * @param lacunarity - the frequency multiplier between octaves
+     * @param gain - the amplitude multiplier between octaves
+     * @param offset - shifts the sampling position
+     * @return - the ridged node
+     */
+    public static TerrainNode ridged(int octaves, double frequency, double lacunarity, double gain, double offset) {
+        return fractal(Type.RIDGED, octaves, frequency, lacunarity, gain, offset);
+    }
+
+    /**
+     * billow noise - rounded hills made from the absolute value of each octave, normalized to [-1, 1]
+     * @param octaves - the amount of octaves to sum
+     * @param frequency - the frequency of the first octave
+     * @param lacunarity - the frequency multiplier between octaves
+     * @param gain - the amplitude multiplier between octaves
+     * @param offset - shifts the sampling position
+     * @return - the billow node
+     */
+    public static TerrainNode billow(int octaves, double frequency, double lacunarity, double gain, double offset) {
+        return fractal(Type.BILLOW, octaves, frequency, lacunarity, gain, offset);
+    }
+
+    /**
+     * helper method to create one of the fractal node types
+     */
+    private static TerrainNode fractal(Type type, int octaves, double frequency, double lacunarity, double gain, double offset) {
+        if (octaves < 1) {
+            throw new IllegalArgumentException("A fractal node needs at least one octave.");
+        }
+        return new TerrainNode(type, octaves, new double[]{frequency, lacunarity, gain, offset});
+    }
+
+    /**
+     * adds two nodes together
+     * @param a - node 1
+     * @param b - node 2
+     * @return - a node evaluating to a + b
+     */
+    public static TerrainNode add(TerrainNode a, TerrainNode b) {
+        return new TerrainNode(Type.ADD, 0, new double[0], a, b);
+    }
+
+    /**
+     * multiplies two nodes together
+     * @param a - node 1
+     * @param b - node 2
+     * @return - a node evaluating to a * b
+     */
+    public static TerrainNode multiply(TerrainNode a, TerrainNode b) {
+        return new TerrainNode(Type.MULTIPLY, 0, new double[0], a, b);
+    }
+
+    /**
+     * adds a constant to this node
+     * @param value - the constant
+     * @return - a node evaluating to this + value
+     */
+    public TerrainNode add(double value) {
+        return add(this, constant(value));
+    }
+
+    /**
+     * multiplies this node by a constant
+     * @param value - the constant
+     * @return - a node evaluating to this * value
+     */
+    public TerrainNode scale(double value) {
+        return multiply(this, constant(value));
+    }
+
+    /**
+     * clamps this node between two values
+     * @param min - the minimum value (use Double.NEGATIVE_INFINITY for no lower bound)
+     * @param max - the maximum value (use Double.POSITIVE_INFINITY for no upper bound)
+     * @return - the clamped node
+     */
+    public TerrainNode clamp(double min, double max) {
+        return new TerrainNode(Type.CLAMP, 0, new double[]{min, max}, this);
+    }
+
+    /**
+     * linearly remaps this node from one range to another
+     * @param fromMin - the minimum of the input range
+     * @param fromMax - the maximum of the input range, which must differ from the minimum
+     * @param toMin - the minimum of the output range
+     * @param toMax - the maximum of the output range
+     * @return - the remapped node
+     */
+    public TerrainNode remap(double fromMin, double fromMax, double toMin, double toMax) {
+        if (fromMin == fromMax) {
+            throw new IllegalArgumentException("A remap needs an input range that isn't empty.");
+        }
+        return new TerrainNode(Type.REMAP, 0, new double[]{fromMin, fromMax, toMin, toMax}, this);
+    }
+
+    /**
+     * domain warps this node - the sampling position is displaced by a vector of perlin noise before evaluating
+     * @param amplitude - how far the position is displaced
+     * @param frequency - the frequency of the displacement noise
+     * @return - the warped node
+     */
+    public TerrainNode warp(double amplitude, double frequency) {
+        return new TerrainNode(Type.WARP, 0, new double[]{amplitude, frequency}, this);
+    }
+
+    /**
+     * compiles this node graph into a flat program
+     * @return - the compiled program
+     */
+    public TerrainProgram compile() {
+        return TerrainProgram.compile(this);
+    }
+}
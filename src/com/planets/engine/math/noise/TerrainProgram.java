@@ -0,0 +1,401 @@
+package com.planets.engine.math.noise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+public final class TerrainProgram implements TerrainSampler {
+
+    // opcodes - every instruction is laid out as [op, dst, a, b, c]
+    private static final int CONST = 0;   // dst = constants[a]
+    private static final int FBM = 1;     // dst = fbm(coord set a, octaves b, params at c)
+    private static final int RIDGED = 2;  // dst = ridged(coord set a, octaves b, params at c)
+    private static final int BILLOW = 3;  // dst = billow(coord set a, octaves b, params at c)
+    private static final int ADD = 4;     // dst = a + b
+    private static final int MUL = 5;     // dst = a * b
+    private static final int CLAMP = 6;   // dst = clamp(a, constants[b], constants[b + 1])
+    private static final int AFFINE = 7;  // dst = a * constants[b] + constants[b + 1]
+    private static final int WARP = 8;    // coord set dst = coord set a + noise displacement, params at c
+    private static final int STRIDE = 5;
+
+    // the amount of samples evaluated together by each instruction
+    private static final int BLOCK_SIZE = 256;
+
+    // offsets used to decorrelate octaves and the axes of a domain warp from each other
+    private static final double OCTAVE_SHIFT = 19.19;
+    private static final double WARP_SHIFT_X = 13.7, WARP_SHIFT_Y = 51.3, WARP_SHIFT_Z = 89.1;
+
+    // the flat program
+    private final int[] code;
+    private final double[] constants;
+
+    // the amount of value registers and coordinate sets the program uses
+    private final int registerCount;
+    private final int coordSetCount;
+
+    // the register holding the final result
+    private final int resultRegister;
+
+    // per thread scratch memory, so evaluation is allocation free and thread safe
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * default constructor - use TerrainNode.compile() instead
+     */
+    private TerrainProgram(int[] code, double[] constants, int registerCount, int coordSetCount, int resultRegister) {
+        this.code = code;
+        this.constants = constants;
+        this.registerCount = registerCount;
+        this.coordSetCount = coordSetCount;
+        this.resultRegister = resultRegister;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(registerCount, coordSetCount));
+    }
+
+    /**
+     * compiles a terrain graph into a flat program
+     * @param root - the output node of the graph
+     * @return - the compiled program
+     */
+    static TerrainProgram compile(TerrainNode root) {
+        Compiler compiler = new Compiler();
+        int result = compiler.emit(root, 0);
+        return new TerrainProgram(
+                Arrays.copyOf(compiler.code, compiler.codeLength),
+                Arrays.copyOf(compiler.constants, compiler.constantsLength),
+                compiler.registerCount,
+                compiler.coordSetCount,
+                result);
+    }
+
+    /**
+     * evaluates the program at a single position
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     * @return - the value of the terrain function
+     */
+    @Override
+    public double evaluate(double x, double y, double z) {
+        Scratch s = scratch.get();
+        s.coords[0][0] = x;
+        s.coords[1][0] = y;
+        s.coords[2][0] = z;
+        run(s, 1);
+        return s.registers[resultRegister][0];
+    }
+
+    /**
+     * evaluates the program for many positions at once
+     * @param x - the x positions
+     * @param y - the y positions
+     * @param z - the z positions
+     * @param out - the array the results are written to
+     * @param count - the amount of positions to evaluate
+     */
+    @Override
+    public void evaluate(double[] x, double[] y, double[] z, double[] out, int count) {
+        Scratch s = scratch.get();
+        for (int start = 0; start < count; start += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, count - start);
+            System.arraycopy(x, start, s.coords[0], 0, n);
+            System.arraycopy(y, start, s.coords[1], 0, n);
+            System.arraycopy(z, start, s.coords[2], 0, n);
+            run(s, n);
+            System.arraycopy(s.registers[resultRegister], 0, out, start, n);
+        }
+    }
+
+    /**
+     * evaluates the program for many positions stored as interleaved xyz floats, like a position buffer
+     * @param positions - the positions, 3 floats per position
+     * @param out - the array the results are written to
+     * @param count - the amount of positions to evaluate
+     */
+    public void evaluate(float[] positions, double[] out, int count) {
+        Scratch s = scratch.get();
+        for (int start = 0; start < count; start += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, count - start);
+            for (int i = 0; i < n; i++) {
+                s.coords[0][i] = positions[(start + i) * 3];
+                s.coords[1][i] = positions[(start + i) * 3 + 1];
+                s.coords[2][i] = positions[(start + i) * 3 + 2];
+            }
+            run(s, n);
+            System.arraycopy(s.registers[resultRegister], 0, out, start, n);
+        }
+    }
+
+    /**
+     * runs every instruction over one block of samples
+     * @param s - the scratch memory, with coordinate set 0 filled in
+     * @param n - the amount of samples in the block
+     */
+    private void run(Scratch s, int n) {
+        double[][] r = s.registers;
+        for (int pc = 0; pc < code.length; pc += STRIDE) {
+            int dst = code[pc + 1], a = code[pc + 2], b = code[pc + 3], c = code[pc + 4];
+            switch (code[pc]) {
+                case CONST:
+                    Arrays.fill(r[dst], 0, n, constants[a]);
+                    break;
+                case FBM:
+                case RIDGED:
+                case BILLOW:
+                    fractal(code[pc], r[dst], s.coords, a, b, c, n);
+                    break;
+                case ADD: {
+                    double[] d = r[dst], ra = r[a], rb = r[b];
+                    for (int i = 0; i < n; i++) d[i] = ra[i] + rb[i];
+                    break;
+                }
+                case MUL: {
+                    double[] d = r[dst], ra = r[a], rb = r[b];
+                    for (int i = 0; i < n; i++) d[i] = ra[i] * rb[i];
+                    break;
+                }
+                case CLAMP: {
+                    double[] d = r[dst], ra = r[a];
+                    double min = constants[b], max = constants[b + 1];
+                    for (int i = 0; i < n; i++) d[i] = Math.min(Math.max(ra[i], min), max);
+                    break;
+                }
+                case AFFINE: {
+                    double[] d = r[dst], ra = r[a];
+                    double scale = constants[b], bias = constants[b + 1];
+                    for (int i = 0; i < n; i++) d[i] = ra[i] * scale + bias;
+                    break;
+                }
+                case WARP:
+                    warp(s.coords, dst, a, c, n);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown terrain opcode " + code[pc] + ".");
+            }
+        }
+    }
+
+    /**
+     * evaluates one of the fractal noise types
+     */
+    private void fractal(int op, double[] d, double[][] coords, int set, int octaves, int c, int n) {
+        double[] xs = coords[set * 3], ys = coords[set * 3 + 1], zs = coords[set * 3 + 2];
+        double frequency = constants[c], lacunarity = constants[c + 1], gain = constants[c + 2], offset = constants[c + 3];
+
+        Arrays.fill(d, 0, n, 0);
+        double amplitude = 1, total = 0;
+        for (int o = 0; o < octaves; o++) {
+            double shift = offset + o * OCTAVE_SHIFT;
+            if (op == FBM) {
+                for (int i = 0; i < n; i++) {
+                    d[i] += amplitude * ImprovedNoise.noise(xs[i] * frequency + shift, ys[i] * frequency + shift, zs[i] * frequency + shift);
+                }
+            } else if (op == RIDGED) {
+                for (int i = 0; i < n; i++) {
+                    double ridge = 1 - Math.abs(ImprovedNoise.noise(xs[i] * frequency + shift, ys[i] * frequency + shift, zs[i] * frequency + shift));
+                    d[i] += amplitude * ridge * ridge;
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    d[i] += amplitude * (2 * Math.abs(ImprovedNoise.noise(xs[i] * frequency + shift, ys[i] * frequency + shift, zs[i] * frequency + shift)) - 1);
+                }
+            }
+            total += amplitude;
+            amplitude *= gain;
+            frequency *= lacunarity;
+        }
+
+        // normalize so adding octaves doesn't change the output range
+        if (total != 1) {
+            double inv = 1 / total;
+            for (int i = 0; i < n; i++) d[i] *= inv;
+        }
+    }
+
+    /**
+     * displaces a coordinate set by a vector of noise, writing it into another coordinate set
+     */
+    private void warp(double[][] coords, int dstSet, int srcSet, int c, int n) {
+        double[] sx = coords[srcSet * 3], sy = coords[srcSet * 3 + 1], sz = coords[srcSet * 3 + 2];
+        double[] dx = coords[dstSet * 3], dy = coords[dstSet * 3 + 1], dz = coords[dstSet * 3 + 2];
+        double amplitude = constants[c], frequency = constants[c + 1];
+        for (int i = 0; i < n; i++) {
+            double px = sx[i] * frequency, py = sy[i] * frequency, pz = sz[i] * frequency;
+            dx[i] = sx[i] + amplitude * ImprovedNoise.noise(px + WARP_SHIFT_X, py + WARP_SHIFT_X, pz + WARP_SHIFT_X);
+            dy[i] = sy[i] + amplitude * ImprovedNoise.noise(px + WARP_SHIFT_Y, py + WARP_SHIFT_Y, pz + WARP_SHIFT_Y);
+            dz[i] = sz[i] + amplitude * ImprovedNoise.noise(px + WARP_SHIFT_Z, py + WARP_SHIFT_Z, pz + WARP_SHIFT_Z);
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the amount of instructions in this program
+     */
+    public int getInstructionCount() {
+        return code.length / STRIDE;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of value registers this program uses
+     */
+    public int getRegisterCount() {
+        return this.registerCount;
+    }
+
+    /**
+     * scratch memory for evaluating one block of samples
+     */
+    private static final class Scratch {
+        private final double[][] registers;
+        private final double[][] coords;
+
+        private Scratch(int registerCount, int coordSetCount) {
+            this.registers = new double[registerCount][BLOCK_SIZE];
+            this.coords = new double[coordSetCount * 3][BLOCK_SIZE];
+        }
+    }
+
+    /**
+     * flattens a terrain graph into instructions, folding constant subtrees and sharing repeated nodes
+     */
+    private static final class Compiler {
+        private int[] code = new int[16 * STRIDE];
+        private int codeLength = 0;
+        private double[] constants = new double[16];
+        private int constantsLength = 0;
+        private int registerCount = 0;
+        private int coordSetCount = 1;
+
+        // the register each node was emitted to, per coordinate set
+        private final ArrayList<IdentityHashMap<TerrainNode, Integer>> emitted = new ArrayList<>();
+
+        /**
+         * emits a node and all of its inputs
+         * @param node - the node
+         * @param set - the coordinate set the node is evaluated at
+         * @return - the register holding the value of the node
+         */
+        private int emit(TerrainNode node, int set) {
+            while (emitted.size() <= set) {
+                emitted.add(new IdentityHashMap<>());
+            }
+            Integer existing = emitted.get(set).get(node);
+            if (existing != null) {
+                return existing;
+            }
+
+            int dst;
+            Double folded = fold(node);
+            if (folded != null) {
+                dst = instruction(CONST, registerCount++, constant(folded), 0, 0);
+            } else {
+                switch (node.type) {
+                    case FBM:
+                    case RIDGED:
+                    case BILLOW: {
+                        int op = node.type == TerrainNode.Type.FBM ? FBM : node.type == TerrainNode.Type.RIDGED ? RIDGED : BILLOW;
+                        int c = constant(node.params[0]);
+                        constant(node.params[1]);
+                        constant(node.params[2]);
+                        constant(node.params[3]);
+                        dst = instruction(op, registerCount++, set, node.octaves, c);
+                        break;
+                    }
+                    case ADD:
+                    case MULTIPLY: {
+                        int a = emit(node.inputs[0], set);
+                        int b = emit(node.inputs[1], set);
+                        dst = instruction(node.type == TerrainNode.Type.ADD ? ADD : MUL, registerCount++, a, b, 0);
+                        break;
+                    }
+                    case CLAMP: {
+                        int a = emit(node.inputs[0], set);
+                        int b = constant(node.params[0]);
+                        constant(node.params[1]);
+                        dst = instruction(CLAMP, registerCount++, a, b, 0);
+                        break;
+                    }
+                    case REMAP: {
+                        int a = emit(node.inputs[0], set);
+                        double scale = (node.params[3] - node.params[2]) / (node.params[1] - node.params[0]);
+                        int b = constant(scale);
+                        constant(node.params[2] - node.params[0] * scale);
+                        dst = instruction(AFFINE, registerCount++, a, b, 0);
+                        break;
+                    }
+                    case WARP: {
+                        int warped = coordSetCount++;
+                        int c = constant(node.params[0]);
+                        constant(node.params[1]);
+                        instruction(WARP, warped, set, 0, c);
+                        dst = emit(node.inputs[0], warped);
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("Cannot compile terrain node " + node.type + ".");
+                }
+            }
+
+            emitted.get(set).put(node, dst);
+            return dst;
+        }
+
+        /**
+         * evaluates a subtree at compile time if it doesn't depend on the position
+         * @param node - the root of the subtree
+         * @return - the constant value, or null if the subtree depends on the position
+         */
+        private static Double fold(TerrainNode node) {
+            switch (node.type) {
+                case CONSTANT:
+                    return node.params[0];
+                case ADD:
+                case MULTIPLY: {
+                    Double a = fold(node.inputs[0]), b = fold(node.inputs[1]);
+                    if (a == null || b == null) return null;
+                    return node.type == TerrainNode.Type.ADD ? a + b : a * b;
+                }
+                case CLAMP: {
+                    Double a = fold(node.inputs[0]);
+                    return a == null ? null : Math.min(Math.max(a, node.params[0]), node.params[1]);
+                }
+                case REMAP: {
+                    Double a = fold(node.inputs[0]);
+                    if (a == null) return null;
+                    double scale = (node.params[3] - node.params[2]) / (node.params[1] - node.params[0]);
+                    return a * scale + node.params[2] - node.params[0] * scale;
+                }
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * appends an instruction
+         * @return - the destination of the instruction
+         */
+        private int instruction(int op, int dst, int a, int b, int c) {
+            if (codeLength + STRIDE > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[codeLength++] = op;
+            code[codeLength++] = dst;
+            code[codeLength++] = a;
+            code[codeLength++] = b;
+            code[codeLength++] = c;
+            return dst;
+        }
+
+        /**
+         * appends a constant
+         * @return - the index of the constant
+         */
+        private int constant(double value) {
+            if (constantsLength == constants.length) {
+                constants = Arrays.copyOf(constants, constants.length * 2);
+            }
+            constants[constantsLength] = value;
+            return constantsLength++;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.planets.engine.math.noise;
+
+public interface TerrainSampler {
+
+    /**
+     * samples the terrain function at a single position
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     * @return - the value of the terrain function
+     */
+    double evaluate(double x, double y, double z);
+
+    /**
+     * samples the terrain function for many positions at once
+     * @param x - the x positions
+     * @param y - the y positions
+     * @param z - the z positions
+     * @param out - the array the results are written to
+     * @param count - the amount of positions to sample
+     */
+    void evaluate(double[] x, double[] y, double[] z, double[] out, int count);
+}
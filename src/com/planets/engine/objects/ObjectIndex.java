@@ -0,0 +1,214 @@
+package com.planets.engine.objects;
+
+import com.planets.engine.graphics.MeshSource;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.collision.AABB;
+import com.planets.engine.math.collision.DynamicAABBTree;
+import com.planets.engine.math.collision.Frustum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+public class ObjectIndex {
+
+    // the vertices read at a time while measuring a mesh
+    private static final int READ_VERTICES = 1024;
+
+    // the objects, by the box around their bounding spheres
+    private final DynamicAABBTree<RenderObject> tree;
+
+    // the proxy of each object in the tree
+    private final IdentityHashMap<RenderObject, Integer> proxies = new IdentityHashMap<>();
+
+    // the distance from the origin to the furthest vertex of each mesh, measured once
+    private final IdentityHashMap<MeshSource, Float> meshRadii = new IdentityHashMap<>();
+
+    // the bounding sphere radius of each proxy's object before scaling, and where the object is in the list, by proxy
+    private float[] radii = new float[16];
+    private int[] slots = new int[16];
+
+    // the objects in the tree, so they can all be refitted without going through the map
+    private final ArrayList<RenderObject> objects = new ArrayList<>();
+
+    // reused while refitting, so it doesn't allocate
+    private final AABB bounds = new AABB();
+
+    /**
+     * default constructor
+     * @param margin - how far an object can move before the tree changes
+     */
+    public ObjectIndex(float margin) {
+        this.tree = new DynamicAABBTree<>(margin);
+    }
+
+    /**
+     * adds an object, measuring its mesh the first time the mesh is seen
+     * @param object - the object
+     */
+    public void add(RenderObject object) {
+        if (proxies.containsKey(object)) {
+            throw new IllegalArgumentException("Object " + object.getID() + " is already indexed.");
+        }
+        float radius = meshRadii.computeIfAbsent(object.getMesh(), ObjectIndex::measure);
+        setBounds(object, radius);
+        int proxy = tree.insert(bounds, object);
+        if (proxy >= radii.length) {
+            radii = Arrays.copyOf(radii, Math.max(proxy + 1, radii.length * 2));
+            slots = Arrays.copyOf(slots, radii.length);
+        }
+        radii[proxy] = radius;
+        slots[proxy] = objects.size();
+        proxies.put(object, proxy);
+        objects.add(object);
+    }
+
+    /**
+     * removes an object, moving the last object into its place in the list rather than shifting every one after it
+     * @param object - the object
+     */
+    public void remove(RenderObject object) {
+        Integer proxy = proxies.remove(object);
+        if (proxy == null) {
+            throw new IllegalArgumentException("Object " + object.getID() + " isn't indexed.");
+        }
+        tree.remove(proxy);
+        int slot = slots[proxy];
+        RenderObject last = objects.remove(objects.size() - 1);
+        if (last != object) {
+            objects.set(slot, last);
+            slots[proxies.get(last)] = slot;
+        }
+    }
+
+    /**
+     * refits an object after it moved or was scaled
+     * @param object - the object
+     * @return - true if it left its grown box and the tree changed
+     */
+    public boolean update(RenderObject object) {
+        Integer proxy = proxies.get(object);
+        if (proxy == null) {
+            throw new IllegalArgumentException("Object " + object.getID() + " isn't indexed.");
+        }
+        setBounds(object, radii[proxy]);
+        return tree.move(proxy, bounds);
+    }
+
+    /**
+     * refits every object, e.g. once per frame after the simulation moved them. objects that stayed inside their
+     * grown boxes only cost the check
+     * @return - the amount of objects that changed the tree
+     */
+    public int updateAll() {
+        int moved = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            if (update(objects.get(i))) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * finds the objects whose boxes overlap a box
+     * @param box - the box
+     * @param found - receives the objects
+     */
+    public void query(AABB box, List<RenderObject> found) {
+        tree.query(box, (proxy, object) -> found.add(object));
+    }
+
+    /**
+     * finds the objects that may be in view
+     * @param frustum - the view
+     * @param found - receives the objects
+     */
+    public void query(Frustum frustum, List<RenderObject> found) {
+        tree.query(frustum, (proxy, object) -> found.add(object));
+    }
+
+    /**
+     * casts a ray through the objects' boxes, nearest first
+     * @param origin - the origin of the ray
+     * @param direction - the direction of the ray
+     * @param maxDistance - the furthest along the ray to search, in lengths of the direction
+     * @param visitor - tests the objects, and can shorten the ray to the closest hit so far
+     */
+    public void raycast(Vector3f origin, Vector3f direction, float maxDistance, DynamicAABBTree.RayVisitor<RenderObject> visitor) {
+        tree.raycast(origin.getX(), origin.getY(), origin.getZ(), direction.getX(), direction.getY(), direction.getZ(),
+                maxDistance, visitor);
+    }
+
+    /**
+     * visits every pair of objects whose boxes overlap, once per pair
+     * @param visitor - visits the pairs
+     */
+    public void pairs(DynamicAABBTree.PairVisitor<RenderObject> visitor) {
+        tree.pairs(visitor);
+    }
+
+    /**
+     * getter method
+     * @param object - an indexed object
+     * @return - the radius of the object's bounding sphere around its position, with its scale
+     */
+    public float getRadius(RenderObject object) {
+        Integer proxy = proxies.get(object);
+        if (proxy == null) {
+            throw new IllegalArgumentException("Object " + object.getID() + " isn't indexed.");
+        }
+        return radii[proxy] * maxScale(object);
+    }
+
+    /**
+     * getter method
+     * @return - the amount of objects
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * getter method
+     * @return - the tree the objects are stored in
+     */
+    public DynamicAABBTree<RenderObject> getTree() {
+        return this.tree;
+    }
+
+    /**
+     * helper method to set the box around an object's bounding sphere, which fits however it's rotated
+     */
+    private void setBounds(RenderObject object, float radius) {
+        bounds.setSphere(object.getPosition(), radius * maxScale(object));
+    }
+
+    /**
+     * helper method to get the largest scale of an object
+     */
+    private static float maxScale(RenderObject object) {
+        Vector3f scale = object.getScale();
+        return Math.max(Math.abs(scale.getX()), Math.max(Math.abs(scale.getY()), Math.abs(scale.getZ())));
+    }
+
+    /**
+     * helper method to find the distance from a mesh's origin to its furthest vertex
+     */
+    private static float measure(MeshSource mesh) {
+        float[] positions = new float[READ_VERTICES * 3];
+        float[] colors = new float[READ_VERTICES * 4];
+        float[] normals = new float[READ_VERTICES * 3];
+        float max = 0;
+        int count = mesh.getVertexCount();
+        for (int first = 0; first < count; first += READ_VERTICES) {
+            int read = Math.min(READ_VERTICES, count - first);
+            mesh.readVertices(first, read, positions, colors, normals);
+            for (int i = 0; i < read * 3; i += 3) {
+                max = Math.max(max, positions[i] * positions[i] + positions[i + 1] * positions[i + 1] + positions[i + 2] * positions[i + 2]);
+            }
+        }
+        return (float) Math.sqrt(max);
+    }
+}
@@ -5,8 +5,11 @@ import com.planets.engine.math.Vector3f;
 
 public class RenderObject {
 
+    // the largest ID, so every ID fits in the 24 bits of a picking color with one value left for the background
+    public static final int MAX_ID = (1 << 24) - 2;
+
     // the current global ID - used to make sure every ID is unique
-    public static int curID = 0;
+    private static int curID = 0;
 
     // the ID of this object
     public int ID;
@@ -65,8 +68,12 @@ public class RenderObject {
 
     /**
      * sets the current ID
+     * @throws IllegalStateException - if every ID was already handed out
      */
     public void generateID() {
+        if (curID > MAX_ID) {
+            throw new IllegalStateException("Every one of the " + (MAX_ID + 1) + " object IDs is already used.");
+        }
         this.ID = curID;
         curID += 1;
     }
@@ -111,6 +118,14 @@ public class RenderObject {
         return mesh;
     }
 
+    /**
+     * sets the mesh of this game object
+     * @param mesh - the new mesh
+     */
+    public void setMesh(Mesh mesh) {
+        this.mesh = mesh;
+    }
+
     /**
      * getter method
      * @return - the ID of this object
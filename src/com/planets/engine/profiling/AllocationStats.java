@@ -0,0 +1,152 @@
+package com.planets.engine.profiling;
+
+import java.util.Locale;
+
+public class AllocationStats {
+
+    // the amount of frames measured, and the ones a garbage collection ended in
+    private final long frames;
+    private final long framesWithCollections;
+
+    // the bytes the rendering thread allocated per frame
+    private final double mean;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long max;
+
+    // the garbage collections, and how long they took in nanoseconds from start to end, which only counts pauses for
+    // collectors that stop the application for the whole collection
+    private final long collections;
+    private final long maxPause;
+    private final long p99Pause;
+    private final double totalPause;
+
+    // the native memory allocated through MemoryUtil that is still live, or -1 if it isn't tracked
+    private final long nativeBytes;
+
+    /**
+     * default constructor
+     * @param bytesPerFrame - the bytes allocated per frame, which is only read here
+     * @param framesWithCollections - the amount of frames a garbage collection ended in
+     * @param pauses - the durations of the garbage collections in nanoseconds, which is only read here
+     * @param nativeBytes - the native memory still live, or -1 if it isn't tracked
+     */
+    public AllocationStats(Histogram bytesPerFrame, long framesWithCollections, Histogram pauses, long nativeBytes) {
+        this.frames = bytesPerFrame.getCount();
+        this.framesWithCollections = framesWithCollections;
+        this.mean = bytesPerFrame.getMean();
+        this.p50 = bytesPerFrame.getPercentile(50);
+        this.p95 = bytesPerFrame.getPercentile(95);
+        this.p99 = bytesPerFrame.getPercentile(99);
+        this.max = bytesPerFrame.getMax();
+        this.collections = pauses.getCount();
+        this.maxPause = pauses.getMax();
+        this.p99Pause = pauses.getPercentile(99);
+        this.totalPause = pauses.getMean() * pauses.getCount();
+        this.nativeBytes = nativeBytes;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames measured
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames a garbage collection ended in
+     */
+    public long getFramesWithCollections() {
+        return this.framesWithCollections;
+    }
+
+    /**
+     * getter method
+     * @return - the mean bytes allocated per frame
+     */
+    public double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * getter method
+     * @return - the median bytes allocated per frame
+     */
+    public long getP50() {
+        return this.p50;
+    }
+
+    /**
+     * getter method
+     * @return - the bytes 95% of the frames stayed within
+     */
+    public long getP95() {
+        return this.p95;
+    }
+
+    /**
+     * getter method
+     * @return - the bytes 99% of the frames stayed within
+     */
+    public long getP99() {
+        return this.p99;
+    }
+
+    /**
+     * getter method
+     * @return - the most bytes allocated in one frame
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of garbage collections
+     */
+    public long getCollections() {
+        return this.collections;
+    }
+
+    /**
+     * getter method
+     * @return - the longest garbage collection, in nanoseconds
+     */
+    public long getMaxPause() {
+        return this.maxPause;
+    }
+
+    /**
+     * getter method
+     * @return - the duration 99% of the garbage collections stayed within, in nanoseconds
+     */
+    public long getP99Pause() {
+        return this.p99Pause;
+    }
+
+    /**
+     * getter method
+     * @return - the time spent in garbage collections, in nanoseconds
+     */
+    public double getTotalPause() {
+        return this.totalPause;
+    }
+
+    /**
+     * getter method
+     * @return - the native memory allocated through MemoryUtil that is still live, or -1 if it isn't tracked
+     */
+    public long getNativeBytes() {
+        return this.nativeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "alloc p50 %.1f KB, p95 %.1f KB, max %.1f KB per frame, %d GCs (%d frames, max %.2f ms, total %.2f ms)%s",
+                p50 / 1024.0, p95 / 1024.0, max / 1024.0, collections, framesWithCollections, maxPause / 1e6, totalPause / 1e6,
+                nativeBytes < 0 ? "" : String.format(Locale.ROOT, ", %.1f KB native", nativeBytes / 1024.0));
+    }
+}
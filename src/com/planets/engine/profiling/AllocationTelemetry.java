@@ -0,0 +1,211 @@
+package com.planets.engine.profiling;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryUtil;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AllocationTelemetry {
+
+    // the samples of each frame: the bytes the rendering thread allocated, and the collections that ended during it
+    private static final int BYTES = 0;
+    private static final int COLLECTIONS = 1;
+
+    // measures the bytes each thread allocated
+    private final com.sun.management.ThreadMXBean threads;
+
+    // the rendering thread, and the bytes it allocates just to ask how many bytes it allocated
+    private final long threadId;
+    private final long overhead;
+
+    // the frames measured so far, handed from the thread that renders to the one that reports
+    private final FrameSampleRing ring;
+    private final long[] frame = new long[2];
+    private final long[] drained = new long[2];
+
+    // the bytes allocated and the collections counted when the current frame began
+    private long frameBytes;
+    private long frameCollections;
+
+    // the collections that ended so far, counted by the thread that notifies about them
+    private final AtomicLong collections = new AtomicLong();
+
+    // the bytes allocated per frame and the collection durations in nanoseconds, since the last reset. a duration is
+    // the whole collection cycle, which for concurrent collectors like G1's concurrent cycles or ZGC is mostly spent
+    // alongside the application rather than paused
+    private final Histogram bytesPerFrame = new Histogram();
+    private final Histogram pauses = new Histogram();
+    private long framesWithCollections;
+
+    // the garbage collectors listened to, and the listener
+    private final ArrayList<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener listener = this::onNotification;
+
+    // the most bytes a frame may allocate once the first frames are over, or -1 for no limit
+    private long budget = -1;
+    private int warmupFrames;
+    private long frames;
+    private long framesOverBudget;
+    private String budgetFailure;
+
+    /**
+     * default constructor, to be called on the thread that renders
+     * @param capacity - the amount of frames that can be measured between reports before frames are dropped
+     */
+    public AllocationTelemetry(int capacity) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("This JVM can't measure the bytes a thread allocates.");
+        }
+        threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+
+        // asking allocates a little on some JVMs, which isn't counted against the frame
+        long first = threads.getThreadAllocatedBytes(threadId);
+        long second = threads.getThreadAllocatedBytes(threadId);
+        overhead = Math.max(0, second - first);
+
+        ring = new FrameSampleRing(frame.length, capacity);
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * makes frames that allocate too much fail, for running with a fixed scene in tests. endFrame reports the first
+     * frame over the budget, so the caller can stop and shut down before exiting
+     * @param bytes - the most bytes a frame may allocate
+     * @param warmupFrames - the amount of frames at the start that may allocate anything, while caches fill
+     */
+    public void failOverBudget(long bytes, int warmupFrames) {
+        if (bytes < 0 || warmupFrames < 0) {
+            throw new IllegalArgumentException("The allocation budget and the warmup can't be negative.");
+        }
+        this.budget = bytes;
+        this.warmupFrames = warmupFrames;
+    }
+
+    /**
+     * starts measuring a frame
+     */
+    public void beginFrame() {
+        frameCollections = collections.get();
+        frameBytes = threads.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * stops measuring the frame and hands it to the thread that reports, without allocating unless it's over the budget
+     * @return - false if a budget is set and the frame allocated more than it after the warmup, true otherwise
+     */
+    public boolean endFrame() {
+        long bytes = Math.max(0, threads.getThreadAllocatedBytes(threadId) - frameBytes - overhead);
+        frame[BYTES] = bytes;
+        frame[COLLECTIONS] = collections.get() - frameCollections;
+        ring.offer(frame);
+
+        frames++;
+        if (budget >= 0 && frames > warmupFrames && bytes > budget) {
+            framesOverBudget++;
+            if (budgetFailure == null) {
+                budgetFailure = "Frame " + frames + " allocated " + bytes + " bytes, over the budget of " + budget + " bytes.";
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * drains the measured frames and summarizes them
+     * @return - the allocations since the last reset
+     */
+    public synchronized AllocationStats snapshot() {
+        while (ring.poll(drained)) {
+            bytesPerFrame.record(drained[BYTES]);
+            if (drained[COLLECTIONS] > 0) {
+                framesWithCollections++;
+            }
+        }
+        return new AllocationStats(bytesPerFrame, framesWithCollections, pauses, nativeBytes());
+    }
+
+    /**
+     * forgets the frames and pauses summarized so far
+     */
+    public synchronized void reset() {
+        bytesPerFrame.reset();
+        pauses.reset();
+        framesWithCollections = 0;
+    }
+
+    /**
+     * stops listening to the garbage collectors
+     */
+    public void destroy() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (javax.management.ListenerNotFoundException e) {
+                // already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames that went over the budget after the warmup
+     */
+    public long getFramesOverBudget() {
+        return this.framesOverBudget;
+    }
+
+    /**
+     * getter method
+     * @return - why the first frame over the budget failed, or null if none has
+     */
+    public String getBudgetFailure() {
+        return this.budgetFailure;
+    }
+
+    /**
+     * helper method to count a collection, on the thread that notifies about it
+     */
+    private void onNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        collections.incrementAndGet();
+        synchronized (this) {
+            pauses.record(info.getGcInfo().getDuration() * 1000000);
+        }
+    }
+
+    /**
+     * helper method to sum the native memory allocated through MemoryUtil that is still live
+     * @return - the bytes, or -1 unless LWJGL's debug allocator is on (-Dorg.lwjgl.util.DebugAllocator=true)
+     */
+    private static long nativeBytes() {
+        if (!Configuration.DEBUG_MEMORY_ALLOCATOR.get(false)) {
+            return -1;
+        }
+        long[] total = new long[1];
+        MemoryUtil.memReport((address, memory, threadId, threadName, stacktrace) -> total[0] += memory,
+                MemoryUtil.MemoryAllocationReport.Aggregate.ALL, false);
+        return total[0];
+    }
+}
@@ -0,0 +1,278 @@
+package com.planets.engine.profiling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FrameProfiler {
+
+    // the scope every frame is, which every other scope is nested in
+    public static final int FRAME = 0;
+
+    // the amount of frames buffered between drains by default, a few seconds at 60 frames per second
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // a scope that wasn't entered in a frame
+    private static final long NOT_ENTERED = -1;
+
+    // the name and the parent of each scope
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<Integer> parents = new ArrayList<>();
+
+    // the amount of frames buffered between drains
+    private final int capacity;
+
+    // the frames measured so far, handed from the thread that renders to the one that drains
+    private volatile FrameSampleRing ring;
+
+    // the time spent in each scope during the current frame, and when the open scopes started
+    private long[] current;
+    private long[] starts;
+
+    // the open scopes, innermost last
+    private int[] stack;
+    private int depth;
+
+    // the parent of each scope and its depth, fixed once the first frame begins
+    private int[] parentOf;
+    private int[] depthOf;
+
+    // the time spent in each scope over the frames drained so far, only used by the thread that drains
+    private Histogram[] histograms;
+    private long[] drained;
+    private long frames;
+
+    /**
+     * default constructor
+     */
+    public FrameProfiler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * constructor for a specified buffer size
+     * @param capacity - the amount of frames that can be measured between drains before frames are dropped
+     */
+    public FrameProfiler(int capacity) {
+        this.capacity = capacity;
+        names.add("frame");
+        parents.add(-1);
+    }
+
+    /**
+     * adds a scope directly inside the frame
+     * @param name - the name of the scope
+     * @return - the scope
+     */
+    public int register(String name) {
+        return register(name, FRAME);
+    }
+
+    /**
+     * adds a scope, before the first frame begins
+     * @param name - the name of the scope
+     * @param parent - the scope it's always entered in
+     * @return - the scope
+     */
+    public synchronized int register(String name, int parent) {
+        if (ring != null) {
+            throw new IllegalStateException("Scopes must be registered before the first frame.");
+        }
+        if (parent < 0 || parent >= names.size()) {
+            throw new IllegalArgumentException("Unknown parent scope " + parent + ".");
+        }
+        names.add(name);
+        parents.add(parent);
+        return names.size() - 1;
+    }
+
+    /**
+     * starts measuring a frame
+     */
+    public void beginFrame() {
+        if (ring == null) {
+            start();
+        }
+        if (depth != 0) {
+            throw new IllegalStateException("The previous frame didn't end.");
+        }
+        Arrays.fill(current, NOT_ENTERED);
+        stack[depth++] = FRAME;
+        starts[FRAME] = System.nanoTime();
+    }
+
+    /**
+     * enters a scope
+     * @param scope - the scope, whose parent must be the innermost open scope
+     */
+    public void begin(int scope) {
+        if (depth == 0 || parentOf[scope] != stack[depth - 1]) {
+            throw new IllegalStateException("Scope " + names.get(scope) + " can only be entered in "
+                    + (scope == FRAME ? "nothing" : names.get(parentOf[scope])) + ".");
+        }
+        stack[depth++] = scope;
+        starts[scope] = System.nanoTime();
+    }
+
+    /**
+     * leaves a scope. a scope entered several times in a frame counts the time of each
+     * @param scope - the scope, which must be the innermost open scope
+     */
+    public void end(int scope) {
+        long now = System.nanoTime();
+        if (depth < 2 || stack[depth - 1] != scope) {
+            throw new IllegalStateException("Scope " + names.get(scope) + " isn't the innermost open scope.");
+        }
+        depth--;
+        current[scope] = Math.max(0, current[scope]) + now - starts[scope];
+    }
+
+    /**
+     * adds time measured some other way to a scope of the current frame, e.g. GPU time that is read back frames later
+     * @param scope - the scope, which doesn't need to be open
+     * @param nanos - the time
+     */
+    public void record(int scope, long nanos) {
+        if (depth == 0) {
+            throw new IllegalStateException("Time can only be recorded during a frame.");
+        }
+        current[scope] = Math.max(0, current[scope]) + nanos;
+    }
+
+    /**
+     * stops measuring the frame and hands it to the thread that drains, without blocking or allocating
+     */
+    public void endFrame() {
+        long now = System.nanoTime();
+        if (depth != 1) {
+            throw new IllegalStateException(depth == 0 ? "No frame began." : "Scope " + names.get(stack[depth - 1]) + " didn't end.");
+        }
+        depth = 0;
+        current[FRAME] = now - starts[FRAME];
+        ring.offer(current);
+    }
+
+    /**
+     * moves the measured frames into the histograms. only one thread may drain, which can be another than the one
+     * that renders
+     * @return - the amount of frames moved
+     */
+    public synchronized int drain() {
+        if (ring == null) {
+            return 0;
+        }
+        int moved = 0;
+        while (ring.poll(drained)) {
+            for (int scope = 0; scope < drained.length; scope++) {
+                if (drained[scope] != NOT_ENTERED) {
+                    histograms[scope].record(drained[scope]);
+                }
+            }
+            moved++;
+        }
+        frames += moved;
+        return moved;
+    }
+
+    /**
+     * drains the measured frames and summarizes every scope
+     * @return - one summary per scope, each scope after its parent
+     */
+    public synchronized List<ScopeStats> snapshot() {
+        drain();
+        ArrayList<ScopeStats> stats = new ArrayList<>();
+        addStats(FRAME, stats);
+        return stats;
+    }
+
+    /**
+     * forgets the frames drained so far, to summarize the next ones on their own
+     */
+    public synchronized void reset() {
+        if (histograms != null) {
+            for (Histogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+        frames = 0;
+    }
+
+    /**
+     * getter method
+     * @param scope - the scope
+     * @return - the time spent in the scope per frame it was entered in, over the frames drained since the last reset.
+     *           only safe to read while holding this profiler's lock
+     */
+    public synchronized Histogram getHistogram(int scope) {
+        return histograms == null ? new Histogram() : histograms[scope];
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames drained since the last reset
+     */
+    public synchronized long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames dropped because nothing drained them in time
+     */
+    public long getDroppedFrames() {
+        FrameSampleRing ring = this.ring;
+        return ring == null ? 0 : ring.getDropped();
+    }
+
+    /**
+     * getter method
+     * @param scope - the scope
+     * @return - the name of the scope
+     */
+    public synchronized String getName(int scope) {
+        return names.get(scope);
+    }
+
+    /**
+     * getter method
+     * @return - the amount of scopes, counting the frame
+     */
+    public synchronized int getScopeCount() {
+        return names.size();
+    }
+
+    /**
+     * helper method to fix the scopes and allocate everything a frame needs, so measuring never allocates
+     */
+    private synchronized void start() {
+        int count = names.size();
+        parentOf = new int[count];
+        depthOf = new int[count];
+        for (int scope = 0; scope < count; scope++) {
+            parentOf[scope] = parents.get(scope);
+            depthOf[scope] = scope == FRAME ? 0 : depthOf[parentOf[scope]] + 1;
+        }
+        current = new long[count];
+        starts = new long[count];
+        stack = new int[count];
+        drained = new long[count];
+        histograms = new Histogram[count];
+        for (int scope = 0; scope < count; scope++) {
+            histograms[scope] = new Histogram();
+        }
+        ring = new FrameSampleRing(count, capacity);
+    }
+
+    /**
+     * helper method to summarize a scope and then the scopes inside it
+     */
+    private void addStats(int scope, List<ScopeStats> stats) {
+        Histogram histogram = histograms == null ? new Histogram() : histograms[scope];
+        stats.add(new ScopeStats(names.get(scope), depthOf == null ? 0 : depthOf[scope], histogram));
+        for (int child = 0; child < names.size(); child++) {
+            if (parents.get(child) == scope) {
+                addStats(child, stats);
+            }
+        }
+    }
+}
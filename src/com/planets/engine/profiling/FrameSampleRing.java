@@ -0,0 +1,104 @@
+package com.planets.engine.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FrameSampleRing {
+
+    // the samples of each frame, one after the other
+    private final long[] samples;
+
+    // the amount of samples per frame, and the amount of frames that fit, a power of two
+    private final int stride;
+    private final int capacity;
+
+    // the amount of frames ever written, only changed by the thread that offers
+    private final AtomicLong head = new AtomicLong();
+
+    // the amount of frames ever read, only changed by the thread that polls
+    private final AtomicLong tail = new AtomicLong();
+
+    // the amount of frames that didn't fit, only changed by the thread that offers
+    private volatile long dropped;
+
+    /**
+     * default constructor
+     * @param stride - the amount of samples per frame
+     * @param capacity - the amount of frames that fit, rounded up to a power of two
+     */
+    public FrameSampleRing(int stride, int capacity) {
+        if (stride < 1 || capacity < 1) {
+            throw new IllegalArgumentException("A frame sample ring needs room for at least one sample.");
+        }
+        this.stride = stride;
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.samples = new long[this.capacity * stride];
+    }
+
+    /**
+     * copies a frame into the ring without blocking or allocating. only one thread may offer
+     * @param frame - the samples of the frame, stride of them
+     * @return - false if the ring was full, in which case the frame is dropped and counted
+     */
+    public boolean offer(long[] frame) {
+        long h = head.get();
+        if (h - tail.get() >= capacity) {
+            // only this thread writes it, so the increment can't race
+            dropped = dropped + 1;
+            return false;
+        }
+        System.arraycopy(frame, 0, samples, (int) (h & (capacity - 1)) * stride, stride);
+
+        // publish the frame after its samples
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * copies the oldest frame out of the ring without blocking or allocating. only one thread may poll
+     * @param frame - receives the samples of the frame, stride of them
+     * @return - false if the ring was empty
+     */
+    public boolean poll(long[] frame) {
+        long t = tail.get();
+        if (t == head.get()) {
+            return false;
+        }
+        System.arraycopy(samples, (int) (t & (capacity - 1)) * stride, frame, 0, stride);
+
+        // hand the slot back after its samples were read
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of samples per frame
+     */
+    public int getStride() {
+        return this.stride;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames that fit
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames waiting to be polled
+     */
+    public int getSize() {
+        return (int) (head.get() - tail.get());
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames dropped because the ring was full
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+}
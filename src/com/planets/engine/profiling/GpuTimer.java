@@ -0,0 +1,220 @@
+package com.planets.engine.profiling;
+
+import com.planets.engine.graphics.gl.GLBackend;
+import com.planets.engine.graphics.gl.Graphics;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class GpuTimer {
+
+    // the frames between timing a pass and reading its time, enough for the GPU to have finished it
+    public static final int DEFAULT_LATENCY = 3;
+
+    // the profiler the times are recorded in, and its scope for the GPU time of the whole frame
+    private final FrameProfiler profiler;
+    private final int gpuScope;
+
+    // the profiler scope of each pass, fixed in an array once the first frame begins
+    private final ArrayList<Integer> passScopes = new ArrayList<>();
+    private int[] scopes;
+
+    // the frames between timing a pass and reading its time, which is also the amount of frames of queries kept
+    private final int latency;
+
+    // the backend the queries were created with
+    private GLBackend gl;
+
+    // the queries of each frame in flight, the pass each one timed, and the amount used
+    private int[][] queries;
+    private int[][] passes;
+    private int[] used;
+
+    // the amount of frames begun, and the pass being timed, or -1
+    private int frame;
+    private int active = -1;
+
+    // the time of each pass in the frame being read
+    private long[] times;
+
+    // the amount of frames whose times were read, and the ones skipped because reading them would have waited
+    private long resolvedFrames;
+    private long missedFrames;
+
+    /**
+     * default constructor, which adds a scope for the GPU time of each frame to the profiler
+     * @param profiler - the profiler to record the times in, before its first frame
+     * @param latency - the frames between timing a pass and reading its time, at least 1
+     */
+    public GpuTimer(FrameProfiler profiler, int latency) {
+        if (latency < 1) {
+            throw new IllegalArgumentException("GPU times can't be read in the frame they are measured in.");
+        }
+        this.profiler = profiler;
+        this.latency = latency;
+        this.gpuScope = profiler.register("gpu");
+    }
+
+    /**
+     * adds a pass, before the first frame begins
+     * @param name - the name of the pass, which becomes a profiler scope inside the GPU scope
+     * @return - the pass
+     */
+    public int register(String name) {
+        if (queries != null) {
+            throw new IllegalStateException("Passes must be registered before the first frame.");
+        }
+        passScopes.add(profiler.register(name, gpuScope));
+        return passScopes.size() - 1;
+    }
+
+    /**
+     * starts a frame, after the profiler's frame began. the times of the frame that many frames ago are recorded
+     * if the GPU has finished it, and skipped otherwise, so this never waits
+     */
+    public void beginFrame() {
+        if (queries == null) {
+            start();
+        }
+        if (active != -1) {
+            throw new IllegalStateException("GPU pass " + active + " is still being timed.");
+        }
+        int slot = frame % latency;
+        resolve(slot);
+        used[slot] = 0;
+        frame++;
+    }
+
+    /**
+     * starts timing a pass. passes can't overlap, but a pass can be timed several times in a frame
+     * @param pass - the pass
+     */
+    public void begin(int pass) {
+        if (frame == 0) {
+            throw new IllegalStateException("No frame began.");
+        }
+        if (active != -1) {
+            throw new IllegalStateException("GPU pass " + active + " is still being timed.");
+        }
+        int slot = (frame - 1) % latency;
+        if (used[slot] == queries[slot].length) {
+            // grown once if a frame times more passes than ever before, then reused
+            int size = queries[slot].length;
+            queries[slot] = Arrays.copyOf(queries[slot], size * 2);
+            passes[slot] = Arrays.copyOf(passes[slot], size * 2);
+            for (int i = size; i < size * 2; i++) {
+                queries[slot][i] = gl.genQuery();
+            }
+        }
+        gl.beginQuery(GL33.GL_TIME_ELAPSED, queries[slot][used[slot]]);
+        passes[slot][used[slot]++] = pass;
+        active = pass;
+    }
+
+    /**
+     * stops timing a pass
+     * @param pass - the pass being timed
+     */
+    public void end(int pass) {
+        if (active != pass) {
+            throw new IllegalStateException("GPU pass " + pass + " isn't being timed.");
+        }
+        gl.endQuery(GL33.GL_TIME_ELAPSED);
+        active = -1;
+    }
+
+    /**
+     * deletes the queries
+     */
+    public void destroy() {
+        if (queries == null) {
+            return;
+        }
+        for (int[] slot : queries) {
+            for (int query : slot) {
+                gl.deleteQuery(query);
+            }
+        }
+        queries = null;
+    }
+
+    /**
+     * getter method
+     * @return - the frames between timing a pass and reading its time
+     */
+    public int getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames whose times were recorded
+     */
+    public long getResolvedFrames() {
+        return this.resolvedFrames;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames whose times were skipped because the GPU hadn't finished them
+     */
+    public long getMissedFrames() {
+        return this.missedFrames;
+    }
+
+    /**
+     * helper method to create the queries of every frame in flight
+     */
+    private void start() {
+        gl = Graphics.gl();
+        int size = Math.max(1, passScopes.size());
+        queries = new int[latency][size];
+        passes = new int[latency][size];
+        used = new int[latency];
+        times = new long[passScopes.size()];
+        scopes = new int[passScopes.size()];
+        for (int pass = 0; pass < scopes.length; pass++) {
+            scopes[pass] = passScopes.get(pass);
+        }
+        for (int[] slot : queries) {
+            for (int i = 0; i < size; i++) {
+                slot[i] = gl.genQuery();
+            }
+        }
+    }
+
+    /**
+     * helper method to record the times of the frame that used a slot, if they're available
+     */
+    private void resolve(int slot) {
+        int count = used[slot];
+        if (count == 0) {
+            return;
+        }
+
+        // queries finish in order, so the last one being available means they all are
+        if (gl.getQueryObjecti(queries[slot][count - 1], GL15.GL_QUERY_RESULT_AVAILABLE) == GL11.GL_FALSE) {
+            missedFrames++;
+            return;
+        }
+
+        Arrays.fill(times, -1);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            long time = gl.getQueryObjectui64(queries[slot][i], GL15.GL_QUERY_RESULT);
+            int pass = passes[slot][i];
+            times[pass] = Math.max(0, times[pass]) + time;
+            total += time;
+        }
+        for (int pass = 0; pass < times.length; pass++) {
+            if (times[pass] >= 0) {
+                profiler.record(scopes[pass], times[pass]);
+            }
+        }
+        profiler.record(gpuScope, total);
+        resolvedFrames++;
+    }
+}
@@ -0,0 +1,136 @@
+package com.planets.engine.profiling;
+
+import java.util.Arrays;
+
+public class Histogram {
+
+    // values below 2^SUB_BITS get a bucket each, and every power of two above is split into 2^(SUB_BITS - 1)
+    // buckets, so a value is never off by more than 1/64 of itself
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+
+    // enough buckets for any non-negative long
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    // the amount of values in each bucket
+    private final long[] counts = new long[BUCKETS];
+
+    // the amount of values, their sum and the extremes
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * counts a value
+     * @param value - the value, negative values are counted as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * adds the values of another histogram to this one
+     * @param other - the other histogram
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * forgets every value
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * getter method
+     * @param percentile - the share of values at or below the result, from 0 to 100
+     * @return - the highest value in the bucket the percentile falls in, never more than the largest value
+     *           counted, or 0 if nothing was counted
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, highest(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of values counted
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * getter method
+     * @return - the mean of the values, or 0 if nothing was counted
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * getter method
+     * @return - the smallest value counted, or 0 if nothing was counted
+     */
+    public long getMin() {
+        return count == 0 ? 0 : this.min;
+    }
+
+    /**
+     * getter method
+     * @return - the largest value counted
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * helper method to find the bucket of a value
+     */
+    private static int index(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        int sub = (int) (value >>> shift);
+        return shift == 0 ? sub : shift * HALF_COUNT + sub;
+    }
+
+    /**
+     * helper method to find the highest value that falls in a bucket
+     */
+    private static long highest(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / HALF_COUNT - 1;
+        long sub = index % HALF_COUNT + HALF_COUNT;
+        return (sub << shift) + ((1L << shift) - 1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.planets.engine.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ProfilerReporter {
+
+    // the profiler that is drained and reported
+    private final FrameProfiler profiler;
+
+    // the allocations reported alongside the frame times, or null
+    private AllocationTelemetry allocations;
+
+    // the file every report is appended to, or null to only log
+    private final Path csv;
+    private Writer writer;
+
+    // the time between reports
+    private final long periodMillis;
+
+    // runs the reports, away from the thread that renders
+    private ScheduledExecutorService executor;
+
+    // when the reporter started, which the times in the file count from, and when it last reported
+    private long startNanos;
+    private long lastNanos;
+
+    /**
+     * default constructor
+     * @param profiler - the profiler to drain and report
+     * @param csv - the file every report is appended to, or null to only log
+     * @param periodMillis - the time between reports, which is also how long each report covers
+     */
+    public ProfilerReporter(FrameProfiler profiler, Path csv, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("The report period must be positive.");
+        }
+        this.profiler = profiler;
+        this.csv = csv;
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * reports the allocations of the frames too, before starting
+     * @param allocations - the allocations to report and reset, or null for none
+     */
+    public synchronized void setAllocationTelemetry(AllocationTelemetry allocations) {
+        this.allocations = allocations;
+    }
+
+    /**
+     * starts reporting periodically
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            throw new IllegalStateException("The profiler reporter is already running.");
+        }
+        if (csv != null) {
+            try {
+                if (csv.getParent() != null) {
+                    Files.createDirectories(csv.getParent());
+                }
+                writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8);
+                writer.write("time_ms,scope,depth,frames,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+            } catch (IOException e) {
+                throw new RuntimeException("Could not create the profile at " + csv, e);
+            }
+        }
+
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Profiler reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * reports the frames measured since the last report and forgets them. called periodically once started, but can
+     * be called at any time
+     */
+    public synchronized void report() {
+        long now = System.nanoTime();
+        double seconds = (now - lastNanos) / 1e9;
+        lastNanos = now;
+        List<ScopeStats> stats = profiler.snapshot();
+        profiler.reset();
+        ScopeStats frame = stats.get(FrameProfiler.FRAME);
+        if (frame.getCount() == 0) {
+            return;
+        }
+
+        // the tail of each top level stage shows where a slow frame went, e.g. whether it was CPU or GPU bound
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT,
+                "%.1f fps, frame p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, %d dropped",
+                frame.getCount() / seconds, frame.getP50() / 1e6, frame.getP95() / 1e6, frame.getP99() / 1e6,
+                frame.getMax() / 1e6, profiler.getDroppedFrames()));
+        for (ScopeStats scope : stats) {
+            if (scope.getDepth() == 1 && scope.getCount() > 0) {
+                line.append(String.format(Locale.ROOT, "; %s p95 %.2f ms", scope.getName(), scope.getP95() / 1e6));
+            }
+        }
+        if (allocations != null) {
+            line.append("; ").append(allocations.snapshot());
+            allocations.reset();
+        }
+        System.out.println(line);
+
+        if (writer != null) {
+            long time = (now - startNanos) / 1000000;
+            try {
+                for (ScopeStats scope : stats) {
+                    writer.write(String.format(Locale.ROOT, "%d,%s,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f\n",
+                            time, scope.getName(), scope.getDepth(), scope.getCount(), scope.getMean() / 1e6,
+                            scope.getP50() / 1e6, scope.getP95() / 1e6, scope.getP99() / 1e6, scope.getMax() / 1e6));
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // keep rendering, but stop writing a profile that can't be written
+                System.err.println("Could not write the profile to " + csv + ": " + e.getMessage());
+                closeWriter();
+            }
+        }
+    }
+
+    /**
+     * stops reporting, after reporting the frames not reported yet
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+        report();
+        closeWriter();
+    }
+
+    /**
+     * helper method to close the file, if it's open
+     */
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the profile at " + csv + ": " + e.getMessage());
+        }
+        writer = null;
+    }
+}
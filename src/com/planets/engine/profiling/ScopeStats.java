@@ -0,0 +1,107 @@
+package com.planets.engine.profiling;
+
+import java.util.Locale;
+
+public class ScopeStats {
+
+    // the name of the scope and how deep it's nested, 0 for the frame
+    private final String name;
+    private final int depth;
+
+    // the amount of frames the scope was entered in
+    private final long count;
+
+    // the time spent in the scope per frame, in nanoseconds
+    private final double mean;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long max;
+
+    /**
+     * default constructor
+     * @param name - the name of the scope
+     * @param depth - how deep the scope is nested, 0 for the frame
+     * @param histogram - the time spent in the scope per frame, which is only read here
+     */
+    public ScopeStats(String name, int depth, Histogram histogram) {
+        this.name = name;
+        this.depth = depth;
+        this.count = histogram.getCount();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getPercentile(50);
+        this.p95 = histogram.getPercentile(95);
+        this.p99 = histogram.getPercentile(99);
+        this.max = histogram.getMax();
+    }
+
+    /**
+     * getter method
+     * @return - the name of the scope
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * getter method
+     * @return - how deep the scope is nested, 0 for the frame
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of frames the scope was entered in
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * getter method
+     * @return - the mean time spent in the scope per frame, in nanoseconds
+     */
+    public double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * getter method
+     * @return - the median time spent in the scope per frame, in nanoseconds
+     */
+    public long getP50() {
+        return this.p50;
+    }
+
+    /**
+     * getter method
+     * @return - the time 95% of the frames stayed within, in nanoseconds
+     */
+    public long getP95() {
+        return this.p95;
+    }
+
+    /**
+     * getter method
+     * @return - the time 99% of the frames stayed within, in nanoseconds
+     */
+    public long getP99() {
+        return this.p99;
+    }
+
+    /**
+     * getter method
+     * @return - the longest time spent in the scope in one frame, in nanoseconds
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s%s: %d frames, mean %.3f ms, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms",
+                "  ".repeat(depth), name, count, mean / 1e6, p50 / 1e6, p95 / 1e6, p99 / 1e6, max / 1e6);
+    }
+}
@@ -0,0 +1,137 @@
+package com.planets.engine.simulation;
+
+public class FixedTimestep {
+
+    // the simulation that is stepped
+    private final Simulation simulation;
+
+    // the time of each step, and the most steps taken to catch up in one advance
+    private final long stepNanos;
+    private final int maxSteps;
+
+    // the time waiting to be simulated, counted in whole nanoseconds so the steps never depend on rounding
+    private long accumulator;
+
+    // the states before and after the last step
+    private SimulationState previous;
+    private SimulationState current;
+
+    // the amount of steps taken, and the time dropped because it couldn't be caught up with
+    private long steps;
+    private long droppedNanos;
+
+    /**
+     * default constructor, which captures the starting state
+     * @param simulation - the simulation to step
+     * @param stepNanos - the time of each step
+     * @param maxSteps - the most steps taken in one advance, after which the rest of the time is dropped rather than
+     *                   falling further behind
+     */
+    public FixedTimestep(Simulation simulation, long stepNanos, int maxSteps) {
+        if (stepNanos <= 0 || maxSteps <= 0) {
+            throw new IllegalArgumentException("The step and the most steps per advance must be positive.");
+        }
+        this.simulation = simulation;
+        this.stepNanos = stepNanos;
+        this.maxSteps = maxSteps;
+        this.previous = new SimulationState(simulation.getBodyCount());
+        this.current = new SimulationState(simulation.getBodyCount());
+        simulation.capture(current);
+        previous.copy(current);
+    }
+
+    /**
+     * takes every step that fits in the time waiting to be simulated
+     * @param elapsedNanos - the time since the last advance, e.g. of the last frame
+     * @return - the amount of steps taken
+     */
+    public int advance(long elapsedNanos) {
+        if (elapsedNanos < 0) {
+            throw new IllegalArgumentException("Time can't go backwards.");
+        }
+        accumulator += elapsedNanos;
+        int taken = 0;
+        while (accumulator >= stepNanos && taken < maxSteps) {
+            SimulationState swap = previous;
+            previous = current;
+            current = swap;
+            simulation.step(stepNanos / 1e9);
+            simulation.capture(current);
+            accumulator -= stepNanos;
+            taken++;
+        }
+
+        // a frame too long to catch up with slows the simulation down instead of making every next frame longer
+        if (accumulator >= stepNanos) {
+            long dropped = accumulator - accumulator % stepNanos;
+            droppedNanos += dropped;
+            accumulator -= dropped;
+        }
+        steps += taken;
+        return taken;
+    }
+
+    /**
+     * sets a state between the last two steps, by how much of the next step has passed
+     * @param state - the state to set
+     */
+    public void interpolate(SimulationState state) {
+        state.interpolate(previous, current, getAlpha());
+    }
+
+    /**
+     * getter method
+     * @return - how much of the next step has passed, 0 to 1
+     */
+    public float getAlpha() {
+        return (float) ((double) accumulator / stepNanos);
+    }
+
+    /**
+     * getter method
+     * @return - the state before the last step
+     */
+    public SimulationState getPrevious() {
+        return this.previous;
+    }
+
+    /**
+     * getter method
+     * @return - the state after the last step
+     */
+    public SimulationState getCurrent() {
+        return this.current;
+    }
+
+    /**
+     * getter method
+     * @return - the time waiting to be simulated, less than a step
+     */
+    public long getAccumulator() {
+        return this.accumulator;
+    }
+
+    /**
+     * getter method
+     * @return - the time of each step
+     */
+    public long getStepNanos() {
+        return this.stepNanos;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of steps taken
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * getter method
+     * @return - the time dropped because advances fell too far behind
+     */
+    public long getDroppedNanos() {
+        return this.droppedNanos;
+    }
+}
@@ -0,0 +1,22 @@
+package com.planets.engine.simulation;
+
+public interface Simulation {
+
+    /**
+     * getter method
+     * @return - the amount of bodies whose transforms are captured, which doesn't change once stepping starts
+     */
+    int getBodyCount();
+
+    /**
+     * advances the simulation. the same steps from the same start must always give the same state
+     * @param dt - the time to advance by in seconds, always the same fixed step
+     */
+    void step(double dt);
+
+    /**
+     * writes the transform of every body
+     * @param state - the state to write to, with room for every body
+     */
+    void capture(SimulationState state);
+}
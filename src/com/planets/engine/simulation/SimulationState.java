@@ -0,0 +1,133 @@
+package com.planets.engine.simulation;
+
+import com.planets.engine.objects.RenderObject;
+
+import java.util.List;
+
+public class SimulationState {
+
+    // the position and the rotation in degrees of each body, 3 floats per body
+    private final float[] positions;
+    private final float[] rotations;
+
+    // the amount of bodies
+    private final int bodyCount;
+
+    /**
+     * default constructor
+     * @param bodyCount - the amount of bodies
+     */
+    public SimulationState(int bodyCount) {
+        this.bodyCount = bodyCount;
+        this.positions = new float[bodyCount * 3];
+        this.rotations = new float[bodyCount * 3];
+    }
+
+    /**
+     * sets the position of a body
+     * @param body - the body
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     */
+    public void setPosition(int body, float x, float y, float z) {
+        positions[body * 3] = x;
+        positions[body * 3 + 1] = y;
+        positions[body * 3 + 2] = z;
+    }
+
+    /**
+     * sets the rotation of a body
+     * @param body - the body
+     * @param x - the x rotation in degrees
+     * @param y - the y rotation in degrees
+     * @param z - the z rotation in degrees
+     */
+    public void setRotation(int body, float x, float y, float z) {
+        rotations[body * 3] = x;
+        rotations[body * 3 + 1] = y;
+        rotations[body * 3 + 2] = z;
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @param c - the component, 0 to 2
+     * @return - a component of the position of the body
+     */
+    public float getPosition(int body, int c) {
+        return positions[body * 3 + c];
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @param c - the component, 0 to 2
+     * @return - a component of the rotation of the body in degrees
+     */
+    public float getRotation(int body, int c) {
+        return rotations[body * 3 + c];
+    }
+
+    /**
+     * getter method
+     * @return - the amount of bodies
+     */
+    public int getBodyCount() {
+        return this.bodyCount;
+    }
+
+    /**
+     * copies another state into this one
+     * @param state - the state, with the same amount of bodies
+     */
+    public void copy(SimulationState state) {
+        checkSize(state);
+        System.arraycopy(state.positions, 0, positions, 0, positions.length);
+        System.arraycopy(state.rotations, 0, rotations, 0, rotations.length);
+    }
+
+    /**
+     * sets this state between two others. rotations turn the short way, so angles wrapped around 360 degrees between
+     * the two states don't spin backwards
+     * @param previous - the state at alpha 0
+     * @param next - the state at alpha 1
+     * @param alpha - how far from the previous state to the next one, 0 to 1
+     */
+    public void interpolate(SimulationState previous, SimulationState next, float alpha) {
+        checkSize(previous);
+        checkSize(next);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = previous.positions[i] + (next.positions[i] - previous.positions[i]) * alpha;
+        }
+        for (int i = 0; i < rotations.length; i++) {
+            float delta = next.rotations[i] - previous.rotations[i];
+            delta -= 360 * (float) Math.floor((delta + 180) / 360);
+            rotations[i] = previous.rotations[i] + delta * alpha;
+        }
+    }
+
+    /**
+     * writes the transforms into objects, without allocating
+     * @param objects - one object per body, in the order of the bodies
+     */
+    public void apply(List<? extends RenderObject> objects) {
+        if (objects.size() != bodyCount) {
+            throw new IllegalArgumentException("Expected " + bodyCount + " objects, got " + objects.size() + ".");
+        }
+        for (int body = 0; body < bodyCount; body++) {
+            RenderObject object = objects.get(body);
+            object.getPosition().set(positions[body * 3], positions[body * 3 + 1], positions[body * 3 + 2]);
+            object.getRotation().set(rotations[body * 3], rotations[body * 3 + 1], rotations[body * 3 + 2]);
+        }
+    }
+
+    /**
+     * helper method to check another state holds as many bodies
+     */
+    private void checkSize(SimulationState state) {
+        if (state.bodyCount != bodyCount) {
+            throw new IllegalArgumentException("States of " + state.bodyCount + " and " + bodyCount + " bodies don't match.");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.planets.engine.simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationThread implements Runnable {
+
+    // the steps taken on this thread
+    private final FixedTimestep timestep;
+
+    // the snapshot being read by the thread that renders, and the one being written by this thread
+    private Snapshot front;
+    private Snapshot back;
+
+    // the thread the simulation is stepped on, or null if it isn't running
+    private Thread thread;
+    private volatile boolean running;
+
+    // the exception that stopped the simulation, or null
+    private volatile RuntimeException failure;
+
+    /**
+     * default constructor. the simulation must only be touched by this thread once it starts
+     * @param simulation - the simulation to step
+     * @param stepNanos - the time of each step
+     * @param maxSteps - the most steps taken to catch up at once, after which the rest of the time is dropped
+     */
+    public SimulationThread(Simulation simulation, long stepNanos, int maxSteps) {
+        this.timestep = new FixedTimestep(simulation, stepNanos, maxSteps);
+        this.front = new Snapshot(simulation.getBodyCount());
+        this.back = new Snapshot(simulation.getBodyCount());
+        front.previous.copy(timestep.getPrevious());
+        front.current.copy(timestep.getCurrent());
+        front.nanos = System.nanoTime();
+    }
+
+    /**
+     * starts stepping the simulation in real time
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("The simulation is already running.");
+        }
+        running = true;
+        thread = new Thread(this, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * stops stepping the simulation and waits for the last step to finish
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+            this.thread = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * steps the simulation as time passes, publishing a snapshot after every advance that took a step
+     */
+    @Override
+    public void run() {
+        try {
+            long last = System.nanoTime();
+            while (running) {
+                long now = System.nanoTime();
+                if (timestep.advance(now - last) > 0) {
+                    // the newest state belongs to the time its step ended, not to when it was computed
+                    publish(now - timestep.getAccumulator());
+                }
+                last = now;
+                LockSupport.parkNanos(timestep.getStepNanos() - timestep.getAccumulator());
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * sets a state between the last two published steps, by how much of the next step has passed
+     * @param state - the state to set
+     * @param nowNanos - the current time, from System.nanoTime()
+     * @throws IllegalStateException - if the simulation failed
+     */
+    public void interpolate(SimulationState state, long nowNanos) {
+        RuntimeException failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("The simulation failed.", failure);
+        }
+        synchronized (this) {
+            float alpha = (float) ((double) (nowNanos - front.nanos) / timestep.getStepNanos());
+            state.interpolate(front.previous, front.current, Math.max(0, Math.min(1, alpha)));
+        }
+    }
+
+    /**
+     * getter method
+     * @return - the amount of steps taken, read without synchronization
+     */
+    public long getSteps() {
+        return timestep.getSteps();
+    }
+
+    /**
+     * helper method to copy the last two states into the back snapshot and swap it to the front
+     */
+    private void publish(long nanos) {
+        back.previous.copy(timestep.getPrevious());
+        back.current.copy(timestep.getCurrent());
+        back.nanos = nanos;
+        synchronized (this) {
+            Snapshot swap = front;
+            front = back;
+            back = swap;
+        }
+    }
+
+    /**
+     * the states before and after a step, and the time the step ended
+     */
+    private static class Snapshot {
+
+        private final SimulationState previous;
+        private final SimulationState current;
+        private long nanos;
+
+        private Snapshot(int bodyCount) {
+            previous = new SimulationState(bodyCount);
+            current = new SimulationState(bodyCount);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.planets.engine.simulation;
+
+import com.planets.engine.math.Vector3f;
+
+import java.util.Arrays;
+
+public class SpinSimulation implements Simulation {
+
+    // the position, the rotation in degrees and the spin in degrees per second of each body, 3 per body
+    private float[] positions = new float[0];
+    private double[] rotations = new double[0];
+    private float[] spins = new float[0];
+
+    // the amount of bodies
+    private int bodyCount;
+
+    /**
+     * adds a body that stays in place and spins at a constant rate
+     * @param position - the position of the body
+     * @param rotation - the starting rotation in degrees
+     * @param spin - the change in rotation in degrees per second
+     * @return - the body
+     */
+    public int add(Vector3f position, Vector3f rotation, Vector3f spin) {
+        positions = Arrays.copyOf(positions, (bodyCount + 1) * 3);
+        rotations = Arrays.copyOf(rotations, (bodyCount + 1) * 3);
+        spins = Arrays.copyOf(spins, (bodyCount + 1) * 3);
+        for (int c = 0; c < 3; c++) {
+            positions[bodyCount * 3 + c] = position.get(c);
+            rotations[bodyCount * 3 + c] = wrap(rotation.get(c));
+            spins[bodyCount * 3 + c] = spin.get(c);
+        }
+        return bodyCount++;
+    }
+
+    @Override
+    public int getBodyCount() {
+        return this.bodyCount;
+    }
+
+    @Override
+    public void step(double dt) {
+        // kept in doubles and wrapped, so precision doesn't drain away as the angles grow
+        for (int i = 0; i < rotations.length; i++) {
+            rotations[i] = wrap(rotations[i] + spins[i] * dt);
+        }
+    }
+
+    @Override
+    public void capture(SimulationState state) {
+        for (int body = 0; body < bodyCount; body++) {
+            state.setPosition(body, positions[body * 3], positions[body * 3 + 1], positions[body * 3 + 2]);
+            state.setRotation(body, (float) rotations[body * 3], (float) rotations[body * 3 + 1], (float) rotations[body * 3 + 2]);
+        }
+    }
+
+    /**
+     * helper method to wrap an angle into [0, 360)
+     */
+    private static double wrap(double degrees) {
+        double wrapped = degrees % 360;
+        return wrapped < 0 ? wrapped + 360 : wrapped;
+    }
+}
@@ -0,0 +1,430 @@
+package com.planets.planets;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.mesh_optimization.MeshOptimizer;
+import com.planets.engine.graphics.mesh_optimization.OptimizedMesh;
+import com.planets.engine.io.mesh_export.MeshExporter;
+import com.planets.engine.io.mesh_io.MeshFormat;
+import com.planets.engine.io.mesh_io.MeshHeader;
+import com.planets.engine.io.mesh_io.MeshWriter;
+import com.planets.engine.math.noise.CubeMapHeightfield;
+import com.planets.engine.math.noise.TerrainSampler;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import com.planets.planets.universe.planets.PlanetSurface;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchGenerator {
+
+    // the options and their defaults
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: BatchGenerator [options]",
+            "  --seed <n>          the first seed (default 0)",
+            "  --count <n>         the amount of planets, one per seed (default 16)",
+            "  --depth <n>         the amount of times to subdivide (default " + PlanetSpec.DEFAULT_DEPTH + ")",
+            "  --radius <r>        the radius of every planet (default " + PlanetSpec.DEFAULT_RADIUS + ")",
+            "  --heightfield <n>   bake the terrain at this resolution first, 0 to sample it directly (default 0)",
+            "  --threads <n>       the amount of workers (default: one per processor)",
+            "  --format <f>        plmf, plmf-lz4, plmf-deflate, obj, ply or glb (default plmf)",
+            "  --indexed <b>       share vertices between faces and optimize the order for the GPU caches (default false)",
+            "  --out <dir>         the directory to write to (default planets)");
+
+    // the amount of points the baked terrain of the first planet is checked at
+    private static final int HEIGHTFIELD_SAMPLES = 4096;
+
+    // one generated planet, for the catalog
+    private static class Entry {
+        final String file;
+        final int vertices;
+        final int indices;
+        final long bytes;
+        final MeshHeader header; // null for exported formats
+        final OptimizedMesh optimized; // null unless indexed
+
+        Entry(String file, int vertices, int indices, long bytes, MeshHeader header, OptimizedMesh optimized) {
+            this.file = file;
+            this.vertices = vertices;
+            this.indices = indices;
+            this.bytes = bytes;
+            this.header = header;
+            this.optimized = optimized;
+        }
+    }
+
+    /**
+     * generates planets for a range of seeds across a pool of workers and writes them to files. nothing here opens
+     * a window or touches OpenGL, so it runs on machines without a display
+     * @param args - see USAGE
+     */
+    public static void main(String[] args) {
+        // every malformed or out of range option is reported with the usage, instead of failing later
+        long firstSeed;
+        int count, depth, heightfield, threads;
+        float radius;
+        String format;
+        boolean indexed;
+        Path out;
+        try {
+            Map<String, String> options = parse(args);
+            firstSeed = longOption(options, "seed", 0);
+            count = intOption(options, "count", 16, 1);
+            depth = intOption(options, "depth", PlanetSpec.DEFAULT_DEPTH, 0);
+            radius = floatOption(options, "radius", PlanetSpec.DEFAULT_RADIUS);
+            heightfield = intOption(options, "heightfield", 0, 0);
+            threads = intOption(options, "threads", Runtime.getRuntime().availableProcessors(), 1);
+            format = options.getOrDefault("format", "plmf");
+            indexed = booleanOption(options, "indexed", false);
+            out = Paths.get(options.getOrDefault("out", "planets"));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        MeshFormat.Compression compression = compressionOf(format);
+        MeshExporter exporter = MeshExporter.of(format);
+        if (compression == null && exporter == null) {
+            System.err.println("Unknown format " + format);
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            Files.createDirectories(out);
+            run(firstSeed, count, new PlanetSpec(0, depth, radius, heightfield), threads, compression, exporter, indexed, out);
+        } catch (IOException | ExecutionException e) {
+            System.err.println("Batch generation failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * generates and writes the planets
+     * @param firstSeed - the first seed
+     * @param count - the amount of planets
+     * @param template - the generation parameters shared by every planet, the seed is replaced
+     * @param threads - the amount of workers
+     * @param compression - how the mesh files are stored, or null to export them instead
+     * @param exporter - the format to export to, if compression is null
+     * @param indexed - whether to share vertices between faces and optimize the mesh
+     * @param out - the directory to write to
+     */
+    private static void run(long firstSeed, int count, PlanetSpec template, int threads, MeshFormat.Compression compression,
+                            MeshExporter exporter, boolean indexed, Path out)
+            throws IOException, ExecutionException, InterruptedException {
+        GenerationTimings total = new GenerationTimings();
+        ConcurrentSkipListMap<Long, Entry> catalog = new ConcurrentSkipListMap<>();
+
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                long seed = firstSeed + i;
+                tasks.add(workers.submit(() -> {
+                    GenerationTimings timings = new GenerationTimings();
+                    PlanetSpec spec = new PlanetSpec(seed, template.getDepth(), template.getRadius(), template.getHeightfieldResolution());
+                    catalog.put(seed, indexed
+                            ? generateIndexed(spec, compression, exporter, out, timings)
+                            : compression != null
+                            ? generate(spec, compression, out, timings)
+                            : export(spec, exporter, out, timings));
+                    total.add(timings);
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        writeCatalog(out.resolve("catalog.csv"), catalog);
+
+        long bytes = 0;
+        double acmrBefore = 0, acmrAfter = 0;
+        for (Entry entry : catalog.values()) {
+            bytes += entry.bytes;
+            if (entry.optimized != null) {
+                acmrBefore += entry.optimized.getAcmrBefore() / count;
+                acmrAfter += entry.optimized.getAcmrAfter() / count;
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d planets in %.2f s (%.1f planets/s, %d workers), %.1f MB written to %s%n",
+                count, seconds, count / seconds, threads, bytes / 1e6, out.toAbsolutePath());
+        if (indexed) {
+            System.out.printf(Locale.ROOT, "mean ACMR %.3f -> %.3f (%d-entry FIFO)%n", acmrBefore, acmrAfter, MeshOptimizer.SIMULATED_CACHE_SIZE);
+        }
+        if (template.getHeightfieldResolution() > 0) {
+            PlanetSpec first = new PlanetSpec(firstSeed, template.getDepth(), template.getRadius(), template.getHeightfieldResolution());
+            System.out.println(reportHeightfield(first));
+        }
+        System.out.println("time per stage, summed over all workers:");
+        System.out.print(total.report());
+    }
+
+    /**
+     * bakes the terrain of a planet and compares it against sampling the terrain directly, to show what the
+     * heightfield resolution costs in accuracy and memory
+     * @param spec - the generation parameters, with a heightfield
+     * @return - a one line report
+     */
+    private static String reportHeightfield(PlanetSpec spec) {
+        CubeMapHeightfield baked = (CubeMapHeightfield) Planet.createTerrain(spec);
+        TerrainSampler reference = Planet.createTerrain(spec.withHeightfieldResolution(0));
+        return baked.report(reference, HEIGHTFIELD_SAMPLES);
+    }
+
+    /**
+     * generates and writes one planet
+     * @param spec - the generation parameters
+     * @param compression - how the mesh file is stored
+     * @param out - the directory to write to
+     * @param timings - the time spent in each stage is added to these
+     * @return - the catalog entry of the planet
+     */
+    private static Entry generate(PlanetSpec spec, MeshFormat.Compression compression, Path out, GenerationTimings timings) throws IOException {
+        Mesh mesh = Planet.generateMesh(spec, timings);
+        MeshHeader header = write(mesh, spec, compression, out, timings);
+        String name = name(spec, "plmf");
+        return new Entry(name, header.getVertexCount(), header.getIndexCount(), Files.size(out.resolve(name)), header, null);
+    }
+
+    /**
+     * generates one planet with shared vertices, optimizes it for the GPU caches and writes or exports it
+     * @param spec - the generation parameters
+     * @param compression - how the mesh file is stored, or null to export it instead
+     * @param exporter - the format to export to, if compression is null
+     * @param out - the directory to write to
+     * @param timings - the time spent in each stage is added to these
+     * @return - the catalog entry of the planet
+     */
+    private static Entry generateIndexed(PlanetSpec spec, MeshFormat.Compression compression, MeshExporter exporter,
+                                         Path out, GenerationTimings timings) throws IOException {
+        PlanetSurface surface = Planet.generateSurface(spec, timings);
+
+        long start = System.nanoTime();
+        Mesh indexed = surface.toIndexedMesh();
+        start = timings.record(GenerationTimings.Stage.COLOR, start);
+
+        OptimizedMesh optimized = MeshOptimizer.optimize(indexed);
+        timings.record(GenerationTimings.Stage.OPTIMIZE, start);
+        Mesh mesh = optimized.getMesh();
+
+        MeshHeader header = null;
+        String name;
+        if (compression != null) {
+            name = name(spec, "plmf");
+            header = write(mesh, spec, compression, out, timings);
+        } else {
+            name = name(spec, exporter.getExtension());
+            start = System.nanoTime();
+            exporter.export(mesh, out.resolve(name));
+            timings.record(GenerationTimings.Stage.WRITE, start);
+            timings.countPlanet();
+        }
+        return new Entry(name, mesh.getVertexCount(), mesh.getIndexCount(), Files.size(out.resolve(name)), header, optimized);
+    }
+
+    /**
+     * packs a mesh and writes it to a mesh file
+     * @param mesh - the mesh
+     * @param spec - the generation parameters, which name the file
+     * @param compression - how the mesh file is stored
+     * @param out - the directory to write to
+     * @param timings - the time spent in each stage is added to these
+     * @return - the header that was written
+     */
+    private static MeshHeader write(Mesh mesh, PlanetSpec spec, MeshFormat.Compression compression, Path out,
+                                    GenerationTimings timings) throws IOException {
+        // packed once here, and written from the same arrays
+        long start = System.nanoTime();
+        float[] positions = mesh.packPositions();
+        float[] colors = mesh.packColors();
+        float[] normals = mesh.packNormals();
+        int[] indices = mesh.getIndices();
+        start = timings.record(GenerationTimings.Stage.PACK, start);
+
+        Path file = out.resolve(name(spec, "plmf"));
+        MeshHeader header;
+        try (MeshWriter writer = new MeshWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), compression)) {
+            header = writer.write(positions, colors, normals, indices, mesh.getMode());
+        }
+        timings.record(GenerationTimings.Stage.WRITE, start);
+        timings.countPlanet();
+        return header;
+    }
+
+    /**
+     * generates one planet and streams it straight into an exported file. the vertices are computed while they
+     * are written, so coloring is counted as part of writing
+     * @param spec - the generation parameters
+     * @param exporter - the format
+     * @param out - the directory to write to
+     * @param timings - the time spent in each stage is added to these
+     * @return - the catalog entry of the planet
+     */
+    private static Entry export(PlanetSpec spec, MeshExporter exporter, Path out, GenerationTimings timings) throws IOException {
+        PlanetSurface surface = Planet.generateSurface(spec, timings);
+
+        long start = System.nanoTime();
+        String name = name(spec, exporter.getExtension());
+        Path file = out.resolve(name);
+        exporter.export(surface, file);
+        timings.record(GenerationTimings.Stage.WRITE, start);
+        timings.countPlanet();
+
+        return new Entry(name, surface.getVertexCount(), surface.getIndexCount(), Files.size(file), null, null);
+    }
+
+    /**
+     * writes one line per planet, so the files can be found without opening them
+     */
+    private static void writeCatalog(Path path, Map<Long, Entry> catalog) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("seed,file,vertices,indices,bytes,center_x,center_y,center_z,radius,acmr_before,acmr_after\n");
+            for (Map.Entry<Long, Entry> e : catalog.entrySet()) {
+                Entry entry = e.getValue();
+                out.write(String.format(Locale.ROOT, "%d,%s,%d,%d,%d,", e.getKey(), entry.file, entry.vertices, entry.indices, entry.bytes));
+                MeshHeader h = entry.header;
+                out.write(h == null ? ",,,," : String.format(Locale.ROOT, "%f,%f,%f,%f,",
+                        h.getCenter().getX(), h.getCenter().getY(), h.getCenter().getZ(), h.getRadius()));
+                OptimizedMesh o = entry.optimized;
+                out.write(o == null ? ",\n" : String.format(Locale.ROOT, "%f,%f\n", o.getAcmrBefore(), o.getAcmrAfter()));
+            }
+        }
+    }
+
+    /**
+     * helper method to name the file of a planet
+     */
+    private static String name(PlanetSpec spec, String extension) {
+        return "planet_" + spec.getSeed() + "." + extension;
+    }
+
+    /**
+     * helper method to map a format name to a compression method
+     */
+    private static MeshFormat.Compression compressionOf(String format) {
+        switch (format) {
+            case "plmf":
+                return MeshFormat.Compression.NONE;
+            case "plmf-lz4":
+                return MeshFormat.Compression.LZ4;
+            case "plmf-deflate":
+                return MeshFormat.Compression.DEFLATE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * helper method to read a whole number option
+     */
+    private static int intOption(Map<String, String> options, String name, int fallback, int min) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number, not " + value);
+        }
+        if (parsed < min) {
+            throw new IllegalArgumentException("--" + name + " must be at least " + min + ", not " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * helper method to read a seed option
+     */
+    private static long longOption(Map<String, String> options, String name, long fallback) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number, not " + value);
+        }
+    }
+
+    /**
+     * helper method to read a positive size option
+     */
+    private static float floatOption(Map<String, String> options, String name, float fallback) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        float parsed;
+        try {
+            parsed = Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number, not " + value);
+        }
+        if (!(parsed > 0) || Float.isInfinite(parsed)) {
+            throw new IllegalArgumentException("--" + name + " must be positive, not " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * helper method to read a true or false option, where anything else is a mistake rather than false
+     */
+    private static boolean booleanOption(Map<String, String> options, String name, boolean fallback) {
+        String value = options.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException("--" + name + " must be true or false, not " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * helper method to read "--name value" pairs
+     */
+    private static Map<String, String> parse(String[] args) {
+        HashMap<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -3,14 +3,32 @@ package com.planets.planets;
 import com.planets.engine.graphics.Camera;
 import com.planets.engine.graphics.Renderer;
 import com.planets.engine.graphics.Shader;
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.indirect.IndirectRenderer;
+import com.planets.engine.graphics.streaming.GLStreamingBackend;
+import com.planets.engine.io.mesh_cache.MeshCache;
 import com.planets.engine.io.window.Input;
 import com.planets.engine.io.window.Window;
 import com.planets.engine.math.Vector3f;
+import com.planets.engine.objects.RenderObject;
+import com.planets.engine.profiling.AllocationTelemetry;
+import com.planets.engine.profiling.FrameProfiler;
+import com.planets.engine.profiling.GpuTimer;
+import com.planets.engine.profiling.ProfilerReporter;
+import com.planets.engine.simulation.FixedTimestep;
+import com.planets.engine.simulation.SimulationState;
+import com.planets.engine.simulation.SimulationThread;
+import com.planets.engine.simulation.SpinSimulation;
+import com.planets.planets.universe.PlanetSpec;
 import com.planets.planets.universe.atmosphere.Atmosphere;
 import com.planets.planets.universe.planets.Planet;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL46;
 
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 public class Main implements Runnable {
@@ -22,8 +40,36 @@ public class Main implements Runnable {
     private final Window window = new Window(input); // the window to render to
     private Shader shader; // the shader to use to render
     private Renderer renderer;// the object renderer
+    private Shader indirectShader; // the shader that reads each draw's data from a storage buffer, with -Dplanets.indirect
+    private IndirectRenderer indirectRenderer; // draws every planet in the arena with one call, null unless -Dplanets.indirect
+    private static final int EXPECTED_DRAWS = 1024; // the draws the indirect renderer makes room for up front
     private final Vector3f LIGHT_POSITION = new Vector3f(0, 0, 100f); // the position of the light source
+    private static final int ARENA_VERTICES = 1 << 18; // the amount of vertices the shared buffers hold
+    private static final int ARENA_INDICES = 1 << 20; // the amount of indices the shared buffers hold
+    private MeshArena arena; // the buffers every planet mesh is stored in
 
+    // generation variables
+    private static final long PLANET_SEED = 60902; // the seed of the test planet
+    private static final long MESH_CACHE_BYTES = 256L * 1024 * 1024; // the most disk space generated meshes may take up
+    private final MeshCache meshCache = new MeshCache( // generated meshes, so known planets aren't generated again
+            Paths.get(System.getProperty("user.home"), ".planets", "mesh_cache"),
+            MESH_CACHE_BYTES);
+
+
+    // profiling variables
+    private static final long PROFILE_PERIOD_MILLIS = 5000; // the time between frame time reports
+    private final FrameProfiler profiler = new FrameProfiler(); // the time spent in each stage of every frame
+    private final int updateScope = profiler.register("update"); // polling events and updating the objects
+    private final int simulationScope = profiler.register("simulation", updateScope); // stepping the simulation
+    private final int cameraScope = profiler.register("camera", updateScope); // moving the camera
+    private final int renderScope = profiler.register("render"); // everything drawn
+    private final int submissionScope = profiler.register("submission", renderScope); // issuing the draws
+    private final int swapScope = profiler.register("swap", renderScope); // waiting for the buffers to swap
+    private final GpuTimer gpuTimer = new GpuTimer(profiler, GpuTimer.DEFAULT_LATENCY); // the GPU time of each pass
+    private final int planetsPass = gpuTimer.register("planets"); // drawing the planets
+    private ProfilerReporter profilerReporter; // logs the frame times, and writes every stage to -Dplanets.profile
+    private static final int ALLOCATION_WARMUP_FRAMES = 300; // the frames that may allocate anything, while caches fill
+    private AllocationTelemetry allocations; // the bytes allocated each frame, failing over -Dplanets.allocationBudget
 
     // camera variables
     private final Camera camera = new Camera( // the camera used for viewport
@@ -31,8 +77,21 @@ public class Main implements Runnable {
             new Vector3f(0, 0, 0), // rotation
             input); // input
 
+    // simulation variables
+    private static final long SIMULATION_STEP_NANOS = 1000000000L / 60; // the time of each simulation step
+    private static final int MAX_SIMULATION_STEPS = 8; // the most steps taken to catch up after a long frame
+    private static final float PLANET_SPIN = 6f; // the planet's spin in degrees per second
+    private static final float ATMOSPHERE_SPIN = 6f; // the inner atmosphere's spin in degrees per second
+    private final SpinSimulation simulation = new SpinSimulation(); // spins the planet and its atmospheres
+    private FixedTimestep timestep; // steps the simulation on this thread, unless -Dplanets.simulationThread is set
+    private SimulationThread simulationThread; // steps the simulation on its own thread
+    private SimulationState simulationState; // the simulated transforms between the last two steps
+    private List<RenderObject> simulated; // the objects the simulated transforms are applied to, one per body
+    private long lastUpdateNanos; // when the last frame was updated
+
     // objects to be rendered
     private Planet planet; // test sphere
+    private List<Planet> planets; // every planet, drawn from the arena
     private Atmosphere atmosphere1; // test atmosphere
     private Atmosphere atmosphere2; // test atmosphere
 
@@ -60,11 +119,37 @@ public class Main implements Runnable {
      */
     public void run() {
         init();
+        String profile = System.getProperty("planets.profile");
+        profilerReporter = new ProfilerReporter(profiler, profile == null ? null : Paths.get(profile), PROFILE_PERIOD_MILLIS);
+        allocations = new AllocationTelemetry(FrameProfiler.DEFAULT_CAPACITY);
+        Long budget = Long.getLong("planets.allocationBudget");
+        if (budget != null) {
+            allocations.failOverBudget(budget, ALLOCATION_WARMUP_FRAMES);
+        }
+        profilerReporter.setAllocationTelemetry(allocations);
+        profilerReporter.start();
         while (!window.shouldClose()) {
+            profiler.beginFrame();
+            allocations.beginFrame();
+            gpuTimer.beginFrame();
             update();
             render();
+            boolean withinBudget = allocations.endFrame();
+            profiler.endFrame();
+            if (!withinBudget) {
+                break;
+            }
         }
+        profilerReporter.stop();
+        allocations.destroy();
         close();
+
+        // exit with an error once everything is released, so the run that went over the budget fails
+        String budgetFailure = allocations.getBudgetFailure();
+        if (budgetFailure != null) {
+            System.err.println(budgetFailure);
+            System.exit(1);
+        }
     }
 
     /**
@@ -80,25 +165,60 @@ public class Main implements Runnable {
                 "/shaders/mainFragment.glsl");
         renderer = new Renderer(window, shader);
 
+        // the indirect renderer is opt in, and the default one is kept where OpenGL 4.4 isn't available
+        if (Boolean.getBoolean("planets.indirect")) {
+            if (IndirectRenderer.isSupported()) {
+                indirectShader = new Shader(
+                        "/shaders/indirectVertex.glsl",
+                        "/shaders/mainFragment.glsl");
+                indirectRenderer = new IndirectRenderer(window, indirectShader, new GLStreamingBackend(), EXPECTED_DRAWS);
+            } else {
+                System.err.println("The indirect renderer needs OpenGL 4.4, rendering with the default renderer.");
+            }
+        }
+
         // set the camera's arcball orbit focus to the origin
         camera.setLookingAt(new Vector3f(0));
 
-        // create render objects here
-        planet = Planet.getInstance(new Vector3f(0));
-        planet.createMesh();
+        // create render objects here. the planet and the atmospheres are flat shaded, every triangle with 3 vertices of
+        // its own, so they stay triangle lists: strips only join triangles that share vertices, and would add a restart
+        // index per triangle here
+        arena = new MeshArena(ARENA_VERTICES, ARENA_INDICES);
+        planet = Planet.getInstance(new PlanetSpec(PLANET_SEED), new Vector3f(0), meshCache);
+        arena.add(planet.getMesh());
+        planets = Collections.singletonList(planet);
         atmosphere1 = Atmosphere.getInstance(new Vector3f(0), 16f);
         atmosphere1.createMesh();
         atmosphere2 = Atmosphere.getInstance(new Vector3f(0), 17f);
         atmosphere2.createMesh();
 
-        // initialize the shader
+        // simulate the objects at a fixed rate, no matter how fast frames are rendered
+        simulation.add(planet.getPosition(), planet.getRotation(), new Vector3f(PLANET_SPIN, 0, 0));
+        simulation.add(atmosphere1.getPosition(), atmosphere1.getRotation(), new Vector3f(0, ATMOSPHERE_SPIN, 0));
+        simulation.add(atmosphere2.getPosition(), atmosphere2.getRotation(), new Vector3f(0, 2 * ATMOSPHERE_SPIN, 0));
+        simulated = Arrays.asList(planet, atmosphere1, atmosphere2);
+        simulationState = new SimulationState(simulation.getBodyCount());
+        if (Boolean.getBoolean("planets.simulationThread")) {
+            simulationThread = new SimulationThread(simulation, SIMULATION_STEP_NANOS, MAX_SIMULATION_STEPS);
+            simulationThread.start();
+        } else {
+            timestep = new FixedTimestep(simulation, SIMULATION_STEP_NANOS, MAX_SIMULATION_STEPS);
+        }
+        lastUpdateNanos = System.nanoTime();
+
+        // initialize the shaders
         shader.create();
+        if (indirectShader != null) {
+            indirectShader.create();
+        }
     }
 
     /**
      * updates the program
      */
     private void update() {
+        profiler.begin(updateScope);
+
         // update the window
         window.update();
 
@@ -107,22 +227,44 @@ public class Main implements Runnable {
         GL46.glClearColor(bgcR, bgcG, bgcB, 1.0f);
         GL46.glClear(GL46.GL_COLOR_BUFFER_BIT | GL46.GL_DEPTH_BUFFER_BIT);
 
-        // update the planet
-        planet.rotate(0.1f, 0f, 0);
-        atmosphere1.rotate(0, 0.1f, 0);
-        atmosphere2.rotate(0, 0.2f, 0);
+        // step the simulation, and place the objects between its last two steps
+        profiler.begin(simulationScope);
+        long now = System.nanoTime();
+        if (simulationThread != null) {
+            simulationThread.interpolate(simulationState, now);
+        } else {
+            timestep.advance(now - lastUpdateNanos);
+            timestep.interpolate(simulationState);
+        }
+        lastUpdateNanos = now;
+        simulationState.apply(simulated);
+        profiler.end(simulationScope);
 
         // update the camera
+        profiler.begin(cameraScope);
         camera.updateArcball();
+        profiler.end(cameraScope);
+
+        profiler.end(updateScope);
     }
 
     /**
      * renders the program
      */
     private void render() {
+        profiler.begin(renderScope);
+
         // render the render objects
+        profiler.begin(submissionScope);
+        gpuTimer.begin(planetsPass);
         GL11.glCullFace(GL11.GL_BACK);
-        renderer.renderMesh(planet, camera, LIGHT_POSITION);
+        if (indirectRenderer != null) {
+            indirectRenderer.render(arena, planets, camera, LIGHT_POSITION);
+        } else {
+            renderer.renderMeshes(arena, planets, camera, LIGHT_POSITION);
+        }
+        gpuTimer.end(planetsPass);
+        profiler.end(submissionScope);
 
         // render the back face first
 //        GL11.glCullFace(GL11.GL_FRONT);
@@ -134,20 +276,36 @@ public class Main implements Runnable {
 //        renderer.renderMesh(atmosphere2, camera, LIGHT_POSITION);
 
         // swap buffers at the end
+        profiler.begin(swapScope);
         window.swapBuffers();
+        profiler.end(swapScope);
+
+        profiler.end(renderScope);
     }
 
     /**
      * closes the program
      */
     private void close() {
-        // release the window
-        window.destroy();
+        // stop the simulation
+        if (simulationThread != null) {
+            simulationThread.stop();
+        }
 
-        // release the render objects
-        planet.destroy();
+        // release the render objects, while the context still exists
+        gpuTimer.destroy();
+        if (indirectRenderer != null) {
+            indirectRenderer.destroy();
+        }
+        arena.destroy();
 
         // release the shaders
         shader.destroy();
+        if (indirectShader != null) {
+            indirectShader.destroy();
+        }
+
+        // release the window
+        window.destroy();
     }
 }
\ No newline at end of file
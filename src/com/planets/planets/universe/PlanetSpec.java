@@ -0,0 +1,159 @@
+package com.planets.planets.universe;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+public final class PlanetSpec {
+
+    // the independent random streams a planet is generated from. each is derived from its ordinal, so new streams
+    // go last to keep every existing planet the same
+    public enum Stream {
+        TERRAIN,
+        PALETTE,
+        ATMOSPHERE,
+        ATMOSPHERE_COLOR
+    }
+
+    // defaults
+    public static final int DEFAULT_DEPTH = 4;
+    public static final float DEFAULT_RADIUS = 2.0f;
+
+    // the odd constant used by SplittableRandom to step between seeds
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // the seed every stream is derived from
+    private final long seed;
+
+    // the amount of times to recursively subdivide faces
+    private final int depth;
+
+    // the radius of the planet (water level)
+    private final float radius;
+
+    // the amount of cells along one edge of each heightfield face, 0 to sample the terrain function directly
+    private final int heightfieldResolution;
+
+    /**
+     * constructor for a seed with the default generation parameters
+     * @param seed - the seed
+     */
+    public PlanetSpec(long seed) {
+        this(seed, DEFAULT_DEPTH, DEFAULT_RADIUS, 0);
+    }
+
+    /**
+     * default constructor
+     * @param seed - the seed every random stream is derived from
+     * @param depth - the amount of times to recursively subdivide faces
+     * @param radius - the radius of the planet (water level)
+     * @param heightfieldResolution - the amount of cells along one edge of each heightfield face, 0 to sample the terrain function directly
+     */
+    public PlanetSpec(long seed, int depth, float radius, int heightfieldResolution) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Subdivision depth can't be negative.");
+        }
+        this.seed = seed;
+        this.depth = depth;
+        this.radius = radius;
+        this.heightfieldResolution = heightfieldResolution;
+    }
+
+    /**
+     * creates the random number generator for one part of the planet. every stream is derived from the seed alone,
+     * so the result doesn't depend on which other streams were used, in what order, or on which thread
+     * @param stream - the part of the planet being generated
+     * @return - a new generator, always producing the same numbers for the same seed and stream
+     */
+    public SplittableRandom random(Stream stream) {
+        return new SplittableRandom(mix(seed + (stream.ordinal() + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * the 64 bit finalizer of SplitMix64 - spreads nearby seeds far apart
+     * @param z - the value to mix
+     * @return - the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * creates a copy of this spec with a different depth
+     * @param depth - the new depth
+     * @return - the new spec
+     */
+    public PlanetSpec withDepth(int depth) {
+        return new PlanetSpec(seed, depth, radius, heightfieldResolution);
+    }
+
+    /**
+     * creates a copy of this spec with a different heightfield resolution
+     * @param heightfieldResolution - the new resolution, 0 to sample the terrain function directly
+     * @return - the new spec
+     */
+    public PlanetSpec withHeightfieldResolution(int heightfieldResolution) {
+        return new PlanetSpec(seed, depth, radius, heightfieldResolution);
+    }
+
+    /**
+     * getter method
+     * @return - the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of times to recursively subdivide faces
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * getter method
+     * @return - the radius of the planet (water level)
+     */
+    public float getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * getter method
+     * @return - the heightfield resolution, 0 if the terrain isn't baked
+     */
+    public int getHeightfieldResolution() {
+        return this.heightfieldResolution;
+    }
+
+    /**
+     * determines if two specs generate the same planet
+     * @param o - the other object
+     * @return - true if o is a spec with the same parameters
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanetSpec)) return false;
+        PlanetSpec other = (PlanetSpec) o;
+        return seed == other.seed && depth == other.depth && radius == other.radius
+                && heightfieldResolution == other.heightfieldResolution;
+    }
+
+    /**
+     * creates a hashcode of this spec
+     * @return - the hashcode
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(seed, depth, radius, heightfieldResolution);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanetSpec(seed=" + seed + ", depth=" + depth + ", radius=" + radius + ", heightfield=" + heightfieldResolution + ")";
+    }
+}
@@ -2,18 +2,19 @@ package com.planets.planets.universe.atmosphere;
 
 import com.planets.engine.graphics.Mesh;
 import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Icosphere;
 import com.planets.engine.math.Triangle;
 import com.planets.engine.math.Vector3f;
 import com.planets.engine.math.Vector4f;
 import com.planets.engine.math.noise.SimplexNoise;
 import com.planets.engine.objects.RenderObject;
+import com.planets.planets.universe.PlanetSpec;
 
 import java.util.ArrayList;
 
 public class Atmosphere extends RenderObject {
 
-    private static int depth; // the amount of times to recursively subdivide faces
-    private static final float phi = 1.618f;
+    private static final int DEPTH = 5; // the amount of times to recursively subdivide faces
 
     /**
      * default constructor
@@ -27,7 +28,19 @@ public class Atmosphere extends RenderObject {
     }
 
     public static Atmosphere getInstance(Vector3f position, float radius) {
-        return new Atmosphere(generateMesh(radius), position, new Vector3f(0), new Vector3f(1));
+        return new Atmosphere(generateMesh(radius, (int) radius), position, new Vector3f(0), new Vector3f(1));
+    }
+
+    /**
+     * gets an instance of the atmosphere of a planet, seeded from the atmosphere stream of its spec
+     * @param spec - the generation parameters of the planet
+     * @param position - the position of the atmosphere
+     * @param radius - the radius of the atmosphere
+     * @return - a new procedurally generated atmosphere at that location
+     */
+    public static Atmosphere getInstance(PlanetSpec spec, Vector3f position, float radius) {
+        int seed = spec.random(PlanetSpec.Stream.ATMOSPHERE).nextInt();
+        return new Atmosphere(generateMesh(radius, seed), position, new Vector3f(0), new Vector3f(1));
     }
 
     /**
@@ -40,9 +53,8 @@ public class Atmosphere extends RenderObject {
         this.setRotation(this.getRotation().add(dx, dy, dz));
     }
 
-    private static Mesh generateMesh(float radius) {
+    private static Mesh generateMesh(float radius, int seed) {
 
-        depth = 5;
         float spareDistance = 0.7f;
         float spareOffset = 2f;
         float amplitude = 1f;
@@ -53,13 +65,13 @@ public class Atmosphere extends RenderObject {
         float alphaAmplitude = 0.5f;
         float alphaOffset = 0.2f;
 
-        int seed = (int) radius;
         SimplexNoise simplexNoise = new SimplexNoise(11f, 0.6f, seed);
 
         // generate the triangles
-        ArrayList<Triangle> triangles = generateTriangles(radius);
+        Icosphere sphere = Icosphere.generate(radius, DEPTH);
+        ArrayList<Triangle> triangles = sphere.getTriangles();
 
-        for (Vector3f v : previousVertices) {
+        for (Vector3f v : sphere.getVertices()) {
             v.normalize((float) (
                     radius + amplitude * Math.max(simplexNoise.getNoise3D(
                             v.getX() * spareDistance + spareOffset,
@@ -107,105 +119,6 @@ public class Atmosphere extends RenderObject {
      * @param radius - the radius of the sphere
      */
     public static ArrayList<Triangle> generateTriangles(float radius) {
-        previousVertices = new ArrayList<>();
-
-        ArrayList<Triangle> faces = new ArrayList<>();
-
-        // define a regular icosahedron using 12 vertices
-        Vector3f[] vertices = new Vector3f[12];
-        vertices[0]  = new Vector3f( 0.5f * radius, 0,  phi/2 * radius);
-        vertices[1]  = new Vector3f( 0.5f * radius, 0, -phi/2 * radius);
-        vertices[2]  = new Vector3f(-0.5f * radius, 0,  phi/2 * radius);
-        vertices[3]  = new Vector3f(-0.5f * radius, 0, -phi/2 * radius);
-        vertices[4]  = new Vector3f( phi/2 * radius,  0.5f * radius, 0);
-        vertices[5]  = new Vector3f( phi/2 * radius, -0.5f * radius, 0);
-        vertices[6]  = new Vector3f(-phi/2 * radius,  0.5f * radius, 0);
-        vertices[7]  = new Vector3f(-phi/2 * radius, -0.5f * radius, 0);
-        vertices[8]  = new Vector3f(0,  phi/2 * radius, 0.5f * radius);
-        vertices[9]  = new Vector3f(0,  phi/2 * radius,-0.5f * radius);
-        vertices[10] = new Vector3f(0, -phi/2 * radius, 0.5f * radius);
-        vertices[11] = new Vector3f(0, -phi/2 * radius,-0.5f * radius);
-
-        // subdivide each triangular face (20 total) recursively
-        faces.addAll(subdivide(vertices[0],  vertices[2],  vertices[10], depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[10], vertices[5],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[5],  vertices[4],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[4],  vertices[8],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[8],  vertices[2],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[1],  vertices[11], depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[11], vertices[7],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[7],  vertices[6],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[6],  vertices[9],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[9],  vertices[1],  depth, radius));
-        faces.addAll(subdivide(vertices[2],  vertices[6],  vertices[7],  depth, radius));
-        faces.addAll(subdivide(vertices[2],  vertices[7],  vertices[10], depth, radius));
-        faces.addAll(subdivide(vertices[10], vertices[7],  vertices[11], depth, radius));
-        faces.addAll(subdivide(vertices[10], vertices[11], vertices[5],  depth, radius));
-        faces.addAll(subdivide(vertices[5],  vertices[11], vertices[1],  depth, radius));
-        faces.addAll(subdivide(vertices[5],  vertices[1],  vertices[4],  depth, radius));
-        faces.addAll(subdivide(vertices[4],  vertices[1],  vertices[9],  depth, radius));
-        faces.addAll(subdivide(vertices[4],  vertices[9],  vertices[8],  depth, radius));
-        faces.addAll(subdivide(vertices[8],  vertices[9],  vertices[6],  depth, radius));
-        faces.addAll(subdivide(vertices[8],  vertices[6],  vertices[2],  depth, radius));
-
-        return faces;
-    }
-
-    private static ArrayList<Vector3f> previousVertices;
-
-    /**
-     * recursively subdivides a triangle into 4 triangles, and then normalizes each new vertex to a radius of 1
-     * @param v1 - the first vertex of the triangle
-     * @param v2 - the second vertex of the triangle
-     * @param v3 - the third vertex of the triangle
-     * @param depth - the current depth of recursion
-     */
-    private static ArrayList<Triangle> subdivide(Vector3f v1, Vector3f v2, Vector3f v3, long depth, float radius) {
-
-        ArrayList<Triangle> faces = new ArrayList<>();
-
-        // default condition
-        if (depth == 0) {
-
-            Vector3f v1p = Vector3f.normalize(v1, radius);
-            Vector3f v2p = Vector3f.normalize(v2, radius);
-            Vector3f v3p = Vector3f.normalize(v3, radius);
-
-            if (previousVertices.contains(v1p)) {
-                v1p = previousVertices.get(previousVertices.indexOf(v1p));
-            } else {
-                previousVertices.add(v1p);
-            }
-
-            if (previousVertices.contains(v2p)) {
-                v2p = previousVertices.get(previousVertices.indexOf(v2p));
-            } else {
-                previousVertices.add(v2p);
-            }
-
-            if (previousVertices.contains(v3p)) {
-                v3p = previousVertices.get(previousVertices.indexOf(v3p));
-            } else {
-                previousVertices.add(v3p);
-            }
-
-            faces.add(new Triangle(v1p, v2p, v3p));
-            return faces;
-        }
-
-
-        // create new vertices for each face
-        Vector3f v12 = Vector3f.normalize(new Vector3f(v1.getX() + v2.getX(), v1.getY() + v2.getY(), v1.getZ() + v2.getZ()), radius);
-        Vector3f v23 = Vector3f.normalize(new Vector3f(v2.getX() + v3.getX(), v2.getY() + v3.getY(), v2.getZ() + v3.getZ()), radius);
-        Vector3f v31 = Vector3f.normalize(new Vector3f(v3.getX() + v1.getX(), v3.getY() + v1.getY(), v3.getZ() + v1.getZ()), radius);
-
-        // recursive part
-        faces.addAll(subdivide(v1, v12, v31, depth - 1, radius));
-        faces.addAll(subdivide(v2, v23, v12, depth - 1, radius));
-        faces.addAll(subdivide(v3, v31, v23, depth - 1, radius));
-        faces.addAll(subdivide(v12, v23, v31,depth - 1, radius));
-
-        return faces;
+        return Icosphere.generate(radius, DEPTH).getTriangles();
     }
-
 }
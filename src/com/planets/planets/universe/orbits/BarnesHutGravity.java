@@ -0,0 +1,267 @@
+package com.planets.planets.universe.orbits;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class BarnesHutGravity implements GravitySolver {
+
+    // the opening angle that keeps the error around a percent
+    public static final double DEFAULT_THETA = 0.5;
+
+    // the fewest bodies worth handing to another thread
+    private static final int GRAIN = 32;
+
+    // the most bodies in a leaf before it's split, so close bodies are summed directly instead of through tiny nodes
+    private static final int LEAF_CAPACITY = 8;
+
+    // the deepest a node is split, below which any amount of bodies share a leaf
+    private static final int MAX_DEPTH = 32;
+
+    // a node with no bodies, and the value of the first child of a leaf
+    private static final int EMPTY = -1;
+    private static final int LEAF = -1;
+
+    // how small a node has to look from a body to be treated as one mass, as its size over its distance
+    private final double theta;
+
+    // the pool the bodies are split across, or null to run on the calling thread
+    private final ForkJoinPool pool;
+
+    // the octree, one array per field and rebuilt every step. children of a node are 8 consecutive nodes
+    private int nodeCount;
+    private double[] centerX = new double[0], centerY = new double[0], centerZ = new double[0], half = new double[0];
+    private double[] nodeMass = new double[0], comX = new double[0], comY = new double[0], comZ = new double[0];
+    private int[] firstChild = new int[0];
+    private int[] firstBody = new int[0];
+    private int[] leafSize = new int[0];
+
+    // the next body in the same leaf, for each body
+    private int[] nextBody = new int[0];
+
+    /**
+     * default constructor
+     * @param theta - how small a node has to look from a body to be treated as one mass, 0 for the exact sum
+     * @param pool - the pool to split the bodies across, or null to run on the calling thread
+     */
+    public BarnesHutGravity(double theta, ForkJoinPool pool) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("The opening angle can't be negative.");
+        }
+        this.theta = theta;
+        this.pool = pool;
+    }
+
+    /**
+     * approximates the pull on each body by treating far away groups of bodies as their center of mass, which
+     * costs about n log n instead of n squared
+     */
+    @Override
+    public void accelerate(OrbitalBodies bodies, double g, double softening) {
+        int count = bodies.count;
+        if (count == 0) {
+            return;
+        }
+        build(bodies);
+
+        double epsilon = softening * softening;
+        double theta2 = theta * theta;
+        double[] x = bodies.x, y = bodies.y, z = bodies.z, mass = bodies.mass;
+        double[] half = this.half, nodeMass = this.nodeMass, comX = this.comX, comY = this.comY, comZ = this.comZ;
+        int[] firstChild = this.firstChild, firstBody = this.firstBody, nextBody = this.nextBody;
+        ParallelRange.run(pool, count, GRAIN, (from, to) -> {
+            // each node pushes at most 8 children, and there are at most MAX_DEPTH levels
+            int[] stack = new int[8 * MAX_DEPTH + 1];
+            for (int i = from; i < to; i++) {
+                double xi = x[i], yi = y[i], zi = z[i];
+                double sx = 0, sy = 0, sz = 0;
+                int top = 0;
+                stack[top++] = 0;
+                while (top > 0) {
+                    int node = stack[--top];
+                    if (firstChild[node] == LEAF) {
+                        for (int j = firstBody[node]; j != EMPTY; j = nextBody[j]) {
+                            if (j == i) {
+                                continue;
+                            }
+                            double dx = x[j] - xi, dy = y[j] - yi, dz = z[j] - zi;
+                            double r2 = dx * dx + dy * dy + dz * dz + epsilon;
+                            double s = mass[j] / (r2 * Math.sqrt(r2));
+                            sx += dx * s;
+                            sy += dy * s;
+                            sz += dz * s;
+                        }
+                        continue;
+                    }
+
+                    double dx = comX[node] - xi, dy = comY[node] - yi, dz = comZ[node] - zi;
+                    double d2 = dx * dx + dy * dy + dz * dz;
+                    double size = 2 * half[node];
+                    if (size * size < theta2 * d2) {
+                        // far enough to be one mass
+                        double r2 = d2 + epsilon;
+                        double s = nodeMass[node] / (r2 * Math.sqrt(r2));
+                        sx += dx * s;
+                        sy += dy * s;
+                        sz += dz * s;
+                    } else {
+                        int child = firstChild[node];
+                        for (int c = 0; c < 8; c++) {
+                            if (nodeMass[child + c] > 0) {
+                                stack[top++] = child + c;
+                            }
+                        }
+                    }
+                }
+                bodies.ax[i] = g * sx;
+                bodies.ay[i] = g * sy;
+                bodies.az[i] = g * sz;
+            }
+        });
+    }
+
+    /**
+     * getter method
+     * @return - the amount of nodes in the octree built last
+     */
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * helper method to build the octree around the bodies and sum the mass of every node
+     */
+    private void build(OrbitalBodies bodies) {
+        int count = bodies.count;
+        if (nextBody.length < count) {
+            nextBody = new int[count];
+        }
+
+        // the root is a cube around every body
+        double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, bodies.x[i]);
+            minY = Math.min(minY, bodies.y[i]);
+            minZ = Math.min(minZ, bodies.z[i]);
+            maxX = Math.max(maxX, bodies.x[i]);
+            maxY = Math.max(maxY, bodies.y[i]);
+            maxZ = Math.max(maxZ, bodies.z[i]);
+        }
+        double size = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        nodeCount = 0;
+        addNode((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2, Math.max(size / 2, Double.MIN_NORMAL));
+
+        for (int i = 0; i < count; i++) {
+            insert(bodies, i);
+        }
+
+        // children are always added after their parents, so going backwards sums every child before its parent
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            double m = 0, mx = 0, my = 0, mz = 0;
+            if (firstChild[node] == LEAF) {
+                for (int j = firstBody[node]; j != EMPTY; j = nextBody[j]) {
+                    double bm = bodies.mass[j];
+                    m += bm;
+                    mx += bodies.x[j] * bm;
+                    my += bodies.y[j] * bm;
+                    mz += bodies.z[j] * bm;
+                }
+            } else {
+                for (int c = firstChild[node]; c < firstChild[node] + 8; c++) {
+                    m += nodeMass[c];
+                    mx += comX[c] * nodeMass[c];
+                    my += comY[c] * nodeMass[c];
+                    mz += comZ[c] * nodeMass[c];
+                }
+            }
+            nodeMass[node] = m;
+            if (m > 0) {
+                comX[node] = mx / m;
+                comY[node] = my / m;
+                comZ[node] = mz / m;
+            } else {
+                comX[node] = centerX[node];
+                comY[node] = centerY[node];
+                comZ[node] = centerZ[node];
+            }
+        }
+    }
+
+    /**
+     * helper method to put a body into the leaf that contains it, splitting the leaf if it's taken
+     */
+    private void insert(OrbitalBodies bodies, int body) {
+        double bx = bodies.x[body], by = bodies.y[body], bz = bodies.z[body];
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            if (firstChild[node] != LEAF) {
+                node = firstChild[node] + octant(node, bx, by, bz);
+                depth++;
+                continue;
+            }
+            if (leafSize[node] < LEAF_CAPACITY || depth == MAX_DEPTH) {
+                nextBody[body] = firstBody[node];
+                firstBody[node] = body;
+                leafSize[node]++;
+                return;
+            }
+
+            // split the full leaf and move its bodies down, then keep looking for a leaf with room
+            int child = nodeCount;
+            double h = half[node] / 2;
+            for (int c = 0; c < 8; c++) {
+                addNode(centerX[node] + ((c & 1) == 0 ? -h : h),
+                        centerY[node] + ((c & 2) == 0 ? -h : h),
+                        centerZ[node] + ((c & 4) == 0 ? -h : h), h);
+            }
+            int other = firstBody[node];
+            while (other != EMPTY) {
+                int next = nextBody[other];
+                int moved = child + octant(node, bodies.x[other], bodies.y[other], bodies.z[other]);
+                nextBody[other] = firstBody[moved];
+                firstBody[moved] = other;
+                leafSize[moved]++;
+                other = next;
+            }
+            firstChild[node] = child;
+            firstBody[node] = EMPTY;
+            leafSize[node] = 0;
+        }
+    }
+
+    /**
+     * helper method to find which child of a node contains a point
+     */
+    private int octant(int node, double x, double y, double z) {
+        return (x < centerX[node] ? 0 : 1) | (y < centerY[node] ? 0 : 2) | (z < centerZ[node] ? 0 : 4);
+    }
+
+    /**
+     * helper method to add an empty leaf, growing the arrays when they are full
+     */
+    private void addNode(double x, double y, double z, double h) {
+        if (nodeCount == firstChild.length) {
+            int capacity = Math.max(64, nodeCount * 2);
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            centerZ = Arrays.copyOf(centerZ, capacity);
+            half = Arrays.copyOf(half, capacity);
+            nodeMass = Arrays.copyOf(nodeMass, capacity);
+            comX = Arrays.copyOf(comX, capacity);
+            comY = Arrays.copyOf(comY, capacity);
+            comZ = Arrays.copyOf(comZ, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            firstBody = Arrays.copyOf(firstBody, capacity);
+            leafSize = Arrays.copyOf(leafSize, capacity);
+        }
+        centerX[nodeCount] = x;
+        centerY[nodeCount] = y;
+        centerZ[nodeCount] = z;
+        half[nodeCount] = h;
+        firstChild[nodeCount] = LEAF;
+        firstBody[nodeCount] = EMPTY;
+        leafSize[nodeCount] = 0;
+        nodeCount++;
+    }
+}
@@ -0,0 +1,51 @@
+package com.planets.planets.universe.orbits;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class DirectGravity implements GravitySolver {
+
+    // the fewest bodies worth handing to another thread
+    private static final int GRAIN = 64;
+
+    // the pool the bodies are split across, or null to run on the calling thread
+    private final ForkJoinPool pool;
+
+    /**
+     * default constructor
+     * @param pool - the pool to split the bodies across, or null to run on the calling thread
+     */
+    public DirectGravity(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * sums the pull of every other body on each body, exactly. the cost grows with the square of the bodies, so
+     * this is for small systems and for checking the approximate solvers
+     */
+    @Override
+    public void accelerate(OrbitalBodies bodies, double g, double softening) {
+        double[] x = bodies.x, y = bodies.y, z = bodies.z, mass = bodies.mass;
+        double epsilon = softening * softening;
+        int count = bodies.count;
+        ParallelRange.run(pool, count, GRAIN, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                double xi = x[i], yi = y[i], zi = z[i];
+                double sx = 0, sy = 0, sz = 0;
+                for (int j = 0; j < count; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    double dx = x[j] - xi, dy = y[j] - yi, dz = z[j] - zi;
+                    double r2 = dx * dx + dy * dy + dz * dz + epsilon;
+                    double s = mass[j] / (r2 * Math.sqrt(r2));
+                    sx += dx * s;
+                    sy += dy * s;
+                    sz += dz * s;
+                }
+                bodies.ax[i] = g * sx;
+                bodies.ay[i] = g * sy;
+                bodies.az[i] = g * sz;
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.planets.planets.universe.orbits;
+
+public interface GravitySolver {
+
+    /**
+     * sets the acceleration of every body from the gravity of all the others
+     * @param bodies - the bodies, whose accelerations are overwritten
+     * @param g - the gravitational constant
+     * @param softening - the plummer softening length, every separation r is taken as sqrt(r^2 + softening^2) so close
+     *                    encounters don't fling bodies away
+     */
+    void accelerate(OrbitalBodies bodies, double g, double softening);
+}
@@ -0,0 +1,117 @@
+package com.planets.planets.universe.orbits;
+
+import java.util.Arrays;
+
+public class OrbitalBodies {
+
+    // the amount of bodies each array holds at first
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the amount of bodies
+    int count;
+
+    // the state of each body, one array per component so the solvers stream through them
+    double[] x = new double[INITIAL_CAPACITY], y = new double[INITIAL_CAPACITY], z = new double[INITIAL_CAPACITY];
+    double[] vx = new double[INITIAL_CAPACITY], vy = new double[INITIAL_CAPACITY], vz = new double[INITIAL_CAPACITY];
+    double[] ax = new double[INITIAL_CAPACITY], ay = new double[INITIAL_CAPACITY], az = new double[INITIAL_CAPACITY];
+    double[] mass = new double[INITIAL_CAPACITY];
+
+    // the spin of each body around its y axis in degrees per second, and its current angle
+    double[] spin = new double[INITIAL_CAPACITY];
+    double[] angle = new double[INITIAL_CAPACITY];
+
+    /**
+     * adds a body
+     * @param mass - the mass of the body
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     * @param vx - the x velocity
+     * @param vy - the y velocity
+     * @param vz - the z velocity
+     * @param spin - the spin around its y axis in degrees per second
+     * @return - the body
+     */
+    public int add(double mass, double x, double y, double z, double vx, double vy, double vz, double spin) {
+        if (mass < 0) {
+            throw new IllegalArgumentException("A body can't have negative mass.");
+        }
+        if (count == this.mass.length) {
+            grow(count * 2);
+        }
+        int body = count++;
+        this.mass[body] = mass;
+        this.x[body] = x;
+        this.y[body] = y;
+        this.z[body] = z;
+        this.vx[body] = vx;
+        this.vy[body] = vy;
+        this.vz[body] = vz;
+        this.spin[body] = spin;
+        return body;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of bodies
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @return - the mass of the body
+     */
+    public double getMass(int body) {
+        return mass[body];
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @param c - the component, 0 to 2
+     * @return - a component of the position of the body
+     */
+    public double getPosition(int body, int c) {
+        return c == 0 ? x[body] : c == 1 ? y[body] : z[body];
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @param c - the component, 0 to 2
+     * @return - a component of the velocity of the body
+     */
+    public double getVelocity(int body, int c) {
+        return c == 0 ? vx[body] : c == 1 ? vy[body] : vz[body];
+    }
+
+    /**
+     * getter method
+     * @param body - the body
+     * @return - the angle of the body around its y axis in degrees, 0 to 360
+     */
+    public double getAngle(int body) {
+        return angle[body];
+    }
+
+    /**
+     * helper method to make room for more bodies
+     */
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        vz = Arrays.copyOf(vz, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        az = Arrays.copyOf(az, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        spin = Arrays.copyOf(spin, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+    }
+}
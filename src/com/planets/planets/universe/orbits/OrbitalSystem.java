@@ -0,0 +1,160 @@
+package com.planets.planets.universe.orbits;
+
+import com.planets.engine.simulation.Simulation;
+import com.planets.engine.simulation.SimulationState;
+
+public class OrbitalSystem implements Simulation {
+
+    // the gravitational constant in the system's units
+    private final double g;
+
+    // the plummer softening length, every separation r is taken as sqrt(r^2 + softening^2) so close encounters
+    // don't fling bodies away
+    private final double softening;
+
+    // sums the gravity on every body
+    private final GravitySolver solver;
+
+    // the bodies
+    private final OrbitalBodies bodies = new OrbitalBodies();
+
+    // whether the accelerations match the positions, which they don't until the first step or after adding a body
+    private boolean accelerated;
+
+    /**
+     * default constructor
+     * @param g - the gravitational constant in the system's units
+     * @param softening - the plummer softening length, every separation r is taken as sqrt(r^2 + softening^2), 0 for none
+     * @param solver - sums the gravity on every body, e.g. DirectGravity for a few bodies or BarnesHutGravity for
+     *                 thousands
+     */
+    public OrbitalSystem(double g, double softening, GravitySolver solver) {
+        this.g = g;
+        this.softening = softening;
+        this.solver = solver;
+    }
+
+    /**
+     * adds a body, e.g. a star
+     * @param mass - the mass of the body
+     * @param x - the x position
+     * @param y - the y position
+     * @param z - the z position
+     * @param vx - the x velocity
+     * @param vy - the y velocity
+     * @param vz - the z velocity
+     * @param spin - the spin around its y axis in degrees per second
+     * @return - the body
+     */
+    public int add(double mass, double x, double y, double z, double vx, double vy, double vz, double spin) {
+        accelerated = false;
+        return bodies.add(mass, x, y, z, vx, vy, vz, spin);
+    }
+
+    /**
+     * adds a body on the circular orbit of a Kepler two body problem around another body, e.g. a planet around its
+     * star or a moon around its planet. the other bodies perturb the orbit once it's simulated
+     * @param parent - the body orbited
+     * @param mass - the mass of the body
+     * @param radius - the radius of the orbit
+     * @param inclination - the tilt of the orbit away from the xz plane in degrees
+     * @param phase - where on the orbit the body starts in degrees
+     * @param spin - the spin around its y axis in degrees per second
+     * @return - the body
+     */
+    public int addOrbit(int parent, double mass, double radius, double inclination, double phase, double spin) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("An orbit needs a positive radius.");
+        }
+        double speed = Math.sqrt(g * (bodies.mass[parent] + mass) / radius);
+        double sinI = Math.sin(Math.toRadians(inclination)), cosI = Math.cos(Math.toRadians(inclination));
+        double sinP = Math.sin(Math.toRadians(phase)), cosP = Math.cos(Math.toRadians(phase));
+
+        // the orbit in the xz plane, tilted around the x axis
+        return add(mass,
+                bodies.x[parent] + radius * cosP,
+                bodies.y[parent] - radius * sinP * sinI,
+                bodies.z[parent] + radius * sinP * cosI,
+                bodies.vx[parent] - speed * sinP,
+                bodies.vy[parent] - speed * cosP * sinI,
+                bodies.vz[parent] + speed * cosP * cosI,
+                spin);
+    }
+
+    @Override
+    public int getBodyCount() {
+        return bodies.count;
+    }
+
+    /**
+     * advances every body with a kick-drift-kick leapfrog, which is symplectic, so the energy of the orbits doesn't
+     * drift away over long runs the way it does with explicit euler
+     */
+    @Override
+    public void step(double dt) {
+        if (!accelerated) {
+            solver.accelerate(bodies, g, softening);
+            accelerated = true;
+        }
+        int count = bodies.count;
+        double[] x = bodies.x, y = bodies.y, z = bodies.z;
+        double[] vx = bodies.vx, vy = bodies.vy, vz = bodies.vz;
+        double[] ax = bodies.ax, ay = bodies.ay, az = bodies.az;
+        double halfDt = dt / 2;
+
+        for (int i = 0; i < count; i++) {
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            z[i] += vz[i] * dt;
+        }
+        solver.accelerate(bodies, g, softening);
+        for (int i = 0; i < count; i++) {
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+        }
+
+        double[] angle = bodies.angle, spin = bodies.spin;
+        for (int i = 0; i < count; i++) {
+            double wrapped = (angle[i] + spin[i] * dt) % 360;
+            angle[i] = wrapped < 0 ? wrapped + 360 : wrapped;
+        }
+    }
+
+    @Override
+    public void capture(SimulationState state) {
+        for (int i = 0; i < bodies.count; i++) {
+            state.setPosition(i, (float) bodies.x[i], (float) bodies.y[i], (float) bodies.z[i]);
+            state.setRotation(i, 0, (float) bodies.angle[i], 0);
+        }
+    }
+
+    /**
+     * sums the kinetic and potential energy of every body exactly, which a good integrator keeps close to constant
+     * @return - the total energy, with the same softening as the simulation
+     */
+    public double getEnergy() {
+        double energy = 0;
+        double epsilon = softening * softening;
+        for (int i = 0; i < bodies.count; i++) {
+            double v2 = bodies.vx[i] * bodies.vx[i] + bodies.vy[i] * bodies.vy[i] + bodies.vz[i] * bodies.vz[i];
+            energy += bodies.mass[i] * v2 / 2;
+            for (int j = i + 1; j < bodies.count; j++) {
+                double dx = bodies.x[j] - bodies.x[i], dy = bodies.y[j] - bodies.y[i], dz = bodies.z[j] - bodies.z[i];
+                energy -= g * bodies.mass[i] * bodies.mass[j] / Math.sqrt(dx * dx + dy * dy + dz * dz + epsilon);
+            }
+        }
+        return energy;
+    }
+
+    /**
+     * getter method
+     * @return - the bodies, which must only be read between steps
+     */
+    public OrbitalBodies getBodies() {
+        return this.bodies;
+    }
+}
@@ -0,0 +1,59 @@
+package com.planets.planets.universe.orbits;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+class ParallelRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * work done on a range of bodies
+     */
+    interface Body {
+
+        /**
+         * does the work of some bodies
+         * @param from - the first body
+         * @param to - the body after the last one
+         */
+        void run(int from, int to);
+    }
+
+    // the range to work on, the smallest range worth splitting, and the work
+    private final int from, to, grain;
+    private final Body body;
+
+    private ParallelRange(int from, int to, int grain, Body body) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.body = body;
+    }
+
+    /**
+     * runs work over a range of bodies, split across the pool's threads. each body is only worked on by one thread,
+     * so the results don't depend on how the range was split
+     * @param pool - the pool to run in, or null to run on the calling thread
+     * @param count - the amount of bodies
+     * @param grain - the fewest bodies worth handing to another thread
+     * @param body - the work
+     */
+    static void run(ForkJoinPool pool, int count, int grain, Body body) {
+        if (pool == null || count <= grain) {
+            body.run(0, count);
+        } else {
+            pool.invoke(new ParallelRange(0, count, grain, body));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            body.run(from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ParallelRange(from, middle, grain, body), new ParallelRange(middle, to, grain, body));
+    }
+}
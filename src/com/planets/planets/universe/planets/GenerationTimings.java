@@ -0,0 +1,89 @@
+package com.planets.planets.universe.planets;
+
+import java.util.Locale;
+
+public class GenerationTimings {
+
+    // the stages of generating a planet, in the order they run
+    public enum Stage {
+        TERRAIN, // building (and baking) the terrain function
+        SUBDIVIDE, // building the icosphere
+        DISPLACE, // moving every vertex to the terrain height
+        COLOR, // building the vertex array with colors and normals
+        OPTIMIZE, // reordering triangles and vertices for the GPU caches
+        PACK, // packing the vertices into the buffers that are uploaded or written
+        WRITE // writing the packed mesh to a file
+    }
+
+    // the time spent in each stage
+    private final long[] nanos = new long[Stage.values().length];
+
+    // the amount of planets measured
+    private int planets;
+
+    /**
+     * adds time to a stage
+     * @param stage - the stage
+     * @param start - the System.nanoTime() the stage started at
+     * @return - the current System.nanoTime(), so the next stage can start from it
+     */
+    public long record(Stage stage, long start) {
+        long now = System.nanoTime();
+        nanos[stage.ordinal()] += now - start;
+        return now;
+    }
+
+    /**
+     * counts one more planet
+     */
+    public void countPlanet() {
+        planets++;
+    }
+
+    /**
+     * adds the timings of another worker to these
+     * @param other - the other timings
+     */
+    public synchronized void add(GenerationTimings other) {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] += other.nanos[i];
+        }
+        planets += other.planets;
+    }
+
+    /**
+     * getter method
+     * @param stage - the stage
+     * @return - the total time spent in that stage in nanoseconds
+     */
+    public long getNanos(Stage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    /**
+     * getter method
+     * @return - the amount of planets measured
+     */
+    public int getPlanets() {
+        return this.planets;
+    }
+
+    /**
+     * creates a table of the time spent in each stage
+     * @return - one line per stage, with the total, the mean per planet and the share of the total
+     */
+    public String report() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%-10s %12s %14s %7s%n", "stage", "total ms", "ms / planet", "share"));
+        for (Stage stage : Stage.values()) {
+            long n = nanos[stage.ordinal()];
+            report.append(String.format(Locale.ROOT, "%-10s %12.1f %14.3f %6.1f%%%n", stage.name().toLowerCase(Locale.ROOT),
+                    n / 1e6, n / 1e6 / Math.max(1, planets), total == 0 ? 0 : 100.0 * n / total));
+        }
+        return report.toString();
+    }
+}
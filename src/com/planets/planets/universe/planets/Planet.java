@@ -1,24 +1,36 @@
 package com.planets.planets.universe.planets;
 
 import com.planets.engine.graphics.Mesh;
-import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Icosphere;
 import com.planets.engine.math.Triangle;
 import com.planets.engine.math.Vector3f;
-import com.planets.engine.math.Vector4f;
 import com.planets.engine.math.color.ColorFader3C;
-import com.planets.engine.math.noise.ImprovedNoise;
-import com.planets.engine.math.noise.SimplexNoise;
+import com.planets.engine.math.noise.CubeMapHeightfield;
+import com.planets.engine.math.noise.TerrainNode;
+import com.planets.engine.math.noise.TerrainSampler;
+import com.planets.engine.io.mesh_cache.MeshCache;
 import com.planets.engine.objects.RenderObject;
+import com.planets.planets.universe.PlanetSpec;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Planet extends RenderObject {
 
-    // generation variables
-    private static int depth; // the amount of times to recursively subdivide faces
-    private static final float phi = 1.618f; // the golden ratio used for approximating a tetrahedron
+    // the seed used when no spec is given
+    private static final long DEFAULT_SEED = 60902;
+
+    // the version of the generation code - bump it whenever the same spec would generate a different mesh,
+    // so cached meshes from older versions are regenerated
+    public static final int ALGORITHM_VERSION = 1;
+
+    // the spec this planet was generated from
+    private PlanetSpec spec;
+
+    // the terrain function and color palette this planet was generated with, kept for rebuilding the mesh
+    private TerrainSampler terrain;
+    private ColorFader3C palette;
 
     /**
      * default constructor
@@ -37,220 +49,256 @@ public class Planet extends RenderObject {
      * @return - a new procedurally generated planet at that location
      */
     public static Planet getInstance(Vector3f position) {
-        return new Planet(generateMesh(), position, new Vector3f(0), new Vector3f(1));
+        return getInstance(new PlanetSpec(DEFAULT_SEED), position);
     }
 
     public static Planet getInstance(float x, float y, float z) {
-        return new Planet(generateMesh(), new Vector3f(x, y, z), new Vector3f(0), new Vector3f(1));
+        return getInstance(new PlanetSpec(DEFAULT_SEED), new Vector3f(x, y, z));
     }
 
     public static Planet getInstance(float xyz) {
-        return new Planet(generateMesh(), new Vector3f(xyz), new Vector3f(0), new Vector3f(1));
+        return getInstance(new PlanetSpec(DEFAULT_SEED), new Vector3f(xyz));
     }
 
     /**
-     * rotates the planet by some amount
-     * @param dx - the change in x rotation
-     * @param dy - the change in y position
-     * @param dz - the change in z position
+     * gets an instance of the planet with the terrain baked into a cube map heightfield
+     * @param position - the position of the planet
+     * @param heightfieldResolution - the amount of cells along one edge of each heightfield face, 0 to sample the terrain function directly
+     * @return - a new procedurally generated planet at that location
      */
-    public void rotate(float dx, float dy, float dz) {
-        this.setRotation(this.getRotation().add(dx, dy, dz));
+    public static Planet getInstance(Vector3f position, int heightfieldResolution) {
+        return getInstance(new PlanetSpec(DEFAULT_SEED).withHeightfieldResolution(heightfieldResolution), position);
     }
 
-    private static Mesh generateMesh() {
-
-        boolean blend = true;
-
-        Random random = new Random(60902);
-        Color c11 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
-        Color c22 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
-        Color c33 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
+    /**
+     * gets an instance of the planet generated from a spec. the same spec always generates the same planet,
+     * no matter how many planets are being generated at once or on which thread
+     * @param spec - the generation parameters
+     * @param position - the position of the planet
+     * @return - a new procedurally generated planet at that location
+     */
+    public static Planet getInstance(PlanetSpec spec, Vector3f position) {
+        TerrainSampler terrain = createTerrain(spec);
+        ColorFader3C cf = createPalette(spec);
+
+        Planet planet = new Planet(generateMesh(terrain, cf, spec.getRadius(), spec.getDepth(), new GenerationTimings()),
+                position, new Vector3f(0), new Vector3f(1));
+        planet.spec = spec;
+        planet.terrain = terrain;
+        planet.palette = cf;
+        return planet;
+    }
 
-        depth = 4; // how much to recursively subdivide faces
-        float spareDistance = 3.5f * random.nextFloat(); // increase -> more spikes
-        float spareOffset = 2.0f * random.nextFloat(); // change -> different generation
-        float amplitude = 3.5f * random.nextFloat(); // increase -> larger peaks
-        float radius = 2.0f; // the default radius of the planet (water level)
+    /**
+     * gets an instance of the planet generated from a spec, loading its mesh from a cache if it was generated before
+     * @param spec - the generation parameters
+     * @param position - the position of the planet
+     * @param cache - the cache to load the mesh from, and to store it in after generating it
+     * @return - a new procedurally generated planet at that location
+     */
+    public static Planet getInstance(PlanetSpec spec, Vector3f position, MeshCache cache) {
+        String key = cacheKey(spec);
+        Mesh mesh = cache.load(key);
+        if (mesh == null) {
+            Planet planet = getInstance(spec, position);
+            cache.store(key, planet.getMesh());
+            return planet;
+        }
 
-        // generate the triangles
-        ArrayList<Triangle> triangles = generateTriangles(radius);
+        // the terrain and palette are only created again if the mesh is rebuilt
+        Planet planet = new Planet(mesh, position, new Vector3f(0), new Vector3f(1));
+        planet.spec = spec;
+        return planet;
+    }
 
-        ColorFader3C cf = new ColorFader3C(c11, c22, c33, 0.5f);
+    /**
+     * generates only the mesh of a planet, without creating a render object. nothing here touches OpenGL,
+     * so it can run headless and on several threads at once
+     * @param spec - the generation parameters
+     * @param timings - the time spent in each stage is added to these
+     * @return - the mesh, not created yet
+     */
+    public static Mesh generateMesh(PlanetSpec spec, GenerationTimings timings) {
+        long start = System.nanoTime();
+        TerrainSampler terrain = createTerrain(spec);
+        ColorFader3C cf = createPalette(spec);
+        timings.record(GenerationTimings.Stage.TERRAIN, start);
 
-        int seed = 10;
-        SimplexNoise simplexNoise = new SimplexNoise(11f, 0.6f, seed);
+        return generateMesh(terrain, cf, spec.getRadius(), spec.getDepth(), timings);
+    }
 
-        float maxHeight = 0.0f;
-        for (Vector3f v : previousVertices) {
+    /**
+     * generates the displaced surface of a planet without building its vertex array. vertices are computed when
+     * they are read, so the planet can be streamed to a file without holding a whole mesh in memory
+     * @param spec - the generation parameters
+     * @param timings - the time spent in each stage is added to these
+     * @return - the surface
+     */
+    public static PlanetSurface generateSurface(PlanetSpec spec, GenerationTimings timings) {
+        long start = System.nanoTime();
+        TerrainSampler terrain = createTerrain(spec);
+        ColorFader3C cf = createPalette(spec);
+        timings.record(GenerationTimings.Stage.TERRAIN, start);
 
-            float newRadius = (float) (
-                    radius + amplitude * Math.max(ImprovedNoise.noise(
-                            v.getX() * spareDistance + spareOffset,
-                            v.getY() * spareDistance + spareOffset,
-                            v.getZ() * spareDistance + spareOffset
-                    ), 0));
+        return generateSurface(terrain, cf, spec.getRadius(), spec.getDepth(), timings);
+    }
 
-            v.normalize(newRadius);
+    /**
+     * creates the key a planet's mesh is cached under
+     * @param spec - the generation parameters
+     * @return - the key
+     */
+    public static String cacheKey(PlanetSpec spec) {
+        return MeshCache.key(ALGORITHM_VERSION, "planet", spec.getSeed(), spec.getDepth(), spec.getRadius(), spec.getHeightfieldResolution());
+    }
 
-            if (Vector3f.length(v) > maxHeight) {
-                maxHeight = Vector3f.length(v);
-            }
+    /**
+     * creates the terrain function of a planet from the terrain stream of its spec
+     * @param spec - the generation parameters
+     * @return - the terrain function, baked if the spec asks for a heightfield
+     */
+    public static TerrainSampler createTerrain(PlanetSpec spec) {
+        SplittableRandom random = spec.random(PlanetSpec.Stream.TERRAIN);
+        float spareDistance = 3.5f * (float) random.nextDouble(); // increase -> more spikes
+        float spareOffset = 2.0f * (float) random.nextDouble(); // change -> different generation
+        float amplitude = 3.5f * (float) random.nextDouble(); // increase -> larger peaks
+        float radius = spec.getRadius();
+
+        // the terrain function: the water level plus the positive part of the noise
+        TerrainSampler terrain = TerrainNode.add(
+                TerrainNode.constant(radius),
+                TerrainNode.perlin(spareDistance, spareOffset).clamp(0, Double.POSITIVE_INFINITY).scale(amplitude)
+        ).compile();
+
+        // evaluate the noise once up front, every mesh built afterwards samples the grid instead
+        if (spec.getHeightfieldResolution() > 0) {
+            terrain = CubeMapHeightfield.bake(terrain, radius, spec.getHeightfieldResolution());
         }
+        return terrain;
+    }
 
-        // create the vertex array
-        Vertex[] vertices = new Vertex[triangles.size() * 3];
-        for (int i = 0; i < triangles.size(); i++) {
-            Triangle t = triangles.get(i);
-
-            // calculate the color based on the magnitude of the vertex
-            float ps2, ps3;
-            Vector3f _c2, _c3;
-            Vector4f c2 = new Vector4f(0), c3 = new Vector4f(0);
-            if (blend) {
-                ps2 = (Vector3f.length(t.getV2()) - radius) / (maxHeight - radius);
-                ps3 = (Vector3f.length(t.getV3()) - radius) / (maxHeight - radius);
-                _c2 = cf.getColor(ps2);
-                _c3 = cf.getColor(ps3);
-                c2 = new Vector4f(_c2, 1.0f);
-                c3 = new Vector4f(_c3, 1.0f);
-            }
-            float ps1 = (Vector3f.length(t.getV1()) - radius) / (maxHeight - radius);
-            Vector3f _c1 = cf.getColor(ps1);
-            Vector4f c1 = new Vector4f(_c1, 1.0f);
-
-            // compute normal vectors
-            Vector3f n1 = Vector3f.normalize(Vector3f.cross(Vector3f.subtract(t.getV2(), t.getV1()), Vector3f.subtract(t.getV3(), t.getV1())));
-
-            Vector3f v1 = new Vector3f(t.getV1());
-            Vector3f v2 = new Vector3f(t.getV2());
-            Vector3f v3 = new Vector3f(t.getV3());
-
-            // create the vertices
-            if (blend) {
-                vertices[3 * i]     = new Vertex(v1, c1, n1);
-                vertices[3 * i + 1] = new Vertex(v2, c2, n1);
-                vertices[3 * i + 2] = new Vertex(v3, c3, n1);
-            } else {
-                vertices[3 * i]     = new Vertex(v1, c1, n1);
-                vertices[3 * i + 1] = new Vertex(v2, c1, n1);
-                vertices[3 * i + 2] = new Vertex(v3, c1, n1);
-            }
-        }
+    /**
+     * creates the color palette of a planet from the palette stream of its spec
+     * @param spec - the generation parameters
+     * @return - the palette, from the lowest to the highest terrain
+     */
+    public static ColorFader3C createPalette(PlanetSpec spec) {
+        SplittableRandom random = spec.random(PlanetSpec.Stream.PALETTE);
+        Color c11 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
+        Color c22 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
+        Color c33 = new Color(random.nextInt(255), random.nextInt(255), random.nextInt(255));
+        return new ColorFader3C(c11, c22, c33, 0.5f);
+    }
 
-        // generate draw order indices
-        int[] indices = new int[triangles.size() * 3];
-        for (int i = 0; i < triangles.size() * 3; i++) {
-            indices[i] = i;
-        }
+    /**
+     * rotates the planet by some amount
+     * @param dx - the change in x rotation
+     * @param dy - the change in y position
+     * @param dz - the change in z position
+     */
+    public void rotate(float dx, float dy, float dz) {
+        this.setRotation(this.getRotation().add(dx, dy, dz));
+    }
 
-        // make a new mesh
-        return new Mesh(vertices, indices);
+    /**
+     * rebuilds the mesh of this planet at a different subdivision depth, reusing its terrain.
+     * the new mesh still has to be created with createMesh()
+     * @param depth - the amount of times to subdivide faces
+     * @return - the previous mesh, so it can be released
+     */
+    public Mesh rebuildMesh(int depth) {
+        Mesh previous = getMesh();
+        setMesh(generateMesh(getTerrain(), getPalette(), spec.getRadius(), depth, new GenerationTimings()));
+        return previous;
     }
 
     /**
-     * generates vertices of this sphere
-     * @param radius - the radius of the sphere
+     * getter method
+     * @return - the spec this planet was generated from
      */
-    public static ArrayList<Triangle> generateTriangles(float radius) {
-        previousVertices = new ArrayList<>();
-
-        ArrayList<Triangle> faces = new ArrayList<>();
-
-        // define a regular icosahedron using 12 vertices
-        Vector3f[] vertices = new Vector3f[12];
-        vertices[0]  = new Vector3f( 0.5f * radius, 0,  phi/2 * radius);
-        vertices[1]  = new Vector3f( 0.5f * radius, 0, -phi/2 * radius);
-        vertices[2]  = new Vector3f(-0.5f * radius, 0,  phi/2 * radius);
-        vertices[3]  = new Vector3f(-0.5f * radius, 0, -phi/2 * radius);
-        vertices[4]  = new Vector3f( phi/2 * radius,  0.5f * radius, 0);
-        vertices[5]  = new Vector3f( phi/2 * radius, -0.5f * radius, 0);
-        vertices[6]  = new Vector3f(-phi/2 * radius,  0.5f * radius, 0);
-        vertices[7]  = new Vector3f(-phi/2 * radius, -0.5f * radius, 0);
-        vertices[8]  = new Vector3f(0,  phi/2 * radius, 0.5f * radius);
-        vertices[9]  = new Vector3f(0,  phi/2 * radius,-0.5f * radius);
-        vertices[10] = new Vector3f(0, -phi/2 * radius, 0.5f * radius);
-        vertices[11] = new Vector3f(0, -phi/2 * radius,-0.5f * radius);
-
-        // subdivide each triangular face (20 total) recursively
-        faces.addAll(subdivide(vertices[0],  vertices[2],  vertices[10], depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[10], vertices[5],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[5],  vertices[4],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[4],  vertices[8],  depth, radius));
-        faces.addAll(subdivide(vertices[0],  vertices[8],  vertices[2],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[1],  vertices[11], depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[11], vertices[7],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[7],  vertices[6],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[6],  vertices[9],  depth, radius));
-        faces.addAll(subdivide(vertices[3],  vertices[9],  vertices[1],  depth, radius));
-        faces.addAll(subdivide(vertices[2],  vertices[6],  vertices[7],  depth, radius));
-        faces.addAll(subdivide(vertices[2],  vertices[7],  vertices[10], depth, radius));
-        faces.addAll(subdivide(vertices[10], vertices[7],  vertices[11], depth, radius));
-        faces.addAll(subdivide(vertices[10], vertices[11], vertices[5],  depth, radius));
-        faces.addAll(subdivide(vertices[5],  vertices[11], vertices[1],  depth, radius));
-        faces.addAll(subdivide(vertices[5],  vertices[1],  vertices[4],  depth, radius));
-        faces.addAll(subdivide(vertices[4],  vertices[1],  vertices[9],  depth, radius));
-        faces.addAll(subdivide(vertices[4],  vertices[9],  vertices[8],  depth, radius));
-        faces.addAll(subdivide(vertices[8],  vertices[9],  vertices[6],  depth, radius));
-        faces.addAll(subdivide(vertices[8],  vertices[6],  vertices[2],  depth, radius));
-
-        return faces;
+    public PlanetSpec getSpec() {
+        return this.spec;
     }
 
-    private static ArrayList<Vector3f> previousVertices;
+    /**
+     * getter method
+     * @return - the terrain function of this planet, either compiled or baked
+     */
+    public TerrainSampler getTerrain() {
+        if (terrain == null) {
+            terrain = createTerrain(spec);
+        }
+        return this.terrain;
+    }
 
     /**
-     * recursively subdivides a triangle into 4 triangles, and then normalizes each new vertex to a radius of 1
-     * @param v1 - the first vertex of the triangle
-     * @param v2 - the second vertex of the triangle
-     * @param v3 - the third vertex of the triangle
-     * @param depth - the current depth of recursion
+     * getter method
+     * @return - the color palette of this planet
      */
-    private static ArrayList<Triangle> subdivide(Vector3f v1, Vector3f v2, Vector3f v3, long depth, float radius) {
+    public ColorFader3C getPalette() {
+        if (palette == null) {
+            palette = createPalette(spec);
+        }
+        return this.palette;
+    }
 
-        ArrayList<Triangle> faces = new ArrayList<>();
+    private static Mesh generateMesh(TerrainSampler terrain, ColorFader3C cf, float radius, int depth, GenerationTimings timings) {
+        PlanetSurface surface = generateSurface(terrain, cf, radius, depth, timings);
 
-        // default condition
-        if (depth == 0) {
+        long start = System.nanoTime();
+        Mesh mesh = surface.toMesh();
+        timings.record(GenerationTimings.Stage.COLOR, start);
+        return mesh;
+    }
 
-            Vector3f v1p = Vector3f.normalize(v1, radius);
-            Vector3f v2p = Vector3f.normalize(v2, radius);
-            Vector3f v3p = Vector3f.normalize(v3, radius);
+    private static PlanetSurface generateSurface(TerrainSampler terrain, ColorFader3C cf, float radius, int depth, GenerationTimings timings) {
 
-            if (previousVertices.contains(v1p)) {
-                v1p = previousVertices.get(previousVertices.indexOf(v1p));
-            } else {
-                previousVertices.add(v1p);
-            }
+        // generate the triangles
+        long start = System.nanoTime();
+        Icosphere sphere = Icosphere.generate(radius, depth);
+        ArrayList<Triangle> triangles = sphere.getTriangles();
+        ArrayList<Vector3f> uniqueVertices = sphere.getVertices();
+        start = timings.record(GenerationTimings.Stage.SUBDIVIDE, start);
+
+        // evaluate the terrain for every unique vertex at once
+        int count = uniqueVertices.size();
+        double[] xs = new double[count], ys = new double[count], zs = new double[count], heights = new double[count];
+        for (int i = 0; i < count; i++) {
+            Vector3f v = uniqueVertices.get(i);
+            xs[i] = v.getX();
+            ys[i] = v.getY();
+            zs[i] = v.getZ();
+        }
+        terrain.evaluate(xs, ys, zs, heights, count);
 
-            if (previousVertices.contains(v2p)) {
-                v2p = previousVertices.get(previousVertices.indexOf(v2p));
-            } else {
-                previousVertices.add(v2p);
-            }
+        float maxHeight = 0.0f;
+        for (int i = 0; i < count; i++) {
+            Vector3f v = uniqueVertices.get(i);
+            v.normalize((float) heights[i]);
 
-            if (previousVertices.contains(v3p)) {
-                v3p = previousVertices.get(previousVertices.indexOf(v3p));
-            } else {
-                previousVertices.add(v3p);
+            if (Vector3f.length(v) > maxHeight) {
+                maxHeight = Vector3f.length(v);
             }
-
-            faces.add(new Triangle(v1p, v2p, v3p));
-            return faces;
         }
 
+        timings.record(GenerationTimings.Stage.DISPLACE, start);
+        return new PlanetSurface(triangles, uniqueVertices, cf, radius, maxHeight);
+    }
 
-        // create new vertices for each face
-        Vector3f v12 = Vector3f.normalize(new Vector3f(v1.getX() + v2.getX(), v1.getY() + v2.getY(), v1.getZ() + v2.getZ()), radius);
-        Vector3f v23 = Vector3f.normalize(new Vector3f(v2.getX() + v3.getX(), v2.getY() + v3.getY(), v2.getZ() + v3.getZ()), radius);
-        Vector3f v31 = Vector3f.normalize(new Vector3f(v3.getX() + v1.getX(), v3.getY() + v1.getY(), v3.getZ() + v1.getZ()), radius);
-
-        // recursive part
-        faces.addAll(subdivide(v1, v12, v31, depth - 1, radius));
-        faces.addAll(subdivide(v2, v23, v12, depth - 1, radius));
-        faces.addAll(subdivide(v3, v31, v23, depth - 1, radius));
-        faces.addAll(subdivide(v12, v23, v31,depth - 1, radius));
+    /**
+     * generates vertices of this sphere
+     * @param radius - the radius of the sphere
+     */
+    public static ArrayList<Triangle> generateTriangles(float radius) {
+        return generateTriangles(radius, PlanetSpec.DEFAULT_DEPTH);
+    }
 
-        return faces;
+    /**
+     * generates vertices of this sphere
+     * @param radius - the radius of the sphere
+     * @param depth - the amount of times to recursively subdivide faces
+     */
+    public static ArrayList<Triangle> generateTriangles(float radius, int depth) {
+        return Icosphere.generate(radius, depth).getTriangles();
     }
-}
\ No newline at end of file
+}
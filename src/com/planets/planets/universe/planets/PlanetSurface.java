@@ -0,0 +1,189 @@
+package com.planets.planets.universe.planets;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.MeshSource;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Triangle;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.math.color.ColorFader3C;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+public class PlanetSurface implements MeshSource {
+
+    // the displaced faces of the planet
+    private final ArrayList<Triangle> triangles;
+
+    // every distinct vertex, shared between the faces that touch it
+    private final ArrayList<Vector3f> vertices;
+
+    // the palette, from the water level to the highest vertex
+    private final ColorFader3C palette;
+
+    // the water level and the highest vertex
+    private final float radius;
+    private final float maxHeight;
+
+    /**
+     * default constructor
+     * @param triangles - the displaced faces of the planet
+     * @param vertices - every distinct vertex, shared between the faces that touch it
+     * @param palette - the palette, from the water level to the highest vertex
+     * @param radius - the water level
+     * @param maxHeight - the distance of the highest vertex from the center
+     */
+    PlanetSurface(ArrayList<Triangle> triangles, ArrayList<Vector3f> vertices, ColorFader3C palette, float radius, float maxHeight) {
+        this.triangles = triangles;
+        this.vertices = vertices;
+        this.palette = palette;
+        this.radius = radius;
+        this.maxHeight = maxHeight;
+    }
+
+    /**
+     * builds the mesh - every face gets its own 3 vertices, so faces can be flat shaded
+     * @return - the mesh
+     */
+    public Mesh toMesh() {
+        // create the vertex array
+        Vertex[] vertices = new Vertex[triangles.size() * 3];
+        for (int i = 0; i < triangles.size(); i++) {
+            Triangle t = triangles.get(i);
+
+            // calculate the color based on the magnitude of the vertex
+            Vector4f c1 = new Vector4f(color(t.getV1()), 1.0f);
+            Vector4f c2 = new Vector4f(color(t.getV2()), 1.0f);
+            Vector4f c3 = new Vector4f(color(t.getV3()), 1.0f);
+
+            // compute normal vectors
+            Vector3f n1 = normal(t);
+
+            // create the vertices
+            vertices[3 * i]     = new Vertex(new Vector3f(t.getV1()), c1, n1);
+            vertices[3 * i + 1] = new Vertex(new Vector3f(t.getV2()), c2, n1);
+            vertices[3 * i + 2] = new Vertex(new Vector3f(t.getV3()), c3, n1);
+        }
+
+        // generate draw order indices
+        int[] indices = new int[triangles.size() * 3];
+        for (int i = 0; i < triangles.size() * 3; i++) {
+            indices[i] = i;
+        }
+
+        // make a new mesh
+        return new Mesh(vertices, indices);
+    }
+
+    /**
+     * builds an indexed mesh - faces share their vertices, so the surface is smooth shaded with normals averaged
+     * over the faces around each vertex. about 6 times fewer vertices than toMesh()
+     * @return - the mesh, with the faces in the order they were subdivided
+     */
+    public Mesh toIndexedMesh() {
+        IdentityHashMap<Vector3f, Integer> index = new IdentityHashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            index.put(vertices.get(i), i);
+        }
+
+        // sum the area weighted normals of the faces around each vertex
+        float[] normals = new float[vertices.size() * 3];
+        int[] indices = new int[triangles.size() * 3];
+        for (int i = 0; i < triangles.size(); i++) {
+            Triangle t = triangles.get(i);
+            Vector3f n = Vector3f.cross(Vector3f.subtract(t.getV2(), t.getV1()), Vector3f.subtract(t.getV3(), t.getV1()));
+            indices[3 * i] = index.get(t.getV1());
+            indices[3 * i + 1] = index.get(t.getV2());
+            indices[3 * i + 2] = index.get(t.getV3());
+            for (int k = 0; k < 3; k++) {
+                normals[indices[3 * i + k] * 3] += n.getX();
+                normals[indices[3 * i + k] * 3 + 1] += n.getY();
+                normals[indices[3 * i + k] * 3 + 2] += n.getZ();
+            }
+        }
+
+        Vertex[] shared = new Vertex[vertices.size()];
+        for (int i = 0; i < shared.length; i++) {
+            Vector3f v = vertices.get(i);
+            Vector3f n = Vector3f.normalize(new Vector3f(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]));
+            shared[i] = new Vertex(new Vector3f(v), new Vector4f(color(v), 1.0f), n);
+        }
+        return new Mesh(shared, indices);
+    }
+
+    /**
+     * computes vertices on demand, so the planet can be exported without building the whole vertex array first
+     * @param first - the first vertex to compute
+     * @param count - the amount of vertices to compute
+     * @param positions - receives 3 floats per vertex, from index 0
+     * @param colors - receives 4 floats per vertex, from index 0
+     * @param normals - receives 3 floats per vertex, from index 0
+     */
+    @Override
+    public void readVertices(int first, int count, float[] positions, float[] colors, float[] normals) {
+        for (int i = 0; i < count; i++) {
+            Triangle t = triangles.get((first + i) / 3);
+            int corner = (first + i) % 3;
+            Vector3f v = corner == 0 ? t.getV1() : corner == 1 ? t.getV2() : t.getV3();
+            Vector3f c = color(v);
+            Vector3f n = normal(t);
+
+            positions[i * 3] = v.getX();
+            positions[i * 3 + 1] = v.getY();
+            positions[i * 3 + 2] = v.getZ();
+            colors[i * 4] = c.getX();
+            colors[i * 4 + 1] = c.getY();
+            colors[i * 4 + 2] = c.getZ();
+            colors[i * 4 + 3] = 1.0f;
+            normals[i * 3] = n.getX();
+            normals[i * 3 + 1] = n.getY();
+            normals[i * 3 + 2] = n.getZ();
+        }
+    }
+
+    /**
+     * the indices are the vertices in order, so nothing is stored for them
+     * @param first - the first index
+     * @param count - the amount of indices
+     * @param indices - receives the indices, from index 0
+     */
+    @Override
+    public void readIndices(int first, int count, int[] indices) {
+        for (int i = 0; i < count; i++) {
+            indices[i] = first + i;
+        }
+    }
+
+    /**
+     * helper method to color a vertex by its height
+     */
+    private Vector3f color(Vector3f v) {
+        return palette.getColor((Vector3f.length(v) - radius) / (maxHeight - radius));
+    }
+
+    /**
+     * helper method to compute the normal vector of a face
+     */
+    private static Vector3f normal(Triangle t) {
+        return Vector3f.normalize(Vector3f.cross(Vector3f.subtract(t.getV2(), t.getV1()), Vector3f.subtract(t.getV3(), t.getV1())));
+    }
+
+    /**
+     * getter method
+     * @return - the amount of vertices, 3 per face
+     */
+    @Override
+    public int getVertexCount() {
+        return triangles.size() * 3;
+    }
+
+    /**
+     * getter method
+     * @return - the amount of indices, 3 per face
+     */
+    @Override
+    public int getIndexCount() {
+        return triangles.size() * 3;
+    }
+}
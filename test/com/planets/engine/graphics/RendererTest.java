@@ -0,0 +1,118 @@
+package com.planets.engine.graphics;
+
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.gl.FrameStats;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import com.planets.engine.io.window.Window;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.objects.RenderObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RendererTest {
+
+    private RecordingBackend gl;
+    private Renderer renderer;
+    private Camera camera;
+    private Mesh triangle;
+    private Mesh strip;
+
+    @BeforeEach
+    void setUp() {
+        gl = new RecordingBackend();
+        Graphics.setBackend(gl);
+        Shader shader = new Shader("/shaders/mainVertex.glsl", "/shaders/mainFragment.glsl");
+        shader.create();
+        renderer = new Renderer(new Window(null), shader);
+        camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0), null);
+
+        triangle = new Mesh(vertices(3), new int[] {0, 1, 2});
+        strip = new Mesh(vertices(4), new int[] {0, 1, 2, 3}, GL11.GL_TRIANGLE_STRIP);
+        gl.endFrame();
+    }
+
+    @Test
+    void creatingMeshesUploadsTheirVerticesAndIndices() {
+        triangle.create();
+        strip.create();
+
+        // 10 floats per vertex for the position, the color and the normal, and 16 bit indices
+        assertEquals(7 * 10 * Float.BYTES + 7 * Short.BYTES, gl.endFrame().getBytesUploaded());
+    }
+
+    @Test
+    void eachMeshBindsAndReleasesItsOwnState() {
+        triangle.create();
+        strip.create();
+        List<RenderObject> objects = List.of(object(triangle), object(strip));
+        gl.endFrame();
+
+        // every frame is the same: per object its vertex array, 3 attribute arrays, index buffer and program are set
+        // and released, the strip also toggling primitive restart, with 7 uniforms each
+        for (int frame = 0; frame < 3; frame++) {
+            for (RenderObject object : objects) {
+                renderer.renderMesh(object, camera, new Vector3f(10));
+            }
+            assertStats(gl.endFrame(), 2, 2, 12 + 14, 0, 0, 14);
+        }
+    }
+
+    @Test
+    void arenaMeshesShareTheirStateAndOnlySetTheModel() {
+        MeshArena arena = new MeshArena(100, 100);
+        arena.add(triangle);
+        arena.add(strip);
+        assertEquals(7 * 10 * Float.BYTES + 7 * Short.BYTES, gl.endFrame().getBytesUploaded());
+        List<RenderObject> objects = List.of(object(triangle), object(strip), object(triangle));
+
+        // the vertex array, its attribute arrays and the program are set once, then 6 shared uniforms and 1 model
+        // uniform per object. primitive restart is toggled around the strip
+        renderer.renderMeshes(arena, objects, camera, new Vector3f(10));
+        assertStats(gl.endFrame(), 3, 3, 9, 0, 0, 9);
+
+        // the attribute arrays stay enabled in the arena's vertex array, so later frames enable them redundantly
+        for (int frame = 0; frame < 2; frame++) {
+            renderer.renderMeshes(arena, objects, camera, new Vector3f(10));
+            assertStats(gl.endFrame(), 3, 3, 6, 3, 0, 9);
+        }
+        arena.destroy();
+    }
+
+    /**
+     * helper method to make vertices along the x axis
+     */
+    private static Vertex[] vertices(int count) {
+        Vertex[] vertices = new Vertex[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new Vertex(new Vector3f(i, i % 2, 0), new Vector4f(1));
+        }
+        return vertices;
+    }
+
+    /**
+     * helper method to make an object at the origin
+     */
+    private static RenderObject object(Mesh mesh) {
+        return new RenderObject(mesh, new Vector3f(0), new Vector3f(0), new Vector3f(1));
+    }
+
+    /**
+     * helper method to check everything a frame did
+     */
+    private static void assertStats(FrameStats stats, int drawCalls, int draws, int stateChanges,
+                                    int redundantStateChanges, long bytesUploaded, int uniformSets) {
+        assertEquals(drawCalls, stats.getDrawCalls(), stats.toString());
+        assertEquals(draws, stats.getDraws(), stats.toString());
+        assertEquals(stateChanges, stats.getStateChanges(), stats.toString());
+        assertEquals(redundantStateChanges, stats.getRedundantStateChanges(), stats.toString());
+        assertEquals(bytesUploaded, stats.getBytesUploaded(), stats.toString());
+        assertEquals(uniformSets, stats.getUniformSets(), stats.toString());
+    }
+}
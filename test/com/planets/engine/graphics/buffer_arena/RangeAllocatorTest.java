@@ -0,0 +1,151 @@
+package com.planets.engine.graphics.buffer_arena;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RangeAllocatorTest {
+
+    @Test
+    void allocatesFromTheLowestBlockTheRangeFitsIn() {
+        RangeAllocator allocator = new RangeAllocator(100);
+        ArenaRange a = allocator.allocate(10, 1);
+        ArenaRange b = allocator.allocate(20, 1);
+        ArenaRange c = allocator.allocate(10, 1);
+        allocator.allocate(10, 1);
+        assertEquals(0, a.getOffset());
+        assertEquals(10, b.getOffset());
+        assertEquals(30, c.getOffset());
+
+        // holes of 10 are left at 0 and 30, before the rest of the capacity at 50
+        allocator.free(a);
+        allocator.free(c);
+        assertEquals(3, allocator.getFreeBlockCount());
+
+        // too large for the first hole, so it goes past it
+        assertEquals(50, allocator.allocate(15, 1).getOffset());
+        assertEquals(0, allocator.allocate(5, 1).getOffset());
+        assertEquals(5, allocator.allocate(5, 1).getOffset());
+        assertEquals(30, allocator.allocate(10, 1).getOffset());
+        assertEquals(65, allocator.allocate(35, 1).getOffset());
+        assertNull(allocator.allocate(1, 1));
+        assertEquals(100, allocator.getUsed());
+        assertEquals(0, allocator.getFreeBlockCount());
+    }
+
+    @Test
+    void alignedRangesKeepThePaddingFree() {
+        RangeAllocator allocator = new RangeAllocator(64);
+        allocator.allocate(3, 1);
+        ArenaRange aligned = allocator.allocate(8, 16);
+        assertEquals(16, aligned.getOffset());
+        assertEquals(16, aligned.getAlignment());
+
+        // the padding between the two is still free
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertEquals(3, allocator.allocate(13, 1).getOffset());
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertNull(allocator.allocate(1, 64));
+    }
+
+    @Test
+    void freeingMergesWithTheBlocksOnBothSides() {
+        RangeAllocator allocator = new RangeAllocator(40);
+        ArenaRange a = allocator.allocate(10, 1);
+        ArenaRange b = allocator.allocate(10, 1);
+        ArenaRange c = allocator.allocate(10, 1);
+        allocator.allocate(10, 1);
+
+        allocator.free(a);
+        allocator.free(c);
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertEquals(10, allocator.getLargestFreeBlock());
+        assertEquals(0.5, allocator.getFragmentation(), 1e-9);
+
+        allocator.free(b);
+        assertEquals(1, allocator.getFreeBlockCount());
+        assertEquals(30, allocator.getLargestFreeBlock());
+        assertEquals(0, allocator.getFragmentation(), 1e-9);
+        assertEquals(1, allocator.getRangeCount());
+        assertEquals(10, allocator.getUsed());
+        assertEquals(0, allocator.allocate(30, 1).getOffset());
+    }
+
+    @Test
+    void freeingTwiceOrFromAnotherAllocatorThrows() {
+        RangeAllocator allocator = new RangeAllocator(10);
+        ArenaRange range = allocator.allocate(5, 1);
+        allocator.free(range);
+        assertThrows(IllegalStateException.class, () -> allocator.free(range));
+
+        ArenaRange other = new RangeAllocator(10).allocate(5, 1);
+        assertThrows(IllegalStateException.class, () -> allocator.free(other));
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RangeAllocator(0));
+    }
+
+    @Test
+    void defragmentMovesRangesDownInOrderAndKeepsTheirAlignment() {
+        RangeAllocator allocator = new RangeAllocator(128);
+        ArenaRange a = allocator.allocate(10, 1);
+        ArenaRange b = allocator.allocate(5, 1);
+        ArenaRange c = allocator.allocate(8, 16);
+        ArenaRange d = allocator.allocate(10, 1);
+        ArenaRange e = allocator.allocate(4, 8);
+        assertArrayEquals(new int[] {0, 10, 16, 24, 40}, offsets(a, b, c, d, e));
+
+        allocator.free(a);
+        allocator.free(d);
+        ArrayList<int[]> moves = new ArrayList<>();
+        int moved = allocator.defragment((from, to, size) -> moves.add(new int[] {from, to, size}));
+
+        // b goes to 0, c can't go below 16 and stays, e goes to the next multiple of 8 after c
+        assertEquals(2, moved);
+        assertArrayEquals(new int[] {0, 16, 24}, offsets(b, c, e));
+        assertEquals(2, moves.size());
+        assertArrayEquals(new int[] {10, 0, 5}, moves.get(0));
+        assertArrayEquals(new int[] {40, 24, 4}, moves.get(1));
+        assertEquals(16, c.getAlignment());
+        assertEquals(8, e.getAlignment());
+
+        // the padding before c and everything after e are the only free blocks
+        assertEquals(2, allocator.getFreeBlockCount());
+        assertEquals(128 - 28, allocator.getLargestFreeBlock());
+        assertEquals(5, allocator.allocate(11, 1).getOffset());
+
+        // the ranges are still tracked at their new offsets
+        allocator.free(b);
+        allocator.free(e);
+        assertEquals(0, allocator.allocate(5, 1).getOffset());
+    }
+
+    @Test
+    void defragmentWithoutGapsMovesNothing() {
+        RangeAllocator allocator = new RangeAllocator(32);
+        ArenaRange a = allocator.allocate(8, 1);
+        ArenaRange b = allocator.allocate(8, 4);
+        int moved = allocator.defragment((from, to, size) -> {
+            throw new AssertionError("Nothing should move.");
+        });
+        assertEquals(0, moved);
+        assertArrayEquals(new int[] {0, 8}, offsets(a, b));
+        assertEquals(1, allocator.getFreeBlockCount());
+    }
+
+    /**
+     * helper method to get the offsets of ranges
+     */
+    private static int[] offsets(ArenaRange... ranges) {
+        int[] offsets = new int[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            offsets[i] = ranges[i].getOffset();
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,70 @@
+package com.planets.engine.graphics.gl;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL15;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordingBackendTest {
+
+    @Test
+    void indexBuffersAreBoundPerVertexArray() {
+        RecordingBackend gl = new RecordingBackend();
+        int first = gl.genVertexArray();
+        int second = gl.genVertexArray();
+        int indices = gl.genBuffer();
+
+        gl.bindVertexArray(first);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indices);
+
+        // the second vertex array has no index buffer yet, so binding the same one changes it
+        gl.bindVertexArray(second);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indices);
+        assertStats(gl.endFrame(), 4, 0);
+
+        // each vertex array kept its own binding
+        gl.bindVertexArray(first);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indices);
+        gl.bindVertexArray(second);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        gl.bindVertexArray(first);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indices);
+        assertStats(gl.endFrame(), 4, 2);
+
+        // other targets aren't part of the vertex array
+        int vertices = gl.genBuffer();
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, vertices);
+        gl.bindVertexArray(second);
+        gl.bindBuffer(GL15.GL_ARRAY_BUFFER, vertices);
+        assertStats(gl.endFrame(), 2, 1);
+    }
+
+    @Test
+    void mappingsAreCheckedAgainstTheBoundVertexArraysIndexBuffer() {
+        RecordingBackend gl = new RecordingBackend();
+        int first = gl.genVertexArray();
+        int second = gl.genVertexArray();
+        int small = gl.genBuffer();
+        int large = gl.genBuffer();
+
+        gl.bindVertexArray(first);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, small);
+        gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, 16, GL15.GL_STATIC_DRAW);
+        gl.bindVertexArray(second);
+        gl.bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, large);
+        gl.bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, 64, GL15.GL_STATIC_DRAW);
+
+        assertEquals(64, gl.mapBufferRange(GL15.GL_ELEMENT_ARRAY_BUFFER, 0, 64, 0).capacity());
+        gl.bindVertexArray(first);
+        assertThrows(IllegalStateException.class, () -> gl.mapBufferRange(GL15.GL_ELEMENT_ARRAY_BUFFER, 0, 64, 0));
+    }
+
+    /**
+     * helper method to check the state changes of a frame
+     */
+    private static void assertStats(FrameStats stats, int stateChanges, int redundantStateChanges) {
+        assertEquals(stateChanges, stats.getStateChanges());
+        assertEquals(redundantStateChanges, stats.getRedundantStateChanges());
+    }
+}
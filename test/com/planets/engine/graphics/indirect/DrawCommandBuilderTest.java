@@ -0,0 +1,152 @@
+package com.planets.engine.graphics.indirect;
+
+import com.planets.engine.graphics.Submesh;
+import com.planets.engine.graphics.buffer_arena.ArenaMesh;
+import com.planets.engine.graphics.buffer_arena.ArenaRange;
+import com.planets.engine.graphics.buffer_arena.RangeAllocator;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DrawCommandBuilderTest {
+
+    @Test
+    void layoutsMatchTheGlStructs() {
+        assertEquals(20, DrawCommandBuilder.COMMAND_BYTES);
+        assertEquals(96, DrawCommandBuilder.DRAW_DATA_BYTES);
+    }
+
+    @Test
+    void commandsHoldOneDrawPerSubmeshOffsetByTheArenaRanges() {
+        RangeAllocator vertices = new RangeAllocator(1000);
+        RangeAllocator indices = new RangeAllocator(1000);
+        vertices.allocate(100, 1);
+        indices.allocate(300, 1);
+        ArenaMesh mesh = mesh(GL11.GL_TRIANGLES, vertices.allocate(50, 1), indices.allocate(90, 1),
+                new Submesh(0, 60, 0), new Submesh(60, 30, 20));
+
+        DrawCommandBuilder builder = new DrawCommandBuilder(1);
+        builder.add(mesh, Matrix4f.identity(), new Vector4f(1), 7);
+        assertEquals(2, builder.getDrawCount(GL11.GL_TRIANGLES));
+
+        // starts past the offset to check the writes are absolute
+        ByteBuffer out = buffer(8 + 2 * DrawCommandBuilder.COMMAND_BYTES);
+        builder.writeCommands(GL11.GL_TRIANGLES, out, 8);
+        assertCommand(out, 8, 60, 300, 100, 0);
+        assertCommand(out, 8 + DrawCommandBuilder.COMMAND_BYTES, 30, 360, 120, 1);
+    }
+
+    @Test
+    void drawDataIsTheRowMajorModelTheTintAndThePaddedId() {
+        RangeAllocator allocator = new RangeAllocator(100);
+        ArenaMesh mesh = mesh(GL11.GL_TRIANGLES, allocator.allocate(10, 1), allocator.allocate(30, 1), new Submesh(0, 30, 0));
+        Matrix4f model = Matrix4f.translate(new Vector3f(1, 2, 3));
+
+        DrawCommandBuilder builder = new DrawCommandBuilder(1);
+        builder.add(mesh, model, new Vector4f(0.25f, 0.5f, 0.75f, 1), 42);
+        ByteBuffer out = buffer(16 + DrawCommandBuilder.DRAW_DATA_BYTES);
+        out.putInt(16 + 84, -1);
+        builder.writeDrawData(GL11.GL_TRIANGLES, out, 16);
+
+        // the matrix is written as it's stored, so the translation ends each of the first 3 rows
+        for (int i = 0; i < 16; i++) {
+            assertEquals(model.getAll()[i], out.getFloat(16 + i * Float.BYTES));
+        }
+        assertEquals(1, out.getFloat(16 + 3 * Float.BYTES));
+        assertEquals(2, out.getFloat(16 + 7 * Float.BYTES));
+        assertEquals(3, out.getFloat(16 + 11 * Float.BYTES));
+
+        assertEquals(0.25f, out.getFloat(16 + 64));
+        assertEquals(0.5f, out.getFloat(16 + 68));
+        assertEquals(0.75f, out.getFloat(16 + 72));
+        assertEquals(1, out.getFloat(16 + 76));
+        assertEquals(42, out.getInt(16 + 80));
+        assertEquals(0, out.getInt(16 + 84));
+        assertEquals(0, out.getInt(16 + 88));
+        assertEquals(0, out.getInt(16 + 92));
+    }
+
+    @Test
+    void drawsAreGroupedByModeInTheOrderTheyWereAdded() {
+        RangeAllocator vertices = new RangeAllocator(1000);
+        RangeAllocator indices = new RangeAllocator(1000);
+        ArenaMesh triangles = mesh(GL11.GL_TRIANGLES, vertices.allocate(10, 1), indices.allocate(30, 1), new Submesh(0, 30, 0));
+        ArenaMesh strip = mesh(GL11.GL_TRIANGLE_STRIP, vertices.allocate(10, 1), indices.allocate(12, 1), new Submesh(0, 12, 0));
+
+        // more draws than expected, so the arrays grow
+        DrawCommandBuilder builder = new DrawCommandBuilder(1);
+        builder.add(triangles, Matrix4f.identity(), new Vector4f(1), 1);
+        builder.add(strip, Matrix4f.identity(), new Vector4f(1), 2);
+        builder.add(triangles, Matrix4f.identity(), new Vector4f(1), 3);
+        builder.add(strip, Matrix4f.identity(), new Vector4f(1), 4);
+        builder.add(triangles, Matrix4f.identity(), new Vector4f(1), 5);
+        assertEquals(3, builder.getDrawCount(GL11.GL_TRIANGLES));
+        assertEquals(2, builder.getDrawCount(GL11.GL_TRIANGLE_STRIP));
+
+        ByteBuffer data = buffer(3 * DrawCommandBuilder.DRAW_DATA_BYTES);
+        builder.writeDrawData(GL11.GL_TRIANGLES, data, 0);
+        assertIds(data, 1, 3, 5);
+        builder.writeDrawData(GL11.GL_TRIANGLE_STRIP, data, 0);
+        assertIds(data, 2, 4);
+
+        ByteBuffer commands = buffer(2 * DrawCommandBuilder.COMMAND_BYTES);
+        builder.writeCommands(GL11.GL_TRIANGLE_STRIP, commands, 0);
+        assertCommand(commands, 0, 12, 30, 10, 0);
+        assertCommand(commands, DrawCommandBuilder.COMMAND_BYTES, 12, 30, 10, 1);
+
+        builder.reset();
+        assertEquals(0, builder.getDrawCount(GL11.GL_TRIANGLES));
+        assertEquals(0, builder.getDrawCount(GL11.GL_TRIANGLE_STRIP));
+    }
+
+    @Test
+    void rejectsOtherModes() {
+        RangeAllocator allocator = new RangeAllocator(100);
+        ArenaMesh lines = mesh(GL11.GL_LINES, allocator.allocate(10, 1), allocator.allocate(10, 1), new Submesh(0, 10, 0));
+        DrawCommandBuilder builder = new DrawCommandBuilder(1);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(lines, Matrix4f.identity(), new Vector4f(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.getDrawCount(GL11.GL_POINTS));
+    }
+
+    /**
+     * helper method to make an arena mesh out of allocated ranges
+     */
+    private static ArenaMesh mesh(int mode, ArenaRange vertices, ArenaRange indices, Submesh... submeshes) {
+        return new ArenaMesh(mode, vertices, indices, submeshes);
+    }
+
+    /**
+     * helper method to make a buffer like the mapped ones the builder writes to
+     */
+    private static ByteBuffer buffer(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * helper method to check a DrawElementsIndirectCommand, which always draws one instance
+     */
+    private static void assertCommand(ByteBuffer out, int offset, int count, int firstIndex, int baseVertex, int baseInstance) {
+        assertEquals(count, out.getInt(offset));
+        assertEquals(1, out.getInt(offset + 4));
+        assertEquals(firstIndex, out.getInt(offset + 8));
+        assertEquals(baseVertex, out.getInt(offset + 12));
+        assertEquals(baseInstance, out.getInt(offset + 16));
+    }
+
+    /**
+     * helper method to check the object IDs of consecutive draw data records
+     */
+    private static void assertIds(ByteBuffer data, int... ids) {
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], data.getInt(i * DrawCommandBuilder.DRAW_DATA_BYTES + 80));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.planets.engine.graphics.indirect;
+
+import com.planets.engine.graphics.Camera;
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Shader;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.graphics.buffer_arena.MeshArena;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import com.planets.engine.graphics.streaming.HeapStreamingBackend;
+import com.planets.engine.io.window.Window;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.objects.RenderObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndirectRendererTest {
+
+    // the multi-draws of the current frame, as their mode, indirect offset and draw count
+    private final List<long[]> multiDraws = new ArrayList<>();
+
+    private MeshArena arena;
+    private Mesh triangle;
+    private Mesh strip;
+    private IndirectRenderer renderer;
+    private Camera camera;
+
+    @BeforeEach
+    void setUp() {
+        Graphics.setBackend(new RecordingBackend() {
+            @Override
+            public void multiDrawElementsIndirect(int mode, int type, long indirect, int drawCount, int stride) {
+                super.multiDrawElementsIndirect(mode, type, indirect, drawCount, stride);
+                multiDraws.add(new long[] {mode, indirect, drawCount});
+            }
+        });
+        Shader shader = new Shader("/shaders/indirectVertex.glsl", "/shaders/mainFragment.glsl");
+        shader.create();
+        renderer = new IndirectRenderer(new Window(null), shader, new HeapStreamingBackend(1), 8);
+        camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0), null);
+
+        arena = new MeshArena(100, 100);
+        triangle = new Mesh(vertices(3), new int[] {0, 1, 2});
+        strip = new Mesh(vertices(4), new int[] {0, 1, 2, 3}, GL11.GL_TRIANGLE_STRIP);
+        arena.add(triangle);
+        arena.add(strip);
+    }
+
+    @Test
+    void drawsEachModeWithOneCallHoweverManyObjectsThereAre() {
+        for (int count : new int[] {1, 7, 100, 3000}) {
+            List<RenderObject> objects = objects(count);
+            renderer.render(arena, objects, camera, new Vector3f(10));
+
+            // the first object is a triangle, then they alternate, so the strips are the other half rounded down
+            int strips = count / 2;
+            assertEquals(count > 1 ? 2 : 1, multiDraws.size());
+            assertMultiDraw(multiDraws.get(0), GL11.GL_TRIANGLES, count - strips);
+            if (strips > 0) {
+                assertMultiDraw(multiDraws.get(1), GL11.GL_TRIANGLE_STRIP, strips);
+            }
+            multiDraws.clear();
+        }
+        assertEquals(3000, renderer.getCapacity());
+    }
+
+    @Test
+    void grownBuffersKeepEachFramesCommandsInItsOwnRegion() {
+        List<RenderObject> objects = objects(20);
+        renderer.render(arena, objects, camera, new Vector3f(10));
+        assertEquals(20, renderer.getCapacity());
+        multiDraws.clear();
+
+        // each region has room for every command of a frame and the padding before each mode's
+        long regionBytes = 20L * DrawCommandBuilder.COMMAND_BYTES + 2 * Integer.BYTES;
+        for (int frame = 1; frame < 7; frame++) {
+            renderer.render(arena, objects, camera, new Vector3f(10));
+            for (long[] multiDraw : multiDraws) {
+                long end = multiDraw[1] + multiDraw[2] * DrawCommandBuilder.COMMAND_BYTES;
+                assertEquals(frame % 3, multiDraw[1] / regionBytes);
+                assertEquals(frame % 3, (end - 1) / regionBytes);
+            }
+            multiDraws.clear();
+        }
+        assertEquals(20, renderer.getCapacity());
+        renderer.destroy();
+    }
+
+    /**
+     * helper method to make objects alternating between the triangle and the strip, starting with the triangle
+     */
+    private List<RenderObject> objects(int count) {
+        List<RenderObject> objects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            objects.add(new RenderObject(i % 2 == 0 ? triangle : strip, new Vector3f(i, 0, 0), new Vector3f(0), new Vector3f(1)));
+        }
+        return objects;
+    }
+
+    /**
+     * helper method to make vertices along the x axis
+     */
+    private static Vertex[] vertices(int count) {
+        Vertex[] vertices = new Vertex[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new Vertex(new Vector3f(i, i % 2, 0), new Vector4f(1));
+        }
+        return vertices;
+    }
+
+    /**
+     * helper method to check the mode and draw count of a multi-draw
+     */
+    private static void assertMultiDraw(long[] multiDraw, int mode, int draws) {
+        assertEquals(mode, multiDraw[0]);
+        assertEquals(draws, multiDraw[2]);
+    }
+}
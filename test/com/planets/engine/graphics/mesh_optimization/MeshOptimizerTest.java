@@ -0,0 +1,129 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshOptimizerTest {
+
+    @Test
+    void theSamePlanetAlwaysOptimizesTheSameWay() {
+        // two planets generated separately, so nothing is shared between the runs
+        OptimizedMesh first = MeshOptimizer.optimize(planet(5));
+        OptimizedMesh second = MeshOptimizer.optimize(planet(5));
+        assertArrayEquals(first.getMesh().getIndices(), second.getMesh().getIndices());
+        assertArrayEquals(first.getMesh().packPositions(), second.getMesh().packPositions());
+        assertArrayEquals(first.getMesh().packNormals(), second.getMesh().packNormals());
+        assertEquals(first.getAcmrAfter(), second.getAcmrAfter());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 6})
+    void keepsEveryTriangleWithItsWinding(int depth) {
+        Mesh mesh = planet(depth);
+        Mesh optimized = MeshOptimizer.optimize(mesh).getMesh();
+
+        // the optimized mesh holds the same vertex objects, so its indices map back to the original numbers
+        IdentityHashMap<Vertex, Integer> original = new IdentityHashMap<>();
+        Vertex[] vertices = mesh.getVertices();
+        for (int i = 0; i < vertices.length; i++) {
+            original.put(vertices[i], i);
+        }
+        Vertex[] fetched = optimized.getVertices();
+        int[] indices = optimized.getIndices();
+        int[] mapped = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            mapped[i] = original.get(fetched[indices[i]]);
+        }
+        assertEquals(triangles(mesh.getIndices()), triangles(mapped));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 4, 5, 6})
+    void neverMakesThePlanetWorseForTheCache(int depth) {
+        Mesh mesh = planet(depth);
+        OptimizedMesh optimized = MeshOptimizer.optimize(mesh);
+        int[] indices = optimized.getMesh().getIndices();
+        int vertexCount = optimized.getMesh().getVertexCount();
+        assertEquals(MeshOptimizer.acmr(mesh.getIndices(), mesh.getVertexCount(), MeshOptimizer.SIMULATED_CACHE_SIZE), optimized.getAcmrBefore());
+        assertEquals(MeshOptimizer.acmr(indices, vertexCount, MeshOptimizer.SIMULATED_CACHE_SIZE), optimized.getAcmrAfter());
+        assertTrue(optimized.getAcmrAfter() <= optimized.getAcmrBefore(), optimized.toString());
+
+        // the transform to vertex ratio is the same misses per vertex instead of per triangle, 1 being the best
+        double triangles = indices.length / 3.0;
+        double atvrBefore = optimized.getAcmrBefore() * triangles / mesh.getVertexCount();
+        double atvrAfter = optimized.getAcmrAfter() * triangles / vertexCount;
+        assertTrue(atvrAfter <= atvrBefore, atvrBefore + " -> " + atvrAfter);
+        assertTrue(atvrAfter >= 1);
+    }
+
+    @Test
+    void missRatiosOfSmallMeshes() {
+        assertEquals(0, MeshOptimizer.acmr(new int[0], 0, 16));
+        assertEquals(3, MeshOptimizer.acmr(new int[] {0, 1, 2}, 3, 16));
+
+        // the second triangle reuses 2 vertices, and nothing is reused once the cache has moved on
+        assertEquals(2, MeshOptimizer.acmr(new int[] {0, 1, 2, 2, 1, 3}, 4, 16));
+        assertEquals(3, MeshOptimizer.acmr(new int[] {0, 1, 2, 3, 4, 5, 0, 1, 2}, 6, 3));
+    }
+
+    @Test
+    void verticesAreNumberedInTheOrderTheyAreFirstUsed() {
+        int[] indices = {4, 2, 0, 0, 2, 3};
+        int[] remap = MeshOptimizer.optimizeVertexFetch(indices, 6);
+        assertArrayEquals(new int[] {0, 1, 2, 2, 1, 3}, indices);
+        assertArrayEquals(new int[] {2, -1, 1, 3, 0, -1}, remap);
+    }
+
+    @Test
+    void unusedVerticesAreDroppedAndBadInputRejected() {
+        Vertex[] vertices = new Vertex[4];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(new Vector3f(i, i % 2, 0), new Vector4f(1));
+        }
+        OptimizedMesh optimized = MeshOptimizer.optimize(new Mesh(vertices, new int[] {3, 1, 2}));
+        assertEquals(4, optimized.getOriginalVertexCount());
+        assertEquals(3, optimized.getMesh().getVertexCount());
+        assertSame(vertices[3], optimized.getMesh().getVertices()[optimized.getMesh().getIndices()[0]]);
+
+        assertThrows(IllegalArgumentException.class, () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1}, 2, 16));
+        assertThrows(IllegalArgumentException.class, () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1, 2}, 3, 3));
+    }
+
+    /**
+     * helper method to generate the indexed mesh of a planet
+     */
+    private static Mesh planet(int depth) {
+        return Planet.generateSurface(new PlanetSpec(depth).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+    }
+
+    /**
+     * helper method to count each triangle of a list, rotated so its smallest index is first, which keeps its winding
+     */
+    private static HashMap<Long, Integer> triangles(int[] indices) {
+        HashMap<Long, Integer> triangles = new HashMap<>();
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = indices[i], b = indices[i + 1], c = indices[i + 2];
+            int r = a <= b && a <= c ? 0 : b <= c ? 1 : 2;
+            long key = ((long) indices[i + r] << 42) | ((long) indices[i + (r + 1) % 3] << 21) | indices[i + (r + 2) % 3];
+            triangles.merge(key, 1, Integer::sum);
+        }
+        return triangles;
+    }
+}
@@ -0,0 +1,122 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.IndexBuffers;
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Submesh;
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshSplitterTest {
+
+    @Test
+    void aPackedMeshTooLargeForShortIndicesIsSplitIntoOnesThatFit() {
+        Mesh mesh = packed(planet(7));
+        assertTrue(mesh.getVertexCount() > IndexBuffers.MAX_SHORT_VERTICES);
+
+        Mesh split = MeshSplitter.split(mesh);
+        assertTrue(split.getSubmeshes().length > 1);
+        assertSplit(mesh, split, IndexBuffers.MAX_SHORT_VERTICES);
+    }
+
+    @Test
+    void creatingALargePackedMeshDrawsItWithShortIndices() {
+        Graphics.setBackend(new RecordingBackend());
+        Mesh mesh = packed(planet(7));
+        mesh.create();
+        assertEquals(GL11.GL_UNSIGNED_SHORT, mesh.getIndexType());
+        assertTrue(mesh.getDrawRanges().length > 1);
+        assertEquals(mesh.getIndexCount(), Arrays.stream(mesh.getDrawRanges()).mapToInt(Submesh::getIndexCount).sum());
+    }
+
+    @Test
+    void verticesSharedAcrossABoundaryAreStoredOncePerSubmesh() {
+        Mesh mesh = planet(3);
+        Mesh split = MeshSplitter.split(mesh, 300);
+        assertTrue(split.getSubmeshes().length >= mesh.getVertexCount() / 300);
+        assertTrue(split.getVertexCount() > mesh.getVertexCount());
+        assertSplit(mesh, split, 300);
+
+        // packed or not, the same mesh is split the same way
+        Mesh fromPacked = MeshSplitter.split(packed(mesh), 300);
+        assertEquals(split.getVertexCount(), fromPacked.getVertexCount());
+        assertEquals(split.getSubmeshes().length, fromPacked.getSubmeshes().length);
+        assertSplit(mesh, fromPacked, 300);
+    }
+
+    @Test
+    void aMeshThatFitsIsLeftAsItIs() {
+        Mesh mesh = packed(planet(2));
+        assertSame(mesh, MeshSplitter.split(mesh));
+        assertThrows(IllegalArgumentException.class, () -> MeshSplitter.split(mesh, 2));
+    }
+
+    /**
+     * helper method to check that the submeshes cover the indices in order, each using at most a number of vertices,
+     * and that every corner of every triangle is where it was
+     */
+    private static void assertSplit(Mesh mesh, Mesh split, int maxVertices) {
+        float[] before = mesh.packPositions(), after = split.packPositions();
+        int[] indices = new int[mesh.getIndexCount()], local = new int[split.getIndexCount()];
+        mesh.readIndices(0, indices.length, indices);
+        split.readIndices(0, local.length, local);
+        assertEquals(indices.length, local.length);
+
+        int next = 0;
+        for (Submesh submesh : split.getSubmeshes()) {
+            assertEquals(next, submesh.getFirstIndex());
+            assertEquals(0, submesh.getIndexCount() % 3);
+            next += submesh.getIndexCount();
+            for (int i = submesh.getFirstIndex(); i < next; i++) {
+                assertTrue(local[i] >= 0 && local[i] < maxVertices);
+                int v = submesh.getBaseVertex() + local[i];
+                for (int k = 0; k < 3; k++) {
+                    assertEquals(before[indices[i] * 3 + k], after[v * 3 + k]);
+                }
+            }
+        }
+        assertEquals(indices.length, next);
+    }
+
+    /**
+     * helper method to generate a planet's indexed mesh
+     */
+    private static Mesh planet(int depth) {
+        return Planet.generateSurface(new PlanetSpec(depth).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+    }
+
+    /**
+     * helper method to make a copy of a mesh that only has packed data, like one loaded from a file
+     */
+    private static Mesh packed(Mesh mesh) {
+        int[] indices = new int[mesh.getIndexCount()];
+        mesh.readIndices(0, indices.length, indices);
+        IntBuffer indexData = ByteBuffer.allocateDirect(indices.length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        indexData.put(indices).flip();
+        return new Mesh(direct(mesh.packPositions()), direct(mesh.packColors()), direct(mesh.packNormals()), indexData);
+    }
+
+    /**
+     * helper method to copy floats into a direct buffer
+     */
+    private static FloatBuffer direct(float[] data) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(data.length * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(data).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,100 @@
+package com.planets.engine.graphics.mesh_optimization;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.lwjgl.opengl.GL11;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripifierTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 4, 5, 6, 7})
+    void stripsOfAPlanetMakeTheSameWoundTriangles(int depth) {
+        Mesh mesh = Planet.generateSurface(new PlanetSpec(depth).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+        int[] indices = mesh.getIndices();
+        TriangleStrips strips = Stripifier.stripify(indices, mesh.getVertexCount());
+
+        assertEquals(indices.length / 3, strips.getTriangleCount());
+        assertEquals(indices.length, strips.getSourceIndexCount());
+        assertTrue(strips.getReduction() > 0, strips.toString());
+        assertEquals(triangles(indices), triangles(Stripifier.unstrip(strips.getIndices())));
+        assertRestarts(strips);
+    }
+
+    @Test
+    void restartsEndStripsAndOddTrianglesAreFlipped() {
+        int[] strips = {0, 1, 2, 3, Stripifier.RESTART, 4, 5, 6, 7, 8};
+        assertArrayEquals(new int[] {0, 1, 2, 2, 1, 3, 4, 5, 6, 6, 5, 7, 6, 7, 8}, Stripifier.unstrip(strips));
+
+        // a strip of 2 indices makes nothing, and a degenerate triangle still counts towards the flipping
+        assertArrayEquals(new int[] {3, 4, 5}, Stripifier.unstrip(new int[] {0, 1, Stripifier.RESTART, 3, 4, 5}));
+        assertArrayEquals(new int[] {2, 1, 3, 2, 3, 4}, Stripifier.unstrip(new int[] {1, 1, 2, 3, 4}));
+    }
+
+    @Test
+    void aTriangleWoundTheOtherWayIsADifferentTriangle() {
+        // what the planet tests compare by, so a strip that flipped a triangle would fail them
+        assertEquals(triangles(new int[] {0, 1, 2}), triangles(new int[] {1, 2, 0}));
+        assertNotEquals(triangles(new int[] {0, 1, 2}), triangles(new int[] {0, 2, 1}));
+    }
+
+    @Test
+    void stripsOfAMeshAreDrawnAsStripsOfTheSameVertices() {
+        Mesh mesh = Planet.generateSurface(new PlanetSpec(1).withDepth(2), new GenerationTimings()).toIndexedMesh();
+        Mesh stripped = Stripifier.stripify(mesh);
+        assertEquals(GL11.GL_TRIANGLE_STRIP, stripped.getMode());
+        assertEquals(mesh.getVertexCount(), stripped.getVertexCount());
+        assertEquals(triangles(mesh.getIndices()), triangles(Stripifier.unstrip(stripped.getIndices())));
+    }
+
+    @Test
+    void aPartialTriangleIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Stripifier.stripify(new int[] {0, 1, 2, 3}, 4));
+    }
+
+    /**
+     * helper method to count each triangle of a list, rotated so its smallest index is first, which keeps its winding
+     */
+    private static HashMap<Long, Integer> triangles(int[] indices) {
+        HashMap<Long, Integer> triangles = new HashMap<>();
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = indices[i], b = indices[i + 1], c = indices[i + 2];
+            int r = a <= b && a <= c ? 0 : b <= c ? 1 : 2;
+            int[] rotated = {indices[i + r], indices[i + (r + 1) % 3], indices[i + (r + 2) % 3]};
+            long key = ((long) rotated[0] << 42) | ((long) rotated[1] << 21) | rotated[2];
+            triangles.merge(key, 1, Integer::sum);
+        }
+        return triangles;
+    }
+
+    /**
+     * helper method to check that the strips are separated by exactly one restart each
+     */
+    private static void assertRestarts(TriangleStrips strips) {
+        int[] indices = strips.getIndices();
+        int restarts = 0;
+        int length = 0;
+        for (int i = 0; i <= indices.length; i++) {
+            if (i == indices.length || indices[i] == Stripifier.RESTART) {
+                assertTrue(length >= 3, "A strip of " + length + " indices ends at " + i + ".");
+                restarts += i < indices.length ? 1 : 0;
+                length = 0;
+            } else {
+                length++;
+            }
+        }
+        assertEquals(strips.getStripCount() - 1, restarts);
+    }
+}
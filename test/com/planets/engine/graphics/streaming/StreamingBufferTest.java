@@ -0,0 +1,112 @@
+package com.planets.engine.graphics.streaming;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL31;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingBufferTest {
+
+    @Test
+    void regionsRotateEveryFrame() {
+        StreamingBuffer buffer = new StreamingBuffer(new HeapStreamingBackend(0), GL15.GL_ARRAY_BUFFER, 1024, 3);
+        for (int frame = 0; frame < 7; frame++) {
+            buffer.beginFrame();
+            assertEquals((frame % 3) * 1024, buffer.allocate(16, 4));
+            assertEquals(16, buffer.getUsedBytes());
+            buffer.endFrame();
+        }
+    }
+
+    @Test
+    void neverStallsWhileTheGpuIsFewerFramesBehindThanThereAreRegions() {
+        HeapStreamingBackend backend = new HeapStreamingBackend(2);
+        StreamingBuffer buffer = new StreamingBuffer(backend, GL15.GL_ARRAY_BUFFER, 256, 3);
+        runFrames(buffer, 20);
+        assertEquals(0, buffer.getStalls());
+        assertEquals(0, backend.getBlockedWaits());
+    }
+
+    @Test
+    void stallsEveryFrameOnceTheGpuIsAsManyFramesBehindAsThereAreRegions() {
+        HeapStreamingBackend backend = new HeapStreamingBackend(3);
+        StreamingBuffer buffer = new StreamingBuffer(backend, GL15.GL_ARRAY_BUFFER, 256, 3);
+        runFrames(buffer, 20);
+
+        // the first 3 frames have fresh regions, every one after waits for the frame 3 before it
+        assertEquals(17, buffer.getStalls());
+        assertEquals(17, backend.getBlockedWaits());
+        assertTrue(buffer.getStallNanos() >= 0);
+    }
+
+    @Test
+    void offsetsAreAlignedFromTheStartOfTheBuffer() {
+        // 1000 isn't a multiple of 256, so only the first region starts on a uniform block boundary
+        StreamingBuffer buffer = new StreamingBuffer(new HeapStreamingBackend(0), GL31.GL_UNIFORM_BUFFER, 1000, 3);
+        for (int frame = 0; frame < 3; frame++) {
+            buffer.beginFrame();
+            int start = frame * 1000;
+            int first = buffer.allocate(3, 1);
+            int vector = buffer.allocate(16, 16);
+            int block = buffer.allocate(64, 256);
+            assertEquals(start, first);
+            assertEquals(0, vector % 16);
+            assertEquals(0, block % 256);
+            assertTrue(vector >= first + 3 && block >= vector + 16);
+            assertTrue(block + 64 <= start + 1000);
+            assertEquals(block + 64 - start, buffer.getUsedBytes());
+            buffer.endFrame();
+        }
+    }
+
+    @Test
+    void overflowingARegionThrows() {
+        StreamingBuffer buffer = new StreamingBuffer(new HeapStreamingBackend(0), GL15.GL_ARRAY_BUFFER, 100, 2);
+        buffer.beginFrame();
+        buffer.allocate(90, 1);
+        assertThrows(IllegalStateException.class, () -> buffer.allocate(11, 1));
+        assertEquals(100, buffer.allocate(10, 1) + 10);
+        buffer.endFrame();
+
+        // the padding counts against the region too
+        buffer.beginFrame();
+        buffer.allocate(1, 1);
+        assertThrows(IllegalStateException.class, () -> buffer.allocate(97, 4));
+        buffer.endFrame();
+    }
+
+    @Test
+    void allocatingOutsideAFrameThrows() {
+        StreamingBuffer buffer = new StreamingBuffer(new HeapStreamingBackend(0), GL15.GL_ARRAY_BUFFER, 64, 3);
+        assertThrows(IllegalStateException.class, () -> buffer.allocate(4, 4));
+        buffer.beginFrame();
+        assertThrows(IllegalStateException.class, buffer::beginFrame);
+        assertThrows(IllegalArgumentException.class, () -> buffer.allocate(4, 0));
+        buffer.endFrame();
+        assertThrows(IllegalStateException.class, buffer::endFrame);
+    }
+
+    @Test
+    void destroyWaitsForEveryRegionAndDeletesTheBuffer() {
+        HeapStreamingBackend backend = new HeapStreamingBackend(5);
+        StreamingBuffer buffer = new StreamingBuffer(backend, GL15.GL_ARRAY_BUFFER, 64, 3);
+        runFrames(buffer, 3);
+        buffer.destroy();
+        assertEquals(0, backend.getPendingFences());
+        assertEquals(0, backend.getLiveBuffers());
+    }
+
+    /**
+     * helper method to write a little in each of some frames
+     */
+    private static void runFrames(StreamingBuffer buffer, int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            buffer.beginFrame();
+            buffer.getMapped().putFloat(buffer.allocate(4, 4), frame);
+            buffer.endFrame();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.planets.engine.io.mesh_cache;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path scratch;
+
+    @Test
+    void countsHitsAndMisses() {
+        MeshCache cache = new MeshCache(directory, 1 << 20);
+        Mesh mesh = mesh(1);
+        assertNull(cache.load("a"));
+        cache.store("a", mesh);
+
+        Mesh loaded = cache.load("a");
+        assertNotNull(loaded);
+        assertArrayEquals(mesh.getIndices(), loaded.getIndices());
+        assertArrayEquals(mesh.packPositions(), loaded.packPositions());
+        assertNull(cache.load("b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedOnceOverTheLimit() {
+        long bytes = sizeOf(mesh(1));
+        MeshCache cache = new MeshCache(directory, bytes * 5 / 2);
+        cache.store("a", mesh(1));
+        cache.store("b", mesh(2));
+
+        // loading a makes b the least recently used
+        assertNotNull(cache.load("a"));
+        cache.store("c", mesh(3));
+        assertEquals(2, cache.size());
+        assertEquals(2 * bytes, cache.getTotalBytes());
+        assertFalse(Files.exists(directory.resolve("b.mesh")));
+        assertNull(cache.load("b"));
+        assertNotNull(cache.load("a"));
+        assertNotNull(cache.load("c"));
+
+        // replacing a mesh doesn't count its old file
+        cache.store("c", mesh(4));
+        assertEquals(2 * bytes, cache.getTotalBytes());
+    }
+
+    @Test
+    void reopeningIndexesTheFilesByLastUse() throws IOException {
+        long bytes = sizeOf(mesh(1));
+        MeshCache cache = new MeshCache(directory, 1 << 20);
+        cache.store("a", mesh(1));
+        cache.store("b", mesh(2));
+        cache.store("c", mesh(3));
+        Files.setLastModifiedTime(directory.resolve("a.mesh"), FileTime.fromMillis(3000));
+        Files.setLastModifiedTime(directory.resolve("b.mesh"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("c.mesh"), FileTime.fromMillis(2000));
+
+        // every file is found again, and the one used longest ago goes first when the limit is lower
+        MeshCache reopened = new MeshCache(directory, bytes * 5 / 2);
+        assertEquals(2, reopened.size());
+        assertEquals(2 * bytes, reopened.getTotalBytes());
+        assertNull(reopened.load("b"));
+        assertNotNull(reopened.load("a"));
+        assertArrayEquals(mesh(3).packPositions(), reopened.load("c").packPositions());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3, 200})
+    void corruptFilesAreEvicted(int length) throws IOException {
+        MeshCache cache = new MeshCache(directory, 1 << 20);
+        cache.store("a", mesh(1));
+        cache.store("b", mesh(2));
+
+        // an empty file, one too short for a header, and one full of noise
+        byte[] noise = new byte[length];
+        Arrays.fill(noise, (byte) 0x7f);
+        Files.write(directory.resolve("a.mesh"), noise);
+        long remaining = Files.size(directory.resolve("b.mesh"));
+
+        assertNull(cache.load("a"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertEquals(remaining, cache.getTotalBytes());
+        assertFalse(Files.exists(directory.resolve("a.mesh")));
+        assertNotNull(cache.load("b"));
+        assertTrue(Files.exists(directory.resolve("b.mesh")));
+    }
+
+    /**
+     * helper method to make a triangle, different for each seed but always the same size
+     */
+    private static Mesh mesh(int seed) {
+        return new Mesh(new Vertex[] {
+                new Vertex(new Vector3f(seed, 0, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(0, seed, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(0, 0, seed), new Vector4f(1))}, new int[] {0, 1, 2});
+    }
+
+    /**
+     * helper method to find the size of a mesh's cache file, from a cache of its own
+     */
+    private long sizeOf(Mesh mesh) {
+        MeshCache cache = new MeshCache(scratch, 1 << 20);
+        cache.store("mesh", mesh);
+        return cache.getTotalBytes();
+    }
+}
@@ -0,0 +1,94 @@
+package com.planets.engine.io.mesh_export;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriangleReaderTest {
+
+    @Test
+    void stripsAreReadAsTheTrianglesTheyMakeAcrossChunks() {
+        // enough indices that strips cross the chunks the reader takes from the source
+        Mesh strips = Stripifier.stripify(planet(5));
+        int[] expected = Stripifier.unstrip(strips.getIndices());
+        assertTrue(strips.getIndexCount() > MeshExporter.CHUNK * 3);
+
+        assertEquals(expected.length / 3, TriangleReader.count(strips));
+        assertArrayEquals(expected, readAll(strips, 7));
+        assertArrayEquals(expected, readAll(strips, MeshExporter.CHUNK));
+    }
+
+    @Test
+    void listsAreReadAsTheyAre() {
+        Mesh list = planet(3);
+        assertEquals(list.getIndexCount() / 3, TriangleReader.count(list));
+        assertArrayEquals(list.getIndices(), readAll(list, 5));
+    }
+
+    @Test
+    void exportersWriteStripsAsTriangleLists() throws IOException {
+        Mesh list = planet(3);
+        Mesh strips = Stripifier.stripify(list);
+        int faces = list.getIndexCount() / 3;
+
+        String obj = new String(export(new ObjExporter(), strips), StandardCharsets.US_ASCII);
+        assertTrue(obj.startsWith("# planets mesh export\n# vertices " + list.getVertexCount() + ", faces " + faces + "\n"));
+        assertEquals(faces, obj.lines().filter(line -> line.startsWith("f ")).count());
+
+        byte[] ply = export(new PlyExporter(), strips);
+        assertTrue(new String(ply, StandardCharsets.US_ASCII).contains("element face " + faces + "\n"));
+
+        // the index accessor of a binary glTF counts a list, which is the only primitive it's written with
+        byte[] glb = export(new GlbExporter(), strips);
+        int jsonLength = ByteBuffer.wrap(glb).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        String json = new String(glb, 20, jsonLength, StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"mode\":4"));
+        assertTrue(json.contains("\"count\":" + faces * 3 + ","), json);
+    }
+
+    /**
+     * helper method to generate a planet's indexed mesh
+     */
+    private static Mesh planet(int depth) {
+        return Planet.generateSurface(new PlanetSpec(depth).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+    }
+
+    /**
+     * helper method to read every triangle of a mesh a few at a time
+     */
+    private static int[] readAll(Mesh mesh, int perRead) {
+        TriangleReader reader = new TriangleReader(mesh);
+        int[] triangles = new int[perRead * 3];
+        int[] all = new int[0];
+        for (int n = reader.read(triangles); n > 0; n = reader.read(triangles)) {
+            int length = all.length;
+            all = Arrays.copyOf(all, length + n * 3);
+            System.arraycopy(triangles, 0, all, length, n * 3);
+        }
+        return all;
+    }
+
+    /**
+     * helper method to export a mesh to memory
+     */
+    private static byte[] export(MeshExporter exporter, Mesh mesh) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(mesh, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,108 @@
+package com.planets.engine.io.mesh_io;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.mesh_optimization.Stripifier;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.lwjgl.opengl.GL11;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeshWriterTest {
+
+    @ParameterizedTest
+    @EnumSource(MeshFormat.Compression.class)
+    void stripsKeepTheirModeAndRestartsWith2ByteIndices(MeshFormat.Compression compression) throws IOException {
+        Mesh strips = Stripifier.stripify(planet(3));
+        byte[] file = write(strips, compression, false);
+
+        MeshReader reader = new MeshReader(Channels.newChannel(new ByteArrayInputStream(file)));
+        Mesh read = reader.read();
+        assertEquals(2, reader.getHeader().getIndexWidth());
+        assertEquals(MeshFormat.Primitive.TRIANGLE_STRIP, reader.getHeader().getPrimitive());
+        assertEquals(GL11.GL_TRIANGLE_STRIP, read.getMode());
+        assertArrayEquals(strips.getIndices(), read.getIndices());
+        assertArrayEquals(strips.packPositions(), read.packPositions());
+    }
+
+    @Test
+    void stripsKeepTheirModeAndRestartsInPlace() throws IOException {
+        Mesh strips = Stripifier.stripify(planet(3));
+        Mesh wrapped = MeshReader.wrap(ByteBuffer.wrap(write(strips, MeshFormat.Compression.NONE, true)).order(ByteOrder.LITTLE_ENDIAN));
+        assertEquals(GL11.GL_TRIANGLE_STRIP, wrapped.getMode());
+        assertArrayEquals(strips.getIndices(), wrapped.getIndices());
+    }
+
+    @Test
+    void triangleListsKeepTheLastShortIndex() throws IOException {
+        Mesh list = planet(2);
+        MeshReader reader = new MeshReader(Channels.newChannel(new ByteArrayInputStream(write(list, MeshFormat.Compression.LZ4, false))));
+        Mesh read = reader.read();
+        assertEquals(MeshFormat.Primitive.TRIANGLES, reader.getHeader().getPrimitive());
+        assertEquals(GL11.GL_TRIANGLES, read.getMode());
+        assertArrayEquals(list.getIndices(), read.getIndices());
+    }
+
+    @Test
+    void version1FilesAreReadAsTriangleLists() throws IOException {
+        Mesh list = planet(1);
+        byte[] file = write(list, MeshFormat.Compression.NONE, true);
+
+        // version 1 wrote the same layout with a 0 where the primitive now is
+        ByteBuffer buffer = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(MeshFormat.Primitive.TRIANGLES.id, buffer.get(19));
+        buffer.putShort(4, (short) 1);
+        Mesh read = MeshReader.wrap(buffer);
+        assertEquals(GL11.GL_TRIANGLES, read.getMode());
+        assertArrayEquals(list.getIndices(), read.getIndices());
+
+        // and a newer version than this one is refused
+        buffer.putShort(4, (short) (MeshFormat.VERSION + 1));
+        assertThrows(IOException.class, () -> MeshReader.wrap(buffer));
+    }
+
+    @Test
+    void packedArraysWriteTheSameFileAsTheMesh() throws IOException {
+        Mesh mesh = planet(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MeshWriter(Channels.newChannel(out), MeshFormat.Compression.DEFLATE).write(mesh.packPositions(),
+                mesh.packColors(), mesh.packNormals(), mesh.getIndices(), mesh.getMode());
+        assertArrayEquals(write(mesh, MeshFormat.Compression.DEFLATE, false), out.toByteArray());
+
+        // arrays of different amounts of vertices are refused before anything is written
+        MeshWriter writer = new MeshWriter(Channels.newChannel(new ByteArrayOutputStream()), MeshFormat.Compression.NONE);
+        assertThrows(IllegalArgumentException.class, () -> writer.write(new float[6], new float[4], new float[6], new int[0], GL11.GL_TRIANGLES));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(new float[4], new float[4], new float[4], new int[0], GL11.GL_TRIANGLES));
+    }
+
+    /**
+     * helper method to generate a planet's indexed mesh
+     */
+    private static Mesh planet(int depth) {
+        return Planet.generateSurface(new PlanetSpec(depth).withDepth(depth), new GenerationTimings()).toIndexedMesh();
+    }
+
+    /**
+     * helper method to write a mesh to memory
+     */
+    private static byte[] write(Mesh mesh, MeshFormat.Compression compression, boolean wideIndices) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MeshWriter writer = new MeshWriter(Channels.newChannel(out), compression);
+        writer.setWideIndices(wideIndices);
+        writer.write(mesh);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,44 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.objects.RenderObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PickingColorTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 254, 255, 256, 65535, 65536, RenderObject.MAX_ID})
+    void idsSurviveAnEightBitTarget(int id) {
+        Vector3f color = PickingColor.encode(id, new Vector3f(0));
+
+        // what an 8 bit target stores for each component
+        int r = Math.round(color.getX() * 255);
+        int g = Math.round(color.getY() * 255);
+        int b = Math.round(color.getZ() * 255);
+        assertEquals(id, PickingColor.decode(r, g, b));
+
+        // the same bytes read back into a buffer, where anything above 127 is negative
+        ByteBuffer pixels = ByteBuffer.allocate(8);
+        pixels.put(4, (byte) r).put(5, (byte) g).put(6, (byte) b).put(7, (byte) 255);
+        assertEquals(id, PickingColor.decode(pixels, 4));
+    }
+
+    @Test
+    void blackIsTheBackground() {
+        assertEquals(PickingColor.NONE, PickingColor.decode(0, 0, 0));
+        assertEquals(PickingColor.NONE, PickingColor.decode(ByteBuffer.allocate(4), 0));
+    }
+
+    @Test
+    void idsOutsideTheColorAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PickingColor.encode(-1, new Vector3f(0)));
+        assertThrows(IllegalArgumentException.class, () -> PickingColor.encode(RenderObject.MAX_ID + 1, new Vector3f(0)));
+    }
+}
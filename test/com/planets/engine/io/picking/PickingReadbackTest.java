@@ -0,0 +1,124 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import com.planets.engine.math.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PickingReadbackTest {
+
+    @Test
+    void neverDropsWhileTheGpuIsFewerFramesBehindThanThereAreSlots() {
+        RecordingBackend gl = new RecordingBackend();
+        gl.setSyncLatency(2);
+        Graphics.setBackend(gl);
+        PickingReadback readback = new PickingReadback(3, 3);
+        runFrames(gl, readback, 10);
+
+        // every frame from the third finishes the request of 2 frames before
+        assertEquals(0, readback.getDropped());
+        assertEquals(8, readback.getResolved());
+        assertEquals(2, readback.getPending());
+        assertEquals(7, readback.getPickedX());
+        assertEquals(14, readback.getPickedY());
+        assertEquals(10, gl.getPixelReads());
+        readback.destroy();
+    }
+
+    @Test
+    void dropsRequestsOnceEverySlotIsInFlight() {
+        RecordingBackend gl = new RecordingBackend();
+        gl.setSyncLatency(3);
+        Graphics.setBackend(gl);
+        PickingReadback readback = new PickingReadback(3, 3);
+        runFrames(gl, readback, 9);
+
+        // frames 3 and 7 find every slot in flight, and only then is the oldest readback finished
+        assertEquals(2, readback.getDropped());
+        assertEquals(5, readback.getResolved());
+        assertEquals(2, readback.getPending());
+        assertEquals(readback.getResolved() + readback.getPending(), gl.getPixelReads());
+        assertEquals(5, readback.getPickedX());
+        readback.destroy();
+    }
+
+    @Test
+    void pollsWithoutWaitingForTheGpu() {
+        RecordingBackend gl = new RecordingBackend();
+        gl.setSyncLatency(1);
+        Graphics.setBackend(gl);
+        PickingReadback readback = new PickingReadback(1, 1);
+        assertTrue(readback.request(4, 5));
+        assertFalse(readback.poll());
+        assertFalse(readback.request(6, 7));
+        assertEquals(PickingColor.NONE, readback.getPickedID());
+        assertEquals(-1, readback.getPickedX());
+
+        gl.endFrame();
+        assertTrue(readback.poll());
+        assertFalse(readback.poll());
+        assertEquals(4, readback.getPickedX());
+        assertEquals(5, readback.getPickedY());
+        assertEquals(1, readback.getResolved());
+        assertEquals(1, readback.getDropped());
+        readback.destroy();
+    }
+
+    @Test
+    void picksTheObjectClosestToTheMiddle() {
+        // the mapped region has object 9 in a corner and object 300 one pixel from the middle
+        ByteBuffer pixels = ByteBuffer.allocateDirect(5 * 5 * 4).order(ByteOrder.nativeOrder());
+        put(pixels, 5, 0, 0, 9);
+        put(pixels, 5, 3, 2, 300);
+        RecordingBackend gl = new RecordingBackend() {
+            @Override
+            public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+                super.mapBufferRange(target, offset, length, access);
+                return pixels.duplicate();
+            }
+        };
+        Graphics.setBackend(gl);
+        PickingReadback readback = new PickingReadback(5, 1);
+        readback.request(0, 0);
+        assertTrue(readback.poll());
+        assertEquals(300, readback.getPickedID());
+        readback.destroy();
+    }
+
+    @Test
+    void emptyRegionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PickingReadback(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PickingReadback(1, 0));
+    }
+
+    /**
+     * helper method to request a readback every frame, at a cursor made from the frame, and poll after it
+     */
+    private static void runFrames(RecordingBackend gl, PickingReadback readback, int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            readback.request(frame, frame * 2);
+            readback.poll();
+            gl.endFrame();
+        }
+    }
+
+    /**
+     * helper method to write the picking color of an ID into a pixel of a square region
+     */
+    private static void put(ByteBuffer pixels, int size, int x, int y, int id) {
+        Vector3f color = PickingColor.encode(id, new Vector3f(0));
+        int offset = (y * size + x) * 4;
+        pixels.put(offset, (byte) Math.round(color.getX() * 255));
+        pixels.put(offset + 1, (byte) Math.round(color.getY() * 255));
+        pixels.put(offset + 2, (byte) Math.round(color.getZ() * 255));
+        pixels.put(offset + 3, (byte) 255);
+    }
+}
@@ -0,0 +1,139 @@
+package com.planets.engine.io.picking;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.objects.ObjectIndex;
+import com.planets.engine.objects.RenderObject;
+import com.planets.planets.universe.PlanetSpec;
+import com.planets.planets.universe.planets.GenerationTimings;
+import com.planets.planets.universe.planets.Planet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RayPickerTest {
+
+    @Test
+    void hitsGiveTheObjectThePointAndTheBarycentrics() {
+        ObjectIndex index = new ObjectIndex(0.1f);
+        RenderObject object = triangle(-5);
+        index.add(object);
+
+        PickResult result = new PickResult();
+        assertTrue(new RayPicker(index).pick(new Vector3f(-1, -1, 0), new Vector3f(0, 0, -1), result));
+        assertSame(object, result.getObject());
+        assertEquals(object.getID(), result.getID());
+        assertEquals(0, result.getTriangle());
+        assertEquals(5, result.getDistance(), 1e-5f);
+        assertPoint(-1, -1, -5, result.getPoint());
+
+        // scaled by 2, the point is at (-0.5, -0.5) of the triangle's own corners
+        assertEquals(0, result.getVertex(0));
+        assertEquals(1, result.getVertex(1));
+        assertEquals(2, result.getVertex(2));
+        assertEquals(0.5f, result.getBarycentric(0), 1e-5f);
+        assertEquals(0.25f, result.getBarycentric(1), 1e-5f);
+        assertEquals(0.25f, result.getBarycentric(2), 1e-5f);
+    }
+
+    @Test
+    void raysThroughTheBoundingSphereThatMissTheTrianglesMiss() {
+        ObjectIndex index = new ObjectIndex(0.1f);
+        index.add(triangle(-5));
+
+        // 2.1 from the middle, inside the sphere of radius 2.8 but past the triangle's long edge
+        PickResult result = new PickResult();
+        result.set(null, 1, 0, 0, 0, 3, 0, 0, 0, 0, 0);
+        assertFalse(new RayPicker(index).pick(new Vector3f(1.5f, 1.5f, 0), new Vector3f(0, 0, -1), result));
+        assertFalse(result.isHit());
+        assertNull(result.getObject());
+        assertEquals(-1, result.getID());
+        assertEquals(-1, result.getTriangle());
+        assertEquals("PickResult[miss]", result.toString());
+    }
+
+    @Test
+    void theNearestOfOverlappingObjectsWins() {
+        ObjectIndex index = new ObjectIndex(0.1f);
+        RenderObject far = triangle(-8);
+        RenderObject near = triangle(-5);
+        index.add(far);
+        index.add(near);
+        RayPicker picker = new RayPicker(index);
+        PickResult result = new PickResult();
+
+        assertTrue(picker.pick(new Vector3f(-1, -1, 0), new Vector3f(0, 0, -1), result));
+        assertSame(near, result.getObject());
+        assertEquals(5, result.getDistance(), 1e-5f);
+
+        // from the other side the far one is in front
+        assertTrue(picker.pick(new Vector3f(-1, -1, -20), new Vector3f(0, 0, 1), result));
+        assertSame(far, result.getObject());
+        assertEquals(12, result.getDistance(), 1e-5f);
+
+        // and shortening the ray short of both hits nothing
+        assertFalse(picker.pick(new Vector3f(-1, -1, 0), new Vector3f(0, 0, -1), 4, result));
+    }
+
+    @Test
+    void hitsOnARotatedPlanetLieOnTheTriangleHit() {
+        Mesh mesh = Planet.generateSurface(new PlanetSpec(3).withDepth(3), new GenerationTimings()).toIndexedMesh();
+        Vector3f position = new Vector3f(10, 0, 0), rotation = new Vector3f(30, 45, 60), scale = new Vector3f(3);
+        RenderObject planet = new RenderObject(mesh, position, rotation, scale);
+        ObjectIndex index = new ObjectIndex(0.1f);
+        index.add(planet);
+
+        PickResult result = new PickResult();
+        assertTrue(new RayPicker(index).pick(new Vector3f(10.2f, 0.3f, 40), new Vector3f(0, 0, -1), result));
+        assertSame(planet, result.getObject());
+        assertPoint(10.2f, 0.3f, 40 - result.getDistance(), result.getPoint());
+
+        // the corners of the triangle hit, moved into world space the way the shader does and weighted, land on
+        // the point
+        float[] positions = mesh.packPositions();
+        float[] e = Matrix4f.transform(position, rotation, scale).getAll();
+        float x = 0, y = 0, z = 0;
+        for (int corner = 0; corner < 3; corner++) {
+            int v = result.getVertex(corner) * 3;
+            float weight = result.getBarycentric(corner);
+            x += weight * transform(e, 0, positions, v);
+            y += weight * transform(e, 1, positions, v);
+            z += weight * transform(e, 2, positions, v);
+        }
+        assertPoint(x, y, z, result.getPoint());
+    }
+
+    /**
+     * helper method to make an object of one triangle, scaled by 2 and facing the z axis
+     */
+    private static RenderObject triangle(float z) {
+        Vertex[] vertices = {
+                new Vertex(new Vector3f(-1, -1, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(1, -1, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(-1, 1, 0), new Vector4f(1))};
+        return new RenderObject(new Mesh(vertices, new int[] {0, 1, 2}), new Vector3f(0, 0, z), new Vector3f(0), new Vector3f(2));
+    }
+
+    /**
+     * helper method to get one coordinate of a vertex moved by a row major model matrix
+     */
+    private static float transform(float[] e, int row, float[] positions, int v) {
+        return e[row * 4] * positions[v] + e[row * 4 + 1] * positions[v + 1] + e[row * 4 + 2] * positions[v + 2] + e[row * 4 + 3];
+    }
+
+    /**
+     * helper method to check a point
+     */
+    private static void assertPoint(float x, float y, float z, Vector3f point) {
+        assertEquals(x, point.getX(), 1e-3f);
+        assertEquals(y, point.getY(), 1e-3f);
+        assertEquals(z, point.getZ(), 1e-3f);
+    }
+}
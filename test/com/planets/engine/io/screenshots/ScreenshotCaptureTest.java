@@ -0,0 +1,96 @@
+package com.planets.engine.io.screenshots;
+
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScreenshotCaptureTest {
+
+    @TempDir
+    Path directory;
+
+    private RecordingBackend gl;
+    private ExecutorService encoder;
+    private ScreenshotCapture capture;
+
+    @BeforeEach
+    void setUp() {
+        gl = new RecordingBackend();
+        Graphics.setBackend(gl);
+        encoder = Executors.newSingleThreadExecutor();
+        capture = new ScreenshotCapture(directory, encoder, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        capture.destroy();
+        encoder.shutdown();
+        assertTrue(encoder.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void capturesAreHandedOverOnceTheirFenceIsSignaled() throws Exception {
+        gl.setSyncLatency(2);
+        CompletableFuture<Path> future = capture.capture(16, 8);
+        assertEquals(1, gl.getPixelReads());
+
+        gl.endFrame();
+        assertEquals(0, capture.poll());
+        assertEquals(1, capture.getPending());
+        gl.endFrame();
+        assertEquals(1, capture.poll());
+        assertEquals(0, capture.getPending());
+
+        BufferedImage image = ImageIO.read(future.get(10, TimeUnit.SECONDS).toFile());
+        assertEquals(16, image.getWidth());
+        assertEquals(8, image.getHeight());
+        assertEquals(0, capture.getStalls());
+    }
+
+    @Test
+    void aReusedPixelArrayOnlyMapsWhatWasRead() throws Exception {
+        // the first capture's array goes back to the pool, bigger than the second capture's buffer
+        CompletableFuture<Path> large = capture.capture(64, 64);
+        assertEquals(1, capture.poll());
+        large.get(10, TimeUnit.SECONDS);
+
+        CompletableFuture<Path> small = capture.capture(8, 8);
+        assertEquals(1, capture.poll());
+        BufferedImage image = ImageIO.read(small.get(10, TimeUnit.SECONDS).toFile());
+        assertEquals(8, image.getWidth());
+        assertEquals(8, image.getHeight());
+    }
+
+    @Test
+    void aCaptureWaitsForTheOldestWhenEverySlotIsInFlight() throws Exception {
+        gl.setSyncLatency(0);
+        capture.capture(4, 4);
+        capture.capture(4, 4);
+        CompletableFuture<Path> third = capture.capture(4, 4);
+        assertEquals(1, capture.getStalls());
+        assertEquals(2, capture.getPending());
+        capture.poll();
+        third.get(10, TimeUnit.SECONDS);
+        assertEquals(3, capture.getCaptures());
+        try (var files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+        assertFalse(third.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,61 @@
+package com.planets.engine.io.screenshots;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScreenshotFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rowsAreFlippedAndTheAlphaIsIgnored() throws Exception {
+        // bottom row first, as OpenGL reads them
+        int[] pixels = {0xFFFF0000, 0x0000FF00, 0x800000FF, 0xFFFFFFFF};
+        Path file = ScreenshotFiles.write(pixels, 2, 2, directory.resolve("made"));
+
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(0x0000FF, image.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0xFFFFFF, image.getRGB(1, 0) & 0xFFFFFF);
+        assertEquals(0xFF0000, image.getRGB(0, 1) & 0xFFFFFF);
+        assertEquals(0x00FF00, image.getRGB(1, 1) & 0xFFFFFF);
+    }
+
+    @Test
+    void screenshotsWrittenAtOnceNeverShareAFile() throws Exception {
+        int count = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Path>> written = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                written.add(pool.submit(() -> ScreenshotFiles.write(new int[4 * 4], 4, 4, directory)));
+            }
+            HashSet<Path> files = new HashSet<>();
+            for (Future<Path> future : written) {
+                files.add(future.get());
+            }
+            assertEquals(count, files.size());
+            try (var listed = Files.list(directory)) {
+                assertEquals(count, listed.count());
+            }
+            for (Path file : files) {
+                assertEquals(4, ImageIO.read(file.toFile()).getWidth());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.planets.engine.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Matrix4fTest {
+
+    @Test
+    void transformIntoAMatrixMatchesTheAllocatingOne() {
+        Random random = new Random(1);
+        Matrix4f result = new Matrix4f();
+        for (int i = 0; i < 100; i++) {
+            Vector3f position = new Vector3f(random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10);
+            Vector3f rotation = new Vector3f(random.nextFloat() * 720 - 360, random.nextFloat() * 720 - 360, random.nextFloat() * 720 - 360);
+            Vector3f scale = new Vector3f(random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2);
+            assertSame(result, Matrix4f.transform(position, rotation, scale, result));
+            assertArrayEquals(Matrix4f.transform(position, rotation, scale).getAll(), result.getAll(), 1e-5f);
+        }
+    }
+
+    @Test
+    void invertIntoAMatrixMatchesTheAllocatingOne() {
+        Matrix4f m = Matrix4f.transform(new Vector3f(1, 2, 3), new Vector3f(10, 20, 30), new Vector3f(2, 3, 4));
+        Matrix4f result = new Matrix4f();
+        assertSame(result, Matrix4f.invert(m, result));
+        assertArrayEquals(Matrix4f.invert(m).getAll(), result.getAll(), 0);
+        assertArrayEquals(Matrix4f.identity().getAll(), Matrix4f.multiply(m, result).getAll(), 1e-5f);
+        assertThrows(IllegalArgumentException.class, () -> Matrix4f.invert(m, m));
+    }
+}
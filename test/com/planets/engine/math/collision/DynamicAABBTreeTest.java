@@ -0,0 +1,216 @@
+package com.planets.engine.math.collision;
+
+import com.planets.engine.math.Matrix4f;
+import com.planets.engine.math.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamicAABBTreeTest {
+
+    @Test
+    void randomChangesKeepTheTreeValidAndQueriesMatchAScan() {
+        Random random = new Random(4);
+        DynamicAABBTree<Integer> tree = new DynamicAABBTree<>(0.5f);
+        ArrayList<Integer> proxies = new ArrayList<>();
+        Frustum frustum = new Frustum();
+        frustum.set(Matrix4f.view(new Vector3f(50, 50, 150), new Vector3f(10, 20, 0)), Matrix4f.projection(70, 1.5f, 0.1f, 100));
+
+        for (int operation = 0; operation < 3000; operation++) {
+            int choice = random.nextInt(10);
+            if (proxies.isEmpty() || choice < 4) {
+                int proxy = tree.insert(box(random), operation);
+                assertFalse(proxies.contains(proxy));
+                proxies.add(proxy);
+            } else if (choice < 8) {
+                tree.move(proxies.get(random.nextInt(proxies.size())), box(random));
+            } else {
+                tree.remove(proxies.remove(random.nextInt(proxies.size())));
+            }
+            tree.validate();
+            assertEquals(proxies.isEmpty() ? 0 : 2 * proxies.size() - 1, tree.getNodeCount());
+
+            if (operation % 50 == 0) {
+                AABB query = box(random);
+                assertEquals(scan(tree, proxies, fat -> fat.overlaps(query)), found(tree, query));
+                assertEquals(scan(tree, proxies, fat -> frustum.intersects(fat)), found(tree, frustum));
+                assertRaycasts(tree, proxies, random);
+                assertEquals(scanPairs(tree, proxies), pairs(tree));
+            }
+        }
+    }
+
+    @Test
+    void smallMovesStayInTheGrownBox() {
+        DynamicAABBTree<String> tree = new DynamicAABBTree<>(1);
+        int proxy = tree.insert(new AABB(0, 0, 0, 1, 1, 1), "a");
+        tree.insert(new AABB(5, 5, 5, 6, 6, 6), "b");
+        assertFalse(tree.move(proxy, new AABB(0.5f, 0.5f, 0.5f, 1.5f, 1.5f, 1.5f)));
+        assertTrue(tree.move(proxy, new AABB(1.5f, 0, 0, 2.5f, 1, 1)));
+        tree.validate();
+
+        AABB fat = new AABB();
+        tree.getFatBounds(proxy, fat);
+        assertEquals(0.5f, fat.minX);
+        assertEquals(3.5f, fat.maxX);
+        assertEquals("a", tree.getItem(proxy));
+
+        tree.remove(proxy);
+        assertThrows(IllegalArgumentException.class, () -> tree.remove(proxy));
+        assertThrows(IllegalArgumentException.class, () -> tree.getItem(proxy));
+        assertEquals(0, tree.getHeight());
+    }
+
+    @Test
+    void pairVisitorsCanQueryTheTree() {
+        DynamicAABBTree<Integer> tree = new DynamicAABBTree<>(0);
+        Random random = new Random(5);
+        ArrayList<Integer> proxies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            proxies.add(tree.insert(box(random), i));
+        }
+
+        // each pair is checked against a query from the first item's box, which must find the second
+        AABB fat = new AABB();
+        int[] counted = new int[1];
+        tree.pairs((a, b) -> {
+            tree.getFatBounds(proxies.get(a), fat);
+            boolean[] seen = new boolean[1];
+            tree.query(fat, (proxy, item) -> {
+                seen[0] |= item.equals(b);
+                return true;
+            });
+            assertTrue(seen[0]);
+            counted[0]++;
+        });
+        assertEquals(scanPairs(tree, proxies).size(), counted[0]);
+    }
+
+    @Test
+    void queriesFromInsideAQueryAreRejected() {
+        DynamicAABBTree<Integer> tree = new DynamicAABBTree<>(0);
+        AABB box = new AABB(0, 0, 0, 1, 1, 1);
+        tree.insert(box, 1);
+        assertThrows(IllegalStateException.class, () -> tree.query(box, (proxy, item) -> {
+            tree.query(box, (inner, other) -> true);
+            return true;
+        }));
+        assertThrows(IllegalStateException.class, () -> tree.raycast(0.5f, 0.5f, -1, 0, 0, 1, 10, (proxy, item, max) -> {
+            tree.raycast(0.5f, 0.5f, -1, 0, 0, 1, 10, (inner, other, innerMax) -> innerMax);
+            return max;
+        }));
+
+        // the tree can be queried again once the failed query is over
+        assertEquals(Set.of(1), found(tree, box));
+    }
+
+    /**
+     * helper method to check that rays visit every item whose grown box they pass through, and stop at the nearest
+     * when they're shortened to each hit
+     */
+    private static void assertRaycasts(DynamicAABBTree<Integer> tree, ArrayList<Integer> proxies, Random random) {
+        AABB fat = new AABB();
+        for (int i = 0; i < 10; i++) {
+            float ox = random.nextFloat() * 100, oy = random.nextFloat() * 100, oz = -20;
+            float dx = random.nextFloat() - 0.5f, dy = random.nextFloat() - 0.5f, dz = 1;
+            Set<Integer> visited = new HashSet<>();
+            tree.raycast(ox, oy, oz, dx, dy, dz, 200, (proxy, item, max) -> {
+                visited.add(item);
+                return max;
+            });
+            assertEquals(scan(tree, proxies, box -> box.intersectRay(ox, oy, oz, dx, dy, dz) <= 200), visited);
+
+            float nearest = Float.POSITIVE_INFINITY;
+            for (int proxy : proxies) {
+                tree.getFatBounds(proxy, fat);
+                nearest = Math.min(nearest, fat.intersectRay(ox, oy, oz, dx, dy, dz));
+            }
+            float[] closest = {Float.POSITIVE_INFINITY};
+            tree.raycast(ox, oy, oz, dx, dy, dz, Float.POSITIVE_INFINITY, (proxy, item, max) -> {
+                tree.getFatBounds(proxy, fat);
+                closest[0] = Math.min(closest[0], fat.intersectRay(ox, oy, oz, dx, dy, dz));
+                return Math.min(max, closest[0]);
+            });
+            assertEquals(nearest, closest[0]);
+        }
+    }
+
+    /**
+     * helper method to make a random box in a 100 wide volume
+     */
+    private static AABB box(Random random) {
+        float x = random.nextFloat() * 100, y = random.nextFloat() * 100, z = random.nextFloat() * 100;
+        float size = 0.5f + random.nextFloat() * 4;
+        return new AABB(x, y, z, x + size, y + size, z + size);
+    }
+
+    /**
+     * helper method to get the items a box query finds
+     */
+    private static Set<Integer> found(DynamicAABBTree<Integer> tree, AABB box) {
+        Set<Integer> found = new HashSet<>();
+        tree.query(box, (proxy, item) -> found.add(item));
+        return found;
+    }
+
+    /**
+     * helper method to get the items a frustum query finds
+     */
+    private static Set<Integer> found(DynamicAABBTree<Integer> tree, Frustum frustum) {
+        Set<Integer> found = new HashSet<>();
+        tree.query(frustum, (proxy, item) -> found.add(item));
+        return found;
+    }
+
+    /**
+     * helper method to get the pairs the tree finds, each as the lower item then the higher one
+     */
+    private static Set<String> pairs(DynamicAABBTree<Integer> tree) {
+        Set<String> pairs = new HashSet<>();
+        tree.pairs((a, b) -> assertTrue(pairs.add(Math.min(a, b) + "-" + Math.max(a, b))));
+        return pairs;
+    }
+
+    /**
+     * helper method to find the items whose grown boxes pass a test by checking every one
+     */
+    private static Set<Integer> scan(DynamicAABBTree<Integer> tree, ArrayList<Integer> proxies, Predicate<AABB> test) {
+        Set<Integer> found = new HashSet<>();
+        for (int proxy : proxies) {
+            AABB fat = new AABB();
+            tree.getFatBounds(proxy, fat);
+            if (test.test(fat)) {
+                found.add(tree.getItem(proxy));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * helper method to find the overlapping pairs by checking every one
+     */
+    private static Set<String> scanPairs(DynamicAABBTree<Integer> tree, ArrayList<Integer> proxies) {
+        Set<String> pairs = new HashSet<>();
+        AABB a = new AABB(), b = new AABB();
+        for (int i = 0; i < proxies.size(); i++) {
+            tree.getFatBounds(proxies.get(i), a);
+            for (int j = i + 1; j < proxies.size(); j++) {
+                tree.getFatBounds(proxies.get(j), b);
+                if (a.overlaps(b)) {
+                    int x = tree.getItem(proxies.get(i)), y = tree.getItem(proxies.get(j));
+                    pairs.add(Math.min(x, y) + "-" + Math.max(x, y));
+                }
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,84 @@
+package com.planets.engine.math.collision;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TriangleBVHTest {
+
+    @Test
+    void hitsGiveTheDistanceAndBarycentrics() {
+        TriangleBVH bvh = new TriangleBVH(new float[] {-1, -1, 0, 1, -1, 0, -1, 1, 0}, new int[] {0, 1, 2});
+        float[] hit = new float[3];
+        assertEquals(0, bvh.raycast(-0.5f, -0.5f, 4, 0, 0, -2, Float.POSITIVE_INFINITY, hit));
+
+        // the direction isn't normalized, so the distance is in lengths of it
+        assertEquals(2, hit[0], 1e-6f);
+        assertEquals(0.25f, hit[1], 1e-6f);
+        assertEquals(0.25f, hit[2], 1e-6f);
+
+        assertEquals(-1, bvh.raycast(0.75f, 0.75f, 4, 0, 0, -1, Float.POSITIVE_INFINITY, hit));
+        assertEquals(-1, bvh.raycast(-0.5f, -0.5f, 4, 0, 0, 1, Float.POSITIVE_INFINITY, hit));
+        assertEquals(-1, bvh.raycast(-0.5f, -0.5f, 4, 0, 0, -1, 3, hit));
+    }
+
+    @Test
+    void theClosestOfManyTrianglesIsHitWithItsOwnWeights() {
+        // a stack of triangles along z, shuffled, with the ray passing through every one
+        Random random = new Random(2);
+        int count = 64;
+        float[] positions = new float[count * 9];
+        int[] triangles = new int[count * 3];
+        float[] depths = new float[count];
+        for (int t = 0; t < count; t++) {
+            depths[t] = random.nextFloat() * 100;
+            float size = 1 + random.nextFloat();
+            float[] corners = {-size, -size, size, -size, -size, size};
+            for (int c = 0; c < 3; c++) {
+                positions[t * 9 + c * 3] = corners[c * 2];
+                positions[t * 9 + c * 3 + 1] = corners[c * 2 + 1];
+                positions[t * 9 + c * 3 + 2] = depths[t];
+                triangles[t * 3 + c] = t * 3 + c;
+            }
+        }
+        int closest = 0;
+        for (int t = 1; t < count; t++) {
+            closest = depths[t] > depths[closest] ? t : closest;
+        }
+
+        TriangleBVH bvh = new TriangleBVH(positions, triangles);
+        float[] hit = new float[3];
+        assertEquals(closest, bvh.raycast(-0.5f, -0.5f, 200, 0, 0, -1, Float.POSITIVE_INFINITY, hit));
+        assertEquals(200 - depths[closest], hit[0], 1e-4f);
+
+        // the weights are those of the closest triangle, not of one tested after it
+        float size = positions[closest * 9 + 3];
+        assertEquals((size - 0.5f) / (2 * size), hit[1], 1e-5f);
+        assertEquals((size - 0.5f) / (2 * size), hit[2], 1e-5f);
+    }
+
+    @Test
+    void stripsAreReadAsTheirTriangles() {
+        Vertex[] vertices = new Vertex[4];
+        float[][] corners = {{0, 0}, {1, 0}, {0, 1}, {1, 1}};
+        for (int v = 0; v < 4; v++) {
+            vertices[v] = new Vertex(new Vector3f(corners[v][0], corners[v][1], 0), new Vector4f(1));
+        }
+        TriangleBVH bvh = TriangleBVH.of(new Mesh(vertices, new int[] {0, 1, 2, 3}, GL11.GL_TRIANGLE_STRIP));
+        assertEquals(2, bvh.getTriangleCount());
+
+        // the second triangle of a strip is flipped back to the winding of the first
+        float[] hit = new float[3];
+        assertEquals(1, bvh.raycast(0.75f, 0.75f, 1, 0, 0, -1, Float.POSITIVE_INFINITY, hit));
+        assertEquals(2, bvh.getVertex(1, 0));
+        assertEquals(1, bvh.getVertex(1, 1));
+        assertEquals(3, bvh.getVertex(1, 2));
+    }
+}
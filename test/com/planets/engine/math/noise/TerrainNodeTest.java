@@ -0,0 +1,30 @@
+package com.planets.engine.math.noise;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TerrainNodeTest {
+
+    @Test
+    void remapsLinearlyBetweenTheRanges() {
+        // folded at compile time
+        assertEquals(15, TerrainNode.constant(0.5).remap(0, 1, 10, 20).compile().evaluate(0, 0, 0), 1e-12);
+        assertEquals(20, TerrainNode.constant(-1).remap(-1, 1, 20, 10).compile().evaluate(0, 0, 0), 1e-12);
+
+        // evaluated per position
+        TerrainProgram noise = TerrainNode.perlin(1.3, 0).compile();
+        TerrainProgram remapped = TerrainNode.perlin(1.3, 0).remap(-1, 1, 0, 4).compile();
+        for (int i = 0; i < 10; i++) {
+            double x = i * 0.37, y = 1 - i * 0.21, z = i * 0.11;
+            assertEquals((noise.evaluate(x, y, z) + 1) * 2, remapped.evaluate(x, y, z), 1e-9);
+        }
+    }
+
+    @Test
+    void emptyInputRangesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TerrainNode.constant(1).remap(2, 2, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> TerrainNode.perlin(1, 0).remap(0, 0, 0, 1));
+    }
+}
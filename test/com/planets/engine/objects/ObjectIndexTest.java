@@ -0,0 +1,55 @@
+package com.planets.engine.objects;
+
+import com.planets.engine.graphics.Mesh;
+import com.planets.engine.graphics.Vertex;
+import com.planets.engine.math.Vector3f;
+import com.planets.engine.math.Vector4f;
+import com.planets.engine.math.collision.AABB;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ObjectIndexTest {
+
+    @Test
+    void removedObjectsLeaveTheOthersRefittable() {
+        Mesh mesh = new Mesh(new Vertex[] {
+                new Vertex(new Vector3f(1, 0, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(0, 1, 0), new Vector4f(1)),
+                new Vertex(new Vector3f(0, 0, 1), new Vector4f(1))}, new int[] {0, 1, 2});
+        ObjectIndex index = new ObjectIndex(0.1f);
+        List<RenderObject> objects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            RenderObject object = new RenderObject(mesh, new Vector3f(i * 10, 0, 0), new Vector3f(0), new Vector3f(2));
+            objects.add(object);
+            index.add(object);
+        }
+        assertEquals(2, index.getRadius(objects.get(0)), 1e-6f);
+
+        // from the middle, the end and the start, each moving another object into the freed place
+        for (int i : new int[] {4, 8, 0, 5}) {
+            index.remove(objects.remove(i));
+        }
+        assertEquals(6, index.size());
+        index.getTree().validate();
+        RenderObject unknown = new RenderObject(mesh, new Vector3f(0), new Vector3f(0), new Vector3f(1));
+        assertThrows(IllegalArgumentException.class, () -> index.remove(unknown));
+
+        // every object still indexed is refitted, and nothing removed is left behind
+        for (RenderObject object : objects) {
+            object.setPosition(new Vector3f(object.getPosition().getX(), 100, 0));
+        }
+        assertEquals(6, index.updateAll());
+        List<RenderObject> found = new ArrayList<>();
+        index.query(new AABB(-10, 90, -10, 200, 110, 10), found);
+        assertEquals(new HashSet<>(objects), new HashSet<>(found));
+        found.clear();
+        index.query(new AABB(-10, -10, -10, 200, 10, 10), found);
+        assertEquals(0, found.size());
+    }
+}
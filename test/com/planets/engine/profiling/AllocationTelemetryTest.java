@@ -0,0 +1,87 @@
+package com.planets.engine.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllocationTelemetryTest {
+
+    // keeps the allocations reachable, so they can't be optimized away
+    private static volatile byte[] sink;
+
+    private AllocationTelemetry telemetry;
+
+    @BeforeEach
+    void setUp() {
+        telemetry = new AllocationTelemetry(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        telemetry.destroy();
+    }
+
+    @Test
+    void framesWithinTheBudgetOrTheWarmupPass() {
+        telemetry.failOverBudget(1024, 2);
+
+        // the warmup frames may allocate anything
+        assertTrue(frame(64 * 1024));
+        assertTrue(frame(64 * 1024));
+        assertTrue(frame(0));
+        assertEquals(0, telemetry.getFramesOverBudget());
+        assertNull(telemetry.getBudgetFailure());
+    }
+
+    @Test
+    void framesOverTheBudgetFailAndTheFirstIsReported() {
+        telemetry.failOverBudget(1024, 1);
+        assertTrue(frame(64 * 1024));
+        assertFalse(frame(64 * 1024));
+        assertTrue(frame(0));
+        assertFalse(frame(128 * 1024));
+        assertEquals(2, telemetry.getFramesOverBudget());
+        assertTrue(telemetry.getBudgetFailure().startsWith("Frame 2 allocated "), telemetry.getBudgetFailure());
+
+        // every frame is still measured
+        AllocationStats stats = telemetry.snapshot();
+        assertEquals(4, stats.getFrames());
+        assertTrue(stats.getMax() >= 128 * 1024);
+    }
+
+    @Test
+    void withoutABudgetEveryFramePasses() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(frame(64 * 1024));
+        }
+        assertEquals(0, telemetry.getFramesOverBudget());
+        assertEquals(5, telemetry.snapshot().getFrames());
+
+        telemetry.reset();
+        assertEquals(0, telemetry.snapshot().getFrames());
+    }
+
+    @Test
+    void negativeBudgetsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> telemetry.failOverBudget(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> telemetry.failOverBudget(0, -1));
+    }
+
+    /**
+     * helper method to measure a frame that allocates an array
+     * @return - whether the frame was within the budget
+     */
+    private boolean frame(int bytes) {
+        telemetry.beginFrame();
+        if (bytes > 0) {
+            sink = new byte[bytes];
+        }
+        return telemetry.endFrame();
+    }
+}
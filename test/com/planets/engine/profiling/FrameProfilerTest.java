@@ -0,0 +1,138 @@
+package com.planets.engine.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FrameProfilerTest {
+
+    @Test
+    void scopesMustBeEnteredInTheirParent() {
+        FrameProfiler profiler = new FrameProfiler();
+        int update = profiler.register("update");
+        int render = profiler.register("render");
+        int shadows = profiler.register("shadows", render);
+        profiler.beginFrame();
+
+        assertThrows(IllegalStateException.class, () -> profiler.begin(shadows));
+        profiler.begin(update);
+        assertThrows(IllegalStateException.class, () -> profiler.begin(render));
+        assertThrows(IllegalStateException.class, () -> profiler.begin(shadows));
+        profiler.end(update);
+
+        profiler.begin(render);
+        profiler.begin(shadows);
+        profiler.end(shadows);
+        profiler.end(render);
+        profiler.endFrame();
+        assertEquals(1, profiler.drain());
+    }
+
+    @Test
+    void onlyTheInnermostScopeCanEnd() {
+        FrameProfiler profiler = new FrameProfiler();
+        int render = profiler.register("render");
+        int shadows = profiler.register("shadows", render);
+        profiler.beginFrame();
+
+        assertThrows(IllegalStateException.class, () -> profiler.end(render));
+        assertThrows(IllegalStateException.class, () -> profiler.end(FrameProfiler.FRAME));
+        profiler.begin(render);
+        profiler.begin(shadows);
+        assertThrows(IllegalStateException.class, () -> profiler.end(render));
+        assertThrows(IllegalStateException.class, profiler::endFrame);
+        profiler.end(shadows);
+        assertThrows(IllegalStateException.class, profiler::beginFrame);
+        profiler.end(render);
+        profiler.endFrame();
+    }
+
+    @Test
+    void misuseOutsideAFrameThrows() {
+        FrameProfiler profiler = new FrameProfiler();
+        int render = profiler.register("render");
+        assertThrows(IllegalArgumentException.class, () -> profiler.register("orphan", 42));
+        assertThrows(IllegalStateException.class, profiler::endFrame);
+
+        profiler.beginFrame();
+        assertThrows(IllegalStateException.class, () -> profiler.register("late"));
+        profiler.endFrame();
+        assertThrows(IllegalStateException.class, () -> profiler.begin(render));
+        assertThrows(IllegalStateException.class, () -> profiler.record(render, 10));
+    }
+
+    @Test
+    void scopesAreRecordedOnlyInTheFramesTheyWereEntered() {
+        FrameProfiler profiler = new FrameProfiler();
+        int gpu = profiler.register("gpu");
+        int unused = profiler.register("unused");
+        for (int frame = 0; frame < 4; frame++) {
+            profiler.beginFrame();
+            if (frame % 2 == 0) {
+                // time recorded several times in a frame is summed
+                profiler.record(gpu, 100);
+                profiler.record(gpu, 250);
+            }
+            profiler.endFrame();
+        }
+        assertEquals(4, profiler.drain());
+        assertEquals(4, profiler.getFrames());
+        assertEquals(4, profiler.getHistogram(FrameProfiler.FRAME).getCount());
+        assertEquals(2, profiler.getHistogram(gpu).getCount());
+        assertEquals(350, profiler.getHistogram(gpu).getMin());
+        assertEquals(350, profiler.getHistogram(gpu).getMax());
+        assertEquals(0, profiler.getHistogram(unused).getCount());
+
+        profiler.reset();
+        assertEquals(0, profiler.getFrames());
+        assertEquals(0, profiler.getHistogram(gpu).getCount());
+    }
+
+    @Test
+    void framesThatAreNotDrainedInTimeAreDropped() {
+        FrameProfiler profiler = new FrameProfiler(2);
+        runFrames(profiler, 5);
+        assertEquals(3, profiler.getDroppedFrames());
+        assertEquals(2, profiler.drain());
+
+        runFrames(profiler, 2);
+        assertEquals(2, profiler.drain());
+        assertEquals(4, profiler.getFrames());
+        assertEquals(3, profiler.getDroppedFrames());
+    }
+
+    @Test
+    void snapshotsListEachScopeAfterItsParent() {
+        FrameProfiler profiler = new FrameProfiler();
+        int render = profiler.register("render");
+        int update = profiler.register("update");
+        profiler.register("shadows", render);
+        profiler.register("physics", update);
+        runFrames(profiler, 1);
+
+        List<ScopeStats> stats = profiler.snapshot();
+        assertEquals(5, stats.size());
+        assertEquals("frame", stats.get(0).getName());
+        assertEquals(0, stats.get(0).getDepth());
+        assertEquals(1, stats.get(0).getCount());
+        assertEquals("render", stats.get(1).getName());
+        assertEquals("shadows", stats.get(2).getName());
+        assertEquals(2, stats.get(2).getDepth());
+        assertEquals("update", stats.get(3).getName());
+        assertEquals("physics", stats.get(4).getName());
+        assertEquals(0, stats.get(4).getCount());
+    }
+
+    /**
+     * helper method to measure empty frames
+     */
+    private static void runFrames(FrameProfiler profiler, int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            profiler.beginFrame();
+            profiler.endFrame();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.planets.engine.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSampleRingTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new FrameSampleRing(2, 1).getCapacity());
+        assertEquals(4, new FrameSampleRing(2, 3).getCapacity());
+        assertEquals(8, new FrameSampleRing(2, 8).getCapacity());
+        assertEquals(16, new FrameSampleRing(2, 9).getCapacity());
+        assertEquals(2, new FrameSampleRing(2, 9).getStride());
+    }
+
+    @Test
+    void framesComeOutInOrderAcrossTheWrap() {
+        FrameSampleRing ring = new FrameSampleRing(2, 4);
+        long[] frame = new long[2];
+        long next = 0;
+
+        // polling two frames whenever three are waiting moves the slots past the end of the array several times
+        for (long offered = 0; offered < 40; offered++) {
+            assertTrue(ring.offer(new long[] {offered, -offered}));
+            if (ring.getSize() == 3) {
+                for (int i = 0; i < 2; i++) {
+                    assertTrue(ring.poll(frame));
+                    assertArrayEquals(new long[] {next, -next}, frame);
+                    next++;
+                }
+            }
+        }
+        while (ring.poll(frame)) {
+            assertArrayEquals(new long[] {next, -next}, frame);
+            next++;
+        }
+        assertEquals(40, next);
+        assertEquals(0, ring.getSize());
+        assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    void framesThatDoNotFitAreDroppedAndCounted() {
+        FrameSampleRing ring = new FrameSampleRing(1, 2);
+        assertTrue(ring.offer(new long[] {1}));
+        assertTrue(ring.offer(new long[] {2}));
+        assertFalse(ring.offer(new long[] {3}));
+        assertFalse(ring.offer(new long[] {4}));
+        assertEquals(2, ring.getSize());
+        assertEquals(2, ring.getDropped());
+
+        // the frames already in the ring are kept, and a polled slot can be reused
+        long[] frame = new long[1];
+        assertTrue(ring.poll(frame));
+        assertEquals(1, frame[0]);
+        assertTrue(ring.offer(new long[] {5}));
+        assertTrue(ring.poll(frame));
+        assertEquals(2, frame[0]);
+        assertTrue(ring.poll(frame));
+        assertEquals(5, frame[0]);
+        assertFalse(ring.poll(frame));
+        assertEquals(2, ring.getDropped());
+    }
+
+    @Test
+    void emptyRingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameSampleRing(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new FrameSampleRing(4, 0));
+    }
+}
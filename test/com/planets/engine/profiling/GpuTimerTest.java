@@ -0,0 +1,152 @@
+package com.planets.engine.profiling;
+
+import com.planets.engine.graphics.gl.Graphics;
+import com.planets.engine.graphics.gl.RecordingBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GpuTimerTest {
+
+    private RecordingBackend gl;
+    private FrameProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        gl = new RecordingBackend();
+        gl.setQueryResult(1000);
+        Graphics.setBackend(gl);
+        profiler = new FrameProfiler();
+    }
+
+    @Test
+    void resolvesEveryFrameOnceTheGpuIsNoFurtherBehindThanTheLatency() {
+        GpuTimer timer = new GpuTimer(profiler, 3);
+        int pass = timer.register("pass");
+        gl.setQueryLatency(3);
+        runFrames(timer, pass, 10);
+
+        // the first 3 frames have nothing to read yet, every one after reads the frame 3 before it
+        assertEquals(7, timer.getResolvedFrames());
+        assertEquals(0, timer.getMissedFrames());
+        assertEquals(0, gl.getQueryStalls());
+    }
+
+    @Test
+    void skipsFramesTheGpuHasNotFinishedWithoutWaiting() {
+        GpuTimer timer = new GpuTimer(profiler, 3);
+        int pass = timer.register("pass");
+        gl.setQueryLatency(4);
+        runFrames(timer, pass, 10);
+        assertEquals(0, timer.getResolvedFrames());
+        assertEquals(7, timer.getMissedFrames());
+        assertEquals(0, gl.getQueryStalls());
+
+        // once the GPU catches up the next frames resolve again
+        gl.setQueryLatency(1);
+        runFrames(timer, pass, 5);
+        assertEquals(5, timer.getResolvedFrames());
+        assertEquals(7, timer.getMissedFrames());
+        assertEquals(0, gl.getQueryStalls());
+    }
+
+    @Test
+    void recordsEachPassAndTheirSumInTheProfiler() {
+        GpuTimer timer = new GpuTimer(profiler, 1);
+        int shadows = timer.register("shadows");
+        int planets = timer.register("planets");
+        int unused = timer.register("unused");
+        for (int frame = 0; frame < 4; frame++) {
+            profiler.beginFrame();
+            timer.beginFrame();
+            timer.begin(shadows);
+            timer.end(shadows);
+            timer.begin(planets);
+            timer.end(planets);
+            timer.begin(planets);
+            timer.end(planets);
+            profiler.endFrame();
+            gl.endFrame();
+        }
+        profiler.drain();
+
+        // each pass is recorded as the sum of the times it was timed in a frame, the scopes being registered after
+        // the GPU scope and the frame scope
+        assertEquals(3, timer.getResolvedFrames());
+        assertTimes(profiler.getHistogram(shadows + 2), 3, 1000);
+        assertTimes(profiler.getHistogram(planets + 2), 3, 2000);
+        assertTimes(profiler.getHistogram(unused + 2), 0, 0);
+        assertTimes(profiler.getHistogram(1), 3, 3000);
+    }
+
+    @Test
+    void reusesTheQueriesOfEachSlot() {
+        GpuTimer timer = new GpuTimer(profiler, 2);
+        int first = timer.register("first");
+        int second = timer.register("second");
+        runFrames(timer, first, 1);
+
+        // 2 slots of 2 queries were made up front, so 5 is the next ID
+        assertEquals(5, gl.genQuery());
+        runFrames(timer, second, 20);
+        assertEquals(6, gl.genQuery());
+
+        // a frame timing more passes than there are queries grows its slot once, which is then reused
+        profiler.beginFrame();
+        timer.beginFrame();
+        for (int i = 0; i < 3; i++) {
+            timer.begin(first);
+            timer.end(first);
+        }
+        profiler.endFrame();
+        gl.endFrame();
+        assertEquals(9, gl.genQuery());
+        runFrames(timer, first, 20);
+        assertEquals(10, gl.genQuery());
+        assertEquals(0, gl.getQueryStalls());
+    }
+
+    @Test
+    void misuseThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new GpuTimer(profiler, 0));
+        GpuTimer timer = new GpuTimer(profiler, 2);
+        int pass = timer.register("pass");
+        assertThrows(IllegalStateException.class, () -> timer.begin(pass));
+
+        profiler.beginFrame();
+        timer.beginFrame();
+        assertThrows(IllegalStateException.class, () -> timer.register("late"));
+        assertThrows(IllegalStateException.class, () -> timer.end(pass));
+        timer.begin(pass);
+        assertThrows(IllegalStateException.class, () -> timer.begin(pass));
+        assertThrows(IllegalStateException.class, timer::beginFrame);
+        timer.end(pass);
+        profiler.endFrame();
+        timer.destroy();
+    }
+
+    /**
+     * helper method to time a pass once in each of several frames
+     */
+    private void runFrames(GpuTimer timer, int pass, int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            profiler.beginFrame();
+            timer.beginFrame();
+            timer.begin(pass);
+            timer.end(pass);
+            profiler.endFrame();
+            gl.endFrame();
+        }
+    }
+
+    /**
+     * helper method to check the amount of times a scope was recorded, and that every one had the same time
+     */
+    private static void assertTimes(Histogram histogram, long count, long nanos) {
+        assertEquals(count, histogram.getCount());
+        assertEquals(nanos, histogram.getMin());
+        assertEquals(nanos, histogram.getMax());
+    }
+}
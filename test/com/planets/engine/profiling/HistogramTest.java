@@ -0,0 +1,86 @@
+package com.planets.engine.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50, histogram.getPercentile(50));
+        assertEquals(95, histogram.getPercentile(95));
+        assertEquals(99, histogram.getPercentile(99));
+        assertEquals(100, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    void largeValuesAreOffByAtMostASixtyFourthOfThemselves() {
+        long[] values = {128, 1000, 4097, 123456, 987654321, 1L << 40, Long.MAX_VALUE / 3};
+        for (long value : values) {
+            // a value below it keeps the result from being capped at the largest value counted
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(2 * value);
+            long p50 = histogram.getPercentile(50);
+            assertTrue(p50 >= value, "p50 of " + value + " was " + p50);
+            assertTrue(p50 - value <= value / 64, "p50 of " + value + " was " + p50);
+        }
+    }
+
+    @Test
+    void percentilesNeverExceedTheLargestValue() {
+        Histogram histogram = new Histogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void emptyHistogramsAndNegativeValuesAreZero() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(100));
+        assertEquals(0, histogram.getMin());
+    }
+
+    @Test
+    void addingCombinesBothHistogramsAndResetForgetsThem() {
+        Histogram low = new Histogram();
+        Histogram high = new Histogram();
+        for (int value = 1; value <= 50; value++) {
+            low.record(value);
+            high.record(value + 50);
+        }
+        low.add(high);
+        assertEquals(100, low.getCount());
+        assertEquals(1, low.getMin());
+        assertEquals(100, low.getMax());
+        assertEquals(50, low.getPercentile(50));
+        assertEquals(90, low.getPercentile(90));
+
+        low.reset();
+        assertEquals(0, low.getCount());
+        assertEquals(0, low.getPercentile(50));
+        assertEquals(0, low.getMax());
+
+        // the other histogram is untouched
+        assertEquals(50, high.getCount());
+        assertEquals(51, high.getMin());
+    }
+}
@@ -0,0 +1,143 @@
+package com.planets.engine.simulation;
+
+import com.planets.engine.math.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedTimestepTest {
+
+    // a 60 Hz step, which doesn't divide a second evenly
+    private static final long STEP = 16_666_667L;
+
+    // the time every run simulates
+    private static final long TOTAL = 2_000_000_000L;
+
+    @Test
+    void theSameTimeGivesTheSameStateHoweverItIsSplitIntoFrames() {
+        FixedTimestep reference = run(new long[] {TOTAL});
+
+        // 60, 144 and 15 frames per second, and frames of random lengths
+        assertSameRun(reference, run(split(TOTAL, 120)));
+        assertSameRun(reference, run(split(TOTAL, 288)));
+        assertSameRun(reference, run(split(TOTAL, 30)));
+        Random random = new Random(3);
+        long[] frames = new long[500];
+        long left = TOTAL;
+        for (int i = 0; i < frames.length - 1; i++) {
+            frames[i] = Math.min(left, random.nextInt(8_000_000));
+            left -= frames[i];
+        }
+        frames[frames.length - 1] = left;
+        assertSameRun(reference, run(frames));
+
+        assertEquals(TOTAL / STEP, reference.getSteps());
+        assertEquals(TOTAL % STEP, reference.getAccumulator());
+    }
+
+    @Test
+    void timeBeyondTheMostStepsIsDropped() {
+        FixedTimestep timestep = new FixedTimestep(spinning(new Vector3f(0)), 10_000_000L, 4);
+
+        // 9 steps and a half are waiting, 4 are taken and 5 dropped, keeping the half step
+        assertEquals(4, timestep.advance(95_000_000L));
+        assertEquals(4, timestep.getSteps());
+        assertEquals(50_000_000L, timestep.getDroppedNanos());
+        assertEquals(5_000_000L, timestep.getAccumulator());
+        assertEquals(0.5f, timestep.getAlpha(), 1e-6f);
+
+        // the simulation only moved by the steps taken
+        assertEquals(3.6f, timestep.getCurrent().getRotation(0, 1), 1e-4f);
+
+        assertEquals(1, timestep.advance(5_000_000L));
+        assertEquals(50_000_000L, timestep.getDroppedNanos());
+        assertEquals(0, timestep.getAccumulator());
+    }
+
+    @Test
+    void statesAreInterpolatedByHowMuchOfTheNextStepPassed() {
+        FixedTimestep timestep = new FixedTimestep(spinning(new Vector3f(0, 359.5f, 0)), 10_000_000L, 8);
+        SimulationState state = new SimulationState(1);
+        assertEquals(0, timestep.advance(2_500_000L));
+        assertEquals(0.25f, timestep.getAlpha(), 1e-6f);
+        timestep.interpolate(state);
+        assertEquals(359.5f, state.getRotation(0, 1), 1e-4f);
+
+        // 2 steps of 0.9 degrees wrap past 360, and a quarter of the way on turns the short way
+        assertEquals(2, timestep.advance(20_000_000L));
+        assertEquals(0.25f, timestep.getAlpha(), 1e-6f);
+        assertEquals(0.4f, timestep.getPrevious().getRotation(0, 1), 1e-4f);
+        assertEquals(1.3f, timestep.getCurrent().getRotation(0, 1), 1e-4f);
+        timestep.interpolate(state);
+        assertEquals(0.625f, state.getRotation(0, 1), 1e-4f);
+
+        // the positions don't move, so they interpolate to themselves
+        assertEquals(1, state.getPosition(0, 0));
+        assertEquals(2, state.getPosition(0, 1));
+        assertEquals(3, state.getPosition(0, 2));
+    }
+
+    @Test
+    void invalidTimesAreRejected() {
+        Simulation simulation = spinning(new Vector3f(0));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(simulation, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(simulation, STEP, 0));
+        FixedTimestep timestep = new FixedTimestep(simulation, STEP, 1);
+        assertThrows(IllegalArgumentException.class, () -> timestep.advance(-1));
+    }
+
+    /**
+     * helper method to make a simulation of one body spinning at 90 degrees per second about y
+     */
+    private static SpinSimulation spinning(Vector3f rotation) {
+        SpinSimulation simulation = new SpinSimulation();
+        simulation.add(new Vector3f(1, 2, 3), rotation, new Vector3f(0, 90, 0));
+        return simulation;
+    }
+
+    /**
+     * helper method to simulate a few spinning bodies through frames of the given lengths
+     */
+    private static FixedTimestep run(long[] frames) {
+        SpinSimulation simulation = new SpinSimulation();
+        simulation.add(new Vector3f(0), new Vector3f(0), new Vector3f(90, 0, 0));
+        simulation.add(new Vector3f(1), new Vector3f(10, 20, 30), new Vector3f(-45.5f, 720, 13));
+        simulation.add(new Vector3f(2), new Vector3f(350), new Vector3f(0.1f, -3600, 1));
+        // enough steps per advance to catch up with the whole time at once, so nothing is dropped
+        FixedTimestep timestep = new FixedTimestep(simulation, STEP, (int) (TOTAL / STEP));
+        for (long frame : frames) {
+            timestep.advance(frame);
+        }
+        assertEquals(0, timestep.getDroppedNanos());
+        return timestep;
+    }
+
+    /**
+     * helper method to split a time into frames of equal length, give or take a nanosecond
+     */
+    private static long[] split(long total, int count) {
+        long[] frames = new long[count];
+        for (int i = 0; i < count; i++) {
+            frames[i] = total * (i + 1) / count - total * i / count;
+        }
+        return frames;
+    }
+
+    /**
+     * helper method to check that two runs took the same steps to the same states
+     */
+    private static void assertSameRun(FixedTimestep expected, FixedTimestep actual) {
+        assertEquals(expected.getSteps(), actual.getSteps());
+        assertEquals(expected.getAccumulator(), actual.getAccumulator());
+        for (int body = 0; body < expected.getCurrent().getBodyCount(); body++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(expected.getCurrent().getRotation(body, c), actual.getCurrent().getRotation(body, c));
+                assertEquals(expected.getPrevious().getRotation(body, c), actual.getPrevious().getRotation(body, c));
+                assertEquals(expected.getCurrent().getPosition(body, c), actual.getCurrent().getPosition(body, c));
+            }
+        }
+    }
+}
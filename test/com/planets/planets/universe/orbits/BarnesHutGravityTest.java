@@ -0,0 +1,78 @@
+package com.planets.planets.universe.orbits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BarnesHutGravityTest {
+
+    @Test
+    void agreesWithTheDirectSumAtASmallOpeningAngle() {
+        OrbitalBodies exact = cluster(2000);
+        OrbitalBodies approximate = cluster(2000);
+        new DirectGravity(null).accelerate(exact, 1, 0.01);
+        new BarnesHutGravity(0.2, null).accelerate(approximate, 1, 0.01);
+        assertTrue(worstRelativeError(exact, approximate) < 1e-3);
+    }
+
+    @Test
+    void aZeroOpeningAngleIsTheDirectSum() {
+        OrbitalBodies exact = cluster(300);
+        OrbitalBodies approximate = cluster(300);
+        new DirectGravity(null).accelerate(exact, 1, 0.01);
+        new BarnesHutGravity(0, null).accelerate(approximate, 1, 0.01);
+        assertTrue(worstRelativeError(exact, approximate) < 1e-9);
+    }
+
+    @Test
+    void splittingAcrossAPoolGivesTheSameAccelerations() {
+        OrbitalBodies alone = cluster(1000);
+        OrbitalBodies pooled = cluster(1000);
+        new BarnesHutGravity(BarnesHutGravity.DEFAULT_THETA, null).accelerate(alone, 1, 0.01);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new BarnesHutGravity(BarnesHutGravity.DEFAULT_THETA, pool).accelerate(pooled, 1, 0.01);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(0, worstRelativeError(alone, pooled));
+    }
+
+    @Test
+    void negativeOpeningAnglesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BarnesHutGravity(-0.1, null));
+    }
+
+    /**
+     * helper method to scatter bodies of random masses in a cube, the same ones for the same amount
+     */
+    private static OrbitalBodies cluster(int count) {
+        SplittableRandom random = new SplittableRandom(5);
+        OrbitalBodies bodies = new OrbitalBodies();
+        for (int i = 0; i < count; i++) {
+            bodies.add(random.nextDouble(0.1, 1), random.nextDouble(-10, 10), random.nextDouble(-10, 10),
+                    random.nextDouble(-10, 10), 0, 0, 0, 0);
+        }
+        return bodies;
+    }
+
+    /**
+     * helper method to find the largest error of an acceleration, relative to the exact acceleration of that body
+     */
+    private static double worstRelativeError(OrbitalBodies exact, OrbitalBodies approximate) {
+        double worst = 0;
+        for (int i = 0; i < exact.count; i++) {
+            double dx = approximate.ax[i] - exact.ax[i];
+            double dy = approximate.ay[i] - exact.ay[i];
+            double dz = approximate.az[i] - exact.az[i];
+            double length = Math.sqrt(exact.ax[i] * exact.ax[i] + exact.ay[i] * exact.ay[i] + exact.az[i] * exact.az[i]);
+            worst = Math.max(worst, Math.sqrt(dx * dx + dy * dy + dz * dz) / length);
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,44 @@
+package com.planets.planets.universe.orbits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrbitalSystemTest {
+
+    @Test
+    void theEnergyOfATwoBodyOrbitDoesNotDrift() {
+        OrbitalSystem system = new OrbitalSystem(1, 0, new DirectGravity(null));
+        int star = system.add(1, 0, 0, 0, 0, 0, 0, 0);
+        int planet = system.addOrbit(star, 1e-3, 1, 20, 30, 0);
+        double initial = system.getEnergy();
+
+        // a hundred orbits of about 630 steps each, far longer than explicit euler keeps an orbit
+        double dt = 0.01;
+        int stepsPerOrbit = (int) Math.round(2 * Math.PI * Math.sqrt(1 / (1 + 1e-3)) / dt);
+        double worst = 0;
+        for (int orbit = 0; orbit < 100; orbit++) {
+            for (int step = 0; step < stepsPerOrbit; step++) {
+                system.step(dt);
+            }
+            worst = Math.max(worst, Math.abs((system.getEnergy() - initial) / initial));
+        }
+        assertTrue(worst < 1e-6, "the energy drifted by " + worst);
+
+        // and the planet is still on its orbit
+        OrbitalBodies bodies = system.getBodies();
+        double dx = bodies.getPosition(planet, 0) - bodies.getPosition(star, 0);
+        double dy = bodies.getPosition(planet, 1) - bodies.getPosition(star, 1);
+        double dz = bodies.getPosition(planet, 2) - bodies.getPosition(star, 2);
+        assertEquals(1, Math.sqrt(dx * dx + dy * dy + dz * dz), 1e-3);
+    }
+
+    @Test
+    void orbitsNeedAPositiveRadius() {
+        OrbitalSystem system = new OrbitalSystem(1, 0, new DirectGravity(null));
+        int star = system.add(1, 0, 0, 0, 0, 0, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> system.addOrbit(star, 1, 0, 0, 0, 0));
+    }
+}
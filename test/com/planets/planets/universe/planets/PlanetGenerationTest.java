@@ -0,0 +1,79 @@
+package com.planets.planets.universe.planets;
+
+import com.planets.planets.universe.PlanetSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PlanetGenerationTest {
+
+    @Test
+    void theSameSeedGeneratesTheSamePlanet() {
+        PlanetSpec spec = new PlanetSpec(42).withDepth(3);
+        assertArrayEquals(generate(spec), generate(spec));
+        assertArrayEquals(generate(spec.withHeightfieldResolution(16)), generate(spec.withHeightfieldResolution(16)));
+
+        // and another seed doesn't
+        assertFalse(Arrays.equals(generate(spec), generate(new PlanetSpec(43).withDepth(3))));
+    }
+
+    @Test
+    void generatingInParallelMatchesGeneratingInOrder() throws Exception {
+        List<float[]> sequential = new ArrayList<>();
+        for (long seed = 0; seed < 8; seed++) {
+            sequential.add(generate(new PlanetSpec(seed).withDepth(3)));
+        }
+
+        // submitted in reverse, so the planets are generated in another order on every thread
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<float[]>> parallel = new ArrayList<>();
+            for (long seed = 7; seed >= 0; seed--) {
+                PlanetSpec spec = new PlanetSpec(seed).withDepth(3);
+                parallel.add(workers.submit(() -> generate(spec)));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertArrayEquals(sequential.get(7 - i), parallel.get(i).get());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void everyStreamIsIndependent() {
+        PlanetSpec spec = new PlanetSpec(7);
+        PlanetSpec.Stream[] streams = PlanetSpec.Stream.values();
+        for (int i = 0; i < streams.length; i++) {
+            assertEquals(spec.random(streams[i]).nextLong(), spec.random(streams[i]).nextLong());
+            for (int j = i + 1; j < streams.length; j++) {
+                assertNotEquals(spec.random(streams[i]).nextLong(), spec.random(streams[j]).nextLong());
+            }
+        }
+    }
+
+    /**
+     * helper method to generate a planet and read the position and color of every vertex
+     */
+    private static float[] generate(PlanetSpec spec) {
+        PlanetSurface surface = Planet.generateSurface(spec, new GenerationTimings());
+        int count = surface.getVertexCount();
+        float[] positions = new float[count * 3];
+        float[] colors = new float[count * 4];
+        surface.readVertices(0, count, positions, colors, new float[count * 3]);
+        float[] vertices = new float[count * 7];
+        System.arraycopy(positions, 0, vertices, 0, positions.length);
+        System.arraycopy(colors, 0, vertices, positions.length, colors.length);
+        return vertices;
+    }
+}